@@ -0,0 +1,90 @@
+package com.usmobile.userManagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usmobile.userManagement.cache.ActiveCycleCache;
+import com.usmobile.userManagement.cache.InMemoryRemoteCacheTier;
+import com.usmobile.userManagement.cache.UsageReportCache;
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.model.CycleInfo;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.repository.CycleRepository;
+import com.usmobile.userManagement.repository.DailyUsageStorageMode;
+import com.usmobile.userManagement.service.CycleService;
+import com.usmobile.userManagement.service.ReportQueryMode;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Current cycle report and cycle history of a line through CycleService, with the active cycle cache
+ * enabled as in production
+ */
+@State(Scope.Benchmark)
+public class CycleServiceBenchmark {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final int CYCLE_DAYS = 30;
+
+    /**
+     * Number of cycles of the line, the current one included
+     */
+    @Param({"12", "120"})
+    public int cycles;
+
+    /**
+     * Whether the usage report cache is enabled, when disabled every call reads the repositories
+     */
+    @Param({"false", "true"})
+    public boolean usageReportCache;
+
+    private CycleService cycleService;
+
+    @Setup
+    public void setUp() {
+        // The current cycle is half way through, earlier cycles are back to back and have a usage entry per day
+        long currentCycleStart = System.currentTimeMillis() - (CYCLE_DAYS / 2) * DAY_MILLIS;
+        List<Cycle> lineCycles = new ArrayList<>();
+        List<DailyUsage> dailyUsages = new ArrayList<>();
+        for (int i = 0; i < cycles; i++) {
+            long startDate = currentCycleStart - i * CYCLE_DAYS * DAY_MILLIS;
+            lineCycles.add(new Cycle(new ObjectId().toHexString(), MDN, startDate,
+                    startDate + CYCLE_DAYS * DAY_MILLIS - 1, USER_ID));
+            int days = i == 0 ? CYCLE_DAYS / 2 : CYCLE_DAYS;
+            for (int day = 0; day < days; day++) {
+                dailyUsages.add(new DailyUsage(new ObjectId().toHexString(), MDN, USER_ID,
+                        startDate + day * DAY_MILLIS, 100 + day));
+            }
+        }
+
+        CycleRepository cycleRepository = InMemoryRepositories.cycleRepository(lineCycles);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cycleService = new CycleService(cycleRepository, InMemoryRepositories.archivedCycleRepository(),
+                InMemoryRepositories.dailyUsageRepository(dailyUsages),
+                new ActiveCycleCache(cycleRepository, true, 100_000),
+                new UsageReportCache(new InMemoryRemoteCacheTier(), objectMapper, usageReportCache,
+                        Duration.ofSeconds(5), 10_000, Duration.ofMinutes(15)),
+                ReportQueryMode.TWO_QUERY, Duration.ofDays(31), 1, false, DailyUsageStorageMode.COLLECTION);
+    }
+
+    @Benchmark
+    public List<DailyUsageReport> getDailyUsageReport() {
+        return cycleService.getDailyUsageReport(USER_ID, MDN);
+    }
+
+    @Benchmark
+    public List<CycleInfo> getCycleHistory() {
+        return cycleService.getCycleHistory(USER_ID, MDN);
+    }
+
+}
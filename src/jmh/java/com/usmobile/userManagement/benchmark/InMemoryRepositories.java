@@ -0,0 +1,162 @@
+package com.usmobile.userManagement.benchmark;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.repository.ArchivedCycleRepository;
+import com.usmobile.userManagement.repository.CycleRepository;
+import com.usmobile.userManagement.repository.DailyUsageRepository;
+import com.usmobile.userManagement.repository.UserRepository;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory fakes of the repositories used by the benchmarks. Data is indexed per line the same way the
+ * Mongo indexes serve the queries, so the benchmarks measure the service layer rather than the fakes.
+ * Only the repository methods on the benchmarked paths are implemented, any other call fails.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /**
+     * Fake of the cycle repository serving the active cycle and cycle history lookups
+     * @param cycles cycles of all lines
+     * @return cycle repository
+     */
+    static CycleRepository cycleRepository(List<Cycle> cycles) {
+        // Cycles per line ordered by start date desc, as read through the userId_mdn_startDate_endDate index
+        Map<LineInfo, List<Cycle>> cyclesByLine = cycles.stream()
+                .sorted(Comparator.comparing(Cycle::getStartDate).reversed())
+                .collect(Collectors.groupingBy(c -> new LineInfo(c.getUserId(), c.getMdn())));
+        return fake(CycleRepository.class, (method, args) -> switch (method.getName()) {
+            case "findCurrentCycleWindowByUserIdAndMdn" -> lineCycles(cyclesByLine, args).stream()
+                    .filter(c -> c.getStartDate() <= (Long) args[2] && c.getEndDate() >= (Long) args[2])
+                    .findFirst()
+                    .map(InMemoryRepositories::toCycleWindow);
+            case "findCycleWindowsByUserIdAndMdn" -> lineCycles(cyclesByLine, args).stream()
+                    .map(InMemoryRepositories::toCycleWindow)
+                    .toList();
+            default -> throw unsupported(method);
+        });
+    }
+
+    /**
+     * Fake of an empty archive tier, the benchmarked lines have no archived cycles
+     * @return archived cycle repository
+     */
+    static ArchivedCycleRepository archivedCycleRepository() {
+        return fake(ArchivedCycleRepository.class, (method, args) -> switch (method.getName()) {
+            case "findCycleWindowsByUserIdAndMdn", "findCycleWindowPage" -> List.of();
+            case "streamCycleWindowsByUserIdAndMdn" -> Stream.empty();
+            default -> throw unsupported(method);
+        });
+    }
+
+    /**
+     * Fake of the daily usage repository serving the usage amounts of a cycle window
+     * @param dailyUsages daily usage of all lines
+     * @return daily usage repository
+     */
+    static DailyUsageRepository dailyUsageRepository(List<DailyUsage> dailyUsages) {
+        // Usage per line keyed by usage date, as read through the userId_mdn_usageDate index
+        Map<LineInfo, NavigableMap<Long, Integer>> usageByLine = dailyUsages.stream()
+                .collect(Collectors.groupingBy(du -> new LineInfo(du.getUserId(), du.getMdn()),
+                        Collectors.toMap(DailyUsage::getUsageDate, DailyUsage::getUsedInMb, Integer::sum, TreeMap::new)));
+        return fake(DailyUsageRepository.class, (method, args) -> {
+            if (!method.getName().equals("findUsageAmounts")) {
+                throw unsupported(method);
+            }
+            NavigableMap<Long, Integer> usage = usageByLine.getOrDefault(
+                    new LineInfo((String) args[0], (String) args[1]), new TreeMap<>());
+            return usage.subMap((Long) args[2], true, (Long) args[3], true).descendingMap().entrySet().stream()
+                    .map(e -> new UsageAmount(e.getKey(), e.getValue()))
+                    .toList();
+        });
+    }
+
+    /**
+     * Fake of the user repository keeping users by id, rejecting duplicate emails like the email_unique index.
+     * Emails of updated users are not released, the benchmarks do not reuse them.
+     * @return user repository
+     */
+    static UserRepository userRepository() {
+        Map<String, User> usersById = new ConcurrentHashMap<>();
+        Map<String, String> idsByEmail = new ConcurrentHashMap<>();
+        return fake(UserRepository.class, (method, args) -> switch (method.getName()) {
+            case "insert" -> {
+                User user = (User) args[0];
+                user.setId(new ObjectId().toHexString());
+                if (idsByEmail.putIfAbsent(user.getEmail(), user.getId()) != null) {
+                    throw new DuplicateKeyException("E11000 duplicate key error index: email_unique");
+                }
+                usersById.put(user.getId(), user);
+                yield user;
+            }
+            case "updateFields" -> {
+                User user = usersById.get((String) args[0]);
+                if (user == null) {
+                    yield Optional.empty();
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> fields = (Map<String, Object>) args[1];
+                String email = (String) fields.getOrDefault("email", user.getEmail());
+                String owner = idsByEmail.putIfAbsent(email, user.getId());
+                if (owner != null && !owner.equals(user.getId())) {
+                    throw new DuplicateKeyException("E11000 duplicate key error index: email_unique");
+                }
+                // A copy, the stored user is not handed out for mutation
+                User updated = new User(user.getId(), (String) fields.getOrDefault("firstName", user.getFirstName()),
+                        (String) fields.getOrDefault("lastName", user.getLastName()), email, user.getPassword());
+                usersById.put(updated.getId(), updated);
+                yield Optional.of(updated);
+            }
+            default -> throw unsupported(method);
+        });
+    }
+
+    private static List<Cycle> lineCycles(Map<LineInfo, List<Cycle>> cyclesByLine, Object[] args) {
+        return cyclesByLine.getOrDefault(new LineInfo((String) args[0], (String) args[1]), List.of());
+    }
+
+    private static CycleWindow toCycleWindow(Cycle cycle) {
+        return new CycleWindow(cycle.getId(), cycle.getStartDate(), cycle.getEndDate());
+    }
+
+    private static <T> T fake(Class<T> repositoryType, BiFunction<Method, Object[], Object> handler) {
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(),
+                new Class<?>[]{repositoryType}, (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "equals" -> proxy == args[0];
+                            case "hashCode" -> System.identityHashCode(proxy);
+                            default -> "In-memory " + repositoryType.getSimpleName();
+                        };
+                    }
+                    return handler.apply(method, args);
+                }));
+    }
+
+    private static UnsupportedOperationException unsupported(Method method) {
+        return new UnsupportedOperationException(String.format("%s is not implemented by the in-memory fake",
+                method.getName()));
+    }
+
+}
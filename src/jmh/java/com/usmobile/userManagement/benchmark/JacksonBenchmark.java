@@ -0,0 +1,68 @@
+package com.usmobile.userManagement.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Jackson serialization of the daily usage report, as written to the response body and to the remote
+ * cache tier, and deserialization as read back from the remote cache tier
+ */
+@State(Scope.Benchmark)
+public class JacksonBenchmark {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    /**
+     * Number of usage days in the report
+     */
+    @Param({"31", "365"})
+    public int size;
+
+    private ObjectWriter reportWriter;
+
+    private ObjectReader reportReader;
+
+    private List<DailyUsageReport> report;
+
+    private byte[] reportJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        reportWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, DailyUsageReport.class));
+        reportReader = objectMapper.readerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, DailyUsageReport.class));
+        long now = System.currentTimeMillis();
+        report = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            report.add(new DailyUsageReport(new Date(now - i * DAY_MILLIS), 100 + i));
+        }
+        reportJson = reportWriter.writeValueAsBytes(report);
+    }
+
+    @Benchmark
+    public byte[] serializeDailyUsageReport() throws JsonProcessingException {
+        return reportWriter.writeValueAsBytes(report);
+    }
+
+    @Benchmark
+    public List<DailyUsageReport> deserializeDailyUsageReport() throws IOException {
+        return reportReader.readValue(reportJson);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.usmobile.userManagement.benchmark;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.model.CycleInfo;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Mapping streams from repository results to the response records, for both the projected reads used by
+ * CycleService and full entity reads
+ */
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    /**
+     * Number of usage days and cycles mapped per operation
+     */
+    @Param({"31", "365"})
+    public int size;
+
+    private List<UsageAmount> usageAmounts;
+
+    private List<DailyUsage> dailyUsages;
+
+    private List<CycleWindow> cycleWindows;
+
+    private List<Cycle> cycles;
+
+    @Setup
+    public void setUp() {
+        long now = System.currentTimeMillis();
+        usageAmounts = new ArrayList<>();
+        dailyUsages = new ArrayList<>();
+        cycleWindows = new ArrayList<>();
+        cycles = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            long date = now - i * DAY_MILLIS;
+            String id = new ObjectId().toHexString();
+            usageAmounts.add(new UsageAmount(date, 100 + i));
+            dailyUsages.add(new DailyUsage(id, MDN, USER_ID, date, 100 + i));
+            cycleWindows.add(new CycleWindow(id, date - 30 * DAY_MILLIS, date));
+            cycles.add(new Cycle(id, MDN, date - 30 * DAY_MILLIS, date, USER_ID));
+        }
+    }
+
+    @Benchmark
+    public List<DailyUsageReport> usageAmountsToDailyUsageReport() {
+        return usageAmounts.stream().map(ua -> new DailyUsageReport(new Date(ua.usageDate()), ua.usedInMb())).toList();
+    }
+
+    @Benchmark
+    public List<DailyUsageReport> dailyUsageEntitiesToDailyUsageReport() {
+        return dailyUsages.stream().map(du -> new DailyUsageReport(new Date(du.getUsageDate()), du.getUsedInMb()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<CycleInfo> cycleWindowsToCycleInfo() {
+        return cycleWindows.stream()
+                .map(cycle -> new CycleInfo(cycle.id(), new Date(cycle.startDate()), new Date(cycle.endDate())))
+                .toList();
+    }
+
+    @Benchmark
+    public List<CycleInfo> cycleEntitiesToCycleInfo() {
+        return cycles.stream()
+                .map(cycle -> new CycleInfo(cycle.getId(), new Date(cycle.getStartDate()), new Date(cycle.getEndDate())))
+                .toList();
+    }
+
+}
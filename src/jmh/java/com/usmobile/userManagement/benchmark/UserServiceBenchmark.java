@@ -0,0 +1,72 @@
+package com.usmobile.userManagement.benchmark;
+
+import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.UpdateUserRequest;
+import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * User creation and update through UserService. The plain password encoder isolates the cost of the
+ * service and mapping code from the cost of hashing.
+ */
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    /**
+     * Password encoder used on creation, bcrypt is the encoder of the application
+     */
+    @Param({"plain", "bcrypt"})
+    public String passwordEncoder;
+
+    private UserService userService;
+
+    private UpdateUserRequest updateRequest;
+
+    private long sequence;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // A fresh store per iteration keeps the created users from piling up across iterations
+        PasswordEncoder encoder = passwordEncoder.equals("bcrypt")
+                ? new BCryptPasswordEncoder()
+                : new PlainPasswordEncoder();
+        userService = new UserService(InMemoryRepositories.userRepository(), encoder);
+        UserResponse user = userService.createUser(new CreateUserRequest("John", "Doe", "john.doe@usmobile.com",
+                "password123"));
+        updateRequest = new UpdateUserRequest(user.id(), "Jane", "Doe", user.email());
+    }
+
+    @Benchmark
+    public UserResponse createUser() {
+        return userService.createUser(new CreateUserRequest("John", "Doe",
+                "user" + (sequence++) + "@usmobile.com", "password123"));
+    }
+
+    @Benchmark
+    public UserResponse updateUser() {
+        return userService.updateUser(updateRequest);
+    }
+
+    private static final class PlainPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+
+    }
+
+}
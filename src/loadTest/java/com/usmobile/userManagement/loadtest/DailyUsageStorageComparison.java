@@ -0,0 +1,149 @@
+package com.usmobile.userManagement.loadtest;
+
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.DailyUsageMeasurement;
+import com.usmobile.userManagement.model.DailyUsageMigrationResult;
+import com.usmobile.userManagement.repository.DailyUsageRepositoryCustomImpl;
+import com.usmobile.userManagement.repository.DailyUsageStorageMode;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import com.usmobile.userManagement.service.DailyUsageMigrationService;
+import org.HdrHistogram.Histogram;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Daily_Usage collection with the Daily_Usage_TS time-series collection on the same data: the
+ * seeded daily usage is migrated to the time-series collection, then the storage and index sizes of both
+ * collections are read from collStats and the 30 day range query of the usage report is run alternately
+ * against both layouts. Run with ./gradlew loadTest, the report is written to build/reports/loadtest.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "usage.storage.mode=TIME_SERIES", "mongodb.indexes.provisioning.background=false"})
+@Testcontainers
+public class DailyUsageStorageComparison {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyUsageStorageComparison.class);
+
+    private static final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DailyUsageMigrationService dailyUsageMigrationService;
+
+    @Test
+    void compareStorageModes() throws IOException {
+        SeededData seededData = new LoadTestDataSeeder(mongoTemplate).seed(settings.users());
+        DailyUsageMigrationResult migration = dailyUsageMigrationService.migrate();
+        Assertions.assertEquals((long) settings.users() * LoadTestDataSeeder.USAGE_DAYS_PER_LINE, migration.copied());
+
+        Map<DailyUsageStorageMode, DailyUsageRepositoryCustomImpl> repositories =
+                new EnumMap<>(DailyUsageStorageMode.class);
+        Map<DailyUsageStorageMode, Histogram> histograms = new EnumMap<>(DailyUsageStorageMode.class);
+        for (DailyUsageStorageMode mode : DailyUsageStorageMode.values()) {
+            repositories.put(mode, new DailyUsageRepositoryCustomImpl(mongoTemplate, mode));
+            histograms.put(mode, new Histogram(3));
+        }
+
+        queryAlternately(seededData, repositories, histograms, settings.warmup());
+        histograms.values().forEach(Histogram::reset);
+        queryAlternately(seededData, repositories, histograms, settings.duration());
+
+        StringBuilder summary = new StringBuilder()
+                .append("# daily-usage-storage\n\n")
+                .append(String.format("%d users, %d daily usage documents migrated in %d ms, "
+                                + "30 day range queries for %s%n%n", settings.users(), migration.copied(),
+                        migration.elapsedMillis(), settings.duration()))
+                .append("| Layout | Collection | Storage size (MiB) | Index size (MiB) | Queries | p50 (ms) "
+                        + "| p99 (ms) | p99.9 (ms) | Max (ms) |\n")
+                .append("|---|---|---:|---:|---:|---:|---:|---:|---:|\n");
+        for (DailyUsageStorageMode mode : DailyUsageStorageMode.values()) {
+            String collection = mongoTemplate.getCollectionName(mode == DailyUsageStorageMode.TIME_SERIES
+                    ? DailyUsageMeasurement.class : DailyUsage.class);
+            Document stats = mongoTemplate.getDb().runCommand(new Document("collStats", collection));
+            Histogram histogram = histograms.get(mode);
+            summary.append(String.format(Locale.ROOT, "| %s | %s | %.1f | %.1f | %d | %.2f | %.2f | %.2f | %.2f |%n",
+                    mode, collection, mebibytes(stats, "storageSize"), mebibytes(stats, "totalIndexSize"),
+                    histogram.getTotalCount(),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+        }
+
+        Files.createDirectories(settings.reportDir());
+        Path summaryFile = settings.reportDir().resolve("daily-usage-storage.md");
+        Files.writeString(summaryFile, summary);
+        logger.info("Daily usage storage comparison written to {}\n{}", summaryFile, summary);
+    }
+
+    /**
+     * Query the last 30 days of usage of random lines, alternating the layouts so that both see the same
+     * cache and container conditions. Both layouts must return the same usage.
+     */
+    private static void queryAlternately(SeededData seededData,
+                                         Map<DailyUsageStorageMode, DailyUsageRepositoryCustomImpl> repositories,
+                                         Map<DailyUsageStorageMode, Histogram> histograms, Duration duration) {
+        long today = LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        long deadline = System.nanoTime() + duration.toNanos();
+        while (System.nanoTime() < deadline) {
+            int line = ThreadLocalRandom.current().nextInt(seededData.users());
+            List<UsageAmount> previous = null;
+            for (DailyUsageStorageMode mode : DailyUsageStorageMode.values()) {
+                long start = System.nanoTime();
+                List<UsageAmount> usageAmounts = repositories.get(mode).findUsageAmounts(seededData.userId(line),
+                        SeededData.mdn(line), today - 29 * DAY_MILLIS, today);
+                histograms.get(mode).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                if (previous != null) {
+                    Assertions.assertEquals(previous, usageAmounts, "Layouts returned different usage");
+                }
+                previous = usageAmounts;
+            }
+        }
+    }
+
+    private static double mebibytes(Document stats, String field) {
+        return stats.get(field, Number.class).doubleValue() / (1024 * 1024);
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+
+}
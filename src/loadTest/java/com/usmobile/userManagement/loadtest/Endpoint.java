@@ -0,0 +1,42 @@
+package com.usmobile.userManagement.loadtest;
+
+/**
+ * Endpoints driven by the workload generator, with their share of the request mix in percent
+ */
+enum Endpoint {
+
+    CURRENT_CYCLE_REPORT("GET /api/v1/current-cycle-report", 60),
+    CYCLE_HISTORY("GET /api/v1/cycle-history", 30),
+    CREATE_USER("POST /api/v1/user", 5),
+    UPDATE_USER("PUT /api/v1/user", 5);
+
+    private final String label;
+
+    private final int weight;
+
+    Endpoint(String label, int weight) {
+        this.label = label;
+        this.weight = weight;
+    }
+
+    String label() {
+        return label;
+    }
+
+    /**
+     * Pick an endpoint by weight
+     * @param percentile uniformly distributed value between 0 (inclusive) and 100 (exclusive)
+     * @return the endpoint whose share of the mix covers the value
+     */
+    static Endpoint pick(int percentile) {
+        int cumulative = 0;
+        for (Endpoint endpoint : values()) {
+            cumulative += endpoint.weight;
+            if (percentile < cumulative) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Percentile must be between 0 and 99, got " + percentile);
+    }
+
+}
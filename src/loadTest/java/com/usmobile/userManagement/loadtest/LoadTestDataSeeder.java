@@ -0,0 +1,99 @@
+package com.usmobile.userManagement.loadtest;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.User;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Seeds the User, Cycle and Daily_Usage collections at the ratios assumed in DESIGN.md: 1 million users,
+ * 10 million cycles and 50 million daily usage documents, i.e. 10 cycles and 50 days of usage per line
+ */
+class LoadTestDataSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+
+    static final int CYCLES_PER_LINE = 10;
+    static final int USAGE_DAYS_PER_LINE = 50;
+    private static final int CYCLE_DAYS = 30;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final int BATCH_SIZE = 10_000;
+
+    MongoTemplate mongoTemplate;
+
+    LoadTestDataSeeder(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Seed the data set, each user has one line whose current cycle started 15 days ago
+     * @param users number of users to seed
+     * @return the seeded users and lines
+     */
+    SeededData seed(int users) {
+        long startedAt = System.nanoTime();
+        // Seeded users share one hash, hashing a million passwords would dominate the seeding time
+        String passwordHash = new BCryptPasswordEncoder().encode("load-test-password");
+        long today = LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        long currentCycleStart = today - (CYCLE_DAYS / 2) * DAY_MILLIS;
+
+        List<String> userIds = new ArrayList<>(users);
+        List<User> userBatch = new ArrayList<>(BATCH_SIZE);
+        List<Cycle> cycleBatch = new ArrayList<>(BATCH_SIZE);
+        List<DailyUsage> usageBatch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < users; i++) {
+            String userId = new ObjectId().toHexString();
+            String mdn = SeededData.mdn(i);
+            userIds.add(userId);
+            userBatch.add(new User(userId, "Load", "Test", SeededData.email(i), passwordHash));
+            for (int c = 0; c < CYCLES_PER_LINE; c++) {
+                long startDate = currentCycleStart - (long) c * CYCLE_DAYS * DAY_MILLIS;
+                cycleBatch.add(new Cycle(null, mdn, startDate, startDate + CYCLE_DAYS * DAY_MILLIS - 1, userId));
+            }
+            for (int d = 0; d < USAGE_DAYS_PER_LINE; d++) {
+                usageBatch.add(new DailyUsage(null, mdn, userId, today - d * DAY_MILLIS,
+                        ThreadLocalRandom.current().nextInt(0, 2048)));
+            }
+            insertIfFull(userBatch, User.class);
+            insertIfFull(cycleBatch, Cycle.class);
+            insertIfFull(usageBatch, DailyUsage.class);
+            if ((i + 1) % 100_000 == 0) {
+                logger.info("Seeded {} of {} users", i + 1, users);
+            }
+        }
+        insert(userBatch, User.class);
+        insert(cycleBatch, Cycle.class);
+        insert(usageBatch, DailyUsage.class);
+
+        logger.info("Seeded {} users, {} cycles and {} daily usage documents in {} ms", users,
+                (long) users * CYCLES_PER_LINE, (long) users * USAGE_DAYS_PER_LINE,
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return new SeededData(userIds);
+    }
+
+    private void insertIfFull(List<?> batch, Class<?> entityClass) {
+        if (batch.size() >= BATCH_SIZE) {
+            insert(batch, entityClass);
+        }
+    }
+
+    private void insert(List<?> batch, Class<?> entityClass) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass).insert(batch).execute();
+        batch.clear();
+    }
+
+}
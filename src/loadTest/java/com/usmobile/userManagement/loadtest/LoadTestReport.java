@@ -0,0 +1,74 @@
+package com.usmobile.userManagement.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Writes the result of a workload run: a markdown summary with the throughput and the p50, p99, p99.9 and
+ * max latency per endpoint, and the full percentile distribution of each endpoint as an .hgrm file that can
+ * be plotted with the HdrHistogram plotter
+ */
+class LoadTestReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestReport.class);
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    Path reportDir;
+
+    LoadTestReport(Path reportDir) {
+        this.reportDir = reportDir;
+    }
+
+    /**
+     * Write the report of a workload run
+     * @param workload name of the workload, prefixes the report files
+     * @param description settings of the run, written above the summary
+     * @param latencyRecorder latencies recorded during the run
+     * @param elapsed duration of the run
+     * @return path of the summary
+     */
+    Path write(String workload, String description, LatencyRecorder latencyRecorder, Duration elapsed)
+            throws IOException {
+        Files.createDirectories(reportDir);
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        StringBuilder summary = new StringBuilder()
+                .append("# ").append(workload).append("\n\n")
+                .append(description).append("\n\n")
+                .append("| Endpoint | Requests | Errors | Throughput (req/s) | p50 (ms) | p99 (ms) | p99.9 (ms) | Max (ms) |\n")
+                .append("|---|---:|---:|---:|---:|---:|---:|---:|\n");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = latencyRecorder.histogram(endpoint);
+            summary.append(String.format(Locale.ROOT, "| %s | %d | %d | %.1f | %.2f | %.2f | %.2f | %.2f |%n",
+                    endpoint.label(), histogram.getTotalCount(), latencyRecorder.errors(endpoint),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+            Path distribution = reportDir.resolve(workload + "-" + endpoint.name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(distribution))) {
+                // Latencies are recorded in microseconds, the distribution is written in milliseconds
+                histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+
+        Path summaryFile = reportDir.resolve(workload + ".md");
+        Files.writeString(summaryFile, summary);
+        logger.info("Load test report of {} written to {}\n{}", workload, summaryFile, summary);
+        return summaryFile;
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.usmobile.userManagement.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Load test settings, read from the loadtest.* system properties. The defaults are scaled down to run in CI,
+ * loadtest.users=1000000 seeds the data set sizes assumed in DESIGN.md.
+ * @param users number of users to seed, each with one line, its cycles and daily usage
+ * @param warmup duration of the workload run before latencies are recorded
+ * @param duration duration of the recorded workload run
+ * @param concurrency number of concurrent clients of the closed loop workload
+ * @param ratePerSecond arrival rate of the open loop workload
+ * @param maxInFlight maximum number of outstanding requests of the open loop workload
+ * @param virtualThreads whether the application serves requests on virtual threads rather than the Tomcat pool
+ * @param reportDir directory the report is written to
+ */
+record LoadTestSettings(
+        int users,
+        Duration warmup,
+        Duration duration,
+        int concurrency,
+        int ratePerSecond,
+        int maxInFlight,
+        boolean virtualThreads,
+        Path reportDir
+) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.users", 1000),
+                duration("loadtest.warmup", "5s"),
+                duration("loadtest.duration", "30s"),
+                Integer.getInteger("loadtest.concurrency", 16),
+                Integer.getInteger("loadtest.rate", 200),
+                Integer.getInteger("loadtest.max-in-flight", 256),
+                "virtual".equalsIgnoreCase(System.getProperty("loadtest.threads", "platform")),
+                Path.of(System.getProperty("loadtest.report-dir", "build/reports/loadtest")));
+    }
+
+    /**
+     * @return name of the request thread mode, suffixed to the report names so both modes can be compared
+     */
+    String threadMode() {
+        return virtualThreads ? "virtual" : "platform";
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+
+}
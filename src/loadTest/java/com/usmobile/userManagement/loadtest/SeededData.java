@@ -0,0 +1,27 @@
+package com.usmobile.userManagement.loadtest;
+
+import java.util.List;
+
+/**
+ * Users seeded by LoadTestDataSeeder. The user at index i owns the line with mdn(i) and has email(i).
+ * @param userIds ids of the seeded users
+ */
+record SeededData(List<String> userIds) {
+
+    int users() {
+        return userIds.size();
+    }
+
+    String userId(int index) {
+        return userIds.get(index);
+    }
+
+    static String mdn(int index) {
+        return String.format("%010d", 2_000_000_000L + index);
+    }
+
+    static String email(int index) {
+        return String.format("user%d@loadtest.usmobile.com", index);
+    }
+
+}
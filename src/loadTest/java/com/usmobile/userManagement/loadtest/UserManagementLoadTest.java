@@ -0,0 +1,97 @@
+package com.usmobile.userManagement.loadtest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * End-to-end load test of the REST endpoints. The application runs on a random port against a MongoDB
+ * container seeded with LoadTestSettings.users() users, and each workload is run for the warmup duration
+ * before its latencies are recorded. Run with ./gradlew loadTest, the report is written to build/reports/loadtest.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UserManagementLoadTest {
+
+    private static final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+        registry.add("spring.threads.virtual.enabled", settings::virtualThreads);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private SeededData seededData;
+
+    private HttpClient httpClient;
+
+    @BeforeAll
+    void seed() {
+        seededData = new LoadTestDataSeeder(mongoTemplate).seed(settings.users());
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Test
+    void closedLoop() throws Exception {
+        LatencyRecorder latencyRecorder = new LatencyRecorder();
+        WorkloadGenerator workloadGenerator = workloadGenerator(latencyRecorder);
+
+        workloadGenerator.runClosedLoop(settings.concurrency(), settings.warmup());
+        latencyRecorder.reset();
+        Duration elapsed = workloadGenerator.runClosedLoop(settings.concurrency(), settings.duration());
+
+        new LoadTestReport(settings.reportDir()).write("closed-loop-" + settings.threadMode(), String.format(
+                "%d users, %d concurrent clients for %s, %s request threads", settings.users(),
+                settings.concurrency(), settings.duration(), settings.threadMode()), latencyRecorder, elapsed);
+        Assertions.assertEquals(0, latencyRecorder.totalErrors(), "Failed requests");
+    }
+
+    @Test
+    void openLoop() throws Exception {
+        LatencyRecorder latencyRecorder = new LatencyRecorder();
+        WorkloadGenerator workloadGenerator = workloadGenerator(latencyRecorder);
+
+        workloadGenerator.runOpenLoop(settings.ratePerSecond(), settings.maxInFlight(), settings.warmup());
+        latencyRecorder.reset();
+        Duration elapsed = workloadGenerator.runOpenLoop(settings.ratePerSecond(), settings.maxInFlight(),
+                settings.duration());
+
+        new LoadTestReport(settings.reportDir()).write("open-loop-" + settings.threadMode(), String.format(
+                "%d users, %d requests per second for %s, at most %d in flight, %s request threads",
+                settings.users(), settings.ratePerSecond(), settings.duration(), settings.maxInFlight(),
+                settings.threadMode()), latencyRecorder, elapsed);
+        Assertions.assertEquals(0, latencyRecorder.totalErrors(), "Failed requests");
+    }
+
+    private WorkloadGenerator workloadGenerator(LatencyRecorder latencyRecorder) {
+        return new WorkloadGenerator(httpClient, URI.create("http://localhost:" + port), seededData, latencyRecorder);
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.usmobile.userManagement.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the REST endpoints with the request mix of Endpoint, against lines and users picked uniformly
+ * from the seeded data.
+ * The closed loop workload runs a fixed number of clients that each send the next request once the previous
+ * one completed, it measures the throughput the service sustains. The open loop workload sends requests at a
+ * fixed arrival rate whatever the response times, and measures each latency from the time the request was
+ * due rather than sent, so a stalled service is not hidden by the generator waiting on it.
+ */
+class WorkloadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadGenerator.class);
+
+    private static final String JSON = "application/json";
+
+    HttpClient httpClient;
+
+    URI baseUri;
+
+    SeededData seededData;
+
+    LatencyRecorder latencyRecorder;
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong createdUsers = new AtomicLong();
+
+    WorkloadGenerator(HttpClient httpClient, URI baseUri, SeededData seededData, LatencyRecorder latencyRecorder) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.seededData = seededData;
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    /**
+     * Run the closed loop workload
+     * @param concurrency number of concurrent clients
+     * @param duration how long to run
+     * @return the elapsed time
+     */
+    Duration runClosedLoop(int concurrency, Duration duration) throws InterruptedException {
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + duration.toNanos();
+        List<Thread> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread client = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    Endpoint endpoint = Endpoint.pick(ThreadLocalRandom.current().nextInt(100));
+                    long sentAt = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request(endpoint),
+                                HttpResponse.BodyHandlers.discarding());
+                        latencyRecorder.record(endpoint, System.nanoTime() - sentAt, isSuccess(response));
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception ex) {
+                        logger.debug("Request to {} failed", endpoint.label(), ex);
+                        latencyRecorder.record(endpoint, System.nanoTime() - sentAt, false);
+                    }
+                }
+            }, "load-client-" + i);
+            client.start();
+            clients.add(client);
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        return Duration.ofNanos(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * Run the open loop workload
+     * @param ratePerSecond arrival rate of the requests
+     * @param maxInFlight maximum number of outstanding requests, further requests wait for a slot and the wait
+     *                    is part of their latency
+     * @param duration how long to send requests for
+     * @return the elapsed time, including the wait for the outstanding requests
+     */
+    Duration runOpenLoop(int ratePerSecond, int maxInFlight, Duration duration) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = 1_000_000_000L / ratePerSecond;
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long dueAt = startedAt + i * intervalNanos;
+            if (dueAt >= deadline) {
+                break;
+            }
+            long wait = dueAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = Endpoint.pick(ThreadLocalRandom.current().nextInt(100));
+            inFlight.acquire();
+            httpClient.sendAsync(request(endpoint), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        if (ex != null) {
+                            logger.debug("Request to {} failed", endpoint.label(), ex);
+                        }
+                        boolean success = ex == null && isSuccess(response);
+                        latencyRecorder.record(endpoint, System.nanoTime() - dueAt, success);
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(maxInFlight);
+        return Duration.ofNanos(System.nanoTime() - startedAt);
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        int index = ThreadLocalRandom.current().nextInt(seededData.users());
+        String userId = seededData.userId(index);
+        return switch (endpoint) {
+            case CURRENT_CYCLE_REPORT -> get("/api/v1/current-cycle-report", userId, SeededData.mdn(index));
+            case CYCLE_HISTORY -> get("/api/v1/cycle-history", userId, SeededData.mdn(index));
+            case CREATE_USER -> HttpRequest.newBuilder(baseUri.resolve("/api/v1/user"))
+                    .header("Content-Type", JSON)
+                    .POST(HttpRequest.BodyPublishers.ofString(String.format(
+                            "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"email\":\"%s-%d@loadtest.usmobile.com\","
+                                    + "\"password\":\"load-test-password\"}", runId, createdUsers.incrementAndGet())))
+                    .build();
+            case UPDATE_USER -> HttpRequest.newBuilder(baseUri.resolve("/api/v1/user"))
+                    .header("Content-Type", JSON)
+                    .PUT(HttpRequest.BodyPublishers.ofString(String.format(
+                            "{\"id\":\"%s\",\"firstName\":\"Load\",\"lastName\":\"Test%d\",\"email\":\"%s\"}",
+                            userId, ThreadLocalRandom.current().nextInt(1000), SeededData.email(index))))
+                    .build();
+        };
+    }
+
+    private HttpRequest get(String path, String userId, String mdn) {
+        String query = "?userId=" + URLEncoder.encode(userId, StandardCharsets.UTF_8)
+                + "&mdn=" + URLEncoder.encode(mdn, StandardCharsets.UTF_8);
+        return HttpRequest.newBuilder(baseUri.resolve(path + query))
+                .header("Accept", JSON)
+                .GET()
+                .build();
+    }
+
+    private static boolean isSuccess(HttpResponse<?> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+}
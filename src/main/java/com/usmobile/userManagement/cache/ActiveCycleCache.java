@@ -0,0 +1,143 @@
+package com.usmobile.userManagement.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.repository.CycleRepository;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Active Cycle Cache
+ * Bounded in-memory cache of the active cycle window per line (userId, mdn). A line's active cycle only
+ * changes when the cycle ends, so each entry expires exactly at the end date of the cached cycle and the
+ * Cycle collection is queried roughly once per line per cycle.
+ */
+@Component
+public class ActiveCycleCache {
+
+    CycleRepository cycleRepository;
+
+    boolean enabled;
+
+    private final Cache<LineInfo, CycleWindow> cache;
+
+    @Autowired
+    public ActiveCycleCache(CycleRepository cycleRepository,
+                            @Value("${cache.active-cycle.enabled:true}") boolean enabled,
+                            @Value("${cache.active-cycle.maximum-size:100000}") long maximumSize) {
+        this.cycleRepository = cycleRepository;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new CycleEndExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get the active cycle of the line, loading it from the Cycle collection on a miss.
+     * Concurrent misses for the same line share a single query; lines without an active cycle are not cached.
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @return an optional of the active cycle window
+     */
+    public Optional<CycleWindow> getActiveCycle(String userId, String mdn) {
+        if (!enabled) {
+            return cycleRepository.findCurrentCycleWindowByUserIdAndMdn(userId, mdn, System.currentTimeMillis());
+        }
+        return Optional.ofNullable(cache.get(new LineInfo(userId, mdn), line -> cycleRepository
+                .findCurrentCycleWindowByUserIdAndMdn(userId, mdn, System.currentTimeMillis())
+                .orElse(null)));
+    }
+
+    /**
+     * Get the active cycle of the line if it is cached, without querying the Cycle collection
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @return an optional of the cached active cycle window
+     */
+    public Optional<CycleWindow> getIfPresent(String userId, String mdn) {
+        return Optional.ofNullable(cache.getIfPresent(new LineInfo(userId, mdn)));
+    }
+
+    /**
+     * Cache the active cycle of the line, loaded by a caller that looked up many lines at once
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param cycle active cycle window of the line
+     */
+    public void put(String userId, String mdn, CycleWindow cycle) {
+        if (enabled) {
+            cache.put(new LineInfo(userId, mdn), cycle);
+        }
+    }
+
+    /**
+     * Evict the cached active cycle of the line
+     * @param userId user id
+     * @param mdn mdn of the user
+     */
+    public void evict(String userId, String mdn) {
+        cache.invalidate(new LineInfo(userId, mdn));
+    }
+
+    /**
+     * Evict all cached active cycles
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Get the hit, miss, load and eviction statistics of the cache
+     * @return cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Get the approximate number of cached lines
+     * @return estimated number of entries
+     */
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Expires each entry when its cycle ends. End dates are inclusive, so the entry stays valid up to and
+     * including the end date millisecond.
+     */
+    static final class CycleEndExpiry implements Expiry<LineInfo, CycleWindow> {
+
+        @Override
+        public long expireAfterCreate(LineInfo line, CycleWindow cycle, long currentTime) {
+            return untilCycleEnd(cycle);
+        }
+
+        @Override
+        public long expireAfterUpdate(LineInfo line, CycleWindow cycle, long currentTime, long currentDuration) {
+            return untilCycleEnd(cycle);
+        }
+
+        @Override
+        public long expireAfterRead(LineInfo line, CycleWindow cycle, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private static long untilCycleEnd(CycleWindow cycle) {
+            long remainingMillis = cycle.endDate() + 1 - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.usmobile.userManagement.cache;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.MongoMappingEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached reads when cycles or usage are written.
+ * Saved cycles and daily usages are translated into a LineDataChangedEvent for their line; deletes only
+ * carry the delete query, so they evict the line the query is scoped to, or every line when it has none.
+ */
+@Component
+public class CacheEvictionListener {
+
+    ActiveCycleCache activeCycleCache;
+
+    UsageReportCache usageReportCache;
+
+    ApplicationEventPublisher eventPublisher;
+
+    String cycleCollection;
+
+    String dailyUsageCollection;
+
+    @Autowired
+    public CacheEvictionListener(ActiveCycleCache activeCycleCache, UsageReportCache usageReportCache,
+                                 ApplicationEventPublisher eventPublisher, MongoTemplate mongoTemplate) {
+        this.activeCycleCache = activeCycleCache;
+        this.usageReportCache = usageReportCache;
+        this.eventPublisher = eventPublisher;
+        this.cycleCollection = mongoTemplate.getCollectionName(Cycle.class);
+        this.dailyUsageCollection = mongoTemplate.getCollectionName(DailyUsage.class);
+    }
+
+    @EventListener
+    public void onMongoMappingEvent(MongoMappingEvent<?> event) {
+        boolean cycleEvent = cycleCollection.equals(event.getCollectionName());
+        if (!cycleEvent && !dailyUsageCollection.equals(event.getCollectionName())) {
+            return;
+        }
+        if (event instanceof AfterSaveEvent<?>) {
+            if (event.getSource() instanceof Cycle cycle) {
+                eventPublisher.publishEvent(LineDataChangedEvent.cycles(cycle.getUserId(), cycle.getMdn()));
+            } else if (event.getSource() instanceof DailyUsage dailyUsage) {
+                eventPublisher.publishEvent(LineDataChangedEvent.usage(dailyUsage.getUserId(), dailyUsage.getMdn()));
+            }
+        } else if (event instanceof AfterDeleteEvent<?> deleteEvent) {
+            LineDataChangedEvent.fromDeleteQuery(deleteEvent.getDocument(), cycleEvent).ifPresentOrElse(
+                    eventPublisher::publishEvent,
+                    () -> {
+                        if (cycleEvent) {
+                            activeCycleCache.evictAll();
+                        }
+                        usageReportCache.evictAll();
+                    });
+        }
+    }
+
+    @EventListener
+    public void onLineDataChanged(LineDataChangedEvent event) {
+        if (event.cyclesChanged()) {
+            activeCycleCache.evict(event.userId(), event.mdn());
+        }
+        usageReportCache.evict(event);
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.usmobile.userManagement.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Cache Metrics
+ * Publishes the statistics shown at /actuator/cachestats as meters, tagged with the same cache names: cache.gets
+ * by result (hit or miss), cache.hit.ratio, cache.evictions and cache.size. The meters read the cache statistics
+ * when they are scraped, nothing is recorded on the lookups themselves.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    ActiveCycleCache activeCycleCache;
+
+    UsageReportCache usageReportCache;
+
+    @Autowired
+    public CacheMetrics(ActiveCycleCache activeCycleCache, UsageReportCache usageReportCache) {
+        this.activeCycleCache = activeCycleCache;
+        this.usageReportCache = usageReportCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "activeCycle", activeCycleCache, ActiveCycleCache::stats, ActiveCycleCache::estimatedSize);
+        bind(registry, "usageReportNear", usageReportCache, UsageReportCache::nearCacheStats,
+                UsageReportCache::nearCacheSize);
+        // The size of the remote tier is not known
+        bind(registry, "usageReportRemote", usageReportCache, UsageReportCache::remoteTierStats, null);
+    }
+
+    /**
+     * Register the meters of one cache. The cache is the meters' state, it is a singleton bean so it is never
+     * garbage collected while the registry holds it weakly.
+     */
+    private static <T> void bind(MeterRegistry registry, String name, T cache, Function<T, CacheStats> stats,
+                                 ToDoubleFunction<T> size) {
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).hitCount())
+                .tags("cache", name, "result", "hit")
+                .description("Lookups served from the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).missCount())
+                .tags("cache", name, "result", "miss")
+                .description("Lookups that were not in the cache")
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", cache, c -> stats.apply(c).hitRate())
+                .tag("cache", name)
+                .description("Ratio of hits to lookups since startup")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, c -> stats.apply(c).evictionCount())
+                .tag("cache", name)
+                .description("Entries evicted by size or expiry")
+                .register(registry);
+        if (size != null) {
+            Gauge.builder("cache.size", cache, size)
+                    .tag("cache", name)
+                    .description("Approximate number of entries")
+                    .register(registry);
+        }
+    }
+
+}
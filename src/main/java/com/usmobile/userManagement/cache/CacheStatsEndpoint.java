@@ -0,0 +1,59 @@
+package com.usmobile.userManagement.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the hit, miss and eviction statistics of the in-process caches at /actuator/cachestats
+ */
+@Component
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+
+    ActiveCycleCache activeCycleCache;
+
+    UsageReportCache usageReportCache;
+
+    @Autowired
+    public CacheStatsEndpoint(ActiveCycleCache activeCycleCache, UsageReportCache usageReportCache) {
+        this.activeCycleCache = activeCycleCache;
+        this.usageReportCache = usageReportCache;
+    }
+
+    @ReadOperation
+    public Map<String, CacheStatsView> cacheStats() {
+        Map<String, CacheStatsView> stats = new LinkedHashMap<>();
+        stats.put("activeCycle", CacheStatsView.of(activeCycleCache.estimatedSize(), activeCycleCache.stats()));
+        stats.put("usageReportNear", CacheStatsView.of(usageReportCache.nearCacheSize(),
+                usageReportCache.nearCacheStats()));
+        stats.put("usageReportRemote", CacheStatsView.of(-1, usageReportCache.remoteTierStats()));
+        return stats;
+    }
+
+    /**
+     * Statistics of a single cache
+     * @param size approximate number of entries, -1 when unknown
+     * @param hitCount number of lookups served from the cache
+     * @param missCount number of lookups that were not in the cache
+     * @param hitRate ratio of hits to lookups
+     * @param loadCount number of loads from the database
+     * @param averageLoadPenaltyMillis average time spent loading an entry
+     * @param evictionCount number of entries evicted by size or expiry
+     */
+    public record CacheStatsView(long size, long hitCount, long missCount, double hitRate, long loadCount,
+                                 double averageLoadPenaltyMillis, long evictionCount) {
+
+        static CacheStatsView of(long size, CacheStats stats) {
+            return new CacheStatsView(size, stats.hitCount(), stats.missCount(), stats.hitRate(), stats.loadCount(),
+                    stats.averageLoadPenalty() / 1_000_000d, stats.evictionCount());
+        }
+
+    }
+
+}
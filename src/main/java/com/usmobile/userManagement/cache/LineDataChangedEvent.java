@@ -0,0 +1,42 @@
+package com.usmobile.userManagement.cache;
+
+import org.bson.Document;
+
+import java.util.Optional;
+
+/**
+ * Application event published when the cycles or usage of a line are written, so that cached reads of
+ * the line are evicted. Writes made through the repositories are translated from the Mongo mapping events;
+ * writes that bypass them (bulk operations) publish this event directly.
+ * @param userId user id
+ * @param mdn mdn of the user
+ * @param cyclesChanged whether the cycles of the line changed, otherwise only its usage changed
+ */
+public record LineDataChangedEvent(
+        String userId,
+        String mdn,
+        boolean cyclesChanged
+) {
+
+    public static LineDataChangedEvent usage(String userId, String mdn) {
+        return new LineDataChangedEvent(userId, mdn, false);
+    }
+
+    public static LineDataChangedEvent cycles(String userId, String mdn) {
+        return new LineDataChangedEvent(userId, mdn, true);
+    }
+
+    /**
+     * Resolve the line a delete was scoped to from its delete query
+     * @param query delete query carried by the AfterDeleteEvent
+     * @param cyclesChanged whether cycles were deleted, otherwise daily usages
+     * @return an optional of the event of the line, empty if the query is not scoped to a single line
+     */
+    public static Optional<LineDataChangedEvent> fromDeleteQuery(Document query, boolean cyclesChanged) {
+        if (query != null && query.get("userId") instanceof String userId && query.get("mdn") instanceof String mdn) {
+            return Optional.of(new LineDataChangedEvent(userId, mdn, cyclesChanged));
+        }
+        return Optional.empty();
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.usmobile.userManagement.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Redis backed remote cache tier, shared by all replicas. Enabled with cache.remote.type=redis and
+ * configured through the standard spring.data.redis.* properties.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.remote.type", havingValue = "redis")
+public class RedisRemoteCacheTier implements RemoteCacheTier {
+
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    StringRedisTemplate redisTemplate;
+
+    @Autowired
+    public RedisRemoteCacheTier(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(key));
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        redisTemplate.opsForValue().set(key, value, ttl);
+    }
+
+    @Override
+    public void evict(String key) {
+        redisTemplate.delete(key);
+    }
+
+    @Override
+    public void evictByPrefix(String prefix) {
+        // SCAN instead of KEYS so that a large keyspace does not block the server
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(SCAN_BATCH_SIZE).build();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            List<byte[]> keys = new ArrayList<>(SCAN_BATCH_SIZE);
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(cursor.next());
+                    if (keys.size() == SCAN_BATCH_SIZE) {
+                        delete(connection, keys);
+                    }
+                }
+            }
+            delete(connection, keys);
+            return null;
+        });
+    }
+
+    private static void delete(RedisConnection connection, List<byte[]> keys) {
+        if (!keys.isEmpty()) {
+            connection.keyCommands().del(keys.toArray(new byte[0][]));
+            keys.clear();
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.usmobile.userManagement.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Remote Cache Tier
+ * Cache shared by all replicas of the service, holding serialized values by key.
+ * Implementations are selected with cache.remote.type.
+ */
+public interface RemoteCacheTier {
+
+    /**
+     * Get a value
+     * @param key cache key
+     * @return an optional of the serialized value, empty if absent or expired
+     */
+    Optional<String> get(String key);
+
+    /**
+     * Store a value
+     * @param key cache key
+     * @param value serialized value
+     * @param ttl time after which the value expires
+     */
+    void put(String key, String value, Duration ttl);
+
+    /**
+     * Remove a value
+     * @param key cache key
+     */
+    void evict(String key);
+
+    /**
+     * Remove all the values whose key starts with the given prefix
+     * @param prefix key prefix
+     */
+    void evictByPrefix(String prefix);
+
+}
@@ -0,0 +1,205 @@
+package com.usmobile.userManagement.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.usmobile.userManagement.model.CycleInfo;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Usage Report Cache
+ * Two level write-through cache of the current cycle report and cycle history per line: a short lived
+ * in-process near cache in front of a remote tier shared by all replicas. A miss in both levels loads from
+ * the database and writes the result to both. Writes to a line evict it from the near cache of this
+ * replica and from the remote tier; near caches of other replicas converge within the near cache ttl.
+ */
+@Component
+public class UsageReportCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageReportCache.class);
+
+    static final String KEY_PREFIX = "usage-report:";
+    private static final String REPORT_KEY = KEY_PREFIX + "report:";
+    private static final String HISTORY_KEY = KEY_PREFIX + "history:";
+
+    RemoteCacheTier remoteCacheTier;
+
+    ObjectMapper objectMapper;
+
+    boolean enabled;
+
+    Duration remoteTtl;
+
+    private final Cache<String, List<?>> nearCache;
+
+    private final JavaType reportType;
+
+    private final JavaType historyType;
+
+    private final LongAdder remoteHits = new LongAdder();
+
+    private final LongAdder remoteMisses = new LongAdder();
+
+    @Autowired
+    public UsageReportCache(RemoteCacheTier remoteCacheTier, ObjectMapper objectMapper,
+                            @Value("${cache.usage-report.enabled:true}") boolean enabled,
+                            @Value("${cache.usage-report.near-ttl:5s}") Duration nearTtl,
+                            @Value("${cache.usage-report.near-maximum-size:10000}") long nearMaximumSize,
+                            @Value("${cache.usage-report.remote-ttl:15m}") Duration remoteTtl) {
+        this.remoteCacheTier = remoteCacheTier;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.remoteTtl = remoteTtl;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearMaximumSize)
+                .expireAfterWrite(nearTtl)
+                .recordStats()
+                .build();
+        this.reportType = objectMapper.getTypeFactory().constructCollectionType(List.class, DailyUsageReport.class);
+        this.historyType = objectMapper.getTypeFactory().constructCollectionType(List.class, CycleInfo.class);
+    }
+
+    /**
+     * Get the current cycle daily usage report of the line
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param loader loads the report from the database on a miss, exceptions are propagated and not cached
+     * @return List of daily usage report
+     */
+    public List<DailyUsageReport> getDailyUsageReport(String userId, String mdn,
+                                                      Supplier<List<DailyUsageReport>> loader) {
+        return get(REPORT_KEY + lineKey(userId, mdn), reportType, loader);
+    }
+
+    /**
+     * Get the cycle history of the line
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param loader loads the history from the database on a miss, exceptions are propagated and not cached
+     * @return List of cycle history
+     */
+    public List<CycleInfo> getCycleHistory(String userId, String mdn, Supplier<List<CycleInfo>> loader) {
+        return get(HISTORY_KEY + lineKey(userId, mdn), historyType, loader);
+    }
+
+    /**
+     * Evict the cached report and, when the cycles changed, the cached history of a line
+     * @param event line data changed event
+     */
+    public void evict(LineDataChangedEvent event) {
+        evict(REPORT_KEY + lineKey(event.userId(), event.mdn()));
+        if (event.cyclesChanged()) {
+            evict(HISTORY_KEY + lineKey(event.userId(), event.mdn()));
+        }
+    }
+
+    /**
+     * Evict every cached report and history
+     */
+    public void evictAll() {
+        nearCache.invalidateAll();
+        try {
+            remoteCacheTier.evictByPrefix(KEY_PREFIX);
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to evict remote cache entries", ex);
+        }
+    }
+
+    /**
+     * Get the hit, miss and eviction statistics of the near cache
+     * @return near cache statistics
+     */
+    public CacheStats nearCacheStats() {
+        return nearCache.stats();
+    }
+
+    /**
+     * Get the approximate number of entries in the near cache
+     * @return estimated number of entries
+     */
+    public long nearCacheSize() {
+        return nearCache.estimatedSize();
+    }
+
+    /**
+     * Get the statistics of the remote tier lookups made on near cache misses
+     * @return remote tier statistics, loads count the remote misses served from the database
+     */
+    public CacheStats remoteTierStats() {
+        long misses = remoteMisses.sum();
+        return CacheStats.of(remoteHits.sum(), misses, misses, 0, 0, 0, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> get(String key, JavaType type, Supplier<List<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return (List<T>) nearCache.get(key, k -> this.<T>readRemote(k, type).orElseGet(() -> {
+            List<T> value = loader.get();
+            writeRemote(k, value);
+            return value;
+        }));
+    }
+
+    private <T> Optional<List<T>> readRemote(String key, JavaType type) {
+        try {
+            Optional<List<T>> value = remoteCacheTier.get(key).map(json -> deserialize(json, type));
+            if (value.isPresent()) {
+                remoteHits.increment();
+            } else {
+                remoteMisses.increment();
+            }
+            return value;
+        } catch (RuntimeException ex) {
+            // The remote tier is an optimisation, fall back to the database when it is unavailable
+            logger.warn("Failed to read remote cache entry {}", key, ex);
+            remoteMisses.increment();
+            return Optional.empty();
+        }
+    }
+
+    private void writeRemote(String key, List<?> value) {
+        try {
+            remoteCacheTier.put(key, objectMapper.writeValueAsString(value), remoteTtl);
+        } catch (JsonProcessingException | RuntimeException ex) {
+            logger.warn("Failed to write remote cache entry {}", key, ex);
+        }
+    }
+
+    private void evict(String key) {
+        nearCache.invalidate(key);
+        try {
+            remoteCacheTier.evict(key);
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to evict remote cache entry {}", key, ex);
+        }
+    }
+
+    private <T> List<T> deserialize(String json, JavaType type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable remote cache entry", ex);
+        }
+    }
+
+    private static String lineKey(String userId, String mdn) {
+        return userId + ":" + mdn;
+    }
+
+}
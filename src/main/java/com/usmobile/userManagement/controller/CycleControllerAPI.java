@@ -1,19 +1,29 @@
 package com.usmobile.userManagement.controller;
 
+import com.usmobile.userManagement.model.CurrentCycleReportBatchRequest;
 import com.usmobile.userManagement.model.CycleInfo;
+import com.usmobile.userManagement.model.CycleUsageSummaryResponse;
 import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineUsageReport;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,6 +35,8 @@ import java.util.List;
 @Validated
 public interface CycleControllerAPI {
 
+    String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     /**
      * Get daily usage report
      * @param userId - subscriber user id
@@ -46,15 +58,58 @@ public interface CycleControllerAPI {
                                                                       @NotBlank @RequestParam String mdn);
 
     /**
-     * Get cycle history
+     * Get daily usage report of many lines
+     * @param request - lines of the subscriber, at most 50
+     * @return current cycle daily usage report of each line, in request order
+     */
+    @PostMapping(path = "/current-cycle-report:batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved current cycle reports, lines " +
+                    "without an active cycle have no cycle", content = @Content(mediaType =
+                    MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema =
+                    @Schema(implementation = LineUsageReport.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    ResponseEntity<List<LineUsageReport>> getCurrentCycleReports(@Valid @RequestBody CurrentCycleReportBatchRequest request);
+
+    /**
+     * Get the usage totals of a cycle
      * @param userId - subscriber user id
      * @param mdn - subscriber mdn
-     * @return list of cycle history for the user id and mdn
+     * @param cycleId - id of the cycle, current or past
+     * @return total usage, days with usage and peak day of the cycle
+     */
+    @GetMapping(path = "/cycle-usage-summary", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved cycle usage summary",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema =
+                    @Schema(implementation = CycleUsageSummaryResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "404", description = "Cycle not found", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    ResponseEntity<CycleUsageSummaryResponse> getCycleUsageSummary(@NotBlank @RequestParam String userId,
+                                                                   @NotBlank @RequestParam String mdn,
+                                                                   @NotBlank @RequestParam String cycleId);
+
+    /**
+     * Get cycle history, in full or one page at a time when limit or cursor is given
+     * @param userId - subscriber user id
+     * @param mdn - subscriber mdn
+     * @param limit - maximum number of cycles of the page, 50 when only the cursor is given
+     * @param cursor - value of the X-Next-Cursor header of the previous page
+     * @return list of cycle history for the user id and mdn, ordered by start date desc
      */
     @GetMapping(path = "/cycle-history", produces = {MediaType.APPLICATION_JSON_VALUE,
             MediaType.APPLICATION_PROBLEM_JSON_VALUE})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved cycle history",
+                    headers = @Header(name = NEXT_CURSOR_HEADER, description = "Cursor of the next page, absent on " +
+                            "the last page"),
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema =
                     @Schema(implementation = CycleInfo.class)))),
             @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
@@ -62,6 +117,28 @@ public interface CycleControllerAPI {
             @ApiResponse(responseCode = "404", description = "Cycle history not found", content = @Content(mediaType =
                     MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
     })
-    ResponseEntity<List<CycleInfo>> getCycleHistory(@NotBlank @RequestParam String userId, @NotBlank @RequestParam String mdn);
+    ResponseEntity<List<CycleInfo>> getCycleHistory(@NotBlank @RequestParam String userId, @NotBlank @RequestParam String mdn,
+                                                    @Positive @Max(500) @RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) Long cursor);
+
+    /**
+     * Stream cycle history as newline delimited JSON, one cycle per line
+     * @param userId - subscriber user id
+     * @param mdn - subscriber mdn
+     * @return cycle history for the user id and mdn, ordered by start date desc
+     */
+    @GetMapping(path = "/cycle-history/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming cycle history",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema =
+                    @Schema(implementation = CycleInfo.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "404", description = "Cycle history not found", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    ResponseEntity<StreamingResponseBody> streamCycleHistory(@NotBlank @RequestParam String userId,
+                                                             @NotBlank @RequestParam String mdn);
 
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.usmobile.userManagement.controller;
+
+import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.PatchUserRequest;
+import com.usmobile.userManagement.model.UpdateUserRequest;
+import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.model.VerifyPasswordRequest;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive User controller API
+ * This interface defines the same API as UserControllerAPI with non-blocking return types, served with the
+ * reactive profile. Bulk user import is only served by UserControllerAPI.
+ */
+@Validated
+public interface ReactiveUserControllerAPI {
+
+    /**
+     * Create user with given details
+     * @param user - user details
+     * @return saved user details
+     */
+    @PostMapping(path = "/user", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successfully created user",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation =
+                    UserResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent signups, retry after the " +
+                    "Retry-After header", content = @Content(mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    Mono<ResponseEntity<UserResponse>> createUser(@Valid @RequestBody CreateUserRequest user);
+
+    /**
+     * Update user with given details
+     * @param user - user details
+     * @return updated user details
+     */
+    @PutMapping(path = "/user", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully updated user details",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation =
+                    UserResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "404", description = "User not found", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    Mono<ResponseEntity<UserResponse>> updateUser(@Valid @RequestBody UpdateUserRequest user);
+
+    /**
+     * Update only the given details of a user
+     * @param id - id of the user
+     * @param user - details to change, absent details are left as they are
+     * @return updated user details
+     */
+    @PatchMapping(path = "/user/{id}", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully updated user details",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation =
+                    UserResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "404", description = "User not found", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    Mono<ResponseEntity<UserResponse>> patchUser(@PathVariable String id, @Valid @RequestBody PatchUserRequest user);
+
+    /**
+     * Verify the password of a user, upgrading its stored hash to the current algorithm and cost when needed
+     * @param credentials - email and password of the user
+     * @return user details
+     */
+    @PostMapping(path = "/user/verify-password", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Password verified",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation =
+                    UserResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "401", description = "Invalid email or password", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent password hashes, retry after the " +
+                    "Retry-After header", content = @Content(mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    Mono<ResponseEntity<UserResponse>> verifyPassword(@Valid @RequestBody VerifyPasswordRequest credentials);
+
+}
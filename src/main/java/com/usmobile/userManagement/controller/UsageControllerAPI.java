@@ -0,0 +1,65 @@
+package com.usmobile.userManagement.controller;
+
+import com.usmobile.userManagement.model.UsageBatchRequest;
+import com.usmobile.userManagement.model.UsageBatchResponse;
+import com.usmobile.userManagement.model.UsageImportResult;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+import java.io.InputStream;
+
+/**
+ * Usage Controller API
+ * This interface defines the APIs for usage ingestion
+ */
+@Validated
+public interface UsageControllerAPI {
+
+    String TEXT_CSV_VALUE = "text/csv";
+
+    /**
+     * Add a batch of usage records to the daily usage of their lines
+     * @param batch - usage records, each adding deltaMb to the usage of its line on the UTC day of usageDate
+     * @return outcome of each record
+     */
+    @PostMapping(path = "/usage/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the outcome of each record",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation =
+                    UsageBatchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    ResponseEntity<UsageBatchResponse> ingestUsageBatch(@Valid @RequestBody UsageBatchRequest batch);
+
+    /**
+     * Import a usage dump streamed in the request body, one daily usage row per line
+     * @param contentType - application/x-ndjson or text/csv
+     * @param body - usage dump, each row setting the usage of its line on the UTC day of usageDate
+     * @return counts, throughput and the first errors of the import
+     */
+    @PostMapping(path = "/usage/stream", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Usage dump imported, see the failed rows",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation =
+                    UsageImportResult.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or invalid CSV header", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    ResponseEntity<UsageImportResult> importUsageStream(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                        InputStream body);
+
+}
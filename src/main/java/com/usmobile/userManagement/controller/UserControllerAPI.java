@@ -1,20 +1,29 @@
 package com.usmobile.userManagement.controller;
 
 import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.PatchUserRequest;
 import com.usmobile.userManagement.model.UpdateUserRequest;
+import com.usmobile.userManagement.model.UserImportResult;
 import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.model.VerifyPasswordRequest;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+import java.io.InputStream;
 
 /**
  * User controller API
@@ -35,7 +44,10 @@ public interface UserControllerAPI {
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation =
                     UserResponse.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
-                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent signups, retry after the " +
+                    "Retry-After header", content = @Content(mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
     })
     ResponseEntity<UserResponse> createUser(@Valid @RequestBody CreateUserRequest user);
 
@@ -57,4 +69,63 @@ public interface UserControllerAPI {
     })
     ResponseEntity<UserResponse> updateUser(@Valid @RequestBody UpdateUserRequest user);
 
+    /**
+     * Update only the given details of a user
+     * @param id - id of the user
+     * @param user - details to change, absent details are left as they are
+     * @return updated user details
+     */
+    @PatchMapping(path = "/user/{id}", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully updated user details",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation =
+                    UserResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "404", description = "User not found", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    ResponseEntity<UserResponse> patchUser(@PathVariable String id, @Valid @RequestBody PatchUserRequest user);
+
+    /**
+     * Import users in bulk, e.g. when migrating subscribers from another system
+     * @param contentType - application/json for a JSON array of users, application/x-ndjson for one user per line
+     * @param body - users, each with the fields of a user creation request
+     * @return counts, throughput and the first skipped or failed users
+     */
+    @PostMapping(path = "/user/import", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users imported, see the skipped and failed users",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation =
+                    UserImportResult.class))),
+            @ApiResponse(responseCode = "400", description = "JSON body is not an array", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    ResponseEntity<UserImportResult> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                 InputStream body);
+
+    /**
+     * Verify the password of a user, upgrading its stored hash to the current algorithm and cost when needed
+     * @param credentials - email and password of the user
+     * @return user details
+     */
+    @PostMapping(path = "/user/verify-password", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_PROBLEM_JSON_VALUE})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Password verified",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation =
+                    UserResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "401", description = "Invalid email or password", content = @Content(mediaType =
+                    MediaType.APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = ProblemDetail.class))),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent password hashes, retry after the " +
+                    "Retry-After header", content = @Content(mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+    })
+    ResponseEntity<UserResponse> verifyPassword(@Valid @RequestBody VerifyPasswordRequest credentials);
+
 }
@@ -1,19 +1,26 @@
 package com.usmobile.userManagement.controllerImpl;
 
+import com.usmobile.userManagement.exception.InvalidCredentialsException;
 import com.usmobile.userManagement.exception.NoCyclesFoundException;
+import com.usmobile.userManagement.exception.ServiceOverloadedException;
 import com.usmobile.userManagement.exception.UserAlreadyExistsException;
 import com.usmobile.userManagement.exception.UserNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.BindException;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -26,6 +33,8 @@ public class ControllerExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(ControllerExceptionHandler.class);
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     /**
      * Handle invalid controller method arguments
      *
@@ -35,9 +44,25 @@ public class ControllerExceptionHandler {
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ProblemDetail handleValidationExceptions(BindException ex) {
         logger.error("Validation failed", ex);
+        return validationProblemDetail(ex.getBindingResult());
+    }
+
+    /**
+     * Handle invalid request bodies of the reactive controllers
+     *
+     * @param ex the exception
+     * @return BAD_REQUEST problem detail
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ProblemDetail handleValidationExceptions(WebExchangeBindException ex) {
+        logger.error("Validation failed", ex);
+        return validationProblemDetail(ex.getBindingResult());
+    }
+
+    private static ProblemDetail validationProblemDetail(BindingResult bindingResult) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Validation failed");
         Map<String, Object> errors = new HashMap<>();
-        ex.getBindingResult().getAllErrors().forEach((error) -> {
+        bindingResult.getAllErrors().forEach((error) -> {
             String fieldName = ((FieldError) error).getField();
             String errorMessage = error.getDefaultMessage();
             logger.error("Validation error: {} - {}", fieldName, errorMessage);
@@ -112,6 +137,34 @@ public class ControllerExceptionHandler {
         return problemDetail;
     }
 
+    /**
+     * Handle Invalid Credentials Exception
+     *
+     * @param ex the exception
+     * @return UNAUTHORIZED problem detail
+     */
+    @ExceptionHandler(InvalidCredentialsException.class)
+    public ProblemDetail handleInvalidCredentialsException(InvalidCredentialsException ex) {
+        logger.error("Invalid credentials", ex);
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, ex.getMessage());
+        return problemDetail;
+    }
+
+    /**
+     * Handle Service Overloaded Exception
+     *
+     * @param ex the exception
+     * @return SERVICE_UNAVAILABLE problem detail, with a Retry-After header
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ProblemDetail> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        logger.warn("Request shed: {}", ex.getMessage());
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(problemDetail);
+    }
+
     /**
      * Handle Illegal Argument Exception
      *
@@ -138,6 +191,19 @@ public class ControllerExceptionHandler {
         return problemDetail;
     }
 
+    /**
+     * Handle Response Status Exception, raised by the reactive controllers for a missing parameter, an
+     * unreadable body or an unsupported media type
+     *
+     * @param ex the exception
+     * @return problem detail with the status of the exception
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ProblemDetail> handleResponseStatusException(ResponseStatusException ex) {
+        logger.error("Request failed with status {}", ex.getStatusCode(), ex);
+        return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(ex.getBody());
+    }
+
     /**
      * Handle Any Exception
      *
@@ -1,29 +1,53 @@
 package com.usmobile.userManagement.controllerImpl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.usmobile.userManagement.controller.CycleControllerAPI;
+import com.usmobile.userManagement.model.CurrentCycleReportBatchRequest;
+import com.usmobile.userManagement.model.CycleHistoryPage;
+import com.usmobile.userManagement.model.CycleUsageSummaryResponse;
 import com.usmobile.userManagement.service.CycleService;
 import com.usmobile.userManagement.model.CycleInfo;
 import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineUsageReport;
+import com.usmobile.userManagement.service.CycleUsageSummaryService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Cycle Controller
  * Implementation of CycleControllerAPI
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping(path = "/api/v1")
 public class CycleController implements CycleControllerAPI {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     CycleService cycleService;
 
+    CycleUsageSummaryService cycleUsageSummaryService;
+
+    ObjectWriter cycleInfoWriter;
+
     @Autowired
-    public CycleController(CycleService cycleService) {
+    public CycleController(CycleService cycleService, CycleUsageSummaryService cycleUsageSummaryService,
+                           ObjectMapper objectMapper) {
         this.cycleService = cycleService;
+        this.cycleUsageSummaryService = cycleUsageSummaryService;
+        this.cycleInfoWriter = objectMapper.writerFor(CycleInfo.class);
     }
 
     public ResponseEntity<List<DailyUsageReport>> getCurrentCycleReport(String userId, String mdn) {
@@ -31,9 +55,43 @@ public class CycleController implements CycleControllerAPI {
         return ResponseEntity.ok(dailyUsageReports);
     }
 
-    public ResponseEntity<List<CycleInfo>> getCycleHistory(String userId, String mdn) {
-        List<CycleInfo> cycleInfos = cycleService.getCycleHistory(userId, mdn);
-        return ResponseEntity.ok(cycleInfos);
+    public ResponseEntity<List<LineUsageReport>> getCurrentCycleReports(
+            @RequestBody @Valid CurrentCycleReportBatchRequest request) {
+        List<LineUsageReport> lineUsageReports = cycleService.getDailyUsageReports(request.lines());
+        return ResponseEntity.ok(lineUsageReports);
+    }
+
+    public ResponseEntity<CycleUsageSummaryResponse> getCycleUsageSummary(String userId, String mdn, String cycleId) {
+        CycleUsageSummaryResponse summary = cycleUsageSummaryService.getCycleUsageSummary(userId, mdn, cycleId);
+        return ResponseEntity.ok(summary);
+    }
+
+    public ResponseEntity<List<CycleInfo>> getCycleHistory(String userId, String mdn, Integer limit, Long cursor) {
+        if (limit == null && cursor == null) {
+            List<CycleInfo> cycleInfos = cycleService.getCycleHistory(userId, mdn);
+            return ResponseEntity.ok(cycleInfos);
+        }
+        CycleHistoryPage page = cycleService.getCycleHistoryPage(userId, mdn,
+                limit == null ? DEFAULT_PAGE_SIZE : limit, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor()));
+        }
+        return response.body(page.cycles());
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamCycleHistory(String userId, String mdn) {
+        Stream<CycleInfo> cycleInfos = cycleService.streamCycleHistory(userId, mdn);
+        StreamingResponseBody body = outputStream -> {
+            try (cycleInfos) {
+                Iterator<CycleInfo> iterator = cycleInfos.iterator();
+                while (iterator.hasNext()) {
+                    outputStream.write(cycleInfoWriter.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
 }
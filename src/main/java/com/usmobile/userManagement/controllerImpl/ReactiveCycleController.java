@@ -0,0 +1,65 @@
+package com.usmobile.userManagement.controllerImpl;
+
+import com.usmobile.userManagement.controller.CycleControllerAPI;
+import com.usmobile.userManagement.controller.ReactiveCycleControllerAPI;
+import com.usmobile.userManagement.model.CurrentCycleReportBatchRequest;
+import com.usmobile.userManagement.model.CycleInfo;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineUsageReport;
+import com.usmobile.userManagement.service.ReactiveCycleService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Cycle Controller
+ * Implementation of ReactiveCycleControllerAPI
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(path = "/api/v1")
+public class ReactiveCycleController implements ReactiveCycleControllerAPI {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    ReactiveCycleService cycleService;
+
+    @Autowired
+    public ReactiveCycleController(ReactiveCycleService cycleService) {
+        this.cycleService = cycleService;
+    }
+
+    public Flux<DailyUsageReport> getCurrentCycleReport(String userId, String mdn) {
+        return cycleService.getDailyUsageReport(userId, mdn);
+    }
+
+    public Flux<LineUsageReport> getCurrentCycleReports(@RequestBody @Valid CurrentCycleReportBatchRequest request) {
+        return cycleService.getDailyUsageReports(request.lines());
+    }
+
+    public Mono<ResponseEntity<Flux<CycleInfo>>> getCycleHistory(String userId, String mdn, Integer limit,
+                                                                 Long cursor) {
+        if (limit == null && cursor == null) {
+            return Mono.just(ResponseEntity.ok(cycleService.getCycleHistory(userId, mdn)));
+        }
+        return cycleService.getCycleHistoryPage(userId, mdn, limit == null ? DEFAULT_PAGE_SIZE : limit, cursor)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.nextCursor() != null) {
+                        response.header(CycleControllerAPI.NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor()));
+                    }
+                    return response.body(Flux.fromIterable(page.cycles()));
+                });
+    }
+
+    public Flux<CycleInfo> streamCycleHistory(String userId, String mdn) {
+        return cycleService.getCycleHistory(userId, mdn);
+    }
+
+}
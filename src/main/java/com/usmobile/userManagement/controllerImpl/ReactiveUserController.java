@@ -0,0 +1,51 @@
+package com.usmobile.userManagement.controllerImpl;
+
+import com.usmobile.userManagement.controller.ReactiveUserControllerAPI;
+import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.PatchUserRequest;
+import com.usmobile.userManagement.model.UpdateUserRequest;
+import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.model.VerifyPasswordRequest;
+import com.usmobile.userManagement.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive User Controller
+ * Implementation of ReactiveUserControllerAPI
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(path = "/api/v1")
+public class ReactiveUserController implements ReactiveUserControllerAPI {
+
+    ReactiveUserService userService;
+
+    @Autowired
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    public Mono<ResponseEntity<UserResponse>> createUser(@RequestBody @Valid CreateUserRequest user) {
+        return userService.createUser(user).map(savedUser -> new ResponseEntity<>(savedUser, HttpStatus.CREATED));
+    }
+
+    public Mono<ResponseEntity<UserResponse>> updateUser(@RequestBody @Valid UpdateUserRequest user) {
+        return userService.updateUser(user).map(savedUser -> new ResponseEntity<>(savedUser, HttpStatus.OK));
+    }
+
+    public Mono<ResponseEntity<UserResponse>> patchUser(@PathVariable String id,
+                                                        @RequestBody @Valid PatchUserRequest user) {
+        return userService.patchUser(id, user).map(savedUser -> new ResponseEntity<>(savedUser, HttpStatus.OK));
+    }
+
+    public Mono<ResponseEntity<UserResponse>> verifyPassword(@RequestBody @Valid VerifyPasswordRequest credentials) {
+        return userService.verifyPassword(credentials).map(user -> new ResponseEntity<>(user, HttpStatus.OK));
+    }
+
+}
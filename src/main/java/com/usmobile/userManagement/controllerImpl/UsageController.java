@@ -0,0 +1,50 @@
+package com.usmobile.userManagement.controllerImpl;
+
+import com.usmobile.userManagement.controller.UsageControllerAPI;
+import com.usmobile.userManagement.model.UsageBatchRequest;
+import com.usmobile.userManagement.model.UsageBatchResponse;
+import com.usmobile.userManagement.model.UsageImportResult;
+import com.usmobile.userManagement.service.UsageImportFormat;
+import com.usmobile.userManagement.service.UsageImportService;
+import com.usmobile.userManagement.service.UsageService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+/**
+ * Usage Controller
+ * Implementation of UsageControllerAPI
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping(path = "/api/v1")
+public class UsageController implements UsageControllerAPI {
+
+    UsageService usageService;
+
+    UsageImportService usageImportService;
+
+    @Autowired
+    public UsageController(UsageService usageService, UsageImportService usageImportService) {
+        this.usageService = usageService;
+        this.usageImportService = usageImportService;
+    }
+
+    public ResponseEntity<UsageBatchResponse> ingestUsageBatch(@RequestBody @Valid UsageBatchRequest batch) {
+        return ResponseEntity.ok(usageService.ingest(batch.records()));
+    }
+
+    public ResponseEntity<UsageImportResult> importUsageStream(String contentType, InputStream body) {
+        UsageImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(
+                TEXT_CSV_VALUE)) ? UsageImportFormat.CSV : UsageImportFormat.NDJSON;
+        return ResponseEntity.ok(usageImportService.importUsage(body, format));
+    }
+
+}
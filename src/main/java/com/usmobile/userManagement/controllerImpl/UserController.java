@@ -2,24 +2,37 @@ package com.usmobile.userManagement.controllerImpl;
 
 import com.usmobile.userManagement.controller.UserControllerAPI;
 import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.PatchUserRequest;
 import com.usmobile.userManagement.model.UpdateUserRequest;
+import com.usmobile.userManagement.model.UserImportResult;
 import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.model.VerifyPasswordRequest;
+import com.usmobile.userManagement.service.UserImportFormat;
+import com.usmobile.userManagement.service.UserImportService;
 import com.usmobile.userManagement.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+
 @RestController
+@Profile("!reactive")
 @RequestMapping(path = "/api/v1")
 public class UserController implements UserControllerAPI {
 
     UserService userService;
 
+    UserImportService userImportService;
+
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
     }
 
     public ResponseEntity<UserResponse> createUser(@RequestBody @Valid CreateUserRequest user) {
@@ -32,4 +45,20 @@ public class UserController implements UserControllerAPI {
         return new ResponseEntity<>(savedUser, HttpStatus.OK);
     }
 
+    public ResponseEntity<UserResponse> patchUser(@PathVariable String id, @RequestBody @Valid PatchUserRequest user) {
+        UserResponse savedUser = userService.patchUser(id, user);
+        return new ResponseEntity<>(savedUser, HttpStatus.OK);
+    }
+
+    public ResponseEntity<UserImportResult> importUsers(String contentType, InputStream body) {
+        UserImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? UserImportFormat.NDJSON : UserImportFormat.JSON;
+        return ResponseEntity.ok(userImportService.importUsers(body, format));
+    }
+
+    public ResponseEntity<UserResponse> verifyPassword(@RequestBody @Valid VerifyPasswordRequest credentials) {
+        UserResponse user = userService.verifyPassword(credentials);
+        return new ResponseEntity<>(user, HttpStatus.OK);
+    }
+
 }
@@ -0,0 +1,30 @@
+package com.usmobile.userManagement.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Cycle that ended before the archive horizon, moved out of the Cycle collection with its id
+ */
+@Document(collection = "Cycle_Archive")
+@CompoundIndex(name = "userId_mdn_startDate_endDate", def = "{'userId': 1, 'mdn': 1, 'startDate': -1, 'endDate': 1}")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedCycle {
+
+    @Id
+    private String id;
+    private String mdn;
+    private Long startDate;
+    private Long endDate;
+    private String userId;
+    private Long archivedAt;
+
+}
@@ -0,0 +1,38 @@
+package com.usmobile.userManagement.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Map;
+
+/**
+ * Daily usage of a line during a month (UTC) that is older than the archive horizon. One document replaces up to
+ * 31 Daily_Usage documents and their index entries.
+ */
+@Document(collection = "Daily_Usage_Archive")
+@CompoundIndex(name = "userId_mdn_month", def = "{'userId': 1, 'mdn': 1, 'month': -1}", unique = true)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedDailyUsage {
+
+    @Id
+    private String id;
+    private String mdn;
+    private String userId;
+    /**
+     * Start of the month in epoch millis
+     */
+    private Long month;
+    /**
+     * Usage in MB keyed by the usage date in epoch millis
+     */
+    private Map<String, Integer> days;
+
+}
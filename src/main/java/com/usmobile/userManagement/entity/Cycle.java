@@ -5,11 +5,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "Cycle")
+@CompoundIndex(name = "userId_mdn_startDate_endDate", def = "{'userId': 1, 'mdn': 1, 'startDate': -1, 'endDate': 1}")
 @Getter
 @Setter
 @AllArgsConstructor
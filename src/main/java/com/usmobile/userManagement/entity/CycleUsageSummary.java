@@ -0,0 +1,40 @@
+package com.usmobile.userManagement.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Map;
+
+/**
+ * Usage totals of a cycle, materialized from its daily usage. The id is the id of the cycle.
+ * Written by CycleUsageSummaryRepository only: incrementSummaries adds usage deltas to days, refreshSummaries
+ * recomputes the summary from the daily usage and sets computedAt.
+ */
+@Document(collection = "Cycle_Usage_Summary")
+@CompoundIndex(name = "userId_mdn", def = "{'userId': 1, 'mdn': 1}")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CycleUsageSummary {
+
+    @Id
+    private String id;
+    private String userId;
+    private String mdn;
+    private Long startDate;
+    private Long endDate;
+    private long totalMb;
+    private int daysWithUsage;
+    private Long peakDayDate;
+    private Integer peakDayMb;
+    private Long lastUpdated;
+    private Map<String, Integer> days;
+    private Long computedAt;
+
+}
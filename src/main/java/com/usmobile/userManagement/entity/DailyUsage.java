@@ -5,11 +5,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "Daily_Usage")
+@CompoundIndex(name = "userId_mdn_usageDate", def = "{'userId': 1, 'mdn': 1, 'usageDate': -1}", unique = true)
 @Getter
 @Setter
 @AllArgsConstructor
@@ -0,0 +1,39 @@
+package com.usmobile.userManagement.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Map;
+
+/**
+ * Daily usage of a line during one of its cycles in the bucketed layout of the daily usage. One document replaces
+ * the up to 31 Daily_Usage documents of the cycle and their index entries, and shares the id of its cycle.
+ */
+@Document(collection = "Daily_Usage_Bucket")
+@CompoundIndex(name = "userId_mdn_endDate", def = "{'userId': 1, 'mdn': 1, 'endDate': -1}")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyUsageBucket {
+
+    /**
+     * Id of the cycle
+     */
+    @Id
+    private String id;
+    private String mdn;
+    private String userId;
+    private Long startDate;
+    private Long endDate;
+    /**
+     * Usage in MB keyed by the usage date in epoch millis
+     */
+    private Map<String, Integer> days;
+
+}
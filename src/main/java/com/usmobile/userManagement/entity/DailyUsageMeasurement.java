@@ -0,0 +1,35 @@
+package com.usmobile.userManagement.entity;
+
+import com.usmobile.userManagement.model.LineInfo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.util.Date;
+
+/**
+ * Usage of a line on a day in the time-series layout of the daily usage. A day may have many measurements,
+ * its usage is their sum. Measurements of a line are bucketed together, a bucket spans up to 30 days.
+ */
+@Document(collection = "Daily_Usage_TS")
+@TimeSeries(timeField = "usageDate", metaField = "line", granularity = Granularity.HOURS)
+@CompoundIndex(name = "line_userId_mdn_usageDate", def = "{'line.userId': 1, 'line.mdn': 1, 'usageDate': -1}")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyUsageMeasurement {
+
+    @Id
+    private String id;
+    private LineInfo line;
+    private Date usageDate;
+    private int usedInMb;
+
+}
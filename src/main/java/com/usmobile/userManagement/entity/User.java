@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "User")
@@ -18,6 +19,7 @@ public class User {
     private String id;
     private String firstName;
     private String lastName;
+    @Indexed(name = "email_unique", unique = true)
     private String email;
     private String password;
 
@@ -0,0 +1,12 @@
+package com.usmobile.userManagement.exception;
+
+/**
+ * Exception to be thrown when an email and password do not match a user
+ */
+public class InvalidCredentialsException extends RuntimeException {
+
+    public InvalidCredentialsException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.usmobile.userManagement.exception;
+
+/**
+ * Exception to be thrown when a request is shed because a bounded resource it needs is saturated
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+
+}
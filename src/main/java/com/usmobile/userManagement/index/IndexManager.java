@@ -0,0 +1,188 @@
+package com.usmobile.userManagement.index;
+
+import com.usmobile.userManagement.entity.ArchivedCycle;
+import com.usmobile.userManagement.entity.ArchivedDailyUsage;
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.CycleUsageSummary;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.DailyUsageBucket;
+import com.usmobile.userManagement.entity.DailyUsageMeasurement;
+import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.repository.DailyUsageStorageMode;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index Manager
+ * Resolves the indexes declared on the entity classes through {@code @Indexed} / {@code @CompoundIndex}
+ * and creates them on the corresponding collections.
+ */
+@Component
+public class IndexManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexManager.class);
+
+    /**
+     * Entities whose declared indexes are required for the repository queries to avoid collection scans
+     */
+    static final List<Class<?>> MANAGED_ENTITIES = List.of(User.class, Cycle.class, DailyUsage.class,
+            ArchivedCycle.class, ArchivedDailyUsage.class, CycleUsageSummary.class);
+
+    /**
+     * Unique index the usage upserts match on
+     */
+    public static final String DAILY_USAGE_INDEX = "userId_mdn_usageDate";
+
+    MongoTemplate mongoTemplate;
+
+    IndexResolver indexResolver;
+
+    DailyUsageStorageMode storageMode;
+
+    List<Class<?>> managedEntities;
+
+    public IndexManager(MongoTemplate mongoTemplate) {
+        this(mongoTemplate, DailyUsageStorageMode.COLLECTION);
+    }
+
+    @Autowired
+    public IndexManager(MongoTemplate mongoTemplate,
+                        @Value("${usage.storage.mode:COLLECTION}") DailyUsageStorageMode storageMode) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexResolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        this.storageMode = storageMode;
+        // Daily_Usage stays managed in the other modes, it is the source they are migrated or reloaded from
+        this.managedEntities = switch (storageMode) {
+            case COLLECTION -> MANAGED_ENTITIES;
+            case TIME_SERIES -> Stream.concat(MANAGED_ENTITIES.stream(), Stream.of(DailyUsageMeasurement.class))
+                    .toList();
+            case BUCKETED -> Stream.concat(MANAGED_ENTITIES.stream(), Stream.of(DailyUsageBucket.class)).toList();
+        };
+    }
+
+    /**
+     * Create the collections that are not created implicitly by the first write. In the time-series storage
+     * mode Daily_Usage_TS must be created as a time-series collection before anything is written to it.
+     * @throws IllegalStateException if Daily_Usage_TS already exists as a regular collection
+     */
+    public void ensureCollections() {
+        if (storageMode != DailyUsageStorageMode.TIME_SERIES) {
+            return;
+        }
+        String collectionName = mongoTemplate.getCollectionName(DailyUsageMeasurement.class);
+        Document collection = mongoTemplate.getDb().listCollections()
+                .filter(new Document("name", collectionName)).first();
+        if (collection == null) {
+            mongoTemplate.createCollection(DailyUsageMeasurement.class);
+            logger.info("Created time-series collection {}", collectionName);
+        } else if (!"timeseries".equals(collection.getString("type"))) {
+            throw new IllegalStateException(String.format(
+                    "Collection %s is a %s collection, the time-series storage mode needs a time-series collection",
+                    collectionName, collection.getString("type")));
+        }
+    }
+
+    /**
+     * Get the indexes declared on the managed entities, including Daily_Usage_TS in the time-series storage mode
+     * and Daily_Usage_Bucket in the bucketed one
+     * @return map of collection name to the index definitions declared for it
+     */
+    public Map<String, List<IndexDefinition>> requiredIndexes() {
+        Map<String, List<IndexDefinition>> requiredIndexes = new LinkedHashMap<>();
+        for (Class<?> entity : managedEntities) {
+            List<IndexDefinition> definitions = new ArrayList<>();
+            indexResolver.resolveIndexFor(entity).forEach(definitions::add);
+            requiredIndexes.put(mongoTemplate.getCollectionName(entity), definitions);
+        }
+        return requiredIndexes;
+    }
+
+    /**
+     * Create all the declared indexes. Creating an index that already exists with the same
+     * keys and options is a no-op on the server, so this is safe to run on every boot.
+     * The unique Daily_Usage index is left missing, and reported as such, while the collection holds duplicate
+     * daily usages or a non-unique index of that name: both are resolved by the opt-in daily usage deduplication.
+     */
+    public void ensureIndexes() {
+        for (Class<?> entity : managedEntities) {
+            IndexOperations indexOperations = mongoTemplate.indexOps(entity);
+            for (IndexDefinition definition : indexResolver.resolveIndexFor(entity)) {
+                String indexName = definition.getIndexOptions().getString("name");
+                if (entity == DailyUsage.class && DAILY_USAGE_INDEX.equals(indexName)) {
+                    Optional<IndexInfo> existing = dailyUsageIndex();
+                    if (existing.isPresent() && !existing.get().isUnique()) {
+                        logger.warn("Index {} on collection {} is not unique, convert it with the daily usage "
+                                + "deduplication: usage.dedup.enabled=true", indexName,
+                                mongoTemplate.getCollectionName(entity));
+                        continue;
+                    }
+                }
+                try {
+                    indexName = indexOperations.ensureIndex(definition);
+                } catch (DuplicateKeyException ex) {
+                    if (entity != DailyUsage.class) {
+                        throw ex;
+                    }
+                    logger.error("Duplicate keys while building index {} on collection {}, merge them with the daily "
+                            + "usage deduplication: usage.dedup.enabled=true", indexName,
+                            mongoTemplate.getCollectionName(entity), ex);
+                    continue;
+                }
+                logger.info("Ensured index {} on collection {}", indexName, mongoTemplate.getCollectionName(entity));
+            }
+        }
+    }
+
+    /**
+     * Get the userId_mdn_usageDate index of Daily_Usage as present on the server
+     * @return the index, empty if it does not exist
+     */
+    public Optional<IndexInfo> dailyUsageIndex() {
+        return mongoTemplate.indexOps(DailyUsage.class).getIndexInfo().stream()
+                .filter(info -> DAILY_USAGE_INDEX.equals(info.getName()))
+                .findFirst();
+    }
+
+    /**
+     * Find the declared indexes that are not present on the server, or present without the unique option
+     * they are declared with
+     * @return list of missing indexes formatted as collection.indexName, empty if all indexes exist
+     */
+    public List<String> missingIndexes() {
+        List<String> missingIndexes = new ArrayList<>();
+        for (Class<?> entity : managedEntities) {
+            String collectionName = mongoTemplate.getCollectionName(entity);
+            Map<String, IndexInfo> existingIndexes = mongoTemplate.indexOps(entity).getIndexInfo().stream()
+                    .collect(Collectors.toMap(IndexInfo::getName, info -> info));
+            for (IndexDefinition definition : indexResolver.resolveIndexFor(entity)) {
+                String indexName = definition.getIndexOptions().getString("name");
+                IndexInfo existing = existingIndexes.get(indexName);
+                if (existing == null || (definition.getIndexOptions().getBoolean("unique", false)
+                        && !existing.isUnique())) {
+                    missingIndexes.add(collectionName + "." + indexName);
+                }
+            }
+        }
+        return missingIndexes;
+    }
+
+}
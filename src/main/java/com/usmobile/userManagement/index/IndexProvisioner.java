@@ -0,0 +1,72 @@
+package com.usmobile.userManagement.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Index Provisioner
+ * Creates the declared indexes once all singletons are instantiated, before the web server accepts traffic.
+ * By default the provisioning runs on a background thread so that a long index build on a large collection
+ * does not block the boot; the mongoIndexes health indicator reports DOWN until every index exists.
+ * Collections that must exist before the first write, e.g. time-series ones, are created synchronously first.
+ */
+@Component
+public class IndexProvisioner implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexProvisioner.class);
+
+    IndexManager indexManager;
+
+    QueryPlanVerifier queryPlanVerifier;
+
+    boolean enabled;
+
+    boolean background;
+
+    @Autowired
+    public IndexProvisioner(IndexManager indexManager, QueryPlanVerifier queryPlanVerifier,
+                            @Value("${mongodb.indexes.provisioning.enabled:true}") boolean enabled,
+                            @Value("${mongodb.indexes.provisioning.background:true}") boolean background) {
+        this.indexManager = indexManager;
+        this.queryPlanVerifier = queryPlanVerifier;
+        this.enabled = enabled;
+        this.background = background;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Always synchronous, a write racing the creation would create a regular collection
+        indexManager.ensureCollections();
+        if (!enabled) {
+            logger.info("Index provisioning is disabled");
+            return;
+        }
+        if (background) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("index-provisioner-");
+            executor.setDaemon(true);
+            executor.execute(this::provision);
+        } else {
+            provision();
+        }
+    }
+
+    /**
+     * Create the declared indexes and verify the repository query plans against them
+     */
+    public void provision() {
+        try {
+            long start = System.currentTimeMillis();
+            indexManager.ensureIndexes();
+            logger.info("Index provisioning completed in {} ms", System.currentTimeMillis() - start);
+            queryPlanVerifier.verify();
+        } catch (RuntimeException ex) {
+            logger.error("Index provisioning failed", ex);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.usmobile.userManagement.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Mongo Indexes Health Indicator
+ * Reports DOWN while any of the declared indexes is missing, so that an instance is not routed traffic
+ * that would otherwise be served by collection scans.
+ */
+@Component
+public class MongoIndexesHealthIndicator implements HealthIndicator {
+
+    IndexManager indexManager;
+
+    QueryPlanVerifier queryPlanVerifier;
+
+    @Autowired
+    public MongoIndexesHealthIndicator(IndexManager indexManager, QueryPlanVerifier queryPlanVerifier) {
+        this.indexManager = indexManager;
+        this.queryPlanVerifier = queryPlanVerifier;
+    }
+
+    @Override
+    public Health health() {
+        try {
+            List<String> missingIndexes = indexManager.missingIndexes();
+            Health.Builder builder = missingIndexes.isEmpty() ? Health.up() : Health.down();
+            return builder.withDetail("missingIndexes", missingIndexes)
+                    .withDetail("queryPlans", queryPlanVerifier.lastResults())
+                    .build();
+        } catch (DataAccessException ex) {
+            return Health.down(ex).build();
+        }
+    }
+
+}
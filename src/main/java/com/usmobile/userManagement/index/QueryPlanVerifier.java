@@ -0,0 +1,135 @@
+package com.usmobile.userManagement.index;
+
+import com.mongodb.client.FindIterable;
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Query Plan Verifier
+ * Runs explain() for the filters issued by the repository queries and checks that the winning plan
+ * is an index scan on the expected index rather than a collection scan.
+ */
+@Component
+public class QueryPlanVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanVerifier.class);
+
+    private static final String PROBE_USER_ID = "000000000000000000000000";
+    private static final String PROBE_MDN = "0000000000";
+
+    MongoTemplate mongoTemplate;
+
+    private volatile List<QueryPlanCheck> lastResults = List.of();
+
+    @Autowired
+    public QueryPlanVerifier(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Explain the repository queries and record which index each of them uses
+     * @return list of query plan checks, one per repository query
+     */
+    public List<QueryPlanCheck> verify() {
+        long now = System.currentTimeMillis();
+        List<QueryPlanCheck> results = new ArrayList<>();
+
+        // CycleRepository.findCurrentCycleByUserIdAndMdn / findCurrentCycleWindowByUserIdAndMdn
+        results.add(check("findCurrentCycleByUserIdAndMdn", Cycle.class, "userId_mdn_startDate_endDate",
+                find(Cycle.class, new Document("userId", PROBE_USER_ID).append("mdn", PROBE_MDN)
+                        .append("startDate", new Document("$lte", now))
+                        .append("endDate", new Document("$gte", now)))));
+
+        // CycleRepository.findByUserIdAndMdnOrderByStartDateDesc / findCycleWindowsByUserIdAndMdn
+        results.add(check("findByUserIdAndMdnOrderByStartDateDesc", Cycle.class, "userId_mdn_startDate_endDate",
+                find(Cycle.class, new Document("userId", PROBE_USER_ID).append("mdn", PROBE_MDN))
+                        .sort(new Document("startDate", -1))));
+
+        // DailyUsageRepository.findByUserIdAndMdnAndUsageDateBetweenOrderByUsageDateDesc / findUsageAmounts
+        results.add(check("findByUserIdAndMdnAndUsageDateBetweenOrderByUsageDateDesc", DailyUsage.class,
+                "userId_mdn_usageDate",
+                find(DailyUsage.class, new Document("userId", PROBE_USER_ID).append("mdn", PROBE_MDN)
+                        .append("usageDate", new Document("$gte", now).append("$lte", now)))
+                        .sort(new Document("usageDate", -1))));
+
+        // UserRepository.findByEmail
+        results.add(check("findByEmail", User.class, "email_unique",
+                find(User.class, new Document("email", "probe@example.com"))));
+
+        results.stream().filter(result -> !result.usesExpectedIndex())
+                .forEach(result -> logger.warn("Query {} on {} does not use index {}, winning plan uses {}",
+                        result.query(), result.collection(), result.expectedIndex(), result.winningIndex()));
+        lastResults = List.copyOf(results);
+        return lastResults;
+    }
+
+    /**
+     * Get the results of the last verification run
+     * @return list of query plan checks, empty if verification has not run yet
+     */
+    public List<QueryPlanCheck> lastResults() {
+        return lastResults;
+    }
+
+    private FindIterable<Document> find(Class<?> entity, Document filter) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(entity)).find(filter);
+    }
+
+    private QueryPlanCheck check(String query, Class<?> entity, String expectedIndex, FindIterable<Document> find) {
+        Document explain = find.explain();
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        String winningIndex = queryPlanner == null ? null
+                : findIndexScan(queryPlanner.get("winningPlan")).orElse(null);
+        return new QueryPlanCheck(query, mongoTemplate.getCollectionName(entity), expectedIndex,
+                winningIndex == null ? "COLLSCAN" : winningIndex, expectedIndex.equals(winningIndex));
+    }
+
+    /**
+     * Walk the plan tree and return the index name of the first IXSCAN stage. The classic engine nests stages
+     * under inputStage(s) while the slot based engine wraps them in queryPlan, so the whole tree is searched.
+     */
+    private static Optional<String> findIndexScan(Object node) {
+        if (node instanceof Document stage) {
+            if ("IXSCAN".equals(stage.get("stage"))) {
+                return Optional.ofNullable(stage.getString("indexName"));
+            }
+            for (Object child : stage.values()) {
+                Optional<String> indexName = findIndexScan(child);
+                if (indexName.isPresent()) {
+                    return indexName;
+                }
+            }
+        } else if (node instanceof List<?> stages) {
+            for (Object child : stages) {
+                Optional<String> indexName = findIndexScan(child);
+                if (indexName.isPresent()) {
+                    return indexName;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Result of explaining a single repository query
+     * @param query repository method name
+     * @param collection collection the query runs against
+     * @param expectedIndex index the query is expected to use
+     * @param winningIndex index used by the winning plan, COLLSCAN if no index is used
+     * @param usesExpectedIndex whether the winning plan uses the expected index
+     */
+    public record QueryPlanCheck(String query, String collection, String expectedIndex, String winningIndex,
+                                 boolean usesExpectedIndex) { }
+
+}
@@ -0,0 +1,19 @@
+package com.usmobile.userManagement.model;
+
+/**
+ * Result of an archive run
+ * @param horizon epoch millis before which cycles and daily usage were archived
+ * @param cycles number of cycles moved to Cycle_Archive
+ * @param dailyUsage number of daily usage documents, or days of the buckets of the archived cycles in the bucketed
+ *                   storage mode, moved to Daily_Usage_Archive
+ * @param keptDailyUsage number of daily usage documents older than the horizon kept in Daily_Usage, because
+ *                       a cycle that is not archived yet covers them or they have no usage amount
+ * @param elapsedMillis duration of the run
+ */
+public record ArchiveResult(
+        long horizon,
+        long cycles,
+        long dailyUsage,
+        long keptDailyUsage,
+        long elapsedMillis
+) { }
@@ -0,0 +1,14 @@
+package com.usmobile.userManagement.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CurrentCycleReportBatchRequest(
+        @NotEmpty(message = "lines are required")
+        @Size(max = 50, message = "at most 50 lines can be requested at once")
+        @Valid
+        List<LineInfo> lines
+) { }
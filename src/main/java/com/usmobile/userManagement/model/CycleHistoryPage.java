@@ -0,0 +1,14 @@
+package com.usmobile.userManagement.model;
+
+import java.util.List;
+
+/**
+ * Page of the cycle history of a line
+ * @param cycles cycles of the page, ordered by start date desc
+ * @param nextCursor cursor of the next page, the start date of the last cycle in millisecond epoch,
+ *                   null if this is the last page
+ */
+public record CycleHistoryPage(
+        List<CycleInfo> cycles,
+        Long nextCursor
+) { }
@@ -0,0 +1,25 @@
+package com.usmobile.userManagement.model;
+
+import java.util.Date;
+
+/**
+ * Usage totals of a cycle
+ * @param cycleId cycle id
+ * @param startDate cycle start date
+ * @param endDate cycle end date
+ * @param totalMb usage of the cycle in MB
+ * @param daysWithUsage number of days of the cycle with some usage
+ * @param peakDayDate day of the cycle with the highest usage, null when the cycle has no usage
+ * @param peakDayMb usage of the peak day in MB, null when the cycle has no usage
+ * @param lastUpdated when the totals were last computed
+ */
+public record CycleUsageSummaryResponse(
+        String cycleId,
+        Date startDate,
+        Date endDate,
+        long totalMb,
+        int daysWithUsage,
+        Date peakDayDate,
+        Integer peakDayMb,
+        Date lastUpdated
+) { }
@@ -0,0 +1,17 @@
+package com.usmobile.userManagement.model;
+
+/**
+ * Result of a daily usage deduplication run
+ * @param duplicateDays number of line and day keys held by more than one daily usage document
+ * @param removed number of duplicate daily usage documents merged and removed, or to remove in a dry run
+ * @param dryRun whether the run only counted the duplicates
+ * @param unique whether the userId_mdn_usageDate index is unique at the end of the run
+ * @param elapsedMillis duration of the run
+ */
+public record DailyUsageDeduplicationResult(
+        long duplicateDays,
+        long removed,
+        boolean dryRun,
+        boolean unique,
+        long elapsedMillis
+) { }
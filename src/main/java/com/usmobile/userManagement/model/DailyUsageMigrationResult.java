@@ -0,0 +1,15 @@
+package com.usmobile.userManagement.model;
+
+/**
+ * Result of a daily usage migration run
+ * @param copied number of daily usage documents copied by this run
+ * @param skipped number of daily usage documents without a usage date or amount, left behind
+ * @param batches number of batches written by this run
+ * @param elapsedMillis duration of the run
+ */
+public record DailyUsageMigrationResult(
+        long copied,
+        long skipped,
+        long batches,
+        long elapsedMillis
+) { }
@@ -0,0 +1,24 @@
+package com.usmobile.userManagement.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Daily usage row of a usage dump, with the total usage of the line on the day
+ * @param userId user id
+ * @param mdn mdn of the user
+ * @param usageDate usage date in millisecond epoch
+ * @param usedInMb total usage of the day
+ */
+public record DailyUsageRow(
+        @NotBlank(message = "userId is required")
+        String userId,
+        @NotBlank(message = "mdn is required")
+        String mdn,
+        @NotNull(message = "usageDate is required")
+        Long usageDate,
+        @NotNull(message = "usedInMb is required")
+        @PositiveOrZero(message = "usedInMb must not be negative")
+        Integer usedInMb
+) { }
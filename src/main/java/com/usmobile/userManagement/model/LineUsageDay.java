@@ -0,0 +1,13 @@
+package com.usmobile.userManagement.model;
+
+/**
+ * A usage day of a line whose daily usage was written
+ * @param userId user id
+ * @param mdn mdn of the user
+ * @param usageDate start of the usage day in epoch millis
+ */
+public record LineUsageDay(
+        String userId,
+        String mdn,
+        long usageDate
+) { }
@@ -0,0 +1,17 @@
+package com.usmobile.userManagement.model;
+
+import java.util.List;
+
+/**
+ * Current cycle daily usage report of a line
+ * @param userId user id
+ * @param mdn mdn of the user
+ * @param cycle active cycle of the line, null if the line has no active cycle
+ * @param dailyUsage daily usage within the active cycle ordered by date desc, empty if there is no active cycle
+ */
+public record LineUsageReport(
+        String userId,
+        String mdn,
+        CycleInfo cycle,
+        List<DailyUsageReport> dailyUsage
+) { }
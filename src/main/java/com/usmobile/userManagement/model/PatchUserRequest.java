@@ -0,0 +1,17 @@
+package com.usmobile.userManagement.model;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Partial user update, only the fields present are changed
+ */
+public record PatchUserRequest(
+        @Pattern(regexp = ".*\\S.*", message = "firstName must not be blank")
+        String firstName,
+        @Pattern(regexp = ".*\\S.*", message = "lastName must not be blank")
+        String lastName,
+        @Pattern(regexp = ".*\\S.*", message = "email must not be blank")
+        @Email(regexp = ".+@.+\\..+", message = "email is invalid")
+        String email
+) { }
@@ -0,0 +1,14 @@
+package com.usmobile.userManagement.model;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Batch of usage records. Records are validated one by one when the batch is applied, so that an invalid
+ * record is reported in its outcome instead of rejecting the whole batch.
+ */
+public record UsageBatchRequest(
+        @NotEmpty(message = "records are required")
+        List<UsageRecord> records
+) { }
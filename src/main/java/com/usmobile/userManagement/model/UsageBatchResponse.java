@@ -0,0 +1,17 @@
+package com.usmobile.userManagement.model;
+
+import java.util.List;
+
+/**
+ * Result of a usage batch
+ * @param applied number of applied records
+ * @param queued number of records queued for the next flush of the write-behind aggregator
+ * @param failed number of failed records
+ * @param outcomes outcome of each record, in batch order
+ */
+public record UsageBatchResponse(
+        int applied,
+        int queued,
+        int failed,
+        List<UsageRecordOutcome> outcomes
+) { }
@@ -0,0 +1,21 @@
+package com.usmobile.userManagement.model;
+
+import java.util.List;
+
+/**
+ * Result of a usage import
+ * @param records number of rows read
+ * @param written number of rows written
+ * @param failed number of rows that were invalid or could not be written
+ * @param elapsedMillis duration of the import
+ * @param recordsPerSecond rows read per second
+ * @param errors line and reason of the first failed rows
+ */
+public record UsageImportResult(
+        long records,
+        long written,
+        long failed,
+        long elapsedMillis,
+        double recordsPerSecond,
+        List<String> errors
+) { }
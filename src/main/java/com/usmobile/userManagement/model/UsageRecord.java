@@ -0,0 +1,19 @@
+package com.usmobile.userManagement.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.Date;
+
+public record UsageRecord(
+        @NotBlank(message = "userId is required")
+        String userId,
+        @NotBlank(message = "mdn is required")
+        String mdn,
+        @NotNull(message = "usageDate is required")
+        Date usageDate,
+        @NotNull(message = "deltaMb is required")
+        @PositiveOrZero(message = "deltaMb must not be negative")
+        Integer deltaMb
+) { }
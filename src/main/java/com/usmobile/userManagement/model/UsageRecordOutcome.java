@@ -0,0 +1,30 @@
+package com.usmobile.userManagement.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of a usage record
+ * @param index position of the record in the batch
+ * @param status whether the record was applied, queued or failed
+ * @param error reason of the failure, only set for failed records
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UsageRecordOutcome(
+        int index,
+        UsageRecordStatus status,
+        String error
+) {
+
+    public static UsageRecordOutcome applied(int index) {
+        return new UsageRecordOutcome(index, UsageRecordStatus.APPLIED, null);
+    }
+
+    public static UsageRecordOutcome queued(int index) {
+        return new UsageRecordOutcome(index, UsageRecordStatus.QUEUED, null);
+    }
+
+    public static UsageRecordOutcome failed(int index, String error) {
+        return new UsageRecordOutcome(index, UsageRecordStatus.FAILED, error);
+    }
+
+}
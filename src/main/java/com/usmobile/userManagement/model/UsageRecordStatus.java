@@ -0,0 +1,23 @@
+package com.usmobile.userManagement.model;
+
+/**
+ * Outcome of a single usage record in a batch
+ */
+public enum UsageRecordStatus {
+
+    /**
+     * The usage was added to the daily usage of the line
+     */
+    APPLIED,
+
+    /**
+     * The usage was accepted by the write-behind aggregator and will be added by its next flush
+     */
+    QUEUED,
+
+    /**
+     * The record was invalid or could not be written, the usage was not added
+     */
+    FAILED
+
+}
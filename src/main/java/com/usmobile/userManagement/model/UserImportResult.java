@@ -0,0 +1,23 @@
+package com.usmobile.userManagement.model;
+
+import java.util.List;
+
+/**
+ * Result of a user import
+ * @param records number of users read
+ * @param imported number of users created
+ * @param duplicates number of users skipped because their email already exists or repeats an earlier user
+ * @param failed number of users that were invalid or could not be written
+ * @param elapsedMillis duration of the import
+ * @param usersPerSecond users created per second over the whole import
+ * @param errors position and reason of the first skipped or failed users
+ */
+public record UserImportResult(
+        long records,
+        long imported,
+        long duplicates,
+        long failed,
+        long elapsedMillis,
+        double usersPerSecond,
+        List<String> errors
+) { }
@@ -0,0 +1,12 @@
+package com.usmobile.userManagement.model;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+
+public record VerifyPasswordRequest(
+        @NotBlank(message = "email is required")
+        @Email(regexp = ".+@.+\\..+", message = "email is invalid")
+        String email,
+        @NotBlank(message = "password is required")
+        String password
+) { }
@@ -0,0 +1,22 @@
+package com.usmobile.userManagement.model;
+
+/**
+ * Failed write of a bulk write
+ * @param code server error code
+ * @param message server error message
+ */
+public record WriteFailure(
+        int code,
+        String message
+) {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    /**
+     * @return whether the write was rejected by a unique index
+     */
+    public boolean duplicateKey() {
+        return code == DUPLICATE_KEY;
+    }
+
+}
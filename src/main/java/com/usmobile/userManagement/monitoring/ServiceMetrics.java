@@ -0,0 +1,26 @@
+package com.usmobile.userManagement.monitoring;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Service Metrics
+ * Service methods annotated with {@code @Timed("service.invocations")} are timed by an aspect, tagged with their
+ * class, method and exception. Together with the http.server.requests, spring.data.repository.invocations and
+ * mongodb.driver.commands timers they break a request down into its service, repository and driver time.
+ */
+@Component
+public class ServiceMetrics {
+
+    /**
+     * Timed aspect
+     * @return Returns the aspect recording the {@code @Timed} methods of the Spring beans
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.ArchivedCycle;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Cycle history reads of the archive tier, mirroring the ones of CycleRepository
+ */
+public interface ArchivedCycleRepository extends MongoRepository<ArchivedCycle, String> {
+    /**
+     * Find the windows of all the archived cycles based on provided userId and mdn ordered by start date desc
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @return a List of cycle windows, which can be empty
+     */
+    @Query(value = "{ 'userId' : ?0, 'mdn' : ?1 }", fields = "{ 'startDate' : 1, 'endDate' : 1 }",
+            sort = "{ 'startDate' : -1 }")
+    List<CycleWindow> findCycleWindowsByUserIdAndMdn(String userId, String mdn);
+
+    /**
+     * Find a page of archived cycle windows based on provided userId and mdn, starting before the given start
+     * date and ordered by start date desc
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param startDateBefore exclusive upper bound of the start date
+     * @param limit maximum number of cycles to read
+     * @return a List of cycle windows, which can be empty
+     */
+    @Query(value = "{ 'userId' : ?0, 'mdn' : ?1, 'startDate' : { $lt : ?2 } }",
+            fields = "{ 'startDate' : 1, 'endDate' : 1 }", sort = "{ 'startDate' : -1 }")
+    List<CycleWindow> findCycleWindowPage(String userId, String mdn, Long startDateBefore, Limit limit);
+
+    /**
+     * Stream the windows of all the archived cycles based on provided userId and mdn ordered by start date desc,
+     * backed by a server cursor. The stream must be closed to release the cursor.
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @return a Stream of cycle windows, which can be empty
+     */
+    @Query(value = "{ 'userId' : ?0, 'mdn' : ?1 }", fields = "{ 'startDate' : 1, 'endDate' : 1 }",
+            sort = "{ 'startDate' : -1 }")
+    Stream<CycleWindow> streamCycleWindowsByUserIdAndMdn(String userId, String mdn);
+}
@@ -1,14 +1,17 @@
 package com.usmobile.userManagement.repository;
 
 import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface CycleRepository extends MongoRepository<Cycle, String> {
+public interface CycleRepository extends MongoRepository<Cycle, String>, CycleRepositoryCustom {
     /**
      * Find the active cycle based on provided date by userId and mdn
      * @param userId user id
@@ -26,4 +29,52 @@ public interface CycleRepository extends MongoRepository<Cycle, String> {
      * @return a List of cycles, which can be empty
      */
     List<Cycle> findByUserIdAndMdnOrderByStartDateDesc(String userId, String mdn);
+
+    /**
+     * Find the window of the active cycle based on provided date by userId and mdn, reading only the id and dates
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param currentDate date for which active cycle is to be found
+     * @return an optional of cycle window
+     */
+    @Query(value = "{ 'userId' : ?0, 'mdn' : ?1, 'startDate' : { $lte : ?2 }, 'endDate' : { $gte : ?2 } }",
+            fields = "{ 'startDate' : 1, 'endDate' : 1 }")
+    Optional<CycleWindow> findCurrentCycleWindowByUserIdAndMdn(String userId, String mdn, Long currentDate);
+
+    /**
+     * Find the windows of all the cycles based on provided userId and mdn ordered by start date desc,
+     * reading only the id and dates
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @return a List of cycle windows, which can be empty
+     */
+    @Query(value = "{ 'userId' : ?0, 'mdn' : ?1 }", fields = "{ 'startDate' : 1, 'endDate' : 1 }",
+            sort = "{ 'startDate' : -1 }")
+    List<CycleWindow> findCycleWindowsByUserIdAndMdn(String userId, String mdn);
+
+    /**
+     * Find a page of cycle windows based on provided userId and mdn, starting before the given start date and
+     * ordered by start date desc. The userId_mdn_startDate_endDate index serves both the range and the order,
+     * so only the requested page is read.
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param startDateBefore exclusive upper bound of the start date, the start date of the last cycle of the
+     *                        previous page
+     * @param limit maximum number of cycles to read
+     * @return a List of cycle windows, which can be empty
+     */
+    @Query(value = "{ 'userId' : ?0, 'mdn' : ?1, 'startDate' : { $lt : ?2 } }",
+            fields = "{ 'startDate' : 1, 'endDate' : 1 }", sort = "{ 'startDate' : -1 }")
+    List<CycleWindow> findCycleWindowPage(String userId, String mdn, Long startDateBefore, Limit limit);
+
+    /**
+     * Stream the windows of all the cycles based on provided userId and mdn ordered by start date desc,
+     * backed by a server cursor. The stream must be closed to release the cursor.
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @return a Stream of cycle windows, which can be empty
+     */
+    @Query(value = "{ 'userId' : ?0, 'mdn' : ?1 }", fields = "{ 'startDate' : 1, 'endDate' : 1 }",
+            sort = "{ 'startDate' : -1 }")
+    Stream<CycleWindow> streamCycleWindowsByUserIdAndMdn(String userId, String mdn);
 }
@@ -0,0 +1,35 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cycle queries that cannot be expressed as derived or annotated repository queries
+ */
+public interface CycleRepositoryCustom {
+
+    /**
+     * Build the daily usage report of the active cycle in a single aggregation, joining the
+     * Daily_Usage documents within the cycle window and projecting them to the report shape
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param currentDate date for which active cycle is to be found
+     * @return an optional of the daily usage report ordered by usage date desc, empty if there is no active cycle
+     */
+    Optional<List<DailyUsageReport>> findCurrentCycleReport(String userId, String mdn, Long currentDate);
+
+    /**
+     * Find the windows of the active cycles of many lines in one query, an $or of one index bound
+     * (userId, mdn, startDate, endDate) clause per line
+     * @param lines lines to look up
+     * @param currentDate date for which active cycles are to be found
+     * @return the active cycle windows of the lines that have one, in no particular order
+     */
+    List<LineCycleWindow> findCurrentCycleWindows(Collection<LineInfo> lines, Long currentDate);
+
+}
@@ -0,0 +1,118 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.DailyUsageBucket;
+import com.usmobile.userManagement.entity.DailyUsageMeasurement;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.util.UsageDays;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of CycleRepositoryCustom, picked up by Spring Data through the Impl suffix
+ */
+public class CycleRepositoryCustomImpl implements CycleRepositoryCustom {
+
+    private static final String DAILY_USAGE_FIELD = "dailyUsage";
+
+    MongoTemplate mongoTemplate;
+
+    DailyUsageStorageMode storageMode;
+
+    @Autowired
+    public CycleRepositoryCustomImpl(MongoTemplate mongoTemplate,
+                                     @Value("${usage.storage.mode:COLLECTION}") DailyUsageStorageMode storageMode) {
+        this.mongoTemplate = mongoTemplate;
+        this.storageMode = storageMode;
+    }
+
+    @Override
+    public Optional<List<DailyUsageReport>> findCurrentCycleReport(String userId, String mdn, Long currentDate) {
+        // Inner pipeline filters on literal userId and mdn so it can use the userId_mdn_usageDate index (or
+        // line_userId_mdn_usageDate), the cycle window comes from the matched cycle through the let variables,
+        // starting at the start of the day of the cycle start since daily usage is keyed by day.
+        // A bucket shares the id of its cycle, so the bucketed layout reads a single document by _id.
+        List<Document> dailyUsagePipeline = new ArrayList<>();
+        if (storageMode == DailyUsageStorageMode.BUCKETED) {
+            dailyUsagePipeline.add(new Document("$match", new Document("$expr",
+                    new Document("$eq", List.of("$_id", "$$cycleId")))));
+            dailyUsagePipeline.addAll(DailyUsageBuckets.days());
+        } else if (storageMode == DailyUsageStorageMode.TIME_SERIES) {
+            dailyUsagePipeline.addAll(DailyUsageTimeSeries.dailyTotals(new Document("line.userId", userId)
+                    .append("line.mdn", mdn)
+                    .append("$expr", new Document("$and",
+                            DailyUsageTimeSeries.withinWindow("$$startDate", "$$endDate")))));
+        } else {
+            dailyUsagePipeline.add(new Document("$match", new Document("userId", userId).append("mdn", mdn)
+                    .append("$expr", new Document("$and", List.of(
+                            new Document("$gte", List.of("$usageDate", "$$startDate")),
+                            new Document("$lte", List.of("$usageDate", "$$endDate")))))));
+        }
+        dailyUsagePipeline.add(new Document("$sort", new Document("usageDate", -1)));
+        dailyUsagePipeline.add(new Document("$project", new Document("_id", 0)
+                .append("date", "$usageDate")
+                .append(DAILY_USAGE_FIELD, "$usedInMb")));
+        AggregationOperation lookupDailyUsage = context -> new Document("$lookup", new Document()
+                .append("from", dailyUsageCollection())
+                .append("let", new Document("cycleId", "$_id")
+                        .append("startDate", UsageDays.startOfDay("$startDate"))
+                        .append("endDate", "$endDate"))
+                .append("pipeline", dailyUsagePipeline)
+                .append("as", DAILY_USAGE_FIELD));
+        AggregationOperation projectReport = context -> new Document("$project",
+                new Document("_id", 0).append(DAILY_USAGE_FIELD, 1));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId).and("mdn").is(mdn)
+                        .and("startDate").lte(currentDate).and("endDate").gte(currentDate)),
+                Aggregation.limit(1),
+                lookupDailyUsage,
+                projectReport);
+
+        Document cycle = mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Cycle.class),
+                Document.class).getUniqueMappedResult();
+        if (cycle == null) {
+            return Optional.empty();
+        }
+        return Optional.of(cycle.getList(DAILY_USAGE_FIELD, Document.class).stream()
+                .map(du -> new DailyUsageReport(new Date(du.get("date", Number.class).longValue()),
+                        du.get(DAILY_USAGE_FIELD, Number.class).intValue()))
+                .toList());
+    }
+
+    @Override
+    public List<LineCycleWindow> findCurrentCycleWindows(Collection<LineInfo> lines, Long currentDate) {
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        Query query = Query.query(new Criteria().orOperator(lines.stream()
+                .map(line -> Criteria.where("userId").is(line.userId()).and("mdn").is(line.mdn())
+                        .and("startDate").lte(currentDate).and("endDate").gte(currentDate))
+                .toList()));
+        return mongoTemplate.query(Cycle.class).as(LineCycleWindow.class).matching(query).all();
+    }
+
+    private String dailyUsageCollection() {
+        return mongoTemplate.getCollectionName(switch (storageMode) {
+            case COLLECTION -> DailyUsage.class;
+            case TIME_SERIES -> DailyUsageMeasurement.class;
+            case BUCKETED -> DailyUsageBucket.class;
+        });
+    }
+
+}
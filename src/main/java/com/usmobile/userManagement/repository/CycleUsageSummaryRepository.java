@@ -0,0 +1,19 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.CycleUsageSummary;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Optional;
+
+public interface CycleUsageSummaryRepository extends MongoRepository<CycleUsageSummary, String>,
+        CycleUsageSummaryRepositoryCustom {
+    /**
+     * Find the usage summary of a cycle of the line, served by the _id index
+     * @param id cycle id
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @return an optional of the usage summary, empty if the cycle does not exist for the line or its summary
+     * was not computed yet
+     */
+    Optional<CycleUsageSummary> findByIdAndUserIdAndMdn(String id, String userId, String mdn);
+}
@@ -0,0 +1,46 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+
+import java.util.Collection;
+
+/**
+ * Cycle usage summary writes that cannot be expressed as repository queries
+ */
+public interface CycleUsageSummaryRepositoryCustom {
+
+    /**
+     * Recompute the usage summaries of the cycles containing the given usage days from their daily usage, in one
+     * aggregation on the server merged into the summaries. Days outside any cycle of their line are ignored.
+     * Used where usage is set rather than added to; a recompute only replaces a summary computed before it.
+     * @param usageDays written usage days
+     */
+    void refreshSummaries(Collection<LineUsageDay> usageDays);
+
+    /**
+     * Add usage deltas already written to the daily usage to the summaries of the cycles containing their days,
+     * one atomic update per cycle and day, so that concurrent writes to a cycle are all counted. Summaries never
+     * computed are computed from the daily usage instead. Records outside any cycle of their line are ignored.
+     * @param records written usage records, usageDate being the start of the usage day
+     */
+    void incrementSummaries(Collection<UsageRecord> records);
+
+    /**
+     * Recompute the usage summary of a cycle of the line from its daily usage
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param cycleId cycle id
+     */
+    void refreshSummary(String userId, String mdn, String cycleId);
+
+    /**
+     * Delete the usage summaries of the cycles of the line, keeping those of its archived cycles, served by the
+     * userId_mdn indexes
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @return number of deleted summaries
+     */
+    long deleteUnarchivedSummaries(String userId, String mdn);
+
+}
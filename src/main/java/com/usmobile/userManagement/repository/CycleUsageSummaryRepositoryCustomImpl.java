@@ -0,0 +1,253 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.ArchivedCycle;
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.CycleUsageSummary;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.DailyUsageBucket;
+import com.usmobile.userManagement.entity.DailyUsageMeasurement;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.util.UsageDays;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of CycleUsageSummaryRepositoryCustom, picked up by Spring Data through the Impl suffix
+ */
+public class CycleUsageSummaryRepositoryCustomImpl implements CycleUsageSummaryRepositoryCustom {
+
+    private static final String DAILY_USAGE_FIELD = "dailyUsage";
+
+    MongoTemplate mongoTemplate;
+
+    DailyUsageStorageMode storageMode;
+
+    @Autowired
+    public CycleUsageSummaryRepositoryCustomImpl(MongoTemplate mongoTemplate,
+                                                 @Value("${usage.storage.mode:COLLECTION}")
+                                                 DailyUsageStorageMode storageMode) {
+        this.mongoTemplate = mongoTemplate;
+        this.storageMode = storageMode;
+    }
+
+    @Override
+    public void refreshSummaries(Collection<LineUsageDay> usageDays) {
+        if (usageDays.isEmpty()) {
+            return;
+        }
+        refresh(cyclesContaining(usageDays));
+    }
+
+    @Override
+    public void incrementSummaries(Collection<UsageRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        Map<LineUsageDay, Integer> deltas = new LinkedHashMap<>();
+        records.forEach(usageRecord -> deltas.merge(new LineUsageDay(usageRecord.userId(), usageRecord.mdn(),
+                usageRecord.usageDate().getTime()), usageRecord.deltaMb(), Integer::sum));
+        Query cycleQuery = Query.query(cyclesContaining(deltas.keySet()))
+                .with(Sort.by(Sort.Direction.DESC, "startDate"));
+        Map<LineInfo, List<LineCycleWindow>> cyclesByLine = mongoTemplate.query(Cycle.class)
+                .as(LineCycleWindow.class).matching(cycleQuery).all().stream()
+                .collect(Collectors.groupingBy(cycle -> new LineInfo(cycle.userId(), cycle.mdn())));
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                CycleUsageSummary.class);
+        Set<String> cycleIds = new LinkedHashSet<>();
+        deltas.forEach((day, delta) -> {
+            Stream<LineCycleWindow> cycles = cyclesByLine.getOrDefault(new LineInfo(day.userId(), day.mdn()),
+                    List.of()).stream()
+                    .filter(c -> UsageDays.startOfDay(c.startDate()) <= day.usageDate()
+                            && c.endDate() >= day.usageDate());
+            if (storageMode == DailyUsageStorageMode.BUCKETED) {
+                // A day is only written to the bucket of the latest cycle containing it
+                cycles = cycles.limit(1);
+            }
+            cycles.forEach(cycle -> {
+                cycleIds.add(cycle.id());
+                bulkOperations.updateOne(Query.query(Criteria.where("id").is(cycle.id())),
+                        addToDay(day.usageDate(), delta));
+            });
+        });
+        if (cycleIds.isEmpty()) {
+            return;
+        }
+        bulkOperations.execute();
+
+        // Summaries never computed are not incremented, they are computed from the daily usage holding the deltas
+        Query summaryQuery = Query.query(Criteria.where("id").in(cycleIds));
+        summaryQuery.fields().include("id");
+        mongoTemplate.find(summaryQuery, CycleUsageSummary.class).forEach(summary -> cycleIds.remove(summary.getId()));
+        if (!cycleIds.isEmpty()) {
+            refresh(Criteria.where("id").in(cycleIds));
+        }
+    }
+
+    @Override
+    public void refreshSummary(String userId, String mdn, String cycleId) {
+        refresh(Criteria.where("id").is(cycleId).and("userId").is(userId).and("mdn").is(mdn));
+    }
+
+    @Override
+    public long deleteUnarchivedSummaries(String userId, String mdn) {
+        Query archivedCycles = Query.query(Criteria.where("userId").is(userId).and("mdn").is(mdn));
+        archivedCycles.fields().include("id");
+        List<String> archivedIds = mongoTemplate.find(archivedCycles, ArchivedCycle.class).stream()
+                .map(ArchivedCycle::getId)
+                .toList();
+        return mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId).and("mdn").is(mdn)
+                .and("id").nin(archivedIds)), CycleUsageSummary.class).getDeletedCount();
+    }
+
+    /**
+     * One clause per line, matching the cycles overlapping its first to last day, including the cycles starting
+     * during its last day
+     */
+    private static Criteria cyclesContaining(Collection<LineUsageDay> usageDays) {
+        Map<LineInfo, LongSummaryStatistics> daysByLine = new LinkedHashMap<>();
+        usageDays.forEach(day -> daysByLine.computeIfAbsent(new LineInfo(day.userId(), day.mdn()),
+                line -> new LongSummaryStatistics()).accept(day.usageDate()));
+        return new Criteria().orOperator(daysByLine.entrySet().stream()
+                .map(line -> Criteria.where("userId").is(line.getKey().userId()).and("mdn").is(line.getKey().mdn())
+                        .and("startDate").lt(line.getValue().getMax() + UsageDays.DAY_MILLIS)
+                        .and("endDate").gte(line.getValue().getMin()))
+                .toList());
+    }
+
+    /**
+     * Add a delta to a day of a summary in one atomic update, the day count and the peak day are derived from
+     * the updated days so that concurrent increments of the same cycle compose
+     */
+    private static AggregationUpdate addToDay(long usageDate, int delta) {
+        String day = String.valueOf(usageDate);
+        Document days = new Document("$ifNull", List.of("$days", new Document()));
+        Document usedInMb = new Document("$ifNull", List.of(
+                new Document("$getField", new Document("field", day).append("input", days)), 0));
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        pipeline.add(context -> new Document("$set", new Document()
+                .append("days", new Document("$mergeObjects", List.of(days,
+                        new Document(day, new Document("$add", List.of(usedInMb, delta))))))
+                .append("totalMb", new Document("$add", List.of(new Document("$ifNull", List.of("$totalMb", 0)),
+                        delta)))
+                .append("lastUpdated", new Document("$toLong", "$$NOW"))));
+        pipeline.addAll(dayTotals());
+        return AggregationUpdate.from(pipeline);
+    }
+
+    /**
+     * Day count and peak day of a summary from its days, keyed by the usage date in epoch millis. The peak day
+     * is the day with the highest usage, the latest one on ties.
+     */
+    private static List<AggregationOperation> dayTotals() {
+        Document days = new Document("$objectToArray", "$days");
+        return List.of(
+                context -> new Document("$set", new Document()
+                        .append("daysWithUsage", new Document("$size", new Document("$filter", new Document()
+                                .append("input", days)
+                                .append("cond", new Document("$gt", List.of("$$this.v", 0))))))
+                        .append("peakDay", new Document("$first", new Document("$sortArray", new Document()
+                                .append("input", days)
+                                .append("sortBy", new Document("v", -1).append("k", -1)))))),
+                context -> new Document("$set", new Document()
+                        .append("peakDayDate", new Document("$toLong", "$peakDay.k"))
+                        .append("peakDayMb", "$peakDay.v")),
+                context -> new Document("$unset", "peakDay"));
+    }
+
+    /**
+     * Summaries are computed and written by the server: the matched cycles look up their daily usage, are
+     * reduced to their totals and replace the previous summaries, so no daily usage is sent to the application.
+     * The usage window of a cycle starts at the start of the day of the cycle start.
+     * Each result carries the time its aggregation started as computedAt, and replaces a summary only when it was
+     * not computed later, so that of concurrent recomputes of a cycle the latest one wins.
+     */
+    private void refresh(Criteria cycles) {
+        List<Document> dailyUsagePipeline = new ArrayList<>();
+        if (storageMode == DailyUsageStorageMode.BUCKETED) {
+            // The bucket of a cycle shares its id and only holds the days within it
+            dailyUsagePipeline.add(new Document("$match", new Document("$expr",
+                    new Document("$eq", List.of("$_id", "$$cycleId")))));
+            dailyUsagePipeline.addAll(DailyUsageBuckets.days());
+        } else if (storageMode == DailyUsageStorageMode.TIME_SERIES) {
+            List<Document> conditions = new ArrayList<>(List.of(
+                    new Document("$eq", List.of("$line.userId", "$$userId")),
+                    new Document("$eq", List.of("$line.mdn", "$$mdn"))));
+            conditions.addAll(DailyUsageTimeSeries.withinWindow("$$startDate", "$$endDate"));
+            dailyUsagePipeline.addAll(DailyUsageTimeSeries.dailyTotals(
+                    new Document("$expr", new Document("$and", conditions))));
+        } else {
+            dailyUsagePipeline.add(new Document("$match", new Document("$expr", new Document("$and", List.of(
+                    new Document("$eq", List.of("$userId", "$$userId")),
+                    new Document("$eq", List.of("$mdn", "$$mdn")),
+                    new Document("$gte", List.of("$usageDate", "$$startDate")),
+                    new Document("$lte", List.of("$usageDate", "$$endDate")))))));
+        }
+        dailyUsagePipeline.add(new Document("$project", new Document("_id", 0).append("usageDate", 1)
+                .append("usedInMb", 1)));
+        AggregationOperation lookupDailyUsage = context -> new Document("$lookup", new Document()
+                .append("from", mongoTemplate.getCollectionName(switch (storageMode) {
+                    case COLLECTION -> DailyUsage.class;
+                    case TIME_SERIES -> DailyUsageMeasurement.class;
+                    case BUCKETED -> DailyUsageBucket.class;
+                }))
+                .append("let", new Document("cycleId", "$_id").append("userId", "$userId").append("mdn", "$mdn")
+                        .append("startDate", UsageDays.startOfDay("$startDate")).append("endDate", "$endDate"))
+                .append("pipeline", dailyUsagePipeline)
+                .append("as", DAILY_USAGE_FIELD));
+        AggregationOperation projectSummary = context -> new Document("$project", new Document()
+                .append("userId", 1)
+                .append("mdn", 1)
+                .append("startDate", 1)
+                .append("endDate", 1)
+                .append("days", new Document("$arrayToObject", new Document("$map", new Document()
+                        .append("input", "$" + DAILY_USAGE_FIELD)
+                        .append("in", new Document("k", new Document("$toString", "$$this.usageDate"))
+                                .append("v", "$$this.usedInMb")))))
+                .append("totalMb", new Document("$sum", "$" + DAILY_USAGE_FIELD + ".usedInMb"))
+                .append("lastUpdated", new Document("$toLong", "$$NOW"))
+                .append("computedAt", new Document("$toLong", "$$NOW")));
+        AggregationOperation mergeSummaries = context -> new Document("$merge", new Document()
+                .append("into", mongoTemplate.getCollectionName(CycleUsageSummary.class))
+                .append("on", "_id")
+                .append("whenMatched", List.of(new Document("$replaceWith", new Document("$cond", List.of(
+                        new Document("$gt", List.of(new Document("$ifNull", List.of("$computedAt", 0L)),
+                                "$$new.computedAt")),
+                        "$$ROOT",
+                        "$$new")))))
+                .append("whenNotMatched", "insert"));
+
+        List<AggregationOperation> operations = new ArrayList<>(List.of(Aggregation.match(cycles), lookupDailyUsage,
+                projectSummary));
+        operations.addAll(dayTotals());
+        operations.add(mergeSummaries);
+        // Typed on Cycle so that the cycle id is matched as an ObjectId
+        TypedAggregation<Cycle> aggregation = Aggregation.newAggregation(Cycle.class, operations);
+        mongoTemplate.aggregate(aggregation, Document.class);
+    }
+
+}
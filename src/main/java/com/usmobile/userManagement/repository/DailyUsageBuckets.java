@@ -0,0 +1,43 @@
+package com.usmobile.userManagement.repository;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+/**
+ * Query parts shared by the reads of the bucketed layout of the daily usage
+ */
+final class DailyUsageBuckets {
+
+    private DailyUsageBuckets() {
+    }
+
+    /**
+     * Buckets of a line whose cycle overlaps a window, served by the userId_mdn_endDate index: only the buckets
+     * ending after the window start are scanned
+     */
+    static Criteria lineWindow(String userId, String mdn, Long startDate, Long endDate) {
+        return Criteria.where("userId").is(userId).and("mdn").is(mdn)
+                .and("endDate").gte(startDate).and("startDate").lte(endDate);
+    }
+
+    /**
+     * Stages unwinding the days of the matched buckets into documents shaped like Daily_Usage ones: userId, mdn,
+     * usageDate in epoch millis and usedInMb
+     */
+    static List<Document> days() {
+        return List.of(
+                new Document("$project", new Document("_id", 0)
+                        .append("userId", 1)
+                        .append("mdn", 1)
+                        .append("days", new Document("$objectToArray", "$days"))),
+                new Document("$unwind", "$days"),
+                new Document("$project", new Document()
+                        .append("userId", 1)
+                        .append("mdn", 1)
+                        .append("usageDate", new Document("$toLong", "$days.k"))
+                        .append("usedInMb", "$days.v")));
+    }
+
+}
@@ -8,7 +8,7 @@ import org.springframework.data.mongodb.repository.Query;
 import java.util.Date;
 import java.util.List;
 
-public interface DailyUsageRepository extends MongoRepository<DailyUsage, String> {
+public interface DailyUsageRepository extends MongoRepository<DailyUsage, String>, DailyUsageRepositoryCustom {
     /**
      * Get daily usage details by user id and mdn for usage date between and order by usage date desc.
      *
@@ -0,0 +1,70 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.model.DailyUsageRow;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.repository.projection.CycleUsage;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.LineUsageAmount;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Daily usage reads and writes that cannot be expressed as repository queries. They run against the layout
+ * configured with usage.storage.mode: the Daily_Usage collection, the Daily_Usage_TS time-series collection or the
+ * Daily_Usage_Bucket collection.
+ */
+public interface DailyUsageRepositoryCustom {
+
+    /**
+     * Add the usage of each record to the daily usage of its line and day in one unordered bulk write,
+     * creating the daily usage when it does not exist. A failed record does not stop the others.
+     * Bulk writes do not raise Mongo mapping events, callers are responsible for cache eviction.
+     * @param records usage records, usageDate must already be the start of the usage day
+     * @return error message by index of the failed records, empty if every record was applied
+     */
+    Map<Integer, String> incrementUsage(List<UsageRecord> records);
+
+    /**
+     * Set the usage of each row as the daily usage of its line and day in one unordered bulk write,
+     * creating the daily usage when it does not exist. A failed row does not stop the others.
+     * Bulk writes do not raise Mongo mapping events, callers are responsible for cache eviction.
+     * @param rows daily usage rows, usageDate must already be the start of the usage day
+     * @return error message by index of the failed rows, empty if every row was written
+     */
+    Map<Integer, String> setUsage(List<DailyUsageRow> rows);
+
+    /**
+     * Get the usage date and amount by user id and mdn for usage date between, ordered by usage date desc.
+     * Only usageDate and usedInMb are read from the server.
+     *
+     * @param userId    the user id
+     * @param mdn       the mdn
+     * @param startDate the start date of the usage (inclusive)
+     * @param endDate   the end date of the usage (inclusive)
+     * @return the list of usage amounts for the given criteria
+     */
+    List<UsageAmount> findUsageAmounts(String userId, String mdn, Long startDate, Long endDate);
+
+    /**
+     * Find the daily usage of many lines within their cycle window in one query, an $or of one index bound
+     * (userId, mdn, usageDate range) clause per cycle
+     * @param cycles cycle windows of the lines
+     * @return the usage amounts of all the lines, ordered by usage date desc
+     */
+    List<LineUsageAmount> findUsageAmountsWithinCycles(Collection<LineCycleWindow> cycles);
+
+    /**
+     * Find the bucket of the line's cycle containing the current date in one single-document read. Only the
+     * bucketed layout keeps the usage with its cycle, the other layouts always return empty.
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param currentDate current date in epoch millis
+     * @return the cycle window and usage of the bucket, empty if no usage was written in the current cycle
+     */
+    Optional<CycleUsage> findCurrentCycleUsage(String userId, String mdn, Long currentDate);
+
+}
@@ -0,0 +1,291 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.DailyUsageBucket;
+import com.usmobile.userManagement.entity.DailyUsageMeasurement;
+import com.usmobile.userManagement.model.DailyUsageRow;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.repository.projection.CycleUsage;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.LineUsageAmount;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import com.usmobile.userManagement.util.UsageDays;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Implementation of DailyUsageRepositoryCustom, picked up by Spring Data through the Impl suffix
+ */
+public class DailyUsageRepositoryCustomImpl implements DailyUsageRepositoryCustom {
+
+    MongoTemplate mongoTemplate;
+
+    DailyUsageStorageMode storageMode;
+
+    @Autowired
+    public DailyUsageRepositoryCustomImpl(MongoTemplate mongoTemplate,
+                                          @Value("${usage.storage.mode:COLLECTION}") DailyUsageStorageMode storageMode) {
+        this.mongoTemplate = mongoTemplate;
+        this.storageMode = storageMode;
+    }
+
+    @Override
+    public Map<Integer, String> incrementUsage(List<UsageRecord> records) {
+        if (storageMode == DailyUsageStorageMode.TIME_SERIES) {
+            // The increment is a new measurement of the day
+            return bulk(DailyUsageMeasurement.class, records, (bulkOperations, usageRecord) -> bulkOperations.insert(
+                    measurement(usageRecord.userId(), usageRecord.mdn(), usageRecord.usageDate().getTime(),
+                            usageRecord.deltaMb())));
+        }
+        if (storageMode == DailyUsageStorageMode.BUCKETED) {
+            return bulkToBuckets(records, usageRecord -> new LineUsageDay(usageRecord.userId(), usageRecord.mdn(),
+                    usageRecord.usageDate().getTime()), (usageRecord, day) -> new Update().inc(day,
+                    usageRecord.deltaMb()));
+        }
+        return bulk(DailyUsage.class, records, (bulkOperations, usageRecord) -> bulkOperations.upsert(
+                usageDay(usageRecord.userId(), usageRecord.mdn(), usageRecord.usageDate().getTime()),
+                new Update().inc("usedInMb", usageRecord.deltaMb())));
+    }
+
+    @Override
+    public Map<Integer, String> setUsage(List<DailyUsageRow> rows) {
+        if (storageMode == DailyUsageStorageMode.TIME_SERIES) {
+            return replaceMeasurements(rows);
+        }
+        if (storageMode == DailyUsageStorageMode.BUCKETED) {
+            return bulkToBuckets(rows, row -> new LineUsageDay(row.userId(), row.mdn(), row.usageDate()),
+                    (row, day) -> new Update().set(day, row.usedInMb()));
+        }
+        return bulk(DailyUsage.class, rows, (bulkOperations, row) -> bulkOperations.upsert(
+                usageDay(row.userId(), row.mdn(), row.usageDate()),
+                new Update().set("usedInMb", row.usedInMb())));
+    }
+
+    @Override
+    public List<UsageAmount> findUsageAmounts(String userId, String mdn, Long startDate, Long endDate) {
+        if (storageMode == DailyUsageStorageMode.TIME_SERIES) {
+            return aggregateDailyTotals(DailyUsageTimeSeries.lineWindow(userId, mdn, startDate, endDate),
+                    UsageAmount.class);
+        }
+        if (storageMode == DailyUsageStorageMode.BUCKETED) {
+            return aggregateBucketDays(DailyUsageBuckets.lineWindow(userId, mdn, startDate, endDate),
+                    new Document("usageDate", new Document("$gte", startDate).append("$lte", endDate)),
+                    UsageAmount.class);
+        }
+        Query query = Query.query(Criteria.where("userId").is(userId).and("mdn").is(mdn)
+                        .and("usageDate").gte(startDate).lte(endDate))
+                .with(Sort.by(Sort.Direction.DESC, "usageDate"));
+        query.fields().exclude("_id").include("usageDate", "usedInMb");
+        return mongoTemplate.query(DailyUsage.class).as(UsageAmount.class).matching(query).all();
+    }
+
+    @Override
+    public List<LineUsageAmount> findUsageAmountsWithinCycles(Collection<LineCycleWindow> cycles) {
+        if (cycles.isEmpty()) {
+            return List.of();
+        }
+        if (storageMode == DailyUsageStorageMode.TIME_SERIES) {
+            return aggregateDailyTotals(new Criteria().orOperator(cycles.stream()
+                            .map(cycle -> DailyUsageTimeSeries.lineWindow(cycle.userId(), cycle.mdn(),
+                                    UsageDays.startOfDay(cycle.startDate()), cycle.endDate()))
+                            .toList()),
+                    LineUsageAmount.class);
+        }
+        if (storageMode == DailyUsageStorageMode.BUCKETED) {
+            // Buckets share the id of their cycle and only hold the days within it
+            return aggregateBucketDays(Criteria.where("id").in(cycles.stream().map(LineCycleWindow::id).toList()),
+                    null, LineUsageAmount.class);
+        }
+        Query query = Query.query(new Criteria().orOperator(cycles.stream()
+                        .map(cycle -> Criteria.where("userId").is(cycle.userId()).and("mdn").is(cycle.mdn())
+                                .and("usageDate").gte(UsageDays.startOfDay(cycle.startDate()))
+                                .lte(cycle.endDate()))
+                        .toList()))
+                .with(Sort.by(Sort.Direction.DESC, "usageDate"));
+        return mongoTemplate.query(DailyUsage.class).as(LineUsageAmount.class).matching(query).all();
+    }
+
+    @Override
+    public Optional<CycleUsage> findCurrentCycleUsage(String userId, String mdn, Long currentDate) {
+        if (storageMode != DailyUsageStorageMode.BUCKETED) {
+            return Optional.empty();
+        }
+        Query query = Query.query(DailyUsageBuckets.lineWindow(userId, mdn, currentDate, currentDate))
+                .with(Sort.by(Sort.Direction.DESC, "startDate"));
+        return Optional.ofNullable(mongoTemplate.findOne(query, DailyUsageBucket.class))
+                .map(bucket -> new CycleUsage(new CycleWindow(bucket.getId(), bucket.getStartDate(),
+                        bucket.getEndDate()), bucket.getDays() == null ? List.of() : bucket.getDays().entrySet()
+                        .stream()
+                        .map(day -> new UsageAmount(Long.valueOf(day.getKey()), day.getValue()))
+                        .sorted(Comparator.comparing(UsageAmount::usageDate).reversed())
+                        .toList()));
+    }
+
+    /**
+     * Unwind the days of the buckets matching the criteria, keep the days matching the day filter if any,
+     * ordered by usage date desc. Typed on DailyUsageBucket so that cycle ids are matched as ObjectIds.
+     */
+    private <T> List<T> aggregateBucketDays(Criteria buckets, Document days, Class<T> resultType) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(buckets));
+        DailyUsageBuckets.days().forEach(stage -> operations.add(context -> stage));
+        if (days != null) {
+            operations.add(context -> new Document("$match", days));
+        }
+        operations.add(context -> new Document("$sort", new Document("usageDate", -1)));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(DailyUsageBucket.class, operations), resultType)
+                .getMappedResults();
+    }
+
+    /**
+     * Write each item to the bucket of the line's cycle covering its day in one unordered bulk write, after one
+     * query for the cycles of all the lines. Upserts match on the bucket id, the id of its cycle, so the first
+     * write of a cycle creates its bucket. Items whose day is not covered by a cycle fail.
+     */
+    private <T> Map<Integer, String> bulkToBuckets(List<T> items, Function<T, LineUsageDay> usageDay,
+                                                   BiFunction<T, String, Update> update) {
+        if (items.isEmpty()) {
+            return Map.of();
+        }
+        List<LineUsageDay> days = items.stream().map(usageDay).toList();
+        Map<LineInfo, List<LineCycleWindow>> cyclesByLine = findCycleWindows(days).stream()
+                .collect(Collectors.groupingBy(cycle -> new LineInfo(cycle.userId(), cycle.mdn())));
+        Map<Integer, String> failures = new HashMap<>();
+        Map<Integer, LineCycleWindow> cycles = new HashMap<>();
+        for (int i = 0; i < days.size(); i++) {
+            LineUsageDay day = days.get(i);
+            // Cycles are ordered by start date desc, overlapping cycles write to the latest one. A cycle covers
+            // the day it starts on, so a day on which one cycle ends and the next starts goes to the next one.
+            Optional<LineCycleWindow> cycle = cyclesByLine.getOrDefault(new LineInfo(day.userId(), day.mdn()),
+                    List.of()).stream()
+                    .filter(c -> UsageDays.startOfDay(c.startDate()) <= day.usageDate()
+                            && c.endDate() >= day.usageDate())
+                    .findFirst();
+            if (cycle.isPresent()) {
+                cycles.put(i, cycle.get());
+            } else {
+                failures.put(i, String.format("No cycle of user %s and mdn %s covers usage date %d",
+                        day.userId(), day.mdn(), day.usageDate()));
+            }
+        }
+        List<Integer> covered = IntStream.range(0, items.size()).filter(cycles::containsKey).boxed().toList();
+        bulk(DailyUsageBucket.class, covered, (bulkOperations, i) -> {
+            LineCycleWindow cycle = cycles.get(i);
+            bulkOperations.upsert(Query.query(Criteria.where("id").is(cycle.id())),
+                    update.apply(items.get(i), "days." + days.get(i).usageDate())
+                            .setOnInsert("userId", cycle.userId())
+                            .setOnInsert("mdn", cycle.mdn())
+                            .setOnInsert("startDate", cycle.startDate())
+                            .setOnInsert("endDate", cycle.endDate()));
+        }).forEach((index, message) -> failures.put(covered.get(index), message));
+        return failures;
+    }
+
+    /**
+     * Cycles of each line overlapping its first to last day, including cycles starting during its last day, one
+     * clause per line, ordered by start date desc
+     */
+    private List<LineCycleWindow> findCycleWindows(List<LineUsageDay> days) {
+        Map<LineInfo, LongSummaryStatistics> daysByLine = new LinkedHashMap<>();
+        days.forEach(day -> daysByLine.computeIfAbsent(new LineInfo(day.userId(), day.mdn()),
+                line -> new LongSummaryStatistics()).accept(day.usageDate()));
+        Query query = Query.query(new Criteria().orOperator(daysByLine.entrySet().stream()
+                        .map(line -> Criteria.where("userId").is(line.getKey().userId())
+                                .and("mdn").is(line.getKey().mdn())
+                                .and("startDate").lt(line.getValue().getMax() + UsageDays.DAY_MILLIS)
+                                .and("endDate").gte(line.getValue().getMin()))
+                        .toList()))
+                .with(Sort.by(Sort.Direction.DESC, "startDate"));
+        return mongoTemplate.query(Cycle.class).as(LineCycleWindow.class).matching(query).all();
+    }
+
+    /**
+     * Sum the measurements matching the criteria per line and day, ordered by usage date desc
+     */
+    private <T> List<T> aggregateDailyTotals(Criteria measurements, Class<T> resultType) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        DailyUsageTimeSeries.dailyTotals(measurements.getCriteriaObject())
+                .forEach(stage -> operations.add(context -> stage));
+        operations.add(Aggregation.sort(Sort.Direction.DESC, "usageDate"));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(operations),
+                mongoTemplate.getCollectionName(DailyUsageMeasurement.class), resultType).getMappedResults();
+    }
+
+    /**
+     * Replace the measurements of each row's day by a single measurement: the days are cleared in one unordered
+     * bulk write, then the rows whose day was cleared are inserted in a second one. Deleting measurements by
+     * time requires MongoDB 7.0.
+     */
+    private Map<Integer, String> replaceMeasurements(List<DailyUsageRow> rows) {
+        Map<Integer, String> failures = new HashMap<>(bulk(DailyUsageMeasurement.class, rows,
+                (bulkOperations, row) -> bulkOperations.remove(Query.query(DailyUsageTimeSeries.lineWindow(
+                        row.userId(), row.mdn(), row.usageDate(), row.usageDate())))));
+        List<Integer> cleared = IntStream.range(0, rows.size()).filter(i -> !failures.containsKey(i)).boxed().toList();
+        bulk(DailyUsageMeasurement.class, cleared, (bulkOperations, i) -> bulkOperations.insert(measurement(
+                rows.get(i).userId(), rows.get(i).mdn(), rows.get(i).usageDate(), rows.get(i).usedInMb())))
+                .forEach((index, message) -> failures.put(cleared.get(index), message));
+        return failures;
+    }
+
+    private <T> Map<Integer, String> bulk(Class<?> entityClass, List<T> items,
+                                          BiConsumer<BulkOperations, T> operation) {
+        if (items.isEmpty()) {
+            return Map.of();
+        }
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass);
+        for (T item : items) {
+            operation.accept(bulkOperations, item);
+        }
+        try {
+            bulkOperations.execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            Map<Integer, String> failures = new HashMap<>();
+            ex.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+            return failures;
+        }
+    }
+
+    /**
+     * Upserts match on the userId_mdn_usageDate unique index, so concurrent upserts of the same day
+     * are retried by the server instead of creating duplicates
+     */
+    private static Query usageDay(String userId, String mdn, Long usageDate) {
+        return Query.query(Criteria.where("userId").is(userId).and("mdn").is(mdn).and("usageDate").is(usageDate));
+    }
+
+    private static DailyUsageMeasurement measurement(String userId, String mdn, long usageDate, int usedInMb) {
+        return new DailyUsageMeasurement(null, new LineInfo(userId, mdn), new Date(usageDate), usedInMb);
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.usmobile.userManagement.repository;
+
+/**
+ * Layout of the daily usage, configured with usage.storage.mode
+ */
+public enum DailyUsageStorageMode {
+
+    /**
+     * One Daily_Usage document per line and day, written with $inc / $set upserts on the unique
+     * userId_mdn_usageDate index
+     */
+    COLLECTION,
+
+    /**
+     * Daily_Usage_TS time-series collection bucketed by line: usage writes append measurements and the usage
+     * of a day is the sum of its measurements, computed on read
+     */
+    TIME_SERIES,
+
+    /**
+     * One Daily_Usage_Bucket document per cycle holding the usage of each of its days, written with $inc / $set
+     * of the day's field. Usage of a day that no cycle of the line covers is rejected.
+     */
+    BUCKETED
+
+}
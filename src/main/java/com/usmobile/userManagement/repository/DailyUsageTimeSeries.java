@@ -0,0 +1,52 @@
+package com.usmobile.userManagement.repository;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Query parts shared by the reads of the time-series layout of the daily usage
+ */
+final class DailyUsageTimeSeries {
+
+    private DailyUsageTimeSeries() {
+    }
+
+    /**
+     * Measurements of a line within a window, served by the line_userId_mdn_usageDate index
+     */
+    static Criteria lineWindow(String userId, String mdn, Long startDate, Long endDate) {
+        return Criteria.where("line.userId").is(userId).and("line.mdn").is(mdn)
+                .and("usageDate").gte(new Date(startDate)).lte(new Date(endDate));
+    }
+
+    /**
+     * Stages matching measurements and summing them per line and day into documents shaped like Daily_Usage
+     * ones: userId, mdn, usageDate in epoch millis and usedInMb
+     */
+    static List<Document> dailyTotals(Document filter) {
+        return List.of(
+                new Document("$match", filter),
+                new Document("$group", new Document()
+                        .append("_id", new Document("userId", "$line.userId").append("mdn", "$line.mdn")
+                                .append("usageDate", "$usageDate"))
+                        .append("usedInMb", new Document("$sum", "$usedInMb"))),
+                new Document("$project", new Document("_id", 0)
+                        .append("userId", "$_id.userId")
+                        .append("mdn", "$_id.mdn")
+                        .append("usageDate", new Document("$toLong", "$_id.usageDate"))
+                        .append("usedInMb", 1)));
+    }
+
+    /**
+     * $expr conditions keeping the measurements within a window given in epoch millis, e.g. $lookup variables
+     */
+    static List<Document> withinWindow(Object startDate, Object endDate) {
+        return List.of(
+                new Document("$gte", List.of("$usageDate", new Document("$toDate", startDate))),
+                new Document("$lte", List.of("$usageDate", new Document("$toDate", endDate))));
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of CycleRepository, used by the reactive profile
+ */
+public interface ReactiveCycleRepository extends ReactiveMongoRepository<Cycle, String>, ReactiveCycleRepositoryCustom {
+
+    /**
+     * Find the window of the active cycle based on provided date by userId and mdn, reading only the id and dates
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param currentDate date for which active cycle is to be found
+     * @return a mono of the cycle window, empty if there is no active cycle
+     */
+    @Query(value = "{ 'userId' : ?0, 'mdn' : ?1, 'startDate' : { $lte : ?2 }, 'endDate' : { $gte : ?2 } }",
+            fields = "{ 'startDate' : 1, 'endDate' : 1 }")
+    Mono<CycleWindow> findCurrentCycleWindowByUserIdAndMdn(String userId, String mdn, Long currentDate);
+
+    /**
+     * Find the windows of all the cycles based on provided userId and mdn ordered by start date desc,
+     * emitted as they are read from the server cursor
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @return a flux of cycle windows, which can be empty
+     */
+    @Query(value = "{ 'userId' : ?0, 'mdn' : ?1 }", fields = "{ 'startDate' : 1, 'endDate' : 1 }",
+            sort = "{ 'startDate' : -1 }")
+    Flux<CycleWindow> findCycleWindowsByUserIdAndMdn(String userId, String mdn);
+
+    /**
+     * Find a page of cycle windows based on provided userId and mdn, starting before the given start date and
+     * ordered by start date desc
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param startDateBefore exclusive upper bound of the start date, the start date of the last cycle of the
+     *                        previous page
+     * @param limit maximum number of cycles to read
+     * @return a flux of cycle windows, which can be empty
+     */
+    @Query(value = "{ 'userId' : ?0, 'mdn' : ?1, 'startDate' : { $lt : ?2 } }",
+            fields = "{ 'startDate' : 1, 'endDate' : 1 }", sort = "{ 'startDate' : -1 }")
+    Flux<CycleWindow> findCycleWindowPage(String userId, String mdn, Long startDateBefore, Limit limit);
+
+}
@@ -0,0 +1,23 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking cycle queries that cannot be expressed as derived or annotated repository queries
+ */
+public interface ReactiveCycleRepositoryCustom {
+
+    /**
+     * Find the windows of the active cycles of many lines in one query, an $or of one index bound
+     * (userId, mdn, startDate, endDate) clause per line
+     * @param lines lines to look up
+     * @param currentDate date for which active cycles are to be found
+     * @return the active cycle windows of the lines that have one, in no particular order
+     */
+    Flux<LineCycleWindow> findCurrentCycleWindows(Collection<LineInfo> lines, Long currentDate);
+
+}
@@ -0,0 +1,38 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/**
+ * Implementation of ReactiveCycleRepositoryCustom, picked up by Spring Data through the Impl suffix
+ */
+public class ReactiveCycleRepositoryCustomImpl implements ReactiveCycleRepositoryCustom {
+
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    public ReactiveCycleRepositoryCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Flux<LineCycleWindow> findCurrentCycleWindows(Collection<LineInfo> lines, Long currentDate) {
+        if (lines.isEmpty()) {
+            return Flux.empty();
+        }
+        Query query = Query.query(new Criteria().orOperator(lines.stream()
+                .map(line -> Criteria.where("userId").is(line.userId()).and("mdn").is(line.mdn())
+                        .and("startDate").lte(currentDate).and("endDate").gte(currentDate))
+                .toList()));
+        return reactiveMongoTemplate.query(Cycle.class).as(LineCycleWindow.class).matching(query).all();
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of DailyUsageRepository, used by the reactive profile
+ */
+public interface ReactiveDailyUsageRepository extends ReactiveMongoRepository<DailyUsage, String>,
+        ReactiveDailyUsageRepositoryCustom {
+
+    /**
+     * Get the usage date and amount by user id and mdn for usage date between, ordered by usage date desc.
+     * Only usageDate and usedInMb are read from the server.
+     *
+     * @param userId    the user id
+     * @param mdn       the mdn
+     * @param startDate the start date of the usage (inclusive)
+     * @param endDate   the end date of the usage (inclusive)
+     * @return the usage amounts for the given criteria, emitted as they are read from the server cursor
+     */
+    @Query(value = "{'userId': ?0, 'mdn': ?1, 'usageDate': {$gte: ?2, $lte: ?3}}",
+            fields = "{'_id': 0, 'usageDate': 1, 'usedInMb': 1}", sort = "{'usageDate': -1}")
+    Flux<UsageAmount> findUsageAmounts(String userId, String mdn, Long startDate, Long endDate);
+
+}
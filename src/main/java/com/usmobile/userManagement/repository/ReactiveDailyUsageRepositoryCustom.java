@@ -0,0 +1,22 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.LineUsageAmount;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking daily usage reads that cannot be expressed as repository queries
+ */
+public interface ReactiveDailyUsageRepositoryCustom {
+
+    /**
+     * Find the daily usage of many lines within their cycle window in one query, an $or of one index bound
+     * (userId, mdn, usageDate range) clause per cycle
+     * @param cycles cycle windows of the lines
+     * @return the usage amounts of all the lines, ordered by usage date desc
+     */
+    Flux<LineUsageAmount> findUsageAmountsWithinCycles(Collection<LineCycleWindow> cycles);
+
+}
@@ -0,0 +1,42 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.LineUsageAmount;
+import com.usmobile.userManagement.util.UsageDays;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/**
+ * Implementation of ReactiveDailyUsageRepositoryCustom, picked up by Spring Data through the Impl suffix
+ */
+public class ReactiveDailyUsageRepositoryCustomImpl implements ReactiveDailyUsageRepositoryCustom {
+
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    public ReactiveDailyUsageRepositoryCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Flux<LineUsageAmount> findUsageAmountsWithinCycles(Collection<LineCycleWindow> cycles) {
+        if (cycles.isEmpty()) {
+            return Flux.empty();
+        }
+        Query query = Query.query(new Criteria().orOperator(cycles.stream()
+                        .map(cycle -> Criteria.where("userId").is(cycle.userId()).and("mdn").is(cycle.mdn())
+                                .and("usageDate").gte(UsageDays.startOfDay(cycle.startDate()))
+                                .lte(cycle.endDate()))
+                        .toList()))
+                .with(Sort.by(Sort.Direction.DESC, "usageDate"));
+        return reactiveMongoTemplate.query(DailyUsage.class).as(LineUsageAmount.class).matching(query).all();
+    }
+
+}
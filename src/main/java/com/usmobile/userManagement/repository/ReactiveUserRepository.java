@@ -0,0 +1,35 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.User;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.mongodb.repository.Update;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of UserRepository, used by the reactive profile
+ */
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String>, ReactiveUserRepositoryCustom {
+
+    /**
+     * Find a user by email
+     *
+     * @param email email of the user
+     * @return a mono of the user, empty if there is no user with the email
+     */
+    Mono<User> findByEmail(String email);
+
+    /**
+     * Replace the password hash of a user, only if it is still the given hash, so a rehash does not overwrite
+     * a password changed in the meantime
+     *
+     * @param id id of the user
+     * @param currentPassword hash the user is expected to have
+     * @param newPassword new hash
+     * @return number of users updated, 0 if the hash changed in the meantime
+     */
+    @Query("{ '_id' : ?0, 'password' : ?1 }")
+    @Update("{ '$set' : { 'password' : ?2 } }")
+    Mono<Long> updatePasswordIfUnchanged(String id, String currentPassword, String newPassword);
+
+}
@@ -0,0 +1,22 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.User;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking user writes that cannot be expressed as derived or annotated repository queries
+ */
+public interface ReactiveUserRepositoryCustom {
+
+    /**
+     * Set the given fields of a user and read it back in a single findAndModify. Setting the email to the
+     * email of another user is rejected by the email_unique index with a DuplicateKeyException.
+     * @param id id of the user
+     * @param fields values of the fields to set by field name, other fields are left unchanged
+     * @return a mono of the updated user, empty if there is no user with the id
+     */
+    Mono<User> updateFields(String id, Map<String, Object> fields);
+
+}
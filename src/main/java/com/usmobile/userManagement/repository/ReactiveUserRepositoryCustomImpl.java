@@ -0,0 +1,39 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Implementation of ReactiveUserRepositoryCustom, picked up by Spring Data through the Impl suffix
+ */
+public class ReactiveUserRepositoryCustomImpl implements ReactiveUserRepositoryCustom {
+
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    public ReactiveUserRepositoryCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Mono<User> updateFields(String id, Map<String, Object> fields) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        // An empty $set is rejected by the server, there is nothing to write
+        if (fields.isEmpty()) {
+            return reactiveMongoTemplate.findOne(query, User.class);
+        }
+        Update update = new Update();
+        fields.forEach(update::set);
+        return reactiveMongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                User.class);
+    }
+
+}
@@ -4,12 +4,13 @@ import com.usmobile.userManagement.entity.User;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
 
     /**
      * Save User to database
@@ -20,11 +21,24 @@ public interface UserRepository extends MongoRepository<User, String> {
     User save(User user);
 
     /**
-     * Find whether a user exists by email
+     * Find a user by email
      *
-     * @param email
-     * @return true if user exists, false otherwise
+     * @param email email of the user
+     * @return an optional of the user
      */
-    Boolean existsByEmail(String email);
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Replace the password hash of a user, only if it is still the given hash, so a rehash does not overwrite
+     * a password changed in the meantime
+     *
+     * @param id id of the user
+     * @param currentPassword hash the user is expected to have
+     * @param newPassword new hash
+     * @return number of users updated, 0 if the hash changed in the meantime
+     */
+    @Query("{ '_id' : ?0, 'password' : ?1 }")
+    @Update("{ '$set' : { 'password' : ?2 } }")
+    long updatePasswordIfUnchanged(String id, String currentPassword, String newPassword);
 
 }
@@ -0,0 +1,41 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.model.WriteFailure;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * User writes that cannot be expressed as derived or annotated repository queries
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Set the given fields of a user and read it back in a single findAndModify. Setting the email to the
+     * email of another user is rejected by the email_unique index with a DuplicateKeyException.
+     * @param id id of the user
+     * @param fields values of the fields to set by field name, other fields are left unchanged
+     * @return an optional of the updated user, empty if there is no user with the id
+     */
+    Optional<User> updateFields(String id, Map<String, Object> fields);
+
+    /**
+     * Find which of the given emails already belong to a user, in one $in query on the email_unique index
+     * @param emails emails to look up
+     * @return the emails that already exist
+     */
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    /**
+     * Insert the users in one unordered bulk write. A failed user, e.g. one whose email was taken since it was
+     * checked, does not stop the others.
+     * @param users users to insert
+     * @return failure by index of the failed users, empty if every user was inserted
+     */
+    Map<Integer, WriteFailure> insertAll(List<User> users);
+
+}
@@ -0,0 +1,74 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.model.WriteFailure;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Implementation of UserRepositoryCustom, picked up by Spring Data through the Impl suffix
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    public UserRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<User> updateFields(String id, Map<String, Object> fields) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        // An empty $set is rejected by the server, there is nothing to write
+        if (fields.isEmpty()) {
+            return Optional.ofNullable(mongoTemplate.findOne(query, User.class));
+        }
+        Update update = new Update();
+        fields.forEach(update::set);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        Query query = Query.query(Criteria.where("email").in(emails));
+        return new HashSet<>(mongoTemplate.findDistinct(query, "email", User.class, String.class));
+    }
+
+    @Override
+    public Map<Integer, WriteFailure> insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return Map.of();
+        }
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        bulkOperations.insert(users);
+        try {
+            bulkOperations.execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            Map<Integer, WriteFailure> failures = new HashMap<>();
+            ex.getErrors().forEach(error -> failures.put(error.getIndex(),
+                    new WriteFailure(error.getCode(), error.getMessage())));
+            return failures;
+        }
+    }
+
+}
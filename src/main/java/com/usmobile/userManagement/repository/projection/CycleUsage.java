@@ -0,0 +1,13 @@
+package com.usmobile.userManagement.repository.projection;
+
+import java.util.List;
+
+/**
+ * Daily usage of a cycle read from its bucket, along with the cycle window the bucket was written for
+ * @param cycle cycle id and window
+ * @param usageAmounts usage of the cycle days, ordered by usage date desc
+ */
+public record CycleUsage(
+        CycleWindow cycle,
+        List<UsageAmount> usageAmounts
+) { }
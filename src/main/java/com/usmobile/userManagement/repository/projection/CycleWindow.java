@@ -0,0 +1,13 @@
+package com.usmobile.userManagement.repository.projection;
+
+/**
+ * Projection of a Cycle document to its id and window
+ * @param id cycle id
+ * @param startDate cycle start date in epoch millis (inclusive)
+ * @param endDate cycle end date in epoch millis (inclusive)
+ */
+public record CycleWindow(
+        String id,
+        Long startDate,
+        Long endDate
+) { }
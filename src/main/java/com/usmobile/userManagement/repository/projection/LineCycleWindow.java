@@ -0,0 +1,17 @@
+package com.usmobile.userManagement.repository.projection;
+
+/**
+ * Projection of a Cycle document to its line, id and window
+ * @param id cycle id
+ * @param userId user id
+ * @param mdn mdn of the user
+ * @param startDate cycle start date in epoch millis (inclusive)
+ * @param endDate cycle end date in epoch millis (inclusive)
+ */
+public record LineCycleWindow(
+        String id,
+        String userId,
+        String mdn,
+        Long startDate,
+        Long endDate
+) { }
@@ -0,0 +1,15 @@
+package com.usmobile.userManagement.repository.projection;
+
+/**
+ * Projection of a Daily_Usage document to its line and the fields needed by the daily usage report
+ * @param userId user id
+ * @param mdn mdn of the user
+ * @param usageDate usage date in epoch millis
+ * @param usedInMb data used on the usage date
+ */
+public record LineUsageAmount(
+        String userId,
+        String mdn,
+        Long usageDate,
+        int usedInMb
+) { }
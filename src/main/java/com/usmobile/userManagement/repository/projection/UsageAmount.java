@@ -0,0 +1,11 @@
+package com.usmobile.userManagement.repository.projection;
+
+/**
+ * Projection of a Daily_Usage document to the fields needed by the daily usage report
+ * @param usageDate usage date in epoch millis
+ * @param usedInMb data used on the usage date
+ */
+public record UsageAmount(
+        Long usageDate,
+        int usedInMb
+) { }
@@ -0,0 +1,157 @@
+package com.usmobile.userManagement.security;
+
+import com.usmobile.userManagement.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password encoder running the delegate on a dedicated pool of hashing threads with a bounded queue.
+ * Hashing is CPU bound (~100ms per BCrypt hash at the default strength), so the pool is sized to the number
+ * of cores and a burst of signups only ever occupies that many cores, request threads wait on the result
+ * without burning CPU and reads keep being served. When the queue is full, or a hash is not done within
+ * the timeout, the request is shed with a ServiceOverloadedException (503).
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffloadingPasswordEncoder.class);
+
+    PasswordEncoder delegate;
+
+    Duration timeout;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer hashTimer;
+
+    private final Timer waitTimer;
+
+    private final Counter rejectedCounter;
+
+    /**
+     * @param delegate encoder doing the hashing
+     * @param threads number of hashing threads
+     * @param queueCapacity number of hashes that can wait for a thread before requests are shed
+     * @param timeout maximum time a request waits for its hash, queueing included
+     * @param meterRegistry registry of the queue depth, hash latency and rejection metrics
+     */
+    public OffloadingPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout,
+                                     MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hashTimer = Timer.builder("password.hashing.duration")
+                .description("Time spent hashing or verifying a password on a hashing thread")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time a request waited for its password hash, queueing included")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Password hashes shed because the hashing pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads busy hashing or verifying a password")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return offload(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return offload(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only parses the hash, no need to offload
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Get the encoder doing the hashing, for callers that run their own bounded parallelism such as bulk
+     * imports, so they do not take the queue slots of interactive requests
+     * @return encoder doing the hashing on the calling thread
+     */
+    public PasswordEncoder delegate() {
+        return delegate;
+    }
+
+    /**
+     * Stop the hashing threads, hashes already queued are completed
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T offload(Callable<T> hashing) {
+        long submittedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> hashTimer.recordCallable(hashing));
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            logger.warn("Password hashing pool is saturated, {} hashes queued", executor.getQueue().size());
+            throw new ServiceOverloadedException(
+                    "Too many concurrent password hashing requests, please try again later");
+        }
+        try {
+            return result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            result.cancel(true);
+            rejectedCounter.increment();
+            logger.warn("Password hash was not done within {}", timeout);
+            throw new ServiceOverloadedException(
+                    "Too many concurrent password hashing requests, please try again later");
+        } catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the password hash", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        } finally {
+            waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
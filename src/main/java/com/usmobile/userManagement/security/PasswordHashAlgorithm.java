@@ -0,0 +1,25 @@
+package com.usmobile.userManagement.security;
+
+/**
+ * Password hashing algorithms, stored hashes are prefixed with the id of the algorithm that produced them,
+ * e.g. {bcrypt}$2a$12$...
+ */
+public enum PasswordHashAlgorithm {
+
+    BCRYPT("bcrypt"),
+    ARGON2("argon2");
+
+    private final String id;
+
+    PasswordHashAlgorithm(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return id of the algorithm in the prefix of stored hashes
+     */
+    public String id() {
+        return id;
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.usmobile.userManagement.security;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Picks the work factor of the password hashing algorithms on this host, from a few hashes timed at startup,
+ * so that a hash takes at most the target latency. The result never goes below the recommended minimums,
+ * a host too slow for the target gets the minimum cost rather than weaker hashes.
+ */
+public final class PasswordHashCalibrator {
+
+    static final int MIN_BCRYPT_STRENGTH = 10;
+    static final int MAX_BCRYPT_STRENGTH = 16;
+    static final int MIN_ARGON2_ITERATIONS = 2;
+    static final int MAX_ARGON2_ITERATIONS = 10;
+
+    private static final int BCRYPT_SAMPLE_STRENGTH = 8;
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private PasswordHashCalibrator() {
+    }
+
+    /**
+     * Get the BCrypt strength to use on this host. The hash time doubles with each strength increment, so it is
+     * extrapolated from hashes timed at a low strength.
+     * @param targetLatency maximum time a hash should take
+     * @return the highest strength whose hash is expected to take at most the target latency
+     */
+    public static int bcryptStrength(Duration targetLatency) {
+        long sampleNanos = medianHashNanos(new BCryptPasswordEncoder(BCRYPT_SAMPLE_STRENGTH));
+        int strength = BCRYPT_SAMPLE_STRENGTH;
+        while (strength < MAX_BCRYPT_STRENGTH
+                && sampleNanos << (strength + 1 - BCRYPT_SAMPLE_STRENGTH) <= targetLatency.toNanos()) {
+            strength++;
+        }
+        return Math.max(MIN_BCRYPT_STRENGTH, strength);
+    }
+
+    /**
+     * Get the Argon2 iterations to use on this host with the given memory cost. The hash time grows linearly
+     * with the iterations, so it is extrapolated from hashes timed with a single iteration.
+     * @param memoryKib memory cost of a hash in KiB
+     * @param targetLatency maximum time a hash should take
+     * @return the highest iterations whose hash is expected to take at most the target latency
+     */
+    public static int argon2Iterations(int memoryKib, Duration targetLatency) {
+        long iterationNanos = medianHashNanos(argon2(memoryKib, 1));
+        long iterations = targetLatency.toNanos() / Math.max(1, iterationNanos);
+        return (int) Math.max(MIN_ARGON2_ITERATIONS, Math.min(MAX_ARGON2_ITERATIONS, iterations));
+    }
+
+    /**
+     * Create an Argon2id encoder with the Spring Security salt and hash lengths
+     * @param memoryKib memory cost of a hash in KiB
+     * @param iterations number of iterations of a hash
+     * @return Argon2 password encoder
+     */
+    public static Argon2PasswordEncoder argon2(int memoryKib, int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, memoryKib, iterations);
+    }
+
+    private static long medianHashNanos(PasswordEncoder encoder) {
+        // The first hash warms up the code path and is not timed
+        encoder.encode(SAMPLE_PASSWORD);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long startedAt = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+
+}
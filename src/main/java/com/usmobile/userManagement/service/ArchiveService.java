@@ -0,0 +1,334 @@
+package com.usmobile.userManagement.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.usmobile.userManagement.entity.ArchivedCycle;
+import com.usmobile.userManagement.entity.ArchivedDailyUsage;
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.DailyUsageBucket;
+import com.usmobile.userManagement.model.ArchiveResult;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.repository.DailyUsageStorageMode;
+import com.usmobile.userManagement.util.UsageDays;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archive Service
+ * Moves the cycles that ended before the horizon (now - archive.horizon) to Cycle_Archive and the daily usage
+ * older than the horizon to Daily_Usage_Archive, one document per line and month, so that the Cycle and
+ * Daily_Usage collections and their indexes only hold the recent data read on the hot path.
+ * Runs every archive.interval on a background thread when archive.enabled is set. Each collection is walked
+ * once in _id order in batches of batch-size documents, pausing batch-pause between batches; a batch is written
+ * to the archive before it is deleted, and the archive writes are idempotent, so an interrupted run is resumed
+ * by the next one. Daily usage covered by a cycle that is not archived yet stays until its cycle is archived.
+ * In the bucketed storage mode the bucket of each archived cycle is moved with it, into the same monthly documents.
+ */
+@Service
+public class ArchiveService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveService.class);
+
+    MongoTemplate mongoTemplate;
+
+    DailyUsageStorageMode storageMode;
+
+    boolean enabled;
+
+    Duration horizon;
+
+    Duration interval;
+
+    int batchSize;
+
+    Duration batchPause;
+
+    private volatile boolean running;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ArchiveService(MongoTemplate mongoTemplate,
+                          @Value("${usage.storage.mode:COLLECTION}") DailyUsageStorageMode storageMode,
+                          @Value("${archive.enabled:false}") boolean enabled,
+                          @Value("${archive.horizon:365d}") Duration horizon,
+                          @Value("${archive.interval:1d}") Duration interval,
+                          @Value("${archive.batch-size:1000}") int batchSize,
+                          @Value("${archive.batch-pause:100ms}") Duration batchPause) {
+        this.mongoTemplate = mongoTemplate;
+        this.storageMode = storageMode;
+        this.enabled = enabled;
+        this.horizon = horizon;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+    }
+
+    /**
+     * Archive the cycles and daily usage older than the configured horizon
+     * @return counts and duration of the run
+     */
+    public ArchiveResult archive() {
+        return archive(System.currentTimeMillis() - horizon.toMillis());
+    }
+
+    /**
+     * Archive the cycles that ended before the horizon, then the daily usage before the horizon. In the bucketed
+     * storage mode the daily usage is archived with its cycle instead. In the time-series storage mode only the
+     * cycles are archived, the daily usage is already compressed in buckets.
+     * @param horizon epoch millis
+     * @return counts and duration of the run
+     */
+    public ArchiveResult archive(long horizon) {
+        long start = System.nanoTime();
+        long[] cycles = archiveCycles(horizon);
+        long[] dailyUsage = storageMode == DailyUsageStorageMode.COLLECTION
+                ? archiveDailyUsage(horizon) : new long[]{cycles[1], 0};
+        ArchiveResult result = new ArchiveResult(horizon, cycles[0], dailyUsage[0], dailyUsage[1],
+                (System.nanoTime() - start) / 1_000_000);
+        logger.info("Archived {} cycles and {} daily usage documents before {}, kept {} daily usage documents, {} ms",
+                result.cycles(), result.dailyUsage(), Instant.ofEpochMilli(horizon), result.keptDailyUsage(),
+                result.elapsedMillis());
+        return result;
+    }
+
+    /**
+     * @return number of archived cycles, and of the days of their buckets in the bucketed storage mode
+     */
+    private long[] archiveCycles(long horizon) {
+        MongoCollection<Document> source = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Cycle.class));
+        long archived = 0;
+        long archivedDays = 0;
+        ObjectId lastId = null;
+        List<Document> batch;
+        while (!(batch = nextBatch(source, Filters.lt("endDate", horizon), lastId)).isEmpty()) {
+            long now = System.currentTimeMillis();
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                    ArchivedCycle.class);
+            List<ObjectId> ids = new ArrayList<>(batch.size());
+            for (Document cycle : batch) {
+                ObjectId id = cycle.getObjectId("_id");
+                ids.add(id);
+                bulkOperations.replaceOne(Query.query(Criteria.where("id").is(id)),
+                        new ArchivedCycle(id.toHexString(), cycle.getString("mdn"), number(cycle, "startDate"),
+                                number(cycle, "endDate"), cycle.getString("userId"), now),
+                        FindAndReplaceOptions.options().upsert());
+            }
+            bulkOperations.execute();
+            // Buckets share the id of their cycle, they are moved before the cycles so that a cycle left by an
+            // interrupted run still has its bucket moved by the next one
+            if (storageMode == DailyUsageStorageMode.BUCKETED) {
+                archivedDays += archiveBuckets(ids);
+            }
+            // Deleted without mapping events: archived cycles keep their usage summary and are still part of
+            // the cycle history, there is nothing to evict
+            source.deleteMany(Filters.in("_id", ids));
+            archived += batch.size();
+            lastId = ids.get(ids.size() - 1);
+            pause();
+        }
+        return new long[]{archived, archivedDays};
+    }
+
+    /**
+     * Move the buckets of the archived cycles to Daily_Usage_Archive, each day into the month of its line
+     * @return number of archived days
+     */
+    private long archiveBuckets(List<ObjectId> cycleIds) {
+        MongoCollection<Document> buckets = mongoTemplate.getCollection(
+                mongoTemplate.getCollectionName(DailyUsageBucket.class));
+        Map<MonthKey, Map<String, Object>> months = new LinkedHashMap<>();
+        long archivedDays = 0;
+        for (Document bucket : buckets.find(Filters.in("_id", cycleIds))) {
+            LineInfo line = new LineInfo(bucket.getString("userId"), bucket.getString("mdn"));
+            Document days = bucket.get("days", Document.class);
+            if (days == null) {
+                continue;
+            }
+            for (Map.Entry<String, Object> day : days.entrySet()) {
+                if (day.getValue() instanceof Number usedInMb) {
+                    long usageDate = Long.parseLong(day.getKey());
+                    months.computeIfAbsent(new MonthKey(line, monthStart(usageDate)), month -> new LinkedHashMap<>())
+                            .put("days." + usageDate, usedInMb.intValue());
+                    archivedDays++;
+                }
+            }
+        }
+        if (!months.isEmpty()) {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                    ArchivedDailyUsage.class);
+            months.forEach((month, days) -> {
+                Update update = new Update();
+                days.forEach(update::set);
+                bulkOperations.upsert(Query.query(Criteria.where("userId").is(month.line().userId())
+                        .and("mdn").is(month.line().mdn()).and("month").is(month.month())), update);
+            });
+            bulkOperations.execute();
+        }
+        buckets.deleteMany(Filters.in("_id", cycleIds));
+        return archivedDays;
+    }
+
+    private long[] archiveDailyUsage(long horizon) {
+        MongoCollection<Document> source = mongoTemplate.getCollection(
+                mongoTemplate.getCollectionName(DailyUsage.class));
+        long archived = 0;
+        long kept = 0;
+        ObjectId lastId = null;
+        List<Document> batch;
+        while (!(batch = nextBatch(source, Filters.lt("usageDate", horizon), lastId)).isEmpty()) {
+            Map<LineInfo, Long> coveredFrom = coveredFrom(batch, horizon);
+            Map<MonthKey, Map<String, Object>> months = new LinkedHashMap<>();
+            List<ObjectId> ids = new ArrayList<>(batch.size());
+            for (Document dailyUsage : batch) {
+                LineInfo line = new LineInfo(dailyUsage.getString("userId"), dailyUsage.getString("mdn"));
+                Long covered = coveredFrom.get(line);
+                if (!(dailyUsage.get("usageDate") instanceof Number usageDate)
+                        || !(dailyUsage.get("usedInMb") instanceof Number usedInMb)
+                        || covered != null && usageDate.longValue() >= covered) {
+                    kept++;
+                    continue;
+                }
+                months.computeIfAbsent(new MonthKey(line, monthStart(usageDate.longValue())),
+                        month -> new LinkedHashMap<>()).put("days." + usageDate.longValue(), usedInMb.intValue());
+                ids.add(dailyUsage.getObjectId("_id"));
+            }
+            if (!ids.isEmpty()) {
+                BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                        ArchivedDailyUsage.class);
+                // $set of each day rather than $push, so that archiving a day again is a no-op
+                months.forEach((month, days) -> {
+                    Update update = new Update();
+                    days.forEach(update::set);
+                    bulkOperations.upsert(Query.query(Criteria.where("userId").is(month.line().userId())
+                            .and("mdn").is(month.line().mdn()).and("month").is(month.month())), update);
+                });
+                bulkOperations.execute();
+                source.deleteMany(Filters.in("_id", ids));
+                archived += ids.size();
+            }
+            lastId = batch.get(batch.size() - 1).getObjectId("_id");
+            pause();
+        }
+        return new long[]{archived, kept};
+    }
+
+    private List<Document> nextBatch(MongoCollection<Document> source, Bson filter, ObjectId lastId) {
+        return source.find(lastId == null ? filter : Filters.and(filter, Filters.gt("_id", lastId)))
+                .sort(Sorts.ascending("_id"))
+                .limit(batchSize)
+                .into(new ArrayList<>(batchSize));
+    }
+
+    /**
+     * Start of the day of the start of the cycle of each line of the batch that began before the horizon but is
+     * not archived, its daily usage is kept until the cycle is archived
+     */
+    private Map<LineInfo, Long> coveredFrom(List<Document> batch, long horizon) {
+        Set<LineInfo> lines = new LinkedHashSet<>();
+        batch.forEach(dailyUsage -> lines.add(new LineInfo(dailyUsage.getString("userId"),
+                dailyUsage.getString("mdn"))));
+        Query query = Query.query(new Criteria().orOperator(lines.stream()
+                .map(line -> Criteria.where("userId").is(line.userId()).and("mdn").is(line.mdn())
+                        .and("startDate").lt(horizon).and("endDate").gte(horizon))
+                .toList()));
+        Map<LineInfo, Long> coveredFrom = new HashMap<>();
+        mongoTemplate.find(query, Cycle.class).forEach(cycle -> coveredFrom.merge(
+                new LineInfo(cycle.getUserId(), cycle.getMdn()), UsageDays.startOfDay(cycle.getStartDate()),
+                Math::min));
+        return coveredFrom;
+    }
+
+    private void pause() {
+        if (batchPause.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPause.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while archiving", ex);
+        }
+    }
+
+    private static Long number(Document document, String field) {
+        Number value = document.get(field, Number.class);
+        return value == null ? null : value.longValue();
+    }
+
+    private static long monthStart(long usageDate) {
+        return YearMonth.from(Instant.ofEpochMilli(usageDate).atZone(ZoneOffset.UTC)).atDay(1)
+                .atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    private record MonthKey(LineInfo line, long month) { }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("archive-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        logger.info("Archiving cycles and daily usage older than {} every {}", horizon, interval);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // Interrupts the pause between batches, a batch is resumed by the next run
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (RuntimeException ex) {
+            logger.error("Archive run failed", ex);
+        }
+    }
+
+}
@@ -1,20 +1,56 @@
 package com.usmobile.userManagement.service;
 
-import com.usmobile.userManagement.entity.Cycle;
-import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.cache.ActiveCycleCache;
+import com.usmobile.userManagement.cache.UsageReportCache;
 import com.usmobile.userManagement.exception.NoCyclesFoundException;
+import com.usmobile.userManagement.model.CycleHistoryPage;
 import com.usmobile.userManagement.model.CycleInfo;
 import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.model.LineUsageReport;
+import com.usmobile.userManagement.repository.ArchivedCycleRepository;
 import com.usmobile.userManagement.repository.CycleRepository;
 import com.usmobile.userManagement.repository.DailyUsageRepository;
+import com.usmobile.userManagement.repository.DailyUsageStorageMode;
+import com.usmobile.userManagement.repository.projection.CycleUsage;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import com.usmobile.userManagement.util.UsageDays;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @JavaDoc
@@ -26,12 +62,67 @@ public class CycleService {
 
     CycleRepository cycleRepository;
 
+    ArchivedCycleRepository archivedCycleRepository;
+
     DailyUsageRepository dailyUsageRepository;
 
+    ActiveCycleCache activeCycleCache;
+
+    UsageReportCache usageReportCache;
+
+    ReportQueryMode reportQueryMode;
+
+    Duration speculativeWindow;
+
+    DailyUsageStorageMode storageMode;
+
+    private final ExecutorService speculativeQueries;
+
     @Autowired
-    public CycleService(CycleRepository cycleRepository, DailyUsageRepository dailyUsageRepository) {
+    public CycleService(CycleRepository cycleRepository, ArchivedCycleRepository archivedCycleRepository,
+                        DailyUsageRepository dailyUsageRepository, ActiveCycleCache activeCycleCache, UsageReportCache usageReportCache,
+                        @Value("${cycle.report.query-mode:TWO_QUERY}") ReportQueryMode reportQueryMode,
+                        @Value("${cycle.report.parallel.speculative-window:31d}") Duration speculativeWindow,
+                        @Value("${cycle.report.parallel.threads:64}") int parallelThreads,
+                        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                        @Value("${usage.storage.mode:COLLECTION}") DailyUsageStorageMode storageMode) {
         this.cycleRepository = cycleRepository;
+        this.archivedCycleRepository = archivedCycleRepository;
         this.dailyUsageRepository = dailyUsageRepository;
+        this.activeCycleCache = activeCycleCache;
+        this.usageReportCache = usageReportCache;
+        this.reportQueryMode = reportQueryMode;
+        this.speculativeWindow = speculativeWindow;
+        this.storageMode = storageMode;
+        this.speculativeQueries = reportQueryMode == ReportQueryMode.PARALLEL
+                ? speculativeQueryExecutor(parallelThreads, virtualThreads) : null;
+    }
+
+    private static ExecutorService speculativeQueryExecutor(int threads, boolean virtualThreads) {
+        ThreadFactory threadFactory;
+        if (virtualThreads) {
+            threadFactory = Thread.ofVirtual().name("cycle-report-", 0).factory();
+        } else {
+            CustomizableThreadFactory platformThreadFactory = new CustomizableThreadFactory("cycle-report-");
+            platformThreadFactory.setDaemon(true);
+            threadFactory = platformThreadFactory;
+        }
+        // Virtual threads are bounded too, so a burst of reports does not double the queries in flight. When every
+        // thread is busy the request thread runs the usage query itself, after the cycle lookup
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Stop the speculative query threads when the application context closes
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (speculativeQueries != null) {
+            speculativeQueries.shutdown();
+        }
     }
 
     /**
@@ -41,43 +132,251 @@ public class CycleService {
      * @return List of daily usage report
      */
     @Validated
+    @Timed("service.invocations")
     public List<DailyUsageReport> getDailyUsageReport(@NotBlank String userId, @NotBlank String mdn) {
+        return usageReportCache.getDailyUsageReport(userId, mdn, () -> loadDailyUsageReport(userId, mdn));
+    }
+
+    private List<DailyUsageReport> loadDailyUsageReport(String userId, String mdn) {
+
+        // Single round trip: active cycle lookup and daily usage join are done by one aggregation
+        if (reportQueryMode == ReportQueryMode.AGGREGATION) {
+            return cycleRepository.findCurrentCycleReport(userId, mdn, new Date().getTime())
+                    .orElseThrow(() -> new NoCyclesFoundException(
+                            String.format("No current cycle found for this user: %s and mdn: %s.", userId, mdn)));
+        }
+
+        // The bucket of the current cycle carries the cycle window, so the report is a single document read
+        if (storageMode == DailyUsageStorageMode.BUCKETED && activeCycleCache.getIfPresent(userId, mdn).isEmpty()) {
+            Optional<CycleUsage> cycleUsage = dailyUsageRepository.findCurrentCycleUsage(userId, mdn,
+                    new Date().getTime());
+            if (cycleUsage.isPresent()) {
+                activeCycleCache.put(userId, mdn, cycleUsage.get().cycle());
+                return cycleUsage.get().usageAmounts().stream()
+                        .map(ua -> new DailyUsageReport(new Date(ua.usageDate()), ua.usedInMb())).toList();
+            }
+            // No usage was written in the current cycle yet, the cycle itself is looked up below
+        }
+
+        // Concurrent cycle lookup and usage query, unless the cycle window is already cached
+        if (reportQueryMode == ReportQueryMode.PARALLEL) {
+            Optional<CycleWindow> cachedCycle = activeCycleCache.getIfPresent(userId, mdn);
+            if (cachedCycle.isEmpty()) {
+                return loadDailyUsageReportInParallel(userId, mdn);
+            }
+        }
 
         //If no current cycle is found, throw NoCyclesFoundException and return 404
-        Cycle cycle = cycleRepository.findCurrentCycleByUserIdAndMdn(userId, mdn, new Date().getTime())
+        CycleWindow cycle = activeCycleCache.getActiveCycle(userId, mdn)
                 .orElseThrow(() -> new NoCyclesFoundException(
                         String.format("No current cycle found for this user: %s and mdn: %s.", userId, mdn)));
 
-        //Sort daily usage by usage date in descending order
-        Sort sort = Sort.by(Sort.Direction.DESC, "usageDate");
-        List<DailyUsage> dailyUsages = dailyUsageRepository
-                .findByUserIdAndMdnAndUsageDateBetweenOrderByUsageDateDesc(userId, mdn, cycle.getStartDate(),
-                        cycle.getEndDate(), sort);
+        //Daily usage is read sorted by usage date in descending order, projected to usageDate and usedInMb, from the
+        //day of the cycle start since daily usage is keyed by the start of its day
+        List<UsageAmount> usageAmounts = dailyUsageRepository.findUsageAmounts(userId, mdn,
+                UsageDays.startOfDay(cycle.startDate()), cycle.endDate());
+
+        // Map usage amounts to DailyUsageReport
+        return usageAmounts.stream().map(ua -> new DailyUsageReport(new Date(ua.usageDate()), ua.usedInMb())).toList();
+
+    }
+
+    private List<DailyUsageReport> loadDailyUsageReportInParallel(String userId, String mdn) {
+
+        // An active cycle started at most the speculative window ago, so the usage since then covers it
+        long speculativeStart = System.currentTimeMillis() - speculativeWindow.toMillis();
+        CompletableFuture<List<UsageAmount>> speculativeUsage = CompletableFuture.supplyAsync(() ->
+                dailyUsageRepository.findUsageAmounts(userId, mdn, speculativeStart, Long.MAX_VALUE),
+                speculativeQueries);
+
+        // The cycle is looked up on the request thread while the usage query is in flight
+        Optional<CycleWindow> activeCycle;
+        try {
+            activeCycle = activeCycleCache.getActiveCycle(userId, mdn);
+        } catch (RuntimeException ex) {
+            speculativeUsage.cancel(false);
+            throw ex;
+        }
+
+        //If no current cycle is found, throw NoCyclesFoundException and return 404, the usage read is discarded
+        if (activeCycle.isEmpty()) {
+            speculativeUsage.cancel(false);
+            throw new NoCyclesFoundException(
+                    String.format("No current cycle found for this user: %s and mdn: %s.", userId, mdn));
+        }
+        CycleWindow cycle = activeCycle.get();
+
+        // A cycle longer than the speculative window is read again for its exact window, from the day it started
+        long firstUsageDay = UsageDays.startOfDay(cycle.startDate());
+        if (firstUsageDay < speculativeStart) {
+            speculativeUsage.cancel(false);
+            return dailyUsageRepository.findUsageAmounts(userId, mdn, firstUsageDay, cycle.endDate()).stream()
+                    .map(ua -> new DailyUsageReport(new Date(ua.usageDate()), ua.usedInMb())).toList();
+        }
+
+        // Usage since the speculative start is sorted by usage date desc, only the usage within the cycle is kept
+        return join(speculativeUsage).stream()
+                .filter(ua -> ua.usageDate() >= firstUsageDay && ua.usageDate() <= cycle.endDate())
+                .map(ua -> new DailyUsageReport(new Date(ua.usageDate()), ua.usedInMb())).toList();
 
-        // Map daily usage to DailyUsageReport
-        return dailyUsages.stream().map(du -> new DailyUsageReport(new Date(du.getUsageDate()), du.getUsedInMb())).toList();
+    }
 
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            // Rethrow the repository exception itself, so it is handled like in the other query modes
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
     }
 
     /**
-     * Get cycle history
+     * Get the current cycle daily usage report of many lines in two round trips: one query for the active
+     * cycles that are not cached, one query for the daily usage of all the lines
+     * @param lines lines of the subscriber, duplicates are reported once
+     * @return report of each line in request order, lines without an active cycle have no cycle and no usage
+     */
+    @Timed("service.invocations")
+    public List<LineUsageReport> getDailyUsageReports(List<LineInfo> lines) {
+
+        Set<LineInfo> distinctLines = new LinkedHashSet<>(lines);
+        Map<LineInfo, CycleWindow> activeCycles = new HashMap<>();
+        List<LineInfo> uncachedLines = new ArrayList<>();
+        for (LineInfo line : distinctLines) {
+            activeCycleCache.getIfPresent(line.userId(), line.mdn()).ifPresentOrElse(
+                    cycle -> activeCycles.put(line, cycle), () -> uncachedLines.add(line));
+        }
+
+        // Active cycles of the lines missing from the cache are found with a single $or query
+        for (LineCycleWindow cycle : cycleRepository.findCurrentCycleWindows(uncachedLines, new Date().getTime())) {
+            CycleWindow window = new CycleWindow(cycle.id(), cycle.startDate(), cycle.endDate());
+            activeCycles.put(new LineInfo(cycle.userId(), cycle.mdn()), window);
+            activeCycleCache.put(cycle.userId(), cycle.mdn(), window);
+        }
+
+        // Daily usage of every line is read with a single query, sorted by usage date desc and grouped by line
+        List<LineCycleWindow> cycleWindows = activeCycles.entrySet().stream()
+                .map(e -> new LineCycleWindow(e.getValue().id(), e.getKey().userId(), e.getKey().mdn(),
+                        e.getValue().startDate(), e.getValue().endDate()))
+                .toList();
+        Map<LineInfo, List<DailyUsageReport>> dailyUsage = dailyUsageRepository
+                .findUsageAmountsWithinCycles(cycleWindows).stream()
+                .collect(Collectors.groupingBy(ua -> new LineInfo(ua.userId(), ua.mdn()), Collectors.mapping(
+                        ua -> new DailyUsageReport(new Date(ua.usageDate()), ua.usedInMb()), Collectors.toList())));
+
+        return distinctLines.stream().map(line -> {
+            CycleWindow cycle = activeCycles.get(line);
+            return new LineUsageReport(line.userId(), line.mdn(), cycle == null ? null : toCycleInfo(cycle),
+                    dailyUsage.getOrDefault(line, List.of()));
+        }).toList();
+
+    }
+
+    /**
+     * Get cycle history, including the cycles moved to the archive tier
      * @param userId userId of the subscriber
      * @param mdn mdn of the subscriber
      * @return List of cycle history
      */
     @Validated
+    @Timed("service.invocations")
     public List<CycleInfo> getCycleHistory(@NotBlank String userId, @NotBlank String mdn) {
+        return usageReportCache.getCycleHistory(userId, mdn, () -> loadCycleHistory(userId, mdn));
+    }
+
+    private List<CycleInfo> loadCycleHistory(String userId, String mdn) {
 
-        List<Cycle> cycles = cycleRepository.findByUserIdAndMdnOrderByStartDateDesc(userId, mdn);
+        List<CycleWindow> cycles = cycleRepository.findCycleWindowsByUserIdAndMdn(userId, mdn);
+        List<CycleWindow> archivedCycles = archivedCycleRepository.findCycleWindowsByUserIdAndMdn(userId, mdn);
 
         //If no cycles are found, throw NoCyclesFoundException and return 404
-        if (cycles.isEmpty()) {
+        if (cycles.isEmpty() && archivedCycles.isEmpty()) {
             throw new NoCyclesFoundException(String.format("No cycles found for this user: %s and mdn: %s.", userId, mdn));
         }
 
-        // Return a list of cycles for the given user and mdn
-        return cycles.stream().map(c -> new CycleInfo(c.getId(), new Date(c.getStartDate()), new Date(c.getEndDate()))).toList();
+        // Return a list of cycles for the given user and mdn, a cycle being archived may be in both tiers
+        Set<String> cycleIds = cycles.stream().map(CycleWindow::id).collect(Collectors.toSet());
+        return Stream.concat(cycles.stream(), archivedCycles.stream().filter(cycle -> !cycleIds.contains(cycle.id())))
+                .sorted(Comparator.comparing(CycleWindow::startDate).reversed())
+                .map(CycleService::toCycleInfo)
+                .toList();
+
+    }
+
+    /**
+     * Get a page of the cycle history, read from the index without sorting the full history. Archived cycles
+     * are older than the other ones, a page continues in the archive tier when the Cycle collection runs out.
+     * @param userId userId of the subscriber
+     * @param mdn mdn of the subscriber
+     * @param limit maximum number of cycles of the page
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @return page of cycle history with the cursor of the next page
+     */
+    @Validated
+    @Timed("service.invocations")
+    public CycleHistoryPage getCycleHistoryPage(@NotBlank String userId, @NotBlank String mdn, int limit,
+                                                Long cursor) {
+
+        // One more cycle than requested tells whether there is a next page
+        List<CycleWindow> cycles = new ArrayList<>(cycleRepository.findCycleWindowPage(userId, mdn,
+                cursor == null ? Long.MAX_VALUE : cursor, Limit.of(limit + 1)));
+        if (cycles.size() <= limit) {
+            cycles.addAll(archivedCycleRepository.findCycleWindowPage(userId, mdn,
+                    cycles.isEmpty() ? (cursor == null ? Long.MAX_VALUE : cursor)
+                            : cycles.get(cycles.size() - 1).startDate(),
+                    Limit.of(limit + 1 - cycles.size())));
+        }
+
+        //If the line has no cycles at all, throw NoCyclesFoundException and return 404
+        if (cycles.isEmpty() && cursor == null) {
+            throw new NoCyclesFoundException(String.format("No cycles found for this user: %s and mdn: %s.", userId, mdn));
+        }
+
+        List<CycleWindow> page = cycles.subList(0, Math.min(limit, cycles.size()));
+        Long nextCursor = cycles.size() > limit ? page.get(page.size() - 1).startDate() : null;
+        return new CycleHistoryPage(page.stream().map(CycleService::toCycleInfo).toList(), nextCursor);
+
+    }
+
+    /**
+     * Stream the cycle history from a server cursor, without holding the full history in memory. The cycles
+     * of the archive tier follow the other ones, skipping those still in the Cycle collection.
+     * The returned stream must be closed to release the cursor.
+     * Not timed by service.invocations: the method returns before the cursor is read, so its duration would not
+     * cover the streaming. The full duration is recorded by http.server.requests of the streaming endpoint.
+     * @param userId userId of the subscriber
+     * @param mdn mdn of the subscriber
+     * @return Stream of cycle history
+     */
+    @Validated
+    public Stream<CycleInfo> streamCycleHistory(@NotBlank String userId, @NotBlank String mdn) {
+
+        // A cycle being archived may be in both tiers. Only the ids of the Cycle collection are held, they are
+        // all seen before the archive tier is read. Closing the concatenated stream closes both cursors
+        Set<String> cycleIds = new HashSet<>();
+        Stream<CycleWindow> cycles = Stream.concat(
+                cycleRepository.streamCycleWindowsByUserIdAndMdn(userId, mdn).peek(cycle -> cycleIds.add(cycle.id())),
+                archivedCycleRepository.streamCycleWindowsByUserIdAndMdn(userId, mdn)
+                        .filter(cycle -> !cycleIds.contains(cycle.id())));
+        Iterator<CycleWindow> iterator = cycles.iterator();
+
+        //If no cycles are found, throw NoCyclesFoundException and return 404 before the response is committed
+        if (!iterator.hasNext()) {
+            cycles.close();
+            throw new NoCyclesFoundException(String.format("No cycles found for this user: %s and mdn: %s.", userId, mdn));
+        }
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(cycles::close)
+                .map(CycleService::toCycleInfo);
+
+    }
 
+    private static CycleInfo toCycleInfo(CycleWindow cycle) {
+        return new CycleInfo(cycle.id(), new Date(cycle.startDate()), new Date(cycle.endDate()));
     }
 
 }
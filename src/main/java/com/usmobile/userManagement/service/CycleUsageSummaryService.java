@@ -0,0 +1,172 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.cache.LineDataChangedEvent;
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.CycleUsageSummary;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.exception.NoCyclesFoundException;
+import com.usmobile.userManagement.model.CycleUsageSummaryResponse;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.repository.CycleUsageSummaryRepository;
+import jakarta.validation.constraints.NotBlank;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.MongoMappingEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service class for the usage totals of a cycle
+ * Totals are materialized per cycle in Cycle_Usage_Summary so that reading them is a single document lookup.
+ * Ingested usage deltas are added to the summaries of their cycles, usage set by imports or repository saves
+ * recomputes them from the daily usage, and the summary of a cycle that was never computed is backfilled on its
+ * first read. An import overlapping the ingestion of the same cycle may miss or count twice the deltas ingested
+ * meanwhile, until the cycle is recomputed again.
+ */
+@Service
+@Validated
+public class CycleUsageSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CycleUsageSummaryService.class);
+
+    CycleUsageSummaryRepository cycleUsageSummaryRepository;
+
+    String cycleCollection;
+
+    String dailyUsageCollection;
+
+    MongoTemplate mongoTemplate;
+
+    /**
+     * Lines of the documents matched by the delete in progress on this thread, mapping events of a delete are
+     * published on the thread running it
+     */
+    private final ThreadLocal<List<LineInfo>> deletedLines = new ThreadLocal<>();
+
+    @Autowired
+    public CycleUsageSummaryService(CycleUsageSummaryRepository cycleUsageSummaryRepository,
+                                    MongoTemplate mongoTemplate) {
+        this.cycleUsageSummaryRepository = cycleUsageSummaryRepository;
+        this.cycleCollection = mongoTemplate.getCollectionName(Cycle.class);
+        this.dailyUsageCollection = mongoTemplate.getCollectionName(DailyUsage.class);
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Get the usage totals of a cycle of the line
+     * @param userId user id
+     * @param mdn mdn of the user
+     * @param cycleId cycle id
+     * @return usage totals of the cycle
+     * @throws NoCyclesFoundException if the cycle does not exist for the line
+     */
+    public CycleUsageSummaryResponse getCycleUsageSummary(@NotBlank String userId, @NotBlank String mdn,
+                                                          @NotBlank String cycleId) {
+        CycleUsageSummary summary = cycleUsageSummaryRepository.findByIdAndUserIdAndMdn(cycleId, userId, mdn)
+                .orElseGet(() -> {
+                    // Cycles without usage written since summaries exist are computed once here
+                    cycleUsageSummaryRepository.refreshSummary(userId, mdn, cycleId);
+                    return cycleUsageSummaryRepository.findByIdAndUserIdAndMdn(cycleId, userId, mdn)
+                            .orElseThrow(() -> new NoCyclesFoundException(String.format(
+                                    "No cycle %s found for this user: %s and mdn: %s.", cycleId, userId, mdn)));
+                });
+        return new CycleUsageSummaryResponse(summary.getId(), new Date(summary.getStartDate()),
+                new Date(summary.getEndDate()), summary.getTotalMb(), summary.getDaysWithUsage(),
+                summary.getPeakDayDate() == null ? null : new Date(summary.getPeakDayDate()),
+                summary.getPeakDayMb(), new Date(summary.getLastUpdated()));
+    }
+
+    /**
+     * Add written usage deltas to the summaries of the cycles containing their days. A failure is logged and not
+     * thrown, the usage itself was written; the summaries are corrected by the next recompute of their cycle.
+     * @param records usage records whose delta was written, usageDate being the start of the usage day
+     */
+    public void usageIncremented(Collection<UsageRecord> records) {
+        try {
+            cycleUsageSummaryRepository.incrementSummaries(records);
+        } catch (DataAccessException ex) {
+            logger.error("Failed to add {} usage deltas to the cycle usage summaries", records.size(), ex);
+        }
+    }
+
+    /**
+     * Recompute the summaries of the cycles containing the written usage days. A failure is logged and not
+     * thrown, the usage itself was written; the summaries are corrected by the next recompute of their cycle.
+     * @param usageDays usage days whose daily usage was written
+     */
+    public void usageWritten(Collection<LineUsageDay> usageDays) {
+        try {
+            cycleUsageSummaryRepository.refreshSummaries(usageDays);
+        } catch (DataAccessException ex) {
+            logger.error("Failed to refresh the cycle usage summaries of {} usage days", usageDays.size(), ex);
+        }
+    }
+
+    /**
+     * Keep the summaries in line with cycles and daily usages written through the repositories. Deletes only
+     * carry the delete query: the lines of the documents it matches are looked up before the delete, unless the
+     * query is scoped to a line, and the summaries of those lines are dropped after it, to be backfilled on read.
+     * Summaries of archived cycles are kept.
+     */
+    @EventListener
+    public void onMongoMappingEvent(MongoMappingEvent<?> event) {
+        boolean cycleEvent = cycleCollection.equals(event.getCollectionName());
+        if (!cycleEvent && !dailyUsageCollection.equals(event.getCollectionName())) {
+            return;
+        }
+        try {
+            if (event instanceof AfterSaveEvent<?>) {
+                if (event.getSource() instanceof Cycle cycle) {
+                    cycleUsageSummaryRepository.refreshSummary(cycle.getUserId(), cycle.getMdn(), cycle.getId());
+                } else if (event.getSource() instanceof DailyUsage dailyUsage) {
+                    cycleUsageSummaryRepository.refreshSummaries(List.of(new LineUsageDay(dailyUsage.getUserId(),
+                            dailyUsage.getMdn(), dailyUsage.getUsageDate())));
+                }
+            } else if (event instanceof BeforeDeleteEvent<?> deleteEvent) {
+                deletedLines.remove();
+                if (LineDataChangedEvent.fromDeleteQuery(deleteEvent.getDocument(), cycleEvent).isEmpty()) {
+                    deletedLines.set(findLines(event.getCollectionName(), deleteEvent.getDocument()));
+                }
+            } else if (event instanceof AfterDeleteEvent<?> deleteEvent) {
+                List<LineInfo> lines = LineDataChangedEvent.fromDeleteQuery(deleteEvent.getDocument(), cycleEvent)
+                        .map(line -> List.of(new LineInfo(line.userId(), line.mdn())))
+                        .orElseGet(() -> Optional.ofNullable(deletedLines.get()).orElse(List.of()));
+                deletedLines.remove();
+                lines.forEach(line -> cycleUsageSummaryRepository.deleteUnarchivedSummaries(line.userId(),
+                        line.mdn()));
+            }
+        } catch (DataAccessException ex) {
+            logger.error("Failed to refresh the cycle usage summaries after a write to {}", event.getCollectionName(),
+                    ex);
+        }
+    }
+
+    /**
+     * Distinct lines of the documents matching a delete query, by _id for deletes of an entity or an id
+     */
+    private List<LineInfo> findLines(String collectionName, Document query) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                context -> new Document("$match", query),
+                context -> new Document("$group", new Document("_id", new Document("userId", "$userId")
+                        .append("mdn", "$mdn"))),
+                context -> new Document("$replaceWith", "$_id"));
+        return mongoTemplate.aggregate(aggregation, collectionName, LineInfo.class).getMappedResults();
+    }
+
+}
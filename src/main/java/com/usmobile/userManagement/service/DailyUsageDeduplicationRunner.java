@@ -0,0 +1,41 @@
+package com.usmobile.userManagement.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Daily Usage Deduplication Runner
+ * Merges the duplicate Daily_Usage documents and makes the userId_mdn_usageDate index unique once the application
+ * has started, only when enabled: --usage.dedup.enabled=true --usage.dedup.merge=SUM|LATEST. The run is a dry run
+ * logging the duplicates unless --usage.dedup.dry-run=false. The merge rule has no default, it depends on what
+ * left the duplicates.
+ */
+@Component
+@ConditionalOnProperty(name = "usage.dedup.enabled", havingValue = "true")
+public class DailyUsageDeduplicationRunner implements ApplicationRunner {
+
+    DailyUsageDeduplicationService dailyUsageDeduplicationService;
+
+    DailyUsageMergeRule mergeRule;
+
+    boolean dryRun;
+
+    @Autowired
+    public DailyUsageDeduplicationRunner(DailyUsageDeduplicationService dailyUsageDeduplicationService,
+                                         @Value("${usage.dedup.merge}") DailyUsageMergeRule mergeRule,
+                                         @Value("${usage.dedup.dry-run:true}") boolean dryRun) {
+        this.dailyUsageDeduplicationService = dailyUsageDeduplicationService;
+        this.mergeRule = mergeRule;
+        this.dryRun = dryRun;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        dailyUsageDeduplicationService.deduplicate(mergeRule, dryRun);
+    }
+
+}
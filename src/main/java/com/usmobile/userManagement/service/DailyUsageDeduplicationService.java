@@ -0,0 +1,164 @@
+package com.usmobile.userManagement.service;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.index.IndexManager;
+import com.usmobile.userManagement.model.DailyUsageDeduplicationResult;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service class merging the Daily_Usage documents that share a line and day and making the userId_mdn_usageDate
+ * index unique. Such documents are left by writers that ran without the unique index, e.g. a feed writing
+ * Daily_Usage directly. Merging rewrites usage, so the run is opt-in and a dry run only counts and logs them.
+ * The index is converted in place with collMod (MongoDB 6.0): prepareUnique first rejects new duplicate keys
+ * while the duplicates are merged, then the index is made unique, so the usage reads keep their index for the
+ * whole run. A missing index is first built without the unique option. Each duplicate is removed with
+ * findOneAndDelete before its usage is added to the kept document, so runs on several replicas at once merge
+ * each document once.
+ */
+@Service
+public class DailyUsageDeduplicationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyUsageDeduplicationService.class);
+
+    private static final int LOGGED_DUPLICATE_DAYS = 10;
+
+    MongoTemplate mongoTemplate;
+
+    IndexManager indexManager;
+
+    @Autowired
+    public DailyUsageDeduplicationService(MongoTemplate mongoTemplate, IndexManager indexManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexManager = indexManager;
+    }
+
+    /**
+     * Merge the duplicate daily usages with the merge rule and make the userId_mdn_usageDate index unique
+     * @param mergeRule how the documents of the same line and day are merged
+     * @param dryRun true to only count and log the duplicates, leaving the collection and its index as they are
+     * @return counts and duration of the run
+     */
+    public DailyUsageDeduplicationResult deduplicate(DailyUsageMergeRule mergeRule, boolean dryRun) {
+        long start = System.nanoTime();
+        String collectionName = mongoTemplate.getCollectionName(DailyUsage.class);
+        Optional<IndexInfo> index = indexManager.dailyUsageIndex();
+        if (index.isPresent() && index.get().isUnique()) {
+            logger.info("Daily usage deduplication: index {} on collection {} is already unique, nothing to merge",
+                    IndexManager.DAILY_USAGE_INDEX, collectionName);
+            return new DailyUsageDeduplicationResult(0, 0, dryRun, true, elapsedMillis(start));
+        }
+        MongoCollection<Document> collection = mongoTemplate.getCollection(collectionName);
+
+        if (dryRun) {
+            long duplicateDays = 0;
+            long removable = 0;
+            for (Document duplicate : duplicates(collection)) {
+                logDuplicate(duplicateDays++, duplicate);
+                removable += duplicate.getList("ids", Object.class).size() - 1;
+            }
+            DailyUsageDeduplicationResult result = new DailyUsageDeduplicationResult(duplicateDays, removable,
+                    true, false, elapsedMillis(start));
+            logger.info("Daily usage deduplication dry run: {} days with duplicates, {} documents would be merged "
+                    + "with rule {}, {} ms", result.duplicateDays(), result.removed(), mergeRule,
+                    result.elapsedMillis());
+            return result;
+        }
+
+        if (index.isEmpty()) {
+            // Built without the unique option so that it serves the reads and can be converted once merged
+            logger.info("Daily usage deduplication: building index {} on collection {}",
+                    IndexManager.DAILY_USAGE_INDEX, collectionName);
+            mongoTemplate.indexOps(DailyUsage.class).ensureIndex(nonUniqueDailyUsageIndex(collectionName));
+        }
+        convertIndex(collectionName, "prepareUnique");
+
+        long duplicateDays = 0;
+        long removed = 0;
+        for (Document duplicate : duplicates(collection)) {
+            logDuplicate(duplicateDays++, duplicate);
+            Object keep = duplicate.get(mergeRule == DailyUsageMergeRule.SUM ? "oldest" : "newest");
+            for (Object id : duplicate.getList("ids", Object.class)) {
+                if (id.equals(keep)) {
+                    continue;
+                }
+                // Null when a concurrent run merged it already
+                Document merged = collection.findOneAndDelete(Filters.eq("_id", id));
+                if (merged == null) {
+                    continue;
+                }
+                removed++;
+                if (mergeRule == DailyUsageMergeRule.SUM && merged.get("usedInMb") instanceof Number usedInMb) {
+                    collection.updateOne(Filters.eq("_id", keep), Updates.inc("usedInMb", usedInMb.intValue()));
+                }
+            }
+        }
+
+        convertIndex(collectionName, "unique");
+        DailyUsageDeduplicationResult result = new DailyUsageDeduplicationResult(duplicateDays, removed, false,
+                true, elapsedMillis(start));
+        logger.info("Daily usage deduplication: {} days with duplicates, merged {} documents with rule {}, index {} "
+                + "is unique, {} ms", result.duplicateDays(), result.removed(), mergeRule,
+                IndexManager.DAILY_USAGE_INDEX, result.elapsedMillis());
+        return result;
+    }
+
+    /**
+     * Line and day keys held by more than one document, with their ids and the oldest and newest of them
+     */
+    private static AggregateIterable<Document> duplicates(MongoCollection<Document> collection) {
+        return collection.aggregate(List.of(
+                        Aggregates.group(new Document("userId", "$userId").append("mdn", "$mdn")
+                                        .append("usageDate", "$usageDate"),
+                                Accumulators.min("oldest", "$_id"),
+                                Accumulators.max("newest", "$_id"),
+                                Accumulators.push("ids", "$_id")),
+                        Aggregates.match(Filters.expr(new Document("$gt", List.of(new Document("$size", "$ids"),
+                                1))))))
+                .allowDiskUse(true);
+    }
+
+    private static void logDuplicate(long duplicateDays, Document duplicate) {
+        if (duplicateDays < LOGGED_DUPLICATE_DAYS) {
+            Document key = duplicate.get("_id", Document.class);
+            logger.info("Daily usage deduplication: {} documents for line {} {} on {}",
+                    duplicate.getList("ids", Object.class).size(), key.get("userId"), key.get("mdn"),
+                    key.get("usageDate"));
+        }
+    }
+
+    private IndexDefinition nonUniqueDailyUsageIndex(String collectionName) {
+        IndexDefinition declared = indexManager.requiredIndexes().get(collectionName).stream()
+                .filter(definition -> IndexManager.DAILY_USAGE_INDEX.equals(
+                        definition.getIndexOptions().getString("name")))
+                .findFirst()
+                .orElseThrow();
+        return new CompoundIndexDefinition(declared.getIndexKeys()).named(IndexManager.DAILY_USAGE_INDEX);
+    }
+
+    private void convertIndex(String collectionName, String option) {
+        mongoTemplate.executeCommand(new Document("collMod", collectionName).append("index",
+                new Document("name", IndexManager.DAILY_USAGE_INDEX).append(option, true)));
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+}
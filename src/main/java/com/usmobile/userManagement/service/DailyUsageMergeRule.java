@@ -0,0 +1,19 @@
+package com.usmobile.userManagement.service;
+
+/**
+ * How the daily usage deduplication merges the documents sharing a line and day, configured with usage.dedup.merge
+ */
+public enum DailyUsageMergeRule {
+
+    /**
+     * Keep the oldest document and add the usage of the others to it, for partial sums left by concurrent
+     * $inc upserts of the same day
+     */
+    SUM,
+
+    /**
+     * Keep the newest document as is and drop the others, for redelivered or replayed rows of the same day
+     */
+    LATEST
+
+}
@@ -0,0 +1,33 @@
+package com.usmobile.userManagement.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Daily Usage Migration Runner
+ * Copies Daily_Usage into the Daily_Usage_TS time-series collection once the application has started, when
+ * switching to the time-series storage mode: --usage.storage.mode=TIME_SERIES --usage.storage.migrate=true.
+ * The copy resumes from its checkpoint, so the runner can be left enabled until the migration completed.
+ * Enable it only once no instance runs in the COLLECTION storage mode anymore, e.g. after a rolling deploy of the
+ * TIME_SERIES mode has completed: usage an older instance adds to Daily_Usage documents already copied is lost.
+ */
+@Component
+@ConditionalOnProperty(name = "usage.storage.migrate", havingValue = "true")
+public class DailyUsageMigrationRunner implements ApplicationRunner {
+
+    DailyUsageMigrationService dailyUsageMigrationService;
+
+    @Autowired
+    public DailyUsageMigrationRunner(DailyUsageMigrationService dailyUsageMigrationService) {
+        this.dailyUsageMigrationService = dailyUsageMigrationService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        dailyUsageMigrationService.migrate();
+    }
+
+}
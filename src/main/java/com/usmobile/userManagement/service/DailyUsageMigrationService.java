@@ -0,0 +1,159 @@
+package com.usmobile.userManagement.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.DailyUsageMeasurement;
+import com.usmobile.userManagement.model.DailyUsageMigrationResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Service class copying the Daily_Usage collection into the Daily_Usage_TS time-series collection
+ * Documents are read in _id order in batches of batch-size and written with unordered inserts, keeping their
+ * _id and marked as migrated. The last copied _id is checkpointed after each batch so that an interrupted run
+ * resumes where it stopped: the migrated measurements of the interrupted batch are removed first, as they would
+ * otherwise be summed twice, while measurements written by the application are never removed.
+ * Daily_Usage is no longer written in the time-series storage mode, the documents present when the run
+ * starts are the ones copied. Every instance must run in the time-series mode before the migration starts: a
+ * delta added by an instance still in the COLLECTION mode to a document already copied is lost, documents it
+ * creates are only copied by the next run. Usage imports should not run concurrently, a replaced day could be
+ * overwritten by its older copy.
+ */
+@Service
+public class DailyUsageMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyUsageMigrationService.class);
+
+    static final String CHECKPOINT_COLLECTION = "Daily_Usage_Migration";
+
+    static final String MIGRATED_FIELD = "migrated";
+
+    MongoTemplate mongoTemplate;
+
+    int batchSize;
+
+    @Autowired
+    public DailyUsageMigrationService(MongoTemplate mongoTemplate,
+                                      @Value("${usage.storage.migrate.batch-size:10000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Copy the daily usage not yet copied into the time-series collection
+     * @return counts and duration of the run
+     * @throws IllegalStateException if the time-series collection has not been created
+     */
+    public DailyUsageMigrationResult migrate() {
+        long start = System.nanoTime();
+        MongoCollection<Document> source = mongoTemplate.getCollection(
+                mongoTemplate.getCollectionName(DailyUsage.class));
+        MongoCollection<Document> target = mongoTemplate.getCollection(
+                mongoTemplate.getCollectionName(DailyUsageMeasurement.class));
+        MongoCollection<Document> checkpoints = mongoTemplate.getCollection(CHECKPOINT_COLLECTION);
+        String checkpointId = target.getNamespace().getCollectionName();
+        Document targetInfo = mongoTemplate.getDb().listCollections()
+                .filter(new Document("name", checkpointId)).first();
+        if (targetInfo == null || !"timeseries".equals(targetInfo.getString("type"))) {
+            throw new IllegalStateException(String.format(
+                    "%s is not a time-series collection, run the migration with usage.storage.mode=TIME_SERIES",
+                    checkpointId));
+        }
+
+        Document last = source.find().sort(Sorts.descending("_id")).projection(new Document("_id", 1)).first();
+        if (last == null) {
+            logger.info("Daily usage migration: nothing to copy");
+            return new DailyUsageMigrationResult(0, 0, 0, elapsedMillis(start));
+        }
+        ObjectId lastId = last.getObjectId("_id");
+        Document checkpoint = checkpoints.find(Filters.eq("_id", checkpointId)).first();
+        ObjectId copiedId = checkpoint == null ? null : checkpoint.getObjectId("lastId");
+
+        // Migrated measurements up to lastId and past the checkpoint can only come from an interrupted batch. Ids
+        // of measurements written by the application may be generated by the client and fall in that range too,
+        // they are told apart by the marker. Deleting measurements on a non-meta field requires MongoDB 7.0.
+        target.deleteMany(Filters.and(Filters.eq(MIGRATED_FIELD, true), copiedId == null ? Filters.lte("_id", lastId)
+                : Filters.and(Filters.gt("_id", copiedId), Filters.lte("_id", lastId))));
+
+        long copied = 0;
+        long skipped = 0;
+        long batches = 0;
+        while (true) {
+            List<Document> batch = source.find(copiedId == null ? Filters.lte("_id", lastId)
+                            : Filters.and(Filters.gt("_id", copiedId), Filters.lte("_id", lastId)))
+                    .sort(Sorts.ascending("_id"))
+                    .limit(batchSize)
+                    .into(new ArrayList<>(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Document> measurements = new ArrayList<>(batch.size());
+            for (Document dailyUsage : batch) {
+                Document measurement = measurement(dailyUsage);
+                if (measurement == null) {
+                    skipped++;
+                } else {
+                    measurements.add(measurement);
+                }
+            }
+            if (!measurements.isEmpty()) {
+                target.insertMany(measurements, new InsertManyOptions().ordered(false));
+            }
+            copiedId = batch.get(batch.size() - 1).getObjectId("_id");
+            checkpoints.replaceOne(Filters.eq("_id", checkpointId),
+                    new Document("_id", checkpointId).append("lastId", copiedId).append("updatedAt", new Date()),
+                    new ReplaceOptions().upsert(true));
+            copied += measurements.size();
+            batches++;
+            if (batches % 100 == 0) {
+                logger.info("Daily usage migration: copied {} documents", copied);
+            }
+        }
+
+        if (source.find(Filters.gt("_id", lastId)).projection(new Document("_id", 1)).first() != null) {
+            logger.warn("Daily usage migration: Daily_Usage was written during the run, an instance may still be "
+                    + "in the COLLECTION storage mode. Its deltas to copied documents are lost, run the migration "
+                    + "again once every instance is in the TIME_SERIES mode to copy the new documents.");
+        }
+
+        DailyUsageMigrationResult result = new DailyUsageMigrationResult(copied, skipped, batches,
+                elapsedMillis(start));
+        logger.info("Daily usage migration: copied {}, skipped {} in {} batches, {} ms", result.copied(),
+                result.skipped(), result.batches(), result.elapsedMillis());
+        return result;
+    }
+
+    /**
+     * Measurement of a daily usage document, null if it has no numeric usage date or amount
+     */
+    private static Document measurement(Document dailyUsage) {
+        if (!(dailyUsage.get("usageDate") instanceof Number usageDate)
+                || !(dailyUsage.get("usedInMb") instanceof Number usedInMb)) {
+            return null;
+        }
+        return new Document("_id", dailyUsage.get("_id"))
+                .append("line", new Document("userId", dailyUsage.get("userId")).append("mdn", dailyUsage.get("mdn")))
+                .append("usageDate", new Date(usageDate.longValue()))
+                .append("usedInMb", usedInMb.intValue())
+                .append(MIGRATED_FIELD, true);
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+}
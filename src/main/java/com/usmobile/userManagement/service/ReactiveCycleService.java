@@ -0,0 +1,182 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.cache.ActiveCycleCache;
+import com.usmobile.userManagement.exception.NoCyclesFoundException;
+import com.usmobile.userManagement.model.CycleHistoryPage;
+import com.usmobile.userManagement.model.CycleInfo;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.model.LineUsageReport;
+import com.usmobile.userManagement.repository.ReactiveCycleRepository;
+import com.usmobile.userManagement.repository.DailyUsageStorageMode;
+import com.usmobile.userManagement.repository.ReactiveDailyUsageRepository;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.util.UsageDays;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking service class for cycle related operations, used by the reactive profile.
+ * Reports are composed as chains of reactive MongoDB queries and emitted as the documents are read, so no thread
+ * waits on the database. The active cycle cache is shared with the blocking CycleService; the usage report
+ * cache is not used, its remote tier is blocking.
+ * The reactive repositories only read Cycle and Daily_Usage, so the profile refuses to start with another usage
+ * storage mode or with the archive tier, whose data it would silently miss.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCycleService {
+
+    ReactiveCycleRepository cycleRepository;
+
+    ReactiveDailyUsageRepository dailyUsageRepository;
+
+    ActiveCycleCache activeCycleCache;
+
+    @Autowired
+    public ReactiveCycleService(ReactiveCycleRepository cycleRepository,
+                                ReactiveDailyUsageRepository dailyUsageRepository,
+                                ActiveCycleCache activeCycleCache,
+                                @Value("${usage.storage.mode:COLLECTION}") DailyUsageStorageMode storageMode,
+                                @Value("${archive.enabled:false}") boolean archiveEnabled) {
+        if (storageMode != DailyUsageStorageMode.COLLECTION) {
+            throw new IllegalStateException(String.format(
+                    "The reactive profile reads Daily_Usage only and cannot run with usage.storage.mode=%s",
+                    storageMode));
+        }
+        if (archiveEnabled) {
+            throw new IllegalStateException(
+                    "The reactive profile does not read the archive tier and cannot run with archive.enabled=true");
+        }
+        this.cycleRepository = cycleRepository;
+        this.dailyUsageRepository = dailyUsageRepository;
+        this.activeCycleCache = activeCycleCache;
+    }
+
+    /**
+     * Get daily usage report: the active cycle, then the daily usage within its window
+     * @param userId userId of the subscriber
+     * @param mdn mdn of the subscriber
+     * @return daily usage report ordered by usage date desc, NoCyclesFoundException if there is no active cycle
+     */
+    public Flux<DailyUsageReport> getDailyUsageReport(String userId, String mdn) {
+        return getActiveCycle(userId, mdn)
+                //If no current cycle is found, signal NoCyclesFoundException and return 404
+                .switchIfEmpty(Mono.error(() -> new NoCyclesFoundException(
+                        String.format("No current cycle found for this user: %s and mdn: %s.", userId, mdn))))
+                .flatMapMany(cycle -> dailyUsageRepository.findUsageAmounts(userId, mdn,
+                        UsageDays.startOfDay(cycle.startDate()), cycle.endDate()))
+                .map(ua -> new DailyUsageReport(new Date(ua.usageDate()), ua.usedInMb()));
+    }
+
+    private Mono<CycleWindow> getActiveCycle(String userId, String mdn) {
+        // A miss is not loaded through the cache, that would block the event loop on the query
+        return Mono.defer(() -> Mono.justOrEmpty(activeCycleCache.getIfPresent(userId, mdn)))
+                .switchIfEmpty(Mono.defer(() -> cycleRepository
+                        .findCurrentCycleWindowByUserIdAndMdn(userId, mdn, System.currentTimeMillis())
+                        .doOnNext(cycle -> activeCycleCache.put(userId, mdn, cycle))));
+    }
+
+    /**
+     * Get the current cycle daily usage report of many lines in two round trips: one query for the active
+     * cycles that are not cached, one query for the daily usage of all the lines
+     * @param lines lines of the subscriber, duplicates are reported once
+     * @return report of each line in request order, lines without an active cycle have no cycle and no usage
+     */
+    public Flux<LineUsageReport> getDailyUsageReports(List<LineInfo> lines) {
+        return Mono.defer(() -> {
+            Set<LineInfo> distinctLines = new LinkedHashSet<>(lines);
+            Map<LineInfo, CycleWindow> cachedCycles = new HashMap<>();
+            List<LineInfo> uncachedLines = new ArrayList<>();
+            for (LineInfo line : distinctLines) {
+                activeCycleCache.getIfPresent(line.userId(), line.mdn()).ifPresentOrElse(
+                        cycle -> cachedCycles.put(line, cycle), () -> uncachedLines.add(line));
+            }
+
+            return cycleRepository.findCurrentCycleWindows(uncachedLines, System.currentTimeMillis())
+                    .doOnNext(cycle -> activeCycleCache.put(cycle.userId(), cycle.mdn(),
+                            new CycleWindow(cycle.id(), cycle.startDate(), cycle.endDate())))
+                    .collectMap(cycle -> new LineInfo(cycle.userId(), cycle.mdn()),
+                            cycle -> new CycleWindow(cycle.id(), cycle.startDate(), cycle.endDate()),
+                            () -> new HashMap<>(cachedCycles))
+                    .flatMap(activeCycles -> getDailyUsage(activeCycles).map(dailyUsage -> distinctLines.stream()
+                            .map(line -> {
+                                CycleWindow cycle = activeCycles.get(line);
+                                return new LineUsageReport(line.userId(), line.mdn(),
+                                        cycle == null ? null : toCycleInfo(cycle),
+                                        dailyUsage.getOrDefault(line, List.of()));
+                            }).toList()));
+        }).flatMapIterable(reports -> reports);
+    }
+
+    private Mono<Map<LineInfo, List<DailyUsageReport>>> getDailyUsage(Map<LineInfo, CycleWindow> activeCycles) {
+        List<LineCycleWindow> cycleWindows = activeCycles.entrySet().stream()
+                .map(e -> new LineCycleWindow(e.getValue().id(), e.getKey().userId(), e.getKey().mdn(),
+                        e.getValue().startDate(), e.getValue().endDate()))
+                .toList();
+        // Daily usage of every line is read with a single query, sorted by usage date desc and grouped by line
+        return dailyUsageRepository.findUsageAmountsWithinCycles(cycleWindows)
+                .collect(Collectors.groupingBy(ua -> new LineInfo(ua.userId(), ua.mdn()), Collectors.mapping(
+                        ua -> new DailyUsageReport(new Date(ua.usageDate()), ua.usedInMb()), Collectors.toList())));
+    }
+
+    /**
+     * Get cycle history, emitted as the cycles are read from the server cursor
+     * @param userId userId of the subscriber
+     * @param mdn mdn of the subscriber
+     * @return cycle history ordered by start date desc, NoCyclesFoundException if the line has no cycles
+     */
+    public Flux<CycleInfo> getCycleHistory(String userId, String mdn) {
+        return cycleRepository.findCycleWindowsByUserIdAndMdn(userId, mdn)
+                //If no cycles are found, signal NoCyclesFoundException and return 404
+                .switchIfEmpty(Flux.error(() -> new NoCyclesFoundException(
+                        String.format("No cycles found for this user: %s and mdn: %s.", userId, mdn))))
+                .map(ReactiveCycleService::toCycleInfo);
+    }
+
+    /**
+     * Get a page of the cycle history, read from the index without sorting the full history
+     * @param userId userId of the subscriber
+     * @param mdn mdn of the subscriber
+     * @param limit maximum number of cycles of the page
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @return page of cycle history with the cursor of the next page
+     */
+    public Mono<CycleHistoryPage> getCycleHistoryPage(String userId, String mdn, int limit, Long cursor) {
+        // One more cycle than requested tells whether there is a next page
+        return cycleRepository.findCycleWindowPage(userId, mdn, cursor == null ? Long.MAX_VALUE : cursor,
+                        Limit.of(limit + 1))
+                .collectList()
+                .flatMap(cycles -> {
+                    //If the line has no cycles at all, signal NoCyclesFoundException and return 404
+                    if (cycles.isEmpty() && cursor == null) {
+                        return Mono.error(new NoCyclesFoundException(
+                                String.format("No cycles found for this user: %s and mdn: %s.", userId, mdn)));
+                    }
+                    List<CycleWindow> page = cycles.subList(0, Math.min(limit, cycles.size()));
+                    Long nextCursor = cycles.size() > limit ? page.get(page.size() - 1).startDate() : null;
+                    return Mono.just(new CycleHistoryPage(page.stream().map(ReactiveCycleService::toCycleInfo)
+                            .toList(), nextCursor));
+                });
+    }
+
+    private static CycleInfo toCycleInfo(CycleWindow cycle) {
+        return new CycleInfo(cycle.id(), new Date(cycle.startDate()), new Date(cycle.endDate()));
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.exception.InvalidCredentialsException;
+import com.usmobile.userManagement.exception.ServiceOverloadedException;
+import com.usmobile.userManagement.exception.UserAlreadyExistsException;
+import com.usmobile.userManagement.exception.UserNotFoundException;
+import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.PatchUserRequest;
+import com.usmobile.userManagement.model.UpdateUserRequest;
+import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.model.VerifyPasswordRequest;
+import com.usmobile.userManagement.repository.ReactiveUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Non-blocking service class for user management, used by the reactive profile.
+ * Password hashes are computed on the hashing pool of the password encoder; the wait for them is moved off
+ * the event loop to the bounded elastic scheduler.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserService.class);
+
+    private static final String DUMMY_PASSWORD = "dummy-password";
+
+    ReactiveUserRepository userRepository;
+
+    PasswordEncoder passwordEncoder;
+
+    private volatile String dummyHash;
+
+    @Autowired
+    public ReactiveUserService(ReactiveUserRepository userRepository, PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Create a new user
+     *
+     * @param user user details
+     * @return saved user details including generated id
+     */
+    public Mono<UserResponse> createUser(CreateUserRequest user) {
+        // Single insert: the email_unique index rejects an email that already exists, also between concurrent signups
+        return hash(() -> passwordEncoder.encode(user.password()))
+                .flatMap(password -> userRepository.insert(new User(user.firstName(), user.lastName(), user.email(),
+                        password)))
+                .map(ReactiveUserService::toUserResponse)
+                .onErrorMap(DuplicateKeyException.class, ex -> userAlreadyExists(user.email()));
+    }
+
+    /**
+     * Update an existing user
+     *
+     * @param user user details
+     * @return updated user details
+     */
+    public Mono<UserResponse> updateUser(UpdateUserRequest user) {
+        Map<String, Object> fields = Map.of(
+                "firstName", user.firstName(),
+                "lastName", user.lastName(),
+                "email", user.email());
+        return updateFields(user.id(), fields, user.email());
+    }
+
+    /**
+     * Update only the given details of a user
+     * @param id - id of the user
+     * @param user - details to change, null details are left as they are
+     * @return updated user details
+     */
+    public Mono<UserResponse> patchUser(String id, PatchUserRequest user) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (user.firstName() != null) {
+            fields.put("firstName", user.firstName());
+        }
+        if (user.lastName() != null) {
+            fields.put("lastName", user.lastName());
+        }
+        if (user.email() != null) {
+            fields.put("email", user.email());
+        }
+        return updateFields(id, fields, user.email());
+    }
+
+    private Mono<UserResponse> updateFields(String id, Map<String, Object> fields, String email) {
+        // Single findAndModify: the email_unique index rejects an email another user already has
+        return userRepository.updateFields(id, fields)
+                //If user with id not found, signal UserNotFoundException and return 404 Not Found
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(
+                        String.format("User with id %s not found", id))))
+                .map(ReactiveUserService::toUserResponse)
+                .onErrorMap(DuplicateKeyException.class, ex -> userAlreadyExists(email));
+    }
+
+    /**
+     * Verify the password of a user. When the stored hash was produced with another algorithm or a lower cost
+     * than the current ones, it is replaced with a new hash of the verified password.
+     *
+     * @param credentials email and password of the user
+     * @return user details
+     */
+    public Mono<UserResponse> verifyPassword(VerifyPasswordRequest credentials) {
+        // Unknown email and wrong password are reported the same way, so emails cannot be enumerated
+        return userRepository.findByEmail(credentials.email())
+                // An unknown email is checked against a hash of the current algorithm and cost, so that it takes
+                // as long as a wrong password
+                .switchIfEmpty(Mono.defer(() -> hash(() -> passwordEncoder.matches(credentials.password(),
+                        dummyHash())).then(Mono.<User>empty())))
+                .filterWhen(user -> hash(() -> passwordEncoder.matches(credentials.password(), user.getPassword())))
+                .switchIfEmpty(Mono.error(() -> new InvalidCredentialsException("Invalid email or password")))
+                .flatMap(user -> passwordEncoder.upgradeEncoding(user.getPassword())
+                        ? rehashPassword(user, credentials.password()).thenReturn(user)
+                        : Mono.just(user))
+                .map(ReactiveUserService::toUserResponse);
+    }
+
+    private Mono<Void> rehashPassword(User user, String rawPassword) {
+        // The password is already verified, failing to upgrade its hash only postpones the upgrade to the next one
+        return hash(() -> passwordEncoder.encode(rawPassword))
+                .flatMap(password -> userRepository.updatePasswordIfUnchanged(user.getId(), user.getPassword(),
+                        password))
+                .doOnNext(updated -> {
+                    if (updated == 0) {
+                        logger.info("Password of user {} changed while its hash was upgraded", user.getId());
+                    }
+                })
+                .onErrorResume(ex -> ex instanceof ServiceOverloadedException || ex instanceof DataAccessException,
+                        ex -> {
+                            logger.warn("Failed to upgrade the password hash of user {}", user.getId(), ex);
+                            return Mono.empty();
+                        })
+                .then();
+    }
+
+    /**
+     * Hash compared with the passwords of unknown emails, computed on first use
+     */
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(DUMMY_PASSWORD);
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
+    private static <T> Mono<T> hash(Callable<T> hashing) {
+        return Mono.fromCallable(hashing).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static UserAlreadyExistsException userAlreadyExists(String email) {
+        // If the email belongs to another user, signal UserAlreadyExistsException and return 400 Bad Request
+        logger.error("User with email already exists");
+        return new UserAlreadyExistsException(String.format("User with email %s already exists", email));
+    }
+
+    private static UserResponse toUserResponse(User user) {
+        return new UserResponse(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.usmobile.userManagement.service;
+
+/**
+ * Strategy used to build the current cycle daily usage report, configured with cycle.report.query-mode
+ */
+public enum ReportQueryMode {
+
+    /**
+     * Look up the active cycle, then query the daily usage within its window (two round trips)
+     */
+    TWO_QUERY,
+
+    /**
+     * Single aggregation on Cycle with a $lookup into Daily_Usage (one round trip)
+     */
+    AGGREGATION,
+
+    /**
+     * Look up the active cycle and speculatively query the daily usage of the speculative window concurrently,
+     * keeping the usage within the cycle window once it resolves (one round trip of wall-clock time on a cache miss)
+     */
+    PARALLEL
+
+}
@@ -0,0 +1,317 @@
+package com.usmobile.userManagement.service;
+
+import com.mongodb.MongoConnectionPoolClearedException;
+import com.mongodb.MongoSocketOpenException;
+import com.mongodb.MongoTimeoutException;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.repository.DailyUsageRepository;
+import com.usmobile.userManagement.util.UsageDays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Usage Aggregator
+ * Write-behind stage for usage deltas. Deltas of the same line and day are summed in memory and written as one
+ * $inc upsert per line and day when the flush interval elapses or flush-threshold deltas are pending, so a line
+ * reporting every 15 minutes costs one write per flush instead of one write per report.
+ * Pending deltas live in striped maps: adding a delta takes the read lock of its stripe and merges into a
+ * concurrent map, a flush takes the write lock of each stripe only to swap its map for an empty one.
+ * Pending deltas are flushed when the application stops, after the web server stopped accepting requests.
+ */
+@Component
+public class UsageAggregator implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageAggregator.class);
+
+    /**
+     * Stop after the web server (SmartLifecycle.DEFAULT_PHASE - 2048), so no delta is accepted after the final
+     * flush, and before the Mongo client is closed with the other singletons
+     */
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    DailyUsageRepository dailyUsageRepository;
+
+    UsageWriteNotifier usageWriteNotifier;
+
+    boolean enabled;
+
+    Duration flushInterval;
+
+    int flushThreshold;
+
+    int chunkSize;
+
+    private final Stripe[] stripes;
+
+    private final AtomicLong pendingDeltas = new AtomicLong();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    // A ReentrantLock rather than a monitor, a flush blocks on writes and must not pin a virtual thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile boolean running;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public UsageAggregator(DailyUsageRepository dailyUsageRepository, UsageWriteNotifier usageWriteNotifier,
+                           @Value("${usage.aggregator.enabled:false}") boolean enabled,
+                           @Value("${usage.aggregator.stripes:16}") int stripes,
+                           @Value("${usage.aggregator.flush-interval:5s}") Duration flushInterval,
+                           @Value("${usage.aggregator.flush-threshold:50000}") int flushThreshold,
+                           @Value("${usage.ingest.chunk-size:1000}") int chunkSize) {
+        this.dailyUsageRepository = dailyUsageRepository;
+        this.usageWriteNotifier = usageWriteNotifier;
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.flushThreshold = flushThreshold;
+        this.chunkSize = chunkSize;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Whether usage deltas are aggregated before being written, configured with usage.aggregator.enabled
+     * @return true if the aggregator is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add a usage delta to the pending deltas of its line and day
+     * @param usageRecord usage record, summed with the other deltas of its line on the UTC day of usageDate
+     * @return true if the delta will be written by a later flush, false if the aggregator is not running and
+     * the caller has to write the delta itself
+     */
+    public boolean offer(UsageRecord usageRecord) {
+        UsageKey key = UsageKey.of(usageRecord);
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+        stripe.lock.readLock().lock();
+        try {
+            // Checked under the stripe lock so that no delta is added after the final flush drained the stripe
+            if (!running) {
+                return false;
+            }
+            stripe.deltas.merge(key, usageRecord.deltaMb(), Integer::sum);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+        if (pendingDeltas.incrementAndGet() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RejectedExecutionException ex) {
+                // Stopping, the final flush writes the pending deltas
+                flushRequested.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the pending deltas as $inc upserts, one per line and day. Deltas of a chunk that failed before reaching
+     * the server are kept for the next flush; deltas rejected by the server, and chunks that failed once sent since
+     * some of their upserts may have been applied, are dropped and logged rather than counted twice.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            pendingDeltas.set(0);
+            List<UsageRecord> coalesced = new ArrayList<>();
+            for (Stripe stripe : stripes) {
+                stripe.drain().forEach((key, delta) -> coalesced.add(
+                        new UsageRecord(key.userId(), key.mdn(), new Date(key.usageDay()), delta)));
+            }
+            if (coalesced.isEmpty()) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            for (int from = 0; from < coalesced.size(); from += chunkSize) {
+                write(coalesced.subList(from, Math.min(from + chunkSize, coalesced.size())));
+            }
+            logger.debug("Flushed {} coalesced usage deltas in {} ms", coalesced.size(),
+                    System.currentTimeMillis() - start);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of line and day pairs with a pending delta
+     * @return number of pending writes
+     */
+    public int pendingWrites() {
+        int pending = 0;
+        for (Stripe stripe : stripes) {
+            pending += stripe.deltas.size();
+        }
+        return pending;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("usage-aggregator-"));
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        logger.info("Usage aggregator started, flushing every {} or {} deltas", flushInterval, flushThreshold);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        int lost = pendingWrites();
+        if (lost > 0) {
+            logger.error("{} usage deltas could not be written before shutdown", lost);
+        } else {
+            logger.info("Usage aggregator stopped, pending deltas flushed");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            logger.error("Usage aggregator flush failed", ex);
+        }
+    }
+
+    private void write(List<UsageRecord> chunk) {
+        Map<Integer, String> failures;
+        try {
+            failures = dailyUsageRepository.incrementUsage(chunk);
+        } catch (DataAccessException ex) {
+            if (nothingWritten(ex)) {
+                logger.error("Failed to write {} usage deltas, keeping them for the next flush", chunk.size(), ex);
+                chunk.forEach(this::requeue);
+                return;
+            }
+            // Part of the chunk may have been applied, requeueing it would count those deltas twice. The cycles of
+            // the chunk are recomputed from the daily usage in case they were.
+            logger.error("Failed to write {} usage deltas, dropping them", chunk.size(), ex);
+            chunk.forEach(usageRecord -> logger.error("Dropped usage delta of {} MB for line {} {} on {}",
+                    usageRecord.deltaMb(), usageRecord.userId(), usageRecord.mdn(),
+                    usageRecord.usageDate().getTime()));
+            usageWriteNotifier.usageWritten(List.of(), chunk.stream()
+                    .map(usageRecord -> new LineUsageDay(usageRecord.userId(), usageRecord.mdn(),
+                            usageRecord.usageDate().getTime()))
+                    .toList());
+            return;
+        }
+        List<UsageRecord> applied = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            UsageRecord usageRecord = chunk.get(i);
+            String failure = failures.get(i);
+            if (failure == null) {
+                applied.add(usageRecord);
+            } else {
+                logger.error("Dropped usage delta of {} MB for line {} {} on {}: {}", usageRecord.deltaMb(),
+                        usageRecord.userId(), usageRecord.mdn(), usageRecord.usageDate().getTime(), failure);
+            }
+        }
+        usageWriteNotifier.usageWritten(applied, List.of());
+    }
+
+    /**
+     * Whether a write failed before any of its operations reached the server: no server could be selected, no
+     * pooled connection was available or no connection could be opened
+     */
+    static boolean nothingWritten(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoTimeoutException || cause instanceof MongoConnectionPoolClearedException
+                    || cause instanceof MongoSocketOpenException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void requeue(UsageRecord usageRecord) {
+        UsageKey key = UsageKey.of(usageRecord);
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+        stripe.lock.readLock().lock();
+        try {
+            stripe.deltas.merge(key, usageRecord.deltaMb(), Integer::sum);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    private record UsageKey(String userId, String mdn, long usageDay) {
+
+        static UsageKey of(UsageRecord usageRecord) {
+            return new UsageKey(usageRecord.userId(), usageRecord.mdn(),
+                    UsageDays.startOfDay(usageRecord.usageDate().getTime()));
+        }
+
+    }
+
+    private static final class Stripe {
+
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        volatile ConcurrentHashMap<UsageKey, Integer> deltas = new ConcurrentHashMap<>();
+
+        Map<UsageKey, Integer> drain() {
+            lock.writeLock().lock();
+            try {
+                Map<UsageKey, Integer> drained = deltas;
+                deltas = new ConcurrentHashMap<>();
+                return drained;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.model.UsageImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Usage File Import Runner
+ * Imports the local usage dump named by usage.import.file once the application has started, e.g. for the
+ * nightly reconciliation: --usage.import.file=/dumps/usage.ndjson. Files ending with .csv are read as CSV,
+ * anything else as newline delimited JSON.
+ */
+@Component
+@ConditionalOnProperty(name = "usage.import.file")
+public class UsageFileImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageFileImportRunner.class);
+
+    UsageImportService usageImportService;
+
+    Path file;
+
+    @Autowired
+    public UsageFileImportRunner(UsageImportService usageImportService,
+                                 @Value("${usage.import.file}") Path file) {
+        this.usageImportService = usageImportService;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        logger.info("Importing usage file {}", file);
+        try (InputStream input = Files.newInputStream(file)) {
+            UsageImportResult result = usageImportService.importUsage(input,
+                    UsageImportFormat.fromFileName(file.getFileName().toString()));
+            result.errors().forEach(error -> logger.warn("Usage file {} {}", file, error));
+        }
+    }
+
+}
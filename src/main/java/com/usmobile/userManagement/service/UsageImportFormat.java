@@ -0,0 +1,27 @@
+package com.usmobile.userManagement.service;
+
+/**
+ * Format of a usage import, one daily usage row per line
+ */
+public enum UsageImportFormat {
+
+    /**
+     * Newline delimited JSON objects with userId, mdn, usageDate and usedInMb
+     */
+    NDJSON,
+
+    /**
+     * Comma separated values with a header line naming the userId, mdn, usageDate and usedInMb columns
+     */
+    CSV;
+
+    /**
+     * Get the format of a usage file from its extension
+     * @param fileName name of the usage file
+     * @return CSV for .csv files, NDJSON otherwise
+     */
+    public static UsageImportFormat fromFileName(String fileName) {
+        return fileName.toLowerCase().endsWith(".csv") ? CSV : NDJSON;
+    }
+
+}
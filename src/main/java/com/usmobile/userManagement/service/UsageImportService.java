@@ -0,0 +1,283 @@
+package com.usmobile.userManagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.usmobile.userManagement.model.DailyUsageRow;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageImportResult;
+import com.usmobile.userManagement.repository.DailyUsageRepository;
+import com.usmobile.userManagement.util.UsageDays;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for streaming usage imports
+ * Reads a usage dump line by line, groups the rows into batches of batch-size rows and writes each batch as
+ * one bulk upsert that sets the daily usage of the line. At most max-in-flight-batches batches are written
+ * concurrently; the reader waits for a free slot before reading further, so memory stays bounded by the
+ * in-flight batches whatever the size of the dump.
+ */
+@Service
+public class UsageImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageImportService.class);
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final List<String> CSV_COLUMNS = List.of("userId", "mdn", "usageDate", "usedInMb");
+
+    DailyUsageRepository dailyUsageRepository;
+
+    UsageWriteNotifier usageWriteNotifier;
+
+    Validator validator;
+
+    int batchSize;
+
+    int maxInFlightBatches;
+
+    private final ObjectReader rowReader;
+
+    private final SimpleAsyncTaskExecutor writers;
+
+    @Autowired
+    public UsageImportService(DailyUsageRepository dailyUsageRepository, UsageWriteNotifier usageWriteNotifier,
+                              Validator validator, ObjectMapper objectMapper,
+                              @Value("${usage.import.batch-size:1000}") int batchSize,
+                              @Value("${usage.import.max-in-flight-batches:4}") int maxInFlightBatches,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.dailyUsageRepository = dailyUsageRepository;
+        this.usageWriteNotifier = usageWriteNotifier;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.rowReader = objectMapper.readerFor(DailyUsageRow.class);
+        this.writers = new SimpleAsyncTaskExecutor("usage-import-");
+        this.writers.setDaemon(true);
+        // Writers mostly wait on bulk writes, with virtual threads they do not hold a platform thread meanwhile
+        this.writers.setVirtualThreads(virtualThreads);
+    }
+
+    /**
+     * Import a usage dump. Each row sets the usage of its line on the UTC day of usageDate; invalid rows and
+     * rows that could not be written are counted as failed without stopping the import. Rows of the same line
+     * and day in different batches may be written in any order.
+     *
+     * @param input usage dump, read until the end and not closed
+     * @param format format of the dump
+     * @return counts, throughput and the first errors of the import
+     */
+    public UsageImportResult importUsage(InputStream input, UsageImportFormat format) {
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            long lineNumber = 0;
+            RowParser parser = rowReader::readValue;
+            if (format == UsageImportFormat.CSV) {
+                lineNumber++;
+                parser = csvParser(reader.readLine());
+            }
+
+            List<DailyUsageRow> rows = new ArrayList<>(batchSize);
+            List<Long> lineNumbers = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                progress.records.increment();
+                String error = parseInto(parser, line, rows);
+                if (error != null) {
+                    progress.fail(lineNumber, error);
+                    continue;
+                }
+                lineNumbers.add(lineNumber);
+                if (rows.size() == batchSize) {
+                    submit(rows, lineNumbers, inFlight, progress);
+                    rows = new ArrayList<>(batchSize);
+                    lineNumbers = new ArrayList<>(batchSize);
+                }
+            }
+            if (!rows.isEmpty()) {
+                submit(rows, lineNumbers, inFlight, progress);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read usage import", ex);
+        } finally {
+            // Wait for the batches still being written
+            inFlight.acquireUninterruptibly(maxInFlightBatches);
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        long records = progress.records.sum();
+        UsageImportResult result = new UsageImportResult(records, progress.written.sum(), progress.failed.sum(),
+                elapsedMillis, records * 1000.0 / elapsedMillis, List.copyOf(progress.errors));
+        logger.info("Usage import of {} records: written {}, failed {}, {} ms, {} records/s", result.records(),
+                result.written(), result.failed(), result.elapsedMillis(), Math.round(result.recordsPerSecond()));
+        return result;
+    }
+
+    private String parseInto(RowParser parser, String line, List<DailyUsageRow> rows) {
+        DailyUsageRow row;
+        try {
+            row = parser.parse(line);
+        } catch (IOException | IllegalArgumentException ex) {
+            return "Unreadable row: " + ex.getMessage();
+        }
+        if (row == null) {
+            return "Unreadable row: null";
+        }
+        Set<ConstraintViolation<DailyUsageRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted(Comparator.naturalOrder())
+                    .collect(Collectors.joining(", "));
+        }
+        // Daily usage is keyed by the start of the usage day in UTC
+        rows.add(new DailyUsageRow(row.userId(), row.mdn(), UsageDays.startOfDay(row.usageDate()), row.usedInMb()));
+        return null;
+    }
+
+    private void submit(List<DailyUsageRow> rows, List<Long> lineNumbers, Semaphore inFlight,
+                        ImportProgress progress) {
+        // Back-pressure: the reader blocks here while max-in-flight-batches batches are being written
+        inFlight.acquireUninterruptibly();
+        try {
+            writers.execute(() -> {
+                try {
+                    write(rows, lineNumbers, progress);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlight.release();
+            // e.g. the executor rejected the batch, the import goes on with the next one
+            logger.error("Failed to submit usage batch of {} rows", rows.size(), ex);
+            lineNumbers.forEach(lineNumber -> progress.fail(lineNumber, "Usage could not be written"));
+        }
+    }
+
+    private void write(List<DailyUsageRow> rows, List<Long> lineNumbers, ImportProgress progress) {
+        Map<Integer, String> failures;
+        try {
+            failures = dailyUsageRepository.setUsage(rows);
+        } catch (RuntimeException ex) {
+            // Without per row failures the whole batch is failed, it can be imported again as rows set the usage
+            logger.error("Failed to write usage batch of {} rows", rows.size(), ex);
+            lineNumbers.forEach(lineNumber -> progress.fail(lineNumber, "Usage could not be written"));
+            return;
+        }
+        List<DailyUsageRow> writtenRows = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            String failure = failures.get(i);
+            if (failure == null) {
+                progress.written.increment();
+                writtenRows.add(rows.get(i));
+            } else {
+                progress.fail(lineNumbers.get(i), failure);
+            }
+        }
+        if (writtenRows.isEmpty()) {
+            return;
+        }
+        // Rows set the usage of their day, the summaries of their cycles are recomputed
+        usageWriteNotifier.usageWritten(List.of(), writtenRows.stream()
+                .map(row -> new LineUsageDay(row.userId(), row.mdn(), row.usageDate()))
+                .toList());
+    }
+
+    /**
+     * CSV rows are split on commas, the header line gives the position of each column
+     */
+    private static RowParser csvParser(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV usage import requires a header line");
+        }
+        String[] names = header.split(",", -1);
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            positions.put(names[i].trim(), i);
+        }
+        if (!positions.keySet().containsAll(CSV_COLUMNS)) {
+            throw new IllegalArgumentException("CSV usage import header must name the columns " + CSV_COLUMNS);
+        }
+        int columns = names.length;
+        return line -> {
+            String[] values = line.split(",", -1);
+            if (values.length != columns) {
+                throw new IllegalArgumentException(String.format("expected %d columns, got %d", columns,
+                        values.length));
+            }
+            String usageDate = value(values, positions.get("usageDate"));
+            String usedInMb = value(values, positions.get("usedInMb"));
+            return new DailyUsageRow(value(values, positions.get("userId")), value(values, positions.get("mdn")),
+                    usageDate == null ? null : Long.valueOf(usageDate),
+                    usedInMb == null ? null : Integer.valueOf(usedInMb));
+        };
+    }
+
+    private static String value(String[] values, int position) {
+        String value = values[position].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        DailyUsageRow parse(String line) throws IOException;
+    }
+
+    /**
+     * Counters shared by the reader and the writer threads of one import
+     */
+    private static final class ImportProgress {
+
+        final LongAdder records = new LongAdder();
+
+        final LongAdder written = new LongAdder();
+
+        final LongAdder failed = new LongAdder();
+
+        final Queue<String> errors = new ConcurrentLinkedQueue<>();
+
+        final AtomicInteger reportedErrors = new AtomicInteger();
+
+        void fail(long lineNumber, String error) {
+            failed.increment();
+            if (reportedErrors.getAndIncrement() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + lineNumber + ": " + error);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageBatchResponse;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.model.UsageRecordOutcome;
+import com.usmobile.userManagement.model.UsageRecordStatus;
+import com.usmobile.userManagement.repository.DailyUsageRepository;
+import com.usmobile.userManagement.util.UsageDays;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for usage ingestion
+ */
+@Service
+public class UsageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageService.class);
+
+    DailyUsageRepository dailyUsageRepository;
+
+    UsageAggregator usageAggregator;
+
+    UsageWriteNotifier usageWriteNotifier;
+
+    Validator validator;
+
+    int chunkSize;
+
+    int maxBatchSize;
+
+    @Autowired
+    public UsageService(DailyUsageRepository dailyUsageRepository, UsageAggregator usageAggregator,
+                        UsageWriteNotifier usageWriteNotifier, Validator validator,
+                        @Value("${usage.ingest.chunk-size:1000}") int chunkSize,
+                        @Value("${usage.ingest.max-batch-size:10000}") int maxBatchSize) {
+        this.dailyUsageRepository = dailyUsageRepository;
+        this.usageAggregator = usageAggregator;
+        this.usageWriteNotifier = usageWriteNotifier;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Add a batch of usage records to the daily usage of their lines.
+     * Valid records are written in unordered bulk upserts of chunk-size records, each record adding deltaMb
+     * to the daily usage of its line on the UTC day of usageDate. Invalid records and records that could not
+     * be written are reported as failed without affecting the others. When the write-behind aggregator is enabled
+     * valid records are queued instead and written, summed per line and day, by its next flush.
+     *
+     * @param records usage records
+     * @return outcome of each record, in batch order
+     */
+    @Timed("service.invocations")
+    public UsageBatchResponse ingest(List<UsageRecord> records) {
+        if (records.size() > maxBatchSize) {
+            throw new IllegalArgumentException(String.format("A usage batch accepts at most %d records, got %d",
+                    maxBatchSize, records.size()));
+        }
+
+        UsageRecordOutcome[] outcomes = new UsageRecordOutcome[records.size()];
+        List<Integer> validIndexes = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            String violations = validate(records.get(i));
+            if (violations != null) {
+                outcomes[i] = UsageRecordOutcome.failed(i, violations);
+            } else if (usageAggregator.isEnabled() && usageAggregator.offer(normalize(records.get(i)))) {
+                outcomes[i] = UsageRecordOutcome.queued(i);
+            } else {
+                validIndexes.add(i);
+            }
+        }
+
+        List<UsageRecord> appliedRecords = new ArrayList<>(validIndexes.size());
+        Set<LineUsageDay> uncertainDays = new LinkedHashSet<>();
+        for (int from = 0; from < validIndexes.size(); from += chunkSize) {
+            List<Integer> chunk = validIndexes.subList(from, Math.min(from + chunkSize, validIndexes.size()));
+            applyChunk(records, chunk, outcomes, appliedRecords, uncertainDays);
+        }
+
+        // Chunks that may have been partly written recompute the summaries of their cycles
+        usageWriteNotifier.usageWritten(appliedRecords, uncertainDays);
+
+        List<UsageRecordOutcome> outcomeList = Arrays.asList(outcomes);
+        int applied = (int) outcomeList.stream().filter(o -> o.status() == UsageRecordStatus.APPLIED).count();
+        int queued = (int) outcomeList.stream().filter(o -> o.status() == UsageRecordStatus.QUEUED).count();
+        int failed = records.size() - applied - queued;
+        logger.info("Usage batch of {} records applied: {}, queued: {}, failed: {}", records.size(), applied, queued,
+                failed);
+        return new UsageBatchResponse(applied, queued, failed, outcomeList);
+    }
+
+    private void applyChunk(List<UsageRecord> records, List<Integer> chunk, UsageRecordOutcome[] outcomes,
+                            List<UsageRecord> appliedRecords, Set<LineUsageDay> uncertainDays) {
+        List<UsageRecord> normalized = chunk.stream().map(i -> normalize(records.get(i))).toList();
+        Map<Integer, String> failures;
+        try {
+            failures = dailyUsageRepository.incrementUsage(normalized);
+        } catch (DataAccessException ex) {
+            // Some records of the chunk may have been written, refresh their lines in case they were
+            logger.error("Failed to write usage chunk of {} records", chunk.size(), ex);
+            for (int i = 0; i < chunk.size(); i++) {
+                outcomes[chunk.get(i)] = UsageRecordOutcome.failed(chunk.get(i), "Usage could not be written");
+                uncertainDays.add(usageDay(normalized.get(i)));
+            }
+            return;
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            String failure = failures.get(i);
+            if (failure == null) {
+                outcomes[chunk.get(i)] = UsageRecordOutcome.applied(chunk.get(i));
+                appliedRecords.add(normalized.get(i));
+            } else {
+                outcomes[chunk.get(i)] = UsageRecordOutcome.failed(chunk.get(i), failure);
+            }
+        }
+    }
+
+    private String validate(UsageRecord usageRecord) {
+        if (usageRecord == null) {
+            return "record is required";
+        }
+        Set<ConstraintViolation<UsageRecord>> violations = validator.validate(usageRecord);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted(Comparator.naturalOrder())
+                .collect(Collectors.joining(", "));
+    }
+
+    private static LineUsageDay usageDay(UsageRecord usageRecord) {
+        return new LineUsageDay(usageRecord.userId(), usageRecord.mdn(), usageRecord.usageDate().getTime());
+    }
+
+    /**
+     * Daily usage is keyed by the start of the usage day in UTC
+     */
+    private static UsageRecord normalize(UsageRecord usageRecord) {
+        Date usageDay = new Date(UsageDays.startOfDay(usageRecord.usageDate().getTime()));
+        return new UsageRecord(usageRecord.userId(), usageRecord.mdn(), usageDay, usageRecord.deltaMb());
+    }
+
+}
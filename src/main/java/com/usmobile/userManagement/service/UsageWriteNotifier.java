@@ -0,0 +1,53 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.cache.LineDataChangedEvent;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Follow-up of the usage bulk writes. Bulk writes bypass the mapping events, so the writers update the cycle usage
+ * summaries and evict the cached reports of the written lines through this class.
+ */
+@Component
+public class UsageWriteNotifier {
+
+    CycleUsageSummaryService cycleUsageSummaryService;
+
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public UsageWriteNotifier(CycleUsageSummaryService cycleUsageSummaryService,
+                              ApplicationEventPublisher eventPublisher) {
+        this.cycleUsageSummaryService = cycleUsageSummaryService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Add the written deltas to the summaries of their cycles, recompute the summaries of the cycles of the
+     * rewritten days, then publish one LineDataChangedEvent per written line
+     * @param addedDeltas usage records whose delta was added to the daily usage, usageDate being the start of the
+     *                    usage day
+     * @param rewrittenDays usage days whose usage was set, or may have been partly written
+     */
+    public void usageWritten(Collection<UsageRecord> addedDeltas, Collection<LineUsageDay> rewrittenDays) {
+        if (!addedDeltas.isEmpty()) {
+            cycleUsageSummaryService.usageIncremented(addedDeltas);
+        }
+        if (!rewrittenDays.isEmpty()) {
+            cycleUsageSummaryService.usageWritten(rewrittenDays);
+        }
+        Set<LineInfo> lines = new LinkedHashSet<>();
+        addedDeltas.forEach(usageRecord -> lines.add(new LineInfo(usageRecord.userId(), usageRecord.mdn())));
+        rewrittenDays.forEach(day -> lines.add(new LineInfo(day.userId(), day.mdn())));
+        lines.forEach(line -> eventPublisher.publishEvent(LineDataChangedEvent.usage(line.userId(), line.mdn())));
+    }
+
+}
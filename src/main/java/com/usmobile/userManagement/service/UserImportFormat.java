@@ -0,0 +1,18 @@
+package com.usmobile.userManagement.service;
+
+/**
+ * Format of a user import, each user having the fields of a CreateUserRequest
+ */
+public enum UserImportFormat {
+
+    /**
+     * A JSON array of users
+     */
+    JSON,
+
+    /**
+     * Newline delimited JSON, one user per line
+     */
+    NDJSON
+
+}
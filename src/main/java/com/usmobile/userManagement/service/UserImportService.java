@@ -0,0 +1,316 @@
+package com.usmobile.userManagement.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.UserImportResult;
+import com.usmobile.userManagement.model.WriteFailure;
+import com.usmobile.userManagement.repository.UserRepository;
+import com.usmobile.userManagement.security.OffloadingPasswordEncoder;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for bulk user imports, e.g. migrating subscribers from another system
+ * Reads the users one by one and groups them into batches of batch-size users. For each batch the emails are
+ * checked against the database in one query, the passwords are hashed in parallel on hashing-threads threads
+ * and the users are written in one unordered bulk insert. Emails are also deduplicated in memory across the
+ * whole import, so its memory grows with the number of distinct emails, not with the users themselves.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    UserRepository userRepository;
+
+    PasswordEncoder passwordEncoder;
+
+    Validator validator;
+
+    ObjectMapper objectMapper;
+
+    int batchSize;
+
+    private final ExecutorService hashers;
+
+    @Autowired
+    public UserImportService(UserRepository userRepository, PasswordEncoder passwordEncoder, Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${user.import.batch-size:1000}") int batchSize,
+                             @Value("${user.import.hashing-threads:0}") int hashingThreads) {
+        this.userRepository = userRepository;
+        // Hash on the import's own threads rather than queueing thousands of hashes in front of signups
+        this.passwordEncoder = passwordEncoder instanceof OffloadingPasswordEncoder offloading
+                ? offloading.delegate() : passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        // 0 threads sizes the pool to the number of cores, hashing is CPU bound
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-import-hashing-");
+        threadFactory.setDaemon(true);
+        this.hashers = Executors.newFixedThreadPool(hashingThreads > 0 ? hashingThreads
+                : Runtime.getRuntime().availableProcessors(), threadFactory);
+    }
+
+    /**
+     * Stop the hashing threads when the application context closes
+     */
+    @PreDestroy
+    public void shutdown() {
+        hashers.shutdown();
+    }
+
+    /**
+     * Import users. Users that are invalid, whose email already exists or repeats an earlier user of the
+     * import, or that could not be written are reported without stopping the import.
+     *
+     * @param input users, read until the end and not closed
+     * @param format format of the users
+     * @return counts, throughput and the first errors of the import
+     */
+    public UserImportResult importUsers(InputStream input, UserImportFormat format) {
+        long start = System.nanoTime();
+        ImportBatch batch = new ImportBatch();
+        try {
+            if (format == UserImportFormat.JSON) {
+                readArray(input, batch);
+            } else {
+                readLines(input, batch);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read user import", ex);
+        }
+        batch.flush();
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        UserImportResult result = new UserImportResult(batch.records, batch.imported, batch.duplicates,
+                batch.failed, elapsedMillis, batch.imported * 1000.0 / elapsedMillis, List.copyOf(batch.errors));
+        logger.info("User import of {} records: imported {}, duplicates {}, failed {}, {} ms, {} users/s",
+                result.records(), result.imported(), result.duplicates(), result.failed(), result.elapsedMillis(),
+                Math.round(result.usersPerSecond()));
+        return result;
+    }
+
+    private void readLines(InputStream input, ImportBatch batch) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String position = "line " + lineNumber;
+            try {
+                batch.add(position, objectMapper.readValue(line, CreateUserRequest.class));
+            } catch (JsonProcessingException ex) {
+                batch.unreadable(position, ex);
+            }
+        }
+    }
+
+    private void readArray(InputStream input, ImportBatch batch) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON user import must be an array of users");
+            }
+            long recordNumber = 0;
+            while (true) {
+                String position = "record " + (recordNumber + 1);
+                JsonNode node;
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == JsonToken.END_ARRAY) {
+                        return;
+                    }
+                    if (token == null) {
+                        throw new JsonParseException(parser, "Unexpected end of the array of users");
+                    }
+                    node = parser.readValueAsTree();
+                } catch (JsonProcessingException ex) {
+                    // Malformed JSON, the position of the following users is lost
+                    batch.unreadable(position, ex);
+                    batch.report(position, "users after this one were not read");
+                    return;
+                }
+                recordNumber++;
+                try {
+                    batch.add(position, objectMapper.treeToValue(node, CreateUserRequest.class));
+                } catch (JsonProcessingException | IllegalArgumentException ex) {
+                    batch.unreadable(position, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Users read but not yet written, and the counters of the import. Used by the reading thread only.
+     */
+    private final class ImportBatch {
+
+        final Set<String> seenEmails = new HashSet<>();
+
+        final List<String> errors = new ArrayList<>();
+
+        List<String> positions = new ArrayList<>(batchSize);
+
+        List<CreateUserRequest> requests = new ArrayList<>(batchSize);
+
+        long records;
+
+        long imported;
+
+        long duplicates;
+
+        long failed;
+
+        void add(String position, CreateUserRequest request) {
+            records++;
+            if (request == null) {
+                fail(position, "Unreadable user: null");
+                return;
+            }
+            Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                fail(position, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted(Comparator.naturalOrder())
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            if (!seenEmails.add(request.email())) {
+                duplicate(position, String.format("User with email %s appears earlier in the import", request.email()));
+                return;
+            }
+            positions.add(position);
+            requests.add(request);
+            if (requests.size() == batchSize) {
+                flush();
+            }
+        }
+
+        void unreadable(String position, Exception ex) {
+            records++;
+            fail(position, "Unreadable user: " + ex.getMessage());
+        }
+
+        void flush() {
+            if (requests.isEmpty()) {
+                return;
+            }
+            List<String> batchPositions = positions;
+            List<CreateUserRequest> batchRequests = requests;
+            positions = new ArrayList<>(batchSize);
+            requests = new ArrayList<>(batchSize);
+            try {
+                write(batchPositions, batchRequests);
+            } catch (DataAccessException ex) {
+                logger.error("Failed to write user batch of {} users", batchRequests.size(), ex);
+                batchPositions.forEach(position -> fail(position, "User could not be written"));
+            }
+        }
+
+        private void write(List<String> batchPositions, List<CreateUserRequest> batchRequests) {
+            // Users whose email already exists are skipped before paying for their hash
+            Set<String> existingEmails = userRepository.findExistingEmails(batchRequests.stream()
+                    .map(CreateUserRequest::email).toList());
+            List<String> newPositions = new ArrayList<>(batchRequests.size());
+            List<Callable<User>> hashing = new ArrayList<>(batchRequests.size());
+            for (int i = 0; i < batchRequests.size(); i++) {
+                CreateUserRequest request = batchRequests.get(i);
+                if (existingEmails.contains(request.email())) {
+                    duplicate(batchPositions.get(i), String.format("User with email %s already exists",
+                            request.email()));
+                    continue;
+                }
+                newPositions.add(batchPositions.get(i));
+                hashing.add(() -> new User(request.firstName(), request.lastName(), request.email(),
+                        passwordEncoder.encode(request.password())));
+            }
+
+            List<User> users = hashAll(hashing);
+            Map<Integer, WriteFailure> failures = userRepository.insertAll(users);
+            for (int i = 0; i < users.size(); i++) {
+                WriteFailure failure = failures.get(i);
+                if (failure == null) {
+                    imported++;
+                } else if (failure.duplicateKey()) {
+                    // The email was taken since it was checked
+                    duplicate(newPositions.get(i), String.format("User with email %s already exists",
+                            users.get(i).getEmail()));
+                } else {
+                    fail(newPositions.get(i), failure.message());
+                }
+            }
+        }
+
+        private List<User> hashAll(List<Callable<User>> hashing) {
+            List<User> users = new ArrayList<>(hashing.size());
+            try {
+                for (Future<User> user : hashers.invokeAll(hashing)) {
+                    users.add(user.get());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while hashing imported passwords", ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Password hashing failed", ex.getCause());
+            }
+            return users;
+        }
+
+        private void duplicate(String position, String reason) {
+            duplicates++;
+            report(position, reason);
+        }
+
+        private void fail(String position, String reason) {
+            failed++;
+            report(position, reason);
+        }
+
+        void report(String position, String reason) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(position + ": " + reason);
+            }
+        }
+
+    }
+
+}
@@ -1,18 +1,29 @@
 package com.usmobile.userManagement.service;
 
 import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.exception.InvalidCredentialsException;
+import com.usmobile.userManagement.exception.ServiceOverloadedException;
 import com.usmobile.userManagement.exception.UserAlreadyExistsException;
 import com.usmobile.userManagement.exception.UserNotFoundException;
 import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.PatchUserRequest;
 import com.usmobile.userManagement.model.UpdateUserRequest;
 import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.model.VerifyPasswordRequest;
 import com.usmobile.userManagement.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
 /**
  * Service class for user management
  */
@@ -21,10 +32,14 @@ public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    private static final String DUMMY_PASSWORD = "dummy-password";
+
     UserRepository userRepository;
 
     PasswordEncoder passwordEncoder;
 
+    private volatile String dummyHash;
+
     @Autowired
     public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
@@ -37,15 +52,18 @@ public class UserService {
      * @param user user details
      * @return saved user details including generated id and encoded password
      */
+    @Timed("service.invocations")
     public UserResponse createUser(CreateUserRequest user) {
-        // If user with email already exists, throw UserAlreadyExistsException, and return 400 Bad Request
-        if (userRepository.existsByEmail(user.email())) {
+        // Single insert: the email_unique index rejects an email that already exists, also between concurrent signups
+        try {
+            User savedUser = userRepository.insert(new User(user.firstName(), user.lastName(), user.email(),
+                    passwordEncoder.encode(user.password())));
+            return new UserResponse(savedUser.getId(), savedUser.getFirstName(), savedUser.getLastName(), savedUser.getEmail());
+        } catch (DuplicateKeyException ex) {
+            // If user with email already exists, throw UserAlreadyExistsException, and return 400 Bad Request
             logger.error("User with email already exists");
             throw new UserAlreadyExistsException(String.format("User with email %s already exists", user.email()));
         }
-        User savedUser = userRepository.save(new User(user.firstName(), user.lastName(), user.email(),
-                passwordEncoder.encode(user.password())));
-        return new UserResponse(savedUser.getId(), savedUser.getFirstName(), savedUser.getLastName(), savedUser.getEmail());
     }
 
     /**
@@ -54,21 +72,106 @@ public class UserService {
      * @param user user details
      * @return updated user details
      */
+    @Timed("service.invocations")
     public UserResponse updateUser(UpdateUserRequest user) {
-        // If user with id not found, throw UserNotFoundException, and return 404 Not Found
-        User existingUser = userRepository.findById(user.id())
-                .orElseThrow(() -> new UserNotFoundException(String.format("User with id %s not found", user.id())));
+        Map<String, Object> fields = Map.of(
+                "firstName", user.firstName(),
+                "lastName", user.lastName(),
+                "email", user.email());
+        // Single findAndModify: the email_unique index rejects an email another user already has
+        try {
+            // If user with id not found, throw UserNotFoundException, and return 404 Not Found
+            User savedUser = userRepository.updateFields(user.id(), fields)
+                    .orElseThrow(() -> new UserNotFoundException(String.format("User with id %s not found", user.id())));
+            return new UserResponse(savedUser.getId(), savedUser.getFirstName(), savedUser.getLastName(), savedUser.getEmail());
+        } catch (DuplicateKeyException ex) {
+            // If user tries to update the email which another user already has, throw UserAlreadyExistsException, and return 400 Bad Request
+            logger.error("User with email already exists");
+            throw new UserAlreadyExistsException(String.format("User with email %s already exists", user.email()));
+        }
+    }
 
-        // If user tries to update the email which another user already has, throw UserAlreadyExistsException, and return 400 Bad Request
-        if (!existingUser.getEmail().equals(user.email()) && userRepository.existsByEmail(user.email())) {
+    /**
+     * Update only the given details of a user
+     * @param id - id of the user
+     * @param user - details to change, null details are left as they are
+     * @return updated user details
+     */
+    @Timed("service.invocations")
+    public UserResponse patchUser(String id, PatchUserRequest user) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (user.firstName() != null) {
+            fields.put("firstName", user.firstName());
+        }
+        if (user.lastName() != null) {
+            fields.put("lastName", user.lastName());
+        }
+        if (user.email() != null) {
+            fields.put("email", user.email());
+        }
+        // Single findAndModify setting only the given fields, the password hash is neither read nor rewritten
+        try {
+            // If user with id not found, throw UserNotFoundException, and return 404 Not Found
+            User savedUser = userRepository.updateFields(id, fields)
+                    .orElseThrow(() -> new UserNotFoundException(String.format("User with id %s not found", id)));
+            return new UserResponse(savedUser.getId(), savedUser.getFirstName(), savedUser.getLastName(), savedUser.getEmail());
+        } catch (DuplicateKeyException ex) {
+            // If user tries to update the email which another user already has, throw UserAlreadyExistsException, and return 400 Bad Request
             logger.error("User with email already exists");
             throw new UserAlreadyExistsException(String.format("User with email %s already exists", user.email()));
         }
-        existingUser.setFirstName(user.firstName());
-        existingUser.setLastName(user.lastName());
-        existingUser.setEmail(user.email());
-        User savedUser = userRepository.save(existingUser);
-        return new UserResponse(savedUser.getId(), savedUser.getFirstName(), savedUser.getLastName(), savedUser.getEmail());
+    }
+
+    /**
+     * Verify the password of a user. When the stored hash was produced with another algorithm or a lower cost
+     * than the current ones, it is replaced with a new hash of the verified password.
+     *
+     * @param credentials email and password of the user
+     * @return user details
+     */
+    @Timed("service.invocations")
+    public UserResponse verifyPassword(VerifyPasswordRequest credentials) {
+        // Unknown email and wrong password are reported the same way, so emails cannot be enumerated
+        Optional<User> found = userRepository.findByEmail(credentials.email());
+        if (found.isEmpty()) {
+            // An unknown email is checked against a hash of the current algorithm and cost, so that it takes as
+            // long as a wrong password
+            passwordEncoder.matches(credentials.password(), dummyHash());
+            throw new InvalidCredentialsException("Invalid email or password");
+        }
+        User user = found.get();
+        if (!passwordEncoder.matches(credentials.password(), user.getPassword())) {
+            throw new InvalidCredentialsException("Invalid email or password");
+        }
+
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            rehashPassword(user, credentials.password());
+        }
+        return new UserResponse(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+    }
+
+    /**
+     * Hash compared with the passwords of unknown emails, computed on first use
+     */
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(DUMMY_PASSWORD);
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
+    private void rehashPassword(User user, String rawPassword) {
+        // The password is already verified, failing to upgrade its hash only postpones the upgrade to the next one
+        try {
+            if (userRepository.updatePasswordIfUnchanged(user.getId(), user.getPassword(),
+                    passwordEncoder.encode(rawPassword)) == 0) {
+                logger.info("Password of user {} changed while its hash was upgraded", user.getId());
+            }
+        } catch (ServiceOverloadedException | DataAccessException ex) {
+            logger.warn("Failed to upgrade the password hash of user {}", user.getId(), ex);
+        }
     }
 
 }
@@ -1,20 +1,68 @@
 package com.usmobile.userManagement.util;
 
+import com.usmobile.userManagement.security.OffloadingPasswordEncoder;
+import com.usmobile.userManagement.security.PasswordHashAlgorithm;
+import com.usmobile.userManagement.security.PasswordHashCalibrator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Component
 public class PasswordUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(PasswordUtil.class);
+
     /**
      * Password encoder
-     * @return Returns a BCryptPasswordEncoder object to hash and salt passwords using BCrypt across the application
+     * @return Returns a DelegatingPasswordEncoder hashing new passwords with the configured algorithm, at a cost
+     * calibrated on this host unless configured, and verifying the {bcrypt} and {argon2} hashes as well as the
+     * unprefixed BCrypt hashes stored before hashes were tagged. It runs on a dedicated pool of hashing threads
+     * so hashing never runs on the request threads.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.hashing.threads:0}") int threads,
+                                           @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${password.hashing.timeout:5s}") Duration timeout,
+                                           @Value("${password.hashing.algorithm:BCRYPT}") PasswordHashAlgorithm algorithm,
+                                           @Value("${password.hashing.target-latency:100ms}") Duration targetLatency,
+                                           @Value("${password.hashing.bcrypt.strength:0}") int bcryptStrength,
+                                           @Value("${password.hashing.argon2.memory-kib:19456}") int argon2MemoryKib,
+                                           @Value("${password.hashing.argon2.iterations:0}") int argon2Iterations,
+                                           MeterRegistry meterRegistry) {
+        // A cost of 0 is calibrated, only the algorithm new passwords are hashed with is timed at startup
+        if (bcryptStrength <= 0) {
+            bcryptStrength = algorithm == PasswordHashAlgorithm.BCRYPT
+                    ? PasswordHashCalibrator.bcryptStrength(targetLatency)
+                    : PasswordHashCalibrator.MIN_BCRYPT_STRENGTH;
+        }
+        if (argon2Iterations <= 0) {
+            argon2Iterations = algorithm == PasswordHashAlgorithm.ARGON2
+                    ? PasswordHashCalibrator.argon2Iterations(argon2MemoryKib, targetLatency)
+                    : PasswordHashCalibrator.MIN_ARGON2_ITERATIONS;
+        }
+        logger.info("Hashing passwords with {}, bcrypt strength {}, argon2 {} KiB and {} iterations, target {}",
+                algorithm.id(), bcryptStrength, argon2MemoryKib, argon2Iterations, targetLatency);
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(algorithm.id(), Map.of(
+                PasswordHashAlgorithm.BCRYPT.id(), bcrypt,
+                PasswordHashAlgorithm.ARGON2.id(), PasswordHashCalibrator.argon2(argon2MemoryKib, argon2Iterations)));
+        // Hashes stored before they were tagged are BCrypt hashes without a prefix
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        // 0 threads sizes the pool to the number of cores, hashing is CPU bound
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new OffloadingPasswordEncoder(delegatingPasswordEncoder, poolSize, queueCapacity, timeout,
+                meterRegistry);
     }
 
 }
@@ -0,0 +1,38 @@
+package com.usmobile.userManagement.util;
+
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * Daily usage is keyed by the start of its UTC day in epoch millis, while cycles start and end at any instant.
+ * Usage windows of a cycle therefore begin at the start of the day of the cycle start, so the usage of a cycle's
+ * first day is kept when the cycle starts mid-day.
+ */
+public final class UsageDays {
+
+    public static final long DAY_MILLIS = 86_400_000L;
+
+    private UsageDays() {
+    }
+
+    /**
+     * Start of the UTC day of an instant
+     * @param epochMillis instant in epoch millis
+     * @return start of its UTC day in epoch millis
+     */
+    public static long startOfDay(long epochMillis) {
+        return Math.floorDiv(epochMillis, DAY_MILLIS) * DAY_MILLIS;
+    }
+
+    /**
+     * Aggregation expression computing the start of the UTC day of an epoch millis expression on the server,
+     * e.g. a $lookup variable bound to a cycle start date
+     * @param epochMillis expression of a positive instant in epoch millis
+     * @return the expression of the start of its UTC day
+     */
+    public static Document startOfDay(Object epochMillis) {
+        return new Document("$subtract", List.of(epochMillis, new Document("$mod", List.of(epochMillis, DAY_MILLIS))));
+    }
+
+}
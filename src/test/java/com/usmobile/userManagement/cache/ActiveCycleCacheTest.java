@@ -0,0 +1,106 @@
+package com.usmobile.userManagement.cache;
+
+import com.usmobile.userManagement.repository.CycleRepository;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+@ExtendWith(SpringExtension.class)
+public class ActiveCycleCacheTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+
+    @Mock
+    private CycleRepository cycleRepository;
+
+    private ActiveCycleCache activeCycleCache;
+
+    @BeforeEach
+    void setUp() {
+        activeCycleCache = new ActiveCycleCache(cycleRepository, true, 100);
+    }
+
+    @Test
+    void getActiveCycle_ServedFromCacheAfterFirstLookup() {
+        CycleWindow cycle = new CycleWindow("1", Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.eq(USER_ID), Mockito.eq(MDN), Mockito.any()))
+                .thenReturn(Optional.of(cycle));
+
+        Assertions.assertThat(activeCycleCache.getActiveCycle(USER_ID, MDN)).contains(cycle);
+        Assertions.assertThat(activeCycleCache.getActiveCycle(USER_ID, MDN)).contains(cycle);
+
+        Mockito.verify(cycleRepository, Mockito.times(1))
+                .findCurrentCycleWindowByUserIdAndMdn(Mockito.eq(USER_ID), Mockito.eq(MDN), Mockito.any());
+        Assertions.assertThat(activeCycleCache.stats().hitCount()).isEqualTo(1);
+        Assertions.assertThat(activeCycleCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getActiveCycle_NoActiveCycleIsNotCached() {
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.empty());
+
+        Assertions.assertThat(activeCycleCache.getActiveCycle(USER_ID, MDN)).isEmpty();
+        Assertions.assertThat(activeCycleCache.getActiveCycle(USER_ID, MDN)).isEmpty();
+
+        Mockito.verify(cycleRepository, Mockito.times(2))
+                .findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getActiveCycle_EntryExpiresAtCycleEndDate() throws InterruptedException {
+        CycleWindow endingCycle = new CycleWindow("1", Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                System.currentTimeMillis() + 50);
+        CycleWindow nextCycle = new CycleWindow("2", endingCycle.endDate() + 1,
+                Instant.now().plus(30, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(endingCycle), Optional.of(nextCycle));
+
+        Assertions.assertThat(activeCycleCache.getActiveCycle(USER_ID, MDN)).contains(endingCycle);
+        Thread.sleep(100);
+        Assertions.assertThat(activeCycleCache.getActiveCycle(USER_ID, MDN)).contains(nextCycle);
+    }
+
+    @Test
+    void evict_NextLookupQueriesRepository() {
+        CycleWindow cycle = new CycleWindow("1", Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(cycle));
+
+        activeCycleCache.getActiveCycle(USER_ID, MDN);
+        activeCycleCache.evict(USER_ID, MDN);
+
+        Assertions.assertThat(activeCycleCache.getIfPresent(USER_ID, MDN)).isEmpty();
+        activeCycleCache.getActiveCycle(USER_ID, MDN);
+        Mockito.verify(cycleRepository, Mockito.times(2))
+                .findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getActiveCycle_WhenDisabled_AlwaysQueriesRepository() {
+        activeCycleCache = new ActiveCycleCache(cycleRepository, false, 100);
+        CycleWindow cycle = new CycleWindow("1", Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(cycle));
+
+        activeCycleCache.getActiveCycle(USER_ID, MDN);
+        activeCycleCache.getActiveCycle(USER_ID, MDN);
+
+        Mockito.verify(cycleRepository, Mockito.times(2))
+                .findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+}
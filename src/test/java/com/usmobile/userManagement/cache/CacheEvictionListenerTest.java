@@ -0,0 +1,64 @@
+package com.usmobile.userManagement.cache;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+public class CacheEvictionListenerTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+
+    @Mock
+    private ActiveCycleCache activeCycleCache;
+
+    @Mock
+    private UsageReportCache usageReportCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private CacheEvictionListener cacheEvictionListener;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(mongoTemplate.getCollectionName(Cycle.class)).thenReturn("Cycle");
+        Mockito.when(mongoTemplate.getCollectionName(DailyUsage.class)).thenReturn("Daily_Usage");
+        cacheEvictionListener = new CacheEvictionListener(activeCycleCache, usageReportCache, eventPublisher,
+                mongoTemplate);
+    }
+
+    @Test
+    void onMongoMappingEvent_DeleteScopedToLineEvictsOnlyThatLine() {
+        cacheEvictionListener.onMongoMappingEvent(new AfterDeleteEvent<>(
+                new Document("userId", USER_ID).append("mdn", MDN), Cycle.class, "Cycle"));
+
+        Mockito.verify(eventPublisher).publishEvent(LineDataChangedEvent.cycles(USER_ID, MDN));
+        Mockito.verify(activeCycleCache, Mockito.never()).evictAll();
+        Mockito.verify(usageReportCache, Mockito.never()).evictAll();
+    }
+
+    @Test
+    void onMongoMappingEvent_DeleteWithoutLineEvictsEveryLine() {
+        cacheEvictionListener.onMongoMappingEvent(new AfterDeleteEvent<>(
+                new Document("_id", "1"), DailyUsage.class, "Daily_Usage"));
+
+        Mockito.verify(usageReportCache).evictAll();
+        Mockito.verify(activeCycleCache, Mockito.never()).evictAll();
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+}
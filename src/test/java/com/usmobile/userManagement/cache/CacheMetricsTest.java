@@ -0,0 +1,71 @@
+package com.usmobile.userManagement.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.repository.CycleRepository;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@ExtendWith(SpringExtension.class)
+public class CacheMetricsTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+
+    @Mock
+    private CycleRepository cycleRepository;
+
+    private ActiveCycleCache activeCycleCache;
+
+    private UsageReportCache usageReportCache;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        activeCycleCache = new ActiveCycleCache(cycleRepository, true, 100);
+        usageReportCache = new UsageReportCache(new InMemoryRemoteCacheTier(), new ObjectMapper(), true,
+                Duration.ofSeconds(5), 100, Duration.ofMinutes(15));
+        new CacheMetrics(activeCycleCache, usageReportCache).bindTo(registry);
+    }
+
+    @Test
+    void bindTo_PublishesTheHitsMissesAndHitRatioOfEachCache() {
+        CycleWindow cycle = new CycleWindow("1", Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(cycle));
+        activeCycleCache.getActiveCycle(USER_ID, MDN);
+        activeCycleCache.getActiveCycle(USER_ID, MDN);
+        activeCycleCache.getActiveCycle(USER_ID, MDN);
+        usageReportCache.getDailyUsageReport(USER_ID, MDN, () -> List.of(new DailyUsageReport(new Date(), 128)));
+
+        Assertions.assertThat(registry.get("cache.gets").tags("cache", "activeCycle", "result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+        Assertions.assertThat(registry.get("cache.gets").tags("cache", "activeCycle", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        Assertions.assertThat(registry.get("cache.hit.ratio").tag("cache", "activeCycle").gauge().value())
+                .isCloseTo(2 / 3d, Assertions.within(0.001));
+        Assertions.assertThat(registry.get("cache.size").tag("cache", "activeCycle").gauge().value()).isEqualTo(1);
+        Assertions.assertThat(registry.get("cache.gets").tags("cache", "usageReportNear", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        Assertions.assertThat(registry.get("cache.gets").tags("cache", "usageReportRemote", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        Assertions.assertThat(registry.find("cache.size").tag("cache", "usageReportRemote").gauge()).isNull();
+    }
+
+}
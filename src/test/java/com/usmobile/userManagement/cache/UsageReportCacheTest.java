@@ -0,0 +1,128 @@
+package com.usmobile.userManagement.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usmobile.userManagement.model.CycleInfo;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class UsageReportCacheTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+
+    private final List<DailyUsageReport> report = List.of(new DailyUsageReport(new Date(1718755200000L), 128));
+
+    private final List<CycleInfo> history = List.of(new CycleInfo("1", new Date(1716163200000L),
+            new Date(1718755199999L)));
+
+    private InMemoryRemoteCacheTier remoteCacheTier;
+
+    private UsageReportCache usageReportCache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheTier = new InMemoryRemoteCacheTier();
+        usageReportCache = newCache(remoteCacheTier, true);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getDailyUsageReport_ServedFromNearCacheAfterFirstLoad() {
+        Assertions.assertThat(usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report))).isEqualTo(report);
+        Assertions.assertThat(usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report))).isEqualTo(report);
+
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+        Assertions.assertThat(usageReportCache.nearCacheStats().hitCount()).isEqualTo(1);
+        Assertions.assertThat(usageReportCache.remoteTierStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getDailyUsageReport_NearCacheMissServedFromRemoteTier() {
+        usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report));
+
+        // Another replica shares the remote tier but has its own near cache
+        UsageReportCache otherReplica = newCache(remoteCacheTier, true);
+        Assertions.assertThat(otherReplica.getDailyUsageReport(USER_ID, MDN, counting(report))).isEqualTo(report);
+
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+        Assertions.assertThat(otherReplica.remoteTierStats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evict_UsageChange_KeepsCycleHistory() {
+        usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report));
+        usageReportCache.getCycleHistory(USER_ID, MDN, counting(history));
+
+        usageReportCache.evict(LineDataChangedEvent.usage(USER_ID, MDN));
+        usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report));
+        usageReportCache.getCycleHistory(USER_ID, MDN, counting(history));
+
+        Assertions.assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void evict_CycleChange_EvictsReportAndHistory() {
+        usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report));
+        usageReportCache.getCycleHistory(USER_ID, MDN, counting(history));
+
+        usageReportCache.evict(LineDataChangedEvent.cycles(USER_ID, MDN));
+        usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report));
+        usageReportCache.getCycleHistory(USER_ID, MDN, counting(history));
+
+        Assertions.assertThat(loads.get()).isEqualTo(4);
+        Assertions.assertThat(remoteCacheTier.get("usage-report:history:" + USER_ID + ":" + MDN)).isPresent();
+    }
+
+    @Test
+    void evictAll_ClearsBothLevels() {
+        usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report));
+
+        usageReportCache.evictAll();
+
+        Assertions.assertThat(usageReportCache.nearCacheSize()).isZero();
+        Assertions.assertThat(remoteCacheTier.get("usage-report:report:" + USER_ID + ":" + MDN)).isEmpty();
+    }
+
+    @Test
+    void getDailyUsageReport_LoaderFailureIsNotCached() {
+        Assertions.assertThatThrownBy(() -> usageReportCache.getDailyUsageReport(USER_ID, MDN, () -> {
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        Assertions.assertThat(usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report))).isEqualTo(report);
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void getDailyUsageReport_WhenDisabled_AlwaysLoads() {
+        usageReportCache = newCache(remoteCacheTier, false);
+
+        usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report));
+        usageReportCache.getDailyUsageReport(USER_ID, MDN, counting(report));
+
+        Assertions.assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private <T> Supplier<List<T>> counting(List<T> value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    private static UsageReportCache newCache(RemoteCacheTier remoteCacheTier, boolean enabled) {
+        return new UsageReportCache(remoteCacheTier, new ObjectMapper(), enabled, Duration.ofSeconds(5), 100,
+                Duration.ofMinutes(15));
+    }
+
+}
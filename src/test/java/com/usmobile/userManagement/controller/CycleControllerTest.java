@@ -2,9 +2,14 @@ package com.usmobile.userManagement.controller;
 
 import com.usmobile.userManagement.controllerImpl.CycleController;
 import com.usmobile.userManagement.exception.NoCyclesFoundException;
+import com.usmobile.userManagement.model.CycleHistoryPage;
 import com.usmobile.userManagement.model.CycleInfo;
+import com.usmobile.userManagement.model.CycleUsageSummaryResponse;
 import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.model.LineUsageReport;
 import com.usmobile.userManagement.service.CycleService;
+import com.usmobile.userManagement.service.CycleUsageSummaryService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -13,14 +18,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -30,6 +44,10 @@ public class CycleControllerTest {
     
     private static final String CURRENT_CYCLE_REPORT_PATH = "/api/v1/current-cycle-report";
     private static final String CYCLE_HISTORY_PATH = "/api/v1/cycle-history";
+    private static final String CURRENT_CYCLE_REPORT_BATCH_PATH = "/api/v1/current-cycle-report:batch";
+    private static final String CYCLE_HISTORY_STREAM_PATH = "/api/v1/cycle-history/stream";
+    private static final String CYCLE_USAGE_SUMMARY_PATH = "/api/v1/cycle-usage-summary";
+    private static final String CYCLE_ID = "6671d6cde518422008b3d9a7";
     private static final String USER_ID = "6671d6cdd518422008b3d9fb";
     private static final String MDN = "1234567890";
     private static final String USER_ID_KEY = "userId";
@@ -41,6 +59,9 @@ public class CycleControllerTest {
     @MockBean
     private CycleService cycleService;
 
+    @MockBean
+    private CycleUsageSummaryService cycleUsageSummaryService;
+
     @Test
     public void testGetDailyUsageReport_Success() throws Exception {
 
@@ -226,6 +247,155 @@ public class CycleControllerTest {
         return List.of(new DailyUsageReport(sdf.parse(dateString),256));
     }
 
+    @Test
+    public void testGetCycleHistory_Page() throws Exception {
+        Mockito.when(cycleService.getCycleHistoryPage(USER_ID, MDN, 1, null))
+                .thenReturn(new CycleHistoryPage(getDummyCycleHistory(), 1718768110950L));
+        mockMvc.perform(get(CYCLE_HISTORY_PATH)
+                .param(USER_ID_KEY, USER_ID)
+                .param(MDN_KEY, MDN)
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "1718768110950"))
+                .andExpect(jsonPath("$[0].cycleId").value("6671d6cde518422008b3d9a7"));
+        Mockito.verify(cycleService, Mockito.never()).getCycleHistory(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test
+    public void testGetCycleHistory_LastPageWithDefaultLimit() throws Exception {
+        Mockito.when(cycleService.getCycleHistoryPage(USER_ID, MDN, 50, 1718768110950L))
+                .thenReturn(new CycleHistoryPage(List.of(), null));
+        mockMvc.perform(get(CYCLE_HISTORY_PATH)
+                .param(USER_ID_KEY, USER_ID)
+                .param(MDN_KEY, MDN)
+                .param("cursor", "1718768110950"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    public void testGetCycleHistory_WhenLimitIsTooLarge() throws Exception {
+        mockMvc.perform(get(CYCLE_HISTORY_PATH)
+                .param(USER_ID_KEY, USER_ID)
+                .param(MDN_KEY, MDN)
+                .param("limit", "501"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("getCycleHistory.limit: must be less than or equal to 500"));
+    }
+
+    @Test
+    public void testStreamCycleHistory_Success() throws Exception {
+        Mockito.when(cycleService.streamCycleHistory(USER_ID, MDN))
+                .thenReturn(Stream.concat(getDummyCycleHistory().stream(), getDummyCycleHistory().stream()));
+        MvcResult result = mockMvc.perform(get(CYCLE_HISTORY_STREAM_PATH)
+                .param(USER_ID_KEY, USER_ID)
+                .param(MDN_KEY, MDN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String line = "{\"cycleId\":\"6671d6cde518422008b3d9a7\",\"startDate\":\"2024-06-19T03:35:10.950+00:00\","
+                + "\"endDate\":\"2024-07-19T03:35:10.950+00:00\"}\n";
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + line));
+    }
+
+    @Test
+    public void testStreamCycleHistory_NotFound() throws Exception {
+        Mockito.when(cycleService.streamCycleHistory(USER_ID, MDN))
+                .thenThrow(new NoCyclesFoundException(String.format("No cycles found for this user: %s and mdn: %s.",
+                        USER_ID, MDN)));
+        mockMvc.perform(get(CYCLE_HISTORY_STREAM_PATH)
+                .param(USER_ID_KEY, USER_ID)
+                .param(MDN_KEY, MDN)
+                .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetCurrentCycleReports_Success() throws Exception {
+        Mockito.when(cycleService.getDailyUsageReports(List.of(new LineInfo(USER_ID, MDN),
+                        new LineInfo(USER_ID, "0987654321"))))
+                .thenReturn(List.of(
+                        new LineUsageReport(USER_ID, MDN, getDummyCycleHistory().get(0), getDummyDailyUsageReport()),
+                        new LineUsageReport(USER_ID, "0987654321", null, List.of())));
+        mockMvc.perform(post(CURRENT_CYCLE_REPORT_BATCH_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(String.format("{\"lines\": [{\"userId\": \"%s\", \"mdn\": \"%s\"}, " +
+                        "{\"userId\": \"%s\", \"mdn\": \"0987654321\"}]}", USER_ID, MDN, USER_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].mdn").value(MDN))
+                .andExpect(jsonPath("$[0].cycle.cycleId").value("6671d6cde518422008b3d9a7"))
+                .andExpect(jsonPath("$[0].dailyUsage[0].dailyUsage").value(256))
+                .andExpect(jsonPath("$[1].cycle").isEmpty())
+                .andExpect(jsonPath("$[1].dailyUsage").isEmpty());
+    }
+
+    @Test
+    public void testGetCurrentCycleReports_WhenTooManyLines() throws Exception {
+        String lines = String.join(", ", java.util.Collections.nCopies(51,
+                String.format("{\"userId\": \"%s\", \"mdn\": \"%s\"}", USER_ID, MDN)));
+        mockMvc.perform(post(CURRENT_CYCLE_REPORT_BATCH_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"lines\": [" + lines + "]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.lines").value("at most 50 lines can be requested at once"));
+        Mockito.verifyNoInteractions(cycleService);
+    }
+
+    @Test
+    public void testGetCurrentCycleReports_WhenLineIsInvalid() throws Exception {
+        mockMvc.perform(post(CURRENT_CYCLE_REPORT_BATCH_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(String.format("{\"lines\": [{\"userId\": \"%s\", \"mdn\": \"\"}]}", USER_ID)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$['lines[0].mdn']").value("mdn is required"));
+    }
+
+    @Test
+    public void testGetCycleUsageSummary_Success() throws Exception {
+        Mockito.when(cycleUsageSummaryService.getCycleUsageSummary(USER_ID, MDN, CYCLE_ID))
+                .thenReturn(new CycleUsageSummaryResponse(CYCLE_ID, new Date(1718768110950L),
+                        new Date(1721360110950L), 2048, 12, new Date(1718755200000L), 512,
+                        new Date(1718800000000L)));
+        mockMvc.perform(get(CYCLE_USAGE_SUMMARY_PATH)
+                .param(USER_ID_KEY, USER_ID)
+                .param(MDN_KEY, MDN)
+                .param("cycleId", CYCLE_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cycleId").value(CYCLE_ID))
+                .andExpect(jsonPath("$.totalMb").value(2048))
+                .andExpect(jsonPath("$.daysWithUsage").value(12))
+                .andExpect(jsonPath("$.peakDayDate").value("2024-06-19T00:00:00.000+00:00"))
+                .andExpect(jsonPath("$.peakDayMb").value(512));
+    }
+
+    @Test
+    public void testGetCycleUsageSummary_WhenCycleNotFound() throws Exception {
+        Mockito.when(cycleUsageSummaryService.getCycleUsageSummary(USER_ID, MDN, CYCLE_ID))
+                .thenThrow(new NoCyclesFoundException(String.format(
+                        "No cycle %s found for this user: %s and mdn: %s.", CYCLE_ID, USER_ID, MDN)));
+        mockMvc.perform(get(CYCLE_USAGE_SUMMARY_PATH)
+                .param(USER_ID_KEY, USER_ID)
+                .param(MDN_KEY, MDN)
+                .param("cycleId", CYCLE_ID))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value(String.format(
+                        "No cycle %s found for this user: %s and mdn: %s.", CYCLE_ID, USER_ID, MDN)));
+    }
+
+    @Test
+    public void testGetCycleUsageSummary_WhenCycleIdIsMissing() throws Exception {
+        mockMvc.perform(get(CYCLE_USAGE_SUMMARY_PATH)
+                .param(USER_ID_KEY, USER_ID)
+                .param(MDN_KEY, MDN))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value(
+                        "Required request parameter 'cycleId' for method parameter type String is not present"));
+        Mockito.verifyNoInteractions(cycleUsageSummaryService);
+    }
+
     private List<CycleInfo> getDummyCycleHistory() throws ParseException {
         String startDate = "2024-06-19T03:35:10.950";
         String endDate = "2024-07-19T03:35:10.950";
@@ -0,0 +1,131 @@
+package com.usmobile.userManagement.controller;
+
+import com.usmobile.userManagement.controllerImpl.ReactiveCycleController;
+import com.usmobile.userManagement.exception.NoCyclesFoundException;
+import com.usmobile.userManagement.model.CycleHistoryPage;
+import com.usmobile.userManagement.model.CycleInfo;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.service.ReactiveCycleService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Date;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@WebFluxTest(ReactiveCycleController.class)
+@ActiveProfiles("reactive")
+public class ReactiveCycleControllerTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final String NO_CURRENT_CYCLE = String.format(
+            "No current cycle found for this user: %s and mdn: %s.", USER_ID, MDN);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveCycleService cycleService;
+
+    @Test
+    public void testGetDailyUsageReport_Success() {
+        Mockito.when(cycleService.getDailyUsageReport(USER_ID, MDN)).thenReturn(Flux.just(
+                new DailyUsageReport(new Date(), 256), new DailyUsageReport(new Date(), 128)));
+
+        webTestClient.get().uri(currentCycleReport(USER_ID, MDN))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].dailyUsage").isEqualTo(256)
+                .jsonPath("$[1].dailyUsage").isEqualTo(128);
+    }
+
+    @Test
+    public void testGetDailyUsageReport_StreamedAsNdjson() {
+        Mockito.when(cycleService.getDailyUsageReport(USER_ID, MDN)).thenReturn(Flux.just(
+                new DailyUsageReport(new Date(), 256), new DailyUsageReport(new Date(), 128)));
+
+        Flux<DailyUsageReport> body = webTestClient.get().uri(currentCycleReport(USER_ID, MDN))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .returnResult(DailyUsageReport.class)
+                .getResponseBody();
+
+        StepVerifier.create(body.map(DailyUsageReport::dailyUsage))
+                .expectNext(256, 128)
+                .verifyComplete();
+    }
+
+    @Test
+    public void testGetDailyUsageReport_WhenNoCycleFound() {
+        Mockito.when(cycleService.getDailyUsageReport(USER_ID, MDN))
+                .thenReturn(Flux.error(new NoCyclesFoundException(NO_CURRENT_CYCLE)));
+
+        webTestClient.get().uri(currentCycleReport(USER_ID, MDN))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo(NO_CURRENT_CYCLE);
+    }
+
+    @Test
+    public void testGetDailyUsageReport_WhenMdnIsMissing() {
+        webTestClient.get().uri("/api/v1/current-cycle-report?userId=" + USER_ID)
+                .exchange()
+                .expectStatus().isBadRequest();
+        Mockito.verifyNoInteractions(cycleService);
+    }
+
+    @Test
+    public void testGetDailyUsageReport_WhenUserIdIsEmpty() {
+        webTestClient.get().uri(currentCycleReport("", MDN))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("getCurrentCycleReport.userId: must not be blank");
+    }
+
+    @Test
+    public void testGetCycleHistory_Page() {
+        Mockito.when(cycleService.getCycleHistoryPage(USER_ID, MDN, 1, null)).thenReturn(Mono.just(
+                new CycleHistoryPage(List.of(new CycleInfo("2", new Date(), new Date())), 1718768110950L)));
+
+        webTestClient.get().uri("/api/v1/cycle-history?userId={userId}&mdn={mdn}&limit=1", USER_ID, MDN)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(CycleControllerAPI.NEXT_CURSOR_HEADER, "1718768110950")
+                .expectBody()
+                .jsonPath("$[0].cycleId").isEqualTo("2");
+    }
+
+    @Test
+    public void testStreamCycleHistory_NotFound() {
+        Mockito.when(cycleService.getCycleHistory(USER_ID, MDN)).thenReturn(Flux.error(new NoCyclesFoundException(
+                String.format("No cycles found for this user: %s and mdn: %s.", USER_ID, MDN))));
+
+        webTestClient.get().uri("/api/v1/cycle-history/stream?userId={userId}&mdn={mdn}", USER_ID, MDN)
+                .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_PROBLEM_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static String currentCycleReport(String userId, String mdn) {
+        return "/api/v1/current-cycle-report?userId=" + userId + "&mdn=" + mdn;
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.usmobile.userManagement.controller;
+
+import com.usmobile.userManagement.controllerImpl.ReactiveUserController;
+import com.usmobile.userManagement.exception.InvalidCredentialsException;
+import com.usmobile.userManagement.exception.ServiceOverloadedException;
+import com.usmobile.userManagement.exception.UserAlreadyExistsException;
+import com.usmobile.userManagement.exception.UserNotFoundException;
+import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.PatchUserRequest;
+import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.model.VerifyPasswordRequest;
+import com.usmobile.userManagement.service.ReactiveUserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(SpringExtension.class)
+@WebFluxTest(ReactiveUserController.class)
+@ActiveProfiles("reactive")
+public class ReactiveUserControllerTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String USER_PATH = "/api/v1/user";
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @MockBean
+    ReactiveUserService userService;
+
+    @Test
+    void createUser_Success() {
+        Mockito.when(userService.createUser(Mockito.any(CreateUserRequest.class)))
+                .thenReturn(Mono.just(new UserResponse(USER_ID, "John", "Doe", "john.doe@gmail.com")));
+
+        webTestClient.post().uri(USER_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequest("John", "Doe", "john.doe@gmail.com", "password"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(USER_ID)
+                .jsonPath("$.email").isEqualTo("john.doe@gmail.com");
+    }
+
+    @Test
+    void createUser_MissingFirstName() {
+        webTestClient.post().uri(USER_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequest(null, "Doe", "john.doe@gmail.com", "password"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Bad Request")
+                .jsonPath("$.firstName").isEqualTo("firstName is required");
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    void createUser_EmailAlreadyExists() {
+        Mockito.when(userService.createUser(Mockito.any(CreateUserRequest.class))).thenReturn(Mono.error(
+                new UserAlreadyExistsException("User with email john.doe@gmail.com already exists")));
+
+        webTestClient.post().uri(USER_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequest("John", "Doe", "john.doe@gmail.com", "password"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("User with email john.doe@gmail.com already exists");
+    }
+
+    @Test
+    void createUser_HashingPoolSaturated() {
+        Mockito.when(userService.createUser(Mockito.any(CreateUserRequest.class)))
+                .thenReturn(Mono.error(new ServiceOverloadedException("Too many concurrent password hashes")));
+
+        webTestClient.post().uri(USER_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequest("John", "Doe", "john.doe@gmail.com", "password"))
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER);
+    }
+
+    @Test
+    void createUser_InvalidMediaType() {
+        webTestClient.post().uri(USER_PATH)
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue("John")
+                .exchange()
+                .expectStatus().isEqualTo(415);
+    }
+
+    @Test
+    void patchUser_UserNotFound() {
+        Mockito.when(userService.patchUser(Mockito.eq(USER_ID), Mockito.any(PatchUserRequest.class)))
+                .thenReturn(Mono.error(new UserNotFoundException("User with id " + USER_ID + " not found")));
+
+        webTestClient.patch().uri(USER_PATH + "/" + USER_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new PatchUserRequest(null, "Smith", null))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void verifyPassword_InvalidCredentials() {
+        Mockito.when(userService.verifyPassword(Mockito.any(VerifyPasswordRequest.class)))
+                .thenReturn(Mono.error(new InvalidCredentialsException("Invalid email or password")));
+
+        webTestClient.post().uri(USER_PATH + "/verify-password")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new VerifyPasswordRequest("john.doe@gmail.com", "password"))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Invalid email or password");
+    }
+
+}
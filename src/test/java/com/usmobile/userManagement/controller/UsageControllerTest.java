@@ -0,0 +1,124 @@
+package com.usmobile.userManagement.controller;
+
+import com.usmobile.userManagement.controllerImpl.UsageController;
+import com.usmobile.userManagement.model.UsageBatchResponse;
+import com.usmobile.userManagement.model.UsageImportResult;
+import com.usmobile.userManagement.model.UsageRecordOutcome;
+import com.usmobile.userManagement.service.UsageImportFormat;
+import com.usmobile.userManagement.service.UsageImportService;
+import com.usmobile.userManagement.service.UsageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(UsageController.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class UsageControllerTest {
+
+    private static final String USAGE_BATCH_PATH = "/api/v1/usage/batch";
+    private static final String USAGE_STREAM_PATH = "/api/v1/usage/stream";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UsageService usageService;
+
+    @MockBean
+    private UsageImportService usageImportService;
+
+    @Test
+    public void testIngestUsageBatch_Success() throws Exception {
+        Mockito.when(usageService.ingest(Mockito.anyList())).thenReturn(new UsageBatchResponse(1, 0, 1, List.of(
+                UsageRecordOutcome.applied(0), UsageRecordOutcome.failed(1, "userId is required"))));
+
+        mockMvc.perform(post(USAGE_BATCH_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"records": [
+                          {"userId": "6671d6cdd518422008b3d9fb", "mdn": "1234567890",
+                           "usageDate": "2024-06-19T03:35:10.950+00:00", "deltaMb": 12},
+                          {"userId": "", "mdn": "1234567890", "usageDate": "2024-06-19T03:35:10.950+00:00", "deltaMb": 3}
+                        ]}
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.outcomes[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$.outcomes[0].error").doesNotExist())
+                .andExpect(jsonPath("$.outcomes[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.outcomes[1].error").value("userId is required"));
+    }
+
+    @Test
+    public void testIngestUsageBatch_WhenBatchIsEmpty() throws Exception {
+        mockMvc.perform(post(USAGE_BATCH_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"records\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.records").value("records are required"));
+        Mockito.verifyNoInteractions(usageService);
+    }
+
+    @Test
+    public void testIngestUsageBatch_WhenBatchIsTooLarge() throws Exception {
+        Mockito.when(usageService.ingest(Mockito.anyList()))
+                .thenThrow(new IllegalArgumentException("A usage batch accepts at most 10000 records, got 10001"));
+
+        mockMvc.perform(post(USAGE_BATCH_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"records\": [{\"userId\": \"1\", \"mdn\": \"2\", \"usageDate\": 0, \"deltaMb\": 1}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("A usage batch accepts at most 10000 records, got 10001"));
+    }
+
+    @Test
+    public void testImportUsageStream_Ndjson() throws Exception {
+        Mockito.when(usageImportService.importUsage(Mockito.any(), Mockito.eq(UsageImportFormat.NDJSON)))
+                .thenReturn(new UsageImportResult(2, 2, 0, 10, 200.0, List.of()));
+
+        mockMvc.perform(post(USAGE_STREAM_PATH)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{}\n{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.records").value(2))
+                .andExpect(jsonPath("$.recordsPerSecond").value(200.0));
+    }
+
+    @Test
+    public void testImportUsageStream_Csv() throws Exception {
+        Mockito.when(usageImportService.importUsage(Mockito.any(), Mockito.eq(UsageImportFormat.CSV)))
+                .thenReturn(new UsageImportResult(1, 0, 1, 10, 100.0, List.of("line 2: usedInMb is required")));
+
+        mockMvc.perform(post(USAGE_STREAM_PATH)
+                .contentType("text/csv")
+                .content("userId,mdn,usageDate,usedInMb\n1,2,0,\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0]").value("line 2: usedInMb is required"));
+    }
+
+    @Test
+    public void testImportUsageStream_UnsupportedContentType() throws Exception {
+        mockMvc.perform(post(USAGE_STREAM_PATH)
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("usage"))
+                .andExpect(status().isUnsupportedMediaType());
+        Mockito.verifyNoInteractions(usageImportService);
+    }
+
+}
@@ -2,11 +2,18 @@ package com.usmobile.userManagement.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.usmobile.userManagement.controllerImpl.UserController;
+import com.usmobile.userManagement.exception.InvalidCredentialsException;
+import com.usmobile.userManagement.exception.ServiceOverloadedException;
 import com.usmobile.userManagement.exception.UserAlreadyExistsException;
 import com.usmobile.userManagement.exception.UserNotFoundException;
 import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.PatchUserRequest;
 import com.usmobile.userManagement.model.UpdateUserRequest;
+import com.usmobile.userManagement.model.UserImportResult;
 import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.model.VerifyPasswordRequest;
+import com.usmobile.userManagement.service.UserImportFormat;
+import com.usmobile.userManagement.service.UserImportService;
 import com.usmobile.userManagement.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,8 +27,12 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +49,9 @@ public class UserControllerTest {
     @MockBean
     UserService userService;
 
+    @MockBean
+    UserImportService userImportService;
+
     String userPath;
 
     ObjectMapper objectMapper;
@@ -178,6 +192,20 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.detail").value("User with email john.doe@gmail.com already exists"));
     }
 
+    @Test
+    void createUser_HashingPoolSaturated() throws Exception {
+        Mockito.when(userService.createUser(Mockito.any(CreateUserRequest.class))).thenThrow(
+                new ServiceOverloadedException("Too many concurrent password hashing requests, please try again later"));
+        mockMvc.perform(post(userPath)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(getCreateUserRequest()))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.title").value("Service Unavailable"))
+                .andExpect(jsonPath("$.detail").value("Too many concurrent password hashing requests, please try again later"));
+    }
+
     @Test
     void createUser_InvalidRequest() throws Exception {
         mockMvc.perform(post(userPath)
@@ -336,6 +364,143 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.detail").value("User with email jane.porter@gmail.com already exists"));
     }
 
+    @Test
+    void patchUser_Success() throws Exception {
+        PatchUserRequest patchUserRequest = new PatchUserRequest("Jane", null, null);
+        Mockito.when(userService.patchUser(USER_ID, patchUserRequest)).thenReturn(new UserResponse(USER_ID,
+                "Jane", "Doe", "john.doe@gmail.com"));
+        mockMvc.perform(patch(userPath + "/" + USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "firstName": "Jane"
+                                }""")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(USER_ID))
+                .andExpect(jsonPath("$.firstName").value("Jane"))
+                .andExpect(jsonPath("$.lastName").value("Doe"));
+    }
+
+    @Test
+    void patchUser_BlankFirstName() throws Exception {
+        mockMvc.perform(patch(userPath + "/" + USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PatchUserRequest(" ", null, null)))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Bad Request"))
+                .andExpect(jsonPath("$.firstName").value("firstName must not be blank"));
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    void patchUser_InvalidEmail() throws Exception {
+        mockMvc.perform(patch(userPath + "/" + USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PatchUserRequest(null, null, "jane.porter")))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Bad Request"))
+                .andExpect(jsonPath("$.email").value("email is invalid"));
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    void patchUser_UserNotFound() throws Exception {
+        Mockito.when(userService.patchUser(Mockito.eq(USER_ID), Mockito.any())).thenThrow(
+                new UserNotFoundException("User with id 6671d6cdd518422008b3d9fb not found"));
+        mockMvc.perform(patch(userPath + "/" + USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PatchUserRequest(null, "Porter", null)))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("User with id 6671d6cdd518422008b3d9fb not found"));
+    }
+
+    @Test
+    void verifyPassword_Success() throws Exception {
+        VerifyPasswordRequest request = new VerifyPasswordRequest("john.doe@gmail.com", "password123");
+        Mockito.when(userService.verifyPassword(request)).thenReturn(new UserResponse(USER_ID,
+                "John", "Doe", "john.doe@gmail.com"));
+        mockMvc.perform(post(userPath + "/verify-password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(USER_ID))
+                .andExpect(jsonPath("$.email").value("john.doe@gmail.com"));
+    }
+
+    @Test
+    void verifyPassword_InvalidCredentials() throws Exception {
+        VerifyPasswordRequest request = new VerifyPasswordRequest("john.doe@gmail.com", "wrong-password");
+        Mockito.when(userService.verifyPassword(request)).thenThrow(
+                new InvalidCredentialsException("Invalid email or password"));
+        mockMvc.perform(post(userPath + "/verify-password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.title").value("Unauthorized"))
+                .andExpect(jsonPath("$.detail").value("Invalid email or password"));
+    }
+
+    @Test
+    void verifyPassword_MissingPassword() throws Exception {
+        mockMvc.perform(post(userPath + "/verify-password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new VerifyPasswordRequest("john.doe@gmail.com", null)))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.password").value("password is required"));
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    void importUsers_JsonArray() throws Exception {
+        Mockito.when(userImportService.importUsers(Mockito.any(), Mockito.eq(UserImportFormat.JSON)))
+                .thenReturn(new UserImportResult(2, 1, 1, 0, 10, 100.0,
+                        List.of("record 2: User with email john.doe@gmail.com already exists")));
+
+        mockMvc.perform(post(userPath + "/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(getCreateUserRequest(), getCreateUserRequest())))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.usersPerSecond").value(100.0))
+                .andExpect(jsonPath("$.errors[0]").value("record 2: User with email john.doe@gmail.com already exists"));
+    }
+
+    @Test
+    void importUsers_Ndjson() throws Exception {
+        Mockito.when(userImportService.importUsers(Mockito.any(), Mockito.eq(UserImportFormat.NDJSON)))
+                .thenReturn(new UserImportResult(2, 2, 0, 0, 10, 200.0, List.of()));
+
+        mockMvc.perform(post(userPath + "/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(getCreateUserRequest()) + "\n"
+                                + objectMapper.writeValueAsString(getCreateUserRequest()) + "\n")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+    }
+
+    @Test
+    void importUsers_NotAnArray() throws Exception {
+        Mockito.when(userImportService.importUsers(Mockito.any(), Mockito.eq(UserImportFormat.JSON)))
+                .thenThrow(new IllegalArgumentException("JSON user import must be an array of users"));
+
+        mockMvc.perform(post(userPath + "/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(getCreateUserRequest()))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("JSON user import must be an array of users"));
+    }
+
     private CreateUserRequest getCreateUserRequest() {
         return new CreateUserRequest("John", "Doe", "john.doe@gmail.com", "password");
     }
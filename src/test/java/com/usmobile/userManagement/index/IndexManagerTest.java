@@ -0,0 +1,88 @@
+package com.usmobile.userManagement.index;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+@SpringBootTest(properties = "mongodb.indexes.provisioning.background=false")
+@Testcontainers
+public class IndexManagerTest {
+
+    @Autowired
+    private IndexManager indexManager;
+
+    @Autowired
+    private QueryPlanVerifier queryPlanVerifier;
+
+    @Autowired
+    private MongoIndexesHealthIndicator mongoIndexesHealthIndicator;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Test
+    void testIndexesCreatedOnStartup() {
+        Assertions.assertTrue(indexManager.missingIndexes().isEmpty());
+        Assertions.assertEquals(Status.UP, mongoIndexesHealthIndicator.health().getStatus());
+    }
+
+    @Test
+    void testRepositoryQueriesUseIndexes() {
+        List<QueryPlanVerifier.QueryPlanCheck> results = queryPlanVerifier.verify();
+
+        Assertions.assertEquals(4, results.size());
+        results.forEach(result -> Assertions.assertTrue(result.usesExpectedIndex(),
+                () -> result.query() + " uses " + result.winningIndex()));
+    }
+
+    @Test
+    void testHealthDownWhenIndexMissing() {
+        mongoTemplate.indexOps(Cycle.class).dropIndex("userId_mdn_startDate_endDate");
+        try {
+            Assertions.assertEquals(List.of("Cycle.userId_mdn_startDate_endDate"), indexManager.missingIndexes());
+            Assertions.assertEquals(Status.DOWN, mongoIndexesHealthIndicator.health().getStatus());
+        } finally {
+            indexManager.ensureIndexes();
+        }
+    }
+
+    @Test
+    void testEnsureIndexes_LeavesANonUniqueDailyUsageIndexToTheDeduplication() {
+        // Daily_Usage as left by a writer that ran without the unique index
+        mongoTemplate.indexOps(DailyUsage.class).dropIndex("userId_mdn_usageDate");
+        mongoTemplate.indexOps(DailyUsage.class).ensureIndex(new Index().named("userId_mdn_usageDate")
+                .on("userId", Sort.Direction.ASC).on("mdn", Sort.Direction.ASC).on("usageDate", Sort.Direction.DESC));
+        try {
+            indexManager.ensureIndexes();
+
+            Assertions.assertEquals(List.of("Daily_Usage.userId_mdn_usageDate"), indexManager.missingIndexes());
+            Assertions.assertEquals(Status.DOWN, mongoIndexesHealthIndicator.health().getStatus());
+        } finally {
+            mongoTemplate.indexOps(DailyUsage.class).dropIndex("userId_mdn_usageDate");
+            indexManager.ensureIndexes();
+        }
+    }
+
+}
@@ -16,12 +16,13 @@ import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "mongodb.indexes.provisioning.background=false")
 @Testcontainers
 @AutoConfigureMockMvc
 public class UserTest {
@@ -445,6 +446,36 @@ public class UserTest {
         Assertions.assertEquals(1, userRepository.count());
     }
 
+    @Test
+    void patchUser_LastNameSuccess() throws Exception {
+        String response = mockMvc.perform(post(USER_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "firstName": "John",
+                          "lastName": "Doe",
+                          "email": "john.doe@gmail.com",
+                          "password": "youcantguessit"
+                        }"""))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
 
+        String savedUserId = JsonPath.read(response, "$.id");
+        String passwordHash = userRepository.findById(savedUserId).orElseThrow().getPassword();
+
+        mockMvc.perform(patch(USER_API + "/" + savedUserId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "lastName": "Porter"
+                        }"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(savedUserId))
+                .andExpect(jsonPath("$.firstName").value("John"))
+                .andExpect(jsonPath("$.lastName").value("Porter"))
+                .andExpect(jsonPath("$.email").value("john.doe@gmail.com"));
+
+        Assertions.assertEquals(passwordHash, userRepository.findById(savedUserId).orElseThrow().getPassword());
+    }
 
 }
@@ -0,0 +1,62 @@
+package com.usmobile.userManagement.monitoring;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class VirtualThreadPinningMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(5));
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void blockingInsideSynchronizedIsRecorded() throws Exception {
+        Object lock = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // JFR streams events in chunks, about once a second
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        Timer pinned = null;
+        while (pinned == null && System.nanoTime() < deadline) {
+            pinned = meterRegistry.find("jvm.threads.virtual.pinned").tag("source", "other").timer();
+            Thread.sleep(100);
+        }
+        Assertions.assertThat(pinned).isNotNull();
+        Assertions.assertThat(pinned.count()).isPositive();
+        Assertions.assertThat(monitor.isRunning()).isTrue();
+    }
+
+    @Test
+    void stopEndsTheRecording() {
+        monitor.stop();
+
+        Assertions.assertThat(monitor.isRunning()).isFalse();
+    }
+
+}
@@ -1,11 +1,17 @@
 package com.usmobile.userManagement.repository;
 
 import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MongoDBContainer;
@@ -17,6 +23,8 @@ import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @DataMongoTest
 @Testcontainers
@@ -28,6 +36,9 @@ public class CycleRepositoryTest {
     @Autowired
     CycleRepository cycleRepository;
 
+    @Autowired
+    DailyUsageRepository dailyUsageRepository;
+
     @Container
     public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
 
@@ -39,6 +50,7 @@ public class CycleRepositoryTest {
     @AfterEach
     void tearDown() {
         cycleRepository.deleteAll();
+        dailyUsageRepository.deleteAll();
     }
 
     @Test
@@ -302,4 +314,150 @@ public class CycleRepositoryTest {
         Assertions.assertEquals(result.get(0).getMdn(), cycle6.getMdn());
     }
 
+    @Test
+    void testFindCurrentCycleReport_NoCurrentCycle() {
+        // Cycle ended yesterday
+        Cycle cycle = new Cycle("6671d6f6d518422008b3d9fc", MDN, Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().minus(1, ChronoUnit.DAYS).toEpochMilli(), USER_ID);
+        cycleRepository.save(cycle);
+
+        Optional<List<DailyUsageReport>> result = cycleRepository.findCurrentCycleReport(USER_ID, MDN,
+                System.currentTimeMillis());
+
+        Assertions.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void testFindCurrentCycleReport_OnlyUsageWithinCycleWindow() {
+        Long currentDate = System.currentTimeMillis();
+        Cycle cycle = new Cycle("6671d6f6d518422008b3d9fc", MDN, currentDate - 5 * 86400000L,
+                currentDate + 86400000L, USER_ID);
+        cycleRepository.save(cycle);
+        // Two usages within the cycle, one before the cycle start and one for another mdn
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, currentDate - 86400000L, 100));
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, currentDate, 200));
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, currentDate - 6 * 86400000L, 300));
+        dailyUsageRepository.save(new DailyUsage(null, "2764552340", USER_ID, currentDate, 400));
+
+        Optional<List<DailyUsageReport>> result = cycleRepository.findCurrentCycleReport(USER_ID, MDN, currentDate);
+
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals(List.of(new DailyUsageReport(new Date(currentDate), 200),
+                new DailyUsageReport(new Date(currentDate - 86400000L), 100)), result.get());
+    }
+
+    @Test
+    void testFindCurrentCycleReport_UsageOfTheDayTheCycleStartedMidDay() {
+        long day = 86400000L;
+        long today = Math.floorDiv(System.currentTimeMillis(), day) * day;
+        // The cycle started 15 hours into a day, its usage is keyed by the start of that day
+        Long cycleStart = today - 5 * day + 54000000L;
+        cycleRepository.save(new Cycle("6671d6f6d518422008b3d9fc", MDN, cycleStart, cycleStart + 30 * day - 1,
+                USER_ID));
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, today - 5 * day, 100));
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, today - 6 * day, 300));
+
+        Optional<List<DailyUsageReport>> result = cycleRepository.findCurrentCycleReport(USER_ID, MDN,
+                System.currentTimeMillis());
+
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals(List.of(new DailyUsageReport(new Date(today - 5 * day), 100)), result.get());
+    }
+
+    @Test
+    void testFindCurrentCycleReport_NoDailyUsage() {
+        Cycle cycle = new Cycle("6671d6f6d518422008b3d9fc", MDN, Instant.now().minus(1, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(1, ChronoUnit.DAYS).toEpochMilli(), USER_ID);
+        cycleRepository.save(cycle);
+
+        Optional<List<DailyUsageReport>> result = cycleRepository.findCurrentCycleReport(USER_ID, MDN,
+                System.currentTimeMillis());
+
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertTrue(result.get().isEmpty());
+    }
+
+    @Test
+    void testFindCurrentCycleWindowByUserIdAndMdn_Found() {
+        Cycle cycle = new Cycle("6671d6f6d518422008b3d9fc", MDN, Instant.now().minus(1, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(1, ChronoUnit.DAYS).toEpochMilli(), USER_ID);
+        cycleRepository.save(cycle);
+
+        Optional<CycleWindow> result = cycleRepository.findCurrentCycleWindowByUserIdAndMdn(USER_ID, MDN,
+                System.currentTimeMillis());
+
+        Assertions.assertEquals(Optional.of(new CycleWindow(cycle.getId(), cycle.getStartDate(), cycle.getEndDate())),
+                result);
+    }
+
+    @Test
+    void testFindCycleWindowsByUserIdAndMdn_OrderedByStartDateDesc() {
+        Cycle cycle1 = new Cycle("6671d6f6d518422008b3d9fa", MDN, Instant.now().minus(1, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(1, ChronoUnit.DAYS).toEpochMilli(), USER_ID);
+        Cycle cycle2 = new Cycle("66711abbd518422008b3d9fb", MDN, Instant.now().plus(1, ChronoUnit.DAYS).plusMillis(1).toEpochMilli(),
+                Instant.now().plus(2, ChronoUnit.DAYS).toEpochMilli(), USER_ID);
+        Cycle cycle3 = new Cycle("66711abbd518422008b3d9fc", "2764552340", Instant.now().minus(1, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(1, ChronoUnit.DAYS).toEpochMilli(), USER_ID);
+        cycleRepository.save(cycle1);
+        cycleRepository.save(cycle2);
+        cycleRepository.save(cycle3);
+
+        List<CycleWindow> result = cycleRepository.findCycleWindowsByUserIdAndMdn(USER_ID, MDN);
+
+        Assertions.assertEquals(List.of(new CycleWindow(cycle2.getId(), cycle2.getStartDate(), cycle2.getEndDate()),
+                new CycleWindow(cycle1.getId(), cycle1.getStartDate(), cycle1.getEndDate())), result);
+    }
+
+    @Test
+    void testFindCycleWindowPage_KeysetPagination() {
+        for (int i = 1; i <= 5; i++) {
+            cycleRepository.save(new Cycle(null, MDN, i * 1000L, i * 1000L + 999, USER_ID));
+        }
+        cycleRepository.save(new Cycle(null, "2764552340", 6000L, 6999L, USER_ID));
+
+        List<CycleWindow> firstPage = cycleRepository.findCycleWindowPage(USER_ID, MDN, Long.MAX_VALUE, Limit.of(2));
+        List<CycleWindow> secondPage = cycleRepository.findCycleWindowPage(USER_ID, MDN,
+                firstPage.get(1).startDate(), Limit.of(2));
+        List<CycleWindow> lastPage = cycleRepository.findCycleWindowPage(USER_ID, MDN,
+                secondPage.get(1).startDate(), Limit.of(2));
+
+        Assertions.assertEquals(List.of(5000L, 4000L), firstPage.stream().map(CycleWindow::startDate).toList());
+        Assertions.assertEquals(List.of(3000L, 2000L), secondPage.stream().map(CycleWindow::startDate).toList());
+        Assertions.assertEquals(List.of(1000L), lastPage.stream().map(CycleWindow::startDate).toList());
+    }
+
+    @Test
+    void testStreamCycleWindowsByUserIdAndMdn_OrderedByStartDateDesc() {
+        cycleRepository.save(new Cycle(null, MDN, 1000L, 1999L, USER_ID));
+        cycleRepository.save(new Cycle(null, MDN, 2000L, 2999L, USER_ID));
+
+        try (Stream<CycleWindow> cycles = cycleRepository.streamCycleWindowsByUserIdAndMdn(USER_ID, MDN)) {
+            Assertions.assertEquals(List.of(2000L, 1000L), cycles.map(CycleWindow::startDate).toList());
+        }
+    }
+
+    @Test
+    void testFindCurrentCycleWindows_OnlyActiveCyclesOfRequestedLines() {
+        long now = System.currentTimeMillis();
+        Cycle active1 = cycleRepository.save(new Cycle(null, MDN, now - 1000, now + 1000, USER_ID));
+        Cycle active2 = cycleRepository.save(new Cycle(null, "0987654321", now - 2000, now + 2000, USER_ID));
+        // Ended cycle of a requested line
+        cycleRepository.save(new Cycle(null, MDN, now - 5000, now - 1001, USER_ID));
+        // Same mdn on another user is not requested
+        cycleRepository.save(new Cycle(null, MDN, now - 1000, now + 1000, "6671d6cdd518422008b3d9fc"));
+
+        List<LineCycleWindow> result = cycleRepository.findCurrentCycleWindows(List.of(new LineInfo(USER_ID, MDN),
+                new LineInfo(USER_ID, "0987654321"), new LineInfo(USER_ID, "1111111111")), now);
+
+        Assertions.assertEquals(Set.of(
+                new LineCycleWindow(active1.getId(), USER_ID, MDN, active1.getStartDate(), active1.getEndDate()),
+                new LineCycleWindow(active2.getId(), USER_ID, "0987654321", active2.getStartDate(), active2.getEndDate())),
+                Set.copyOf(result));
+    }
+
+    @Test
+    void testFindCurrentCycleWindows_NoLines() {
+        Assertions.assertTrue(cycleRepository.findCurrentCycleWindows(List.of(), System.currentTimeMillis()).isEmpty());
+    }
+
 }
@@ -0,0 +1,227 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.ArchivedCycle;
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.CycleUsageSummary;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@DataMongoTest
+@Testcontainers
+public class CycleUsageSummaryRepositoryTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final long DAY = 86400000L;
+    private static final long CYCLE_START = 1718755200000L;
+
+    @Autowired
+    private CycleUsageSummaryRepository cycleUsageSummaryRepository;
+
+    @Autowired
+    private CycleRepository cycleRepository;
+
+    @Autowired
+    private DailyUsageRepository dailyUsageRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cycleUsageSummaryRepository.deleteAll();
+        cycleRepository.deleteAll();
+        dailyUsageRepository.deleteAll();
+        mongoTemplate.remove(new Query(), ArchivedCycle.class);
+    }
+
+    @Test
+    void refreshSummaries_ComputesTheTotalsOfTheWrittenCycles() {
+        Cycle previous = saveCycle(CYCLE_START - 30 * DAY);
+        Cycle current = saveCycle(CYCLE_START);
+        saveDailyUsage(USER_ID, CYCLE_START - DAY, 1000);
+        saveDailyUsage(USER_ID, CYCLE_START, 100);
+        saveDailyUsage(USER_ID, CYCLE_START + DAY, 300);
+        saveDailyUsage(USER_ID, CYCLE_START + 2 * DAY, 0);
+        saveDailyUsage("6671d6cdd518422008b3d9fc", CYCLE_START, 5000);
+
+        cycleUsageSummaryRepository.refreshSummaries(List.of(new LineUsageDay(USER_ID, MDN, CYCLE_START + DAY)));
+
+        CycleUsageSummary summary = cycleUsageSummaryRepository
+                .findByIdAndUserIdAndMdn(current.getId(), USER_ID, MDN).orElseThrow();
+        Assertions.assertEquals(400, summary.getTotalMb());
+        Assertions.assertEquals(2, summary.getDaysWithUsage());
+        Assertions.assertEquals(CYCLE_START + DAY, summary.getPeakDayDate());
+        Assertions.assertEquals(300, summary.getPeakDayMb());
+        Assertions.assertEquals(CYCLE_START, summary.getStartDate());
+        Assertions.assertNotNull(summary.getLastUpdated());
+        // Only the cycles containing the written days are refreshed
+        Assertions.assertTrue(cycleUsageSummaryRepository.findById(previous.getId()).isEmpty());
+    }
+
+    @Test
+    void refreshSummaries_ReplacesThePreviousTotals() {
+        Cycle current = saveCycle(CYCLE_START);
+        saveDailyUsage(USER_ID, CYCLE_START, 100);
+        cycleUsageSummaryRepository.refreshSummaries(List.of(new LineUsageDay(USER_ID, MDN, CYCLE_START)));
+
+        saveDailyUsage(USER_ID, CYCLE_START + DAY, 50);
+        cycleUsageSummaryRepository.refreshSummaries(List.of(new LineUsageDay(USER_ID, MDN, CYCLE_START + DAY)));
+
+        CycleUsageSummary summary = cycleUsageSummaryRepository.findById(current.getId()).orElseThrow();
+        Assertions.assertEquals(150, summary.getTotalMb());
+        Assertions.assertEquals(2, summary.getDaysWithUsage());
+        Assertions.assertEquals(CYCLE_START, summary.getPeakDayDate());
+        Assertions.assertEquals(1, cycleUsageSummaryRepository.count());
+    }
+
+    @Test
+    void refreshSummaries_CountsTheFirstDayOfACycleStartingMidDay() {
+        // The cycle starts 15 hours into the day, whose usage is keyed by the start of the day
+        Cycle current = saveCycle(CYCLE_START + 54000000L);
+        saveDailyUsage(USER_ID, CYCLE_START - DAY, 1000);
+        saveDailyUsage(USER_ID, CYCLE_START, 100);
+
+        cycleUsageSummaryRepository.refreshSummaries(List.of(new LineUsageDay(USER_ID, MDN, CYCLE_START)));
+
+        CycleUsageSummary summary = cycleUsageSummaryRepository.findById(current.getId()).orElseThrow();
+        Assertions.assertEquals(100, summary.getTotalMb());
+        Assertions.assertEquals(1, summary.getDaysWithUsage());
+        Assertions.assertEquals(CYCLE_START, summary.getPeakDayDate());
+    }
+
+    @Test
+    void refreshSummaries_DoesNotReplaceASummaryComputedLater() {
+        Cycle current = saveCycle(CYCLE_START);
+        saveDailyUsage(USER_ID, CYCLE_START, 100);
+        // A recompute started after this one already merged its result
+        cycleUsageSummaryRepository.save(new CycleUsageSummary(current.getId(), USER_ID, MDN, CYCLE_START,
+                current.getEndDate(), 150, 1, CYCLE_START, 150, Long.MAX_VALUE,
+                Map.of(String.valueOf(CYCLE_START), 150), Long.MAX_VALUE));
+
+        cycleUsageSummaryRepository.refreshSummaries(List.of(new LineUsageDay(USER_ID, MDN, CYCLE_START)));
+
+        Assertions.assertEquals(150, cycleUsageSummaryRepository.findById(current.getId()).orElseThrow().getTotalMb());
+    }
+
+    @Test
+    void incrementSummaries_AddsTheDeltasToTheDaysOfTheSummary() {
+        Cycle current = saveCycle(CYCLE_START);
+        saveDailyUsage(USER_ID, CYCLE_START, 100);
+        cycleUsageSummaryRepository.refreshSummaries(List.of(new LineUsageDay(USER_ID, MDN, CYCLE_START)));
+
+        cycleUsageSummaryRepository.incrementSummaries(List.of(
+                usageRecord(CYCLE_START, 50),
+                usageRecord(CYCLE_START + DAY, 300),
+                usageRecord(CYCLE_START + DAY, 20),
+                usageRecord(CYCLE_START + 40 * DAY, 1000)));
+
+        CycleUsageSummary summary = cycleUsageSummaryRepository.findById(current.getId()).orElseThrow();
+        Assertions.assertEquals(470, summary.getTotalMb());
+        // A day is counted once, on the first delta written to it
+        Assertions.assertEquals(2, summary.getDaysWithUsage());
+        Assertions.assertEquals(CYCLE_START + DAY, summary.getPeakDayDate());
+        Assertions.assertEquals(320, summary.getPeakDayMb());
+        Assertions.assertEquals(Map.of(String.valueOf(CYCLE_START), 150, String.valueOf(CYCLE_START + DAY), 320),
+                summary.getDays());
+        Assertions.assertEquals(1, cycleUsageSummaryRepository.count());
+    }
+
+    @Test
+    void incrementSummaries_ComputesASummaryNeverComputedFromTheDailyUsage() {
+        Cycle current = saveCycle(CYCLE_START);
+        // The daily usage already holds the written delta
+        saveDailyUsage(USER_ID, CYCLE_START, 100);
+
+        cycleUsageSummaryRepository.incrementSummaries(List.of(usageRecord(CYCLE_START, 100)));
+
+        CycleUsageSummary summary = cycleUsageSummaryRepository.findById(current.getId()).orElseThrow();
+        Assertions.assertEquals(100, summary.getTotalMb());
+        Assertions.assertEquals(1, summary.getDaysWithUsage());
+    }
+
+    @Test
+    void refreshSummary_CycleWithoutUsage() {
+        Cycle current = saveCycle(CYCLE_START);
+
+        cycleUsageSummaryRepository.refreshSummary(USER_ID, MDN, current.getId());
+
+        CycleUsageSummary summary = cycleUsageSummaryRepository
+                .findByIdAndUserIdAndMdn(current.getId(), USER_ID, MDN).orElseThrow();
+        Assertions.assertEquals(0, summary.getTotalMb());
+        Assertions.assertEquals(0, summary.getDaysWithUsage());
+        Assertions.assertNull(summary.getPeakDayDate());
+        Assertions.assertNull(summary.getPeakDayMb());
+    }
+
+    @Test
+    void refreshSummary_CycleOfAnotherLine() {
+        Cycle current = saveCycle(CYCLE_START);
+
+        cycleUsageSummaryRepository.refreshSummary(USER_ID, "0987654321", current.getId());
+
+        Optional<CycleUsageSummary> summary = cycleUsageSummaryRepository.findById(current.getId());
+        Assertions.assertTrue(summary.isEmpty());
+    }
+
+    @Test
+    void deleteUnarchivedSummaries_KeepsTheSummariesOfArchivedCycles() {
+        Cycle previous = saveCycle(CYCLE_START - 30 * DAY);
+        Cycle current = saveCycle(CYCLE_START);
+        Cycle otherLine = cycleRepository.save(new Cycle(new ObjectId().toHexString(), "0987654321", CYCLE_START,
+                CYCLE_START + 30 * DAY - 1, USER_ID));
+        cycleUsageSummaryRepository.refreshSummary(USER_ID, MDN, previous.getId());
+        cycleUsageSummaryRepository.refreshSummary(USER_ID, MDN, current.getId());
+        cycleUsageSummaryRepository.refreshSummary(USER_ID, "0987654321", otherLine.getId());
+        mongoTemplate.save(new ArchivedCycle(previous.getId(), MDN, previous.getStartDate(), previous.getEndDate(),
+                USER_ID, System.currentTimeMillis()));
+
+        long deleted = cycleUsageSummaryRepository.deleteUnarchivedSummaries(USER_ID, MDN);
+
+        Assertions.assertEquals(1, deleted);
+        Assertions.assertTrue(cycleUsageSummaryRepository.findById(current.getId()).isEmpty());
+        Assertions.assertTrue(cycleUsageSummaryRepository.findById(previous.getId()).isPresent());
+        Assertions.assertTrue(cycleUsageSummaryRepository.findById(otherLine.getId()).isPresent());
+    }
+
+    private Cycle saveCycle(long startDate) {
+        return cycleRepository.save(new Cycle(new ObjectId().toHexString(), MDN, startDate,
+                startDate + 30 * DAY - 1, USER_ID));
+    }
+
+    private static UsageRecord usageRecord(long usageDate, int deltaMb) {
+        return new UsageRecord(USER_ID, MDN, new Date(usageDate), deltaMb);
+    }
+
+    private void saveDailyUsage(String userId, long usageDate, int usedInMb) {
+        dailyUsageRepository.save(new DailyUsage(null, MDN, userId, usageDate, usedInMb));
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.CycleUsageSummary;
+import com.usmobile.userManagement.entity.DailyUsageBucket;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.DailyUsageRow;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.repository.projection.CycleUsage;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.LineUsageAmount;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+@DataMongoTest(properties = "usage.storage.mode=BUCKETED")
+@Testcontainers
+public class DailyUsageBucketRepositoryTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final long DAY = 86400000L;
+    private static final long USAGE_DAY = 1718755200000L;
+
+    @Autowired
+    private DailyUsageRepository dailyUsageRepository;
+
+    @Autowired
+    private CycleRepository cycleRepository;
+
+    @Autowired
+    private CycleUsageSummaryRepository cycleUsageSummaryRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.remove(new Query(), DailyUsageBucket.class);
+        cycleUsageSummaryRepository.deleteAll();
+        cycleRepository.deleteAll();
+    }
+
+    @Test
+    void testIncrementUsage_OneBucketPerCycle() {
+        Cycle cycle = cycleRepository.save(new Cycle(null, MDN, USAGE_DAY - 5 * DAY, USAGE_DAY + DAY, USER_ID));
+
+        Map<Integer, String> failures = dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 100),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - DAY), 50)));
+        Assertions.assertTrue(failures.isEmpty());
+
+        failures = dailyUsageRepository.incrementUsage(List.of(new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 28)));
+        Assertions.assertTrue(failures.isEmpty());
+
+        Assertions.assertEquals(List.of(new UsageAmount(USAGE_DAY, 128), new UsageAmount(USAGE_DAY - DAY, 50)),
+                dailyUsageRepository.findUsageAmounts(USER_ID, MDN, USAGE_DAY - DAY, USAGE_DAY));
+        DailyUsageBucket bucket = mongoTemplate.findById(cycle.getId(), DailyUsageBucket.class);
+        Assertions.assertNotNull(bucket);
+        Assertions.assertEquals(cycle.getStartDate(), bucket.getStartDate());
+        Assertions.assertEquals(cycle.getEndDate(), bucket.getEndDate());
+        Assertions.assertEquals(1, mongoTemplate.count(new Query(), DailyUsageBucket.class));
+        // Nothing is written to the Daily_Usage collection
+        Assertions.assertEquals(0, dailyUsageRepository.count());
+    }
+
+    @Test
+    void testIncrementUsage_FirstDayOfAMidDayCycleGoesToThatCycle() {
+        // 2024-06-19T15:35:10Z, the start of its UTC day falls before the cycle but the day is covered by it
+        long cycleStart = USAGE_DAY + 56110000L;
+        Cycle previous = cycleRepository.save(new Cycle(null, MDN, cycleStart - 30 * DAY, cycleStart - 1, USER_ID));
+        Cycle cycle = cycleRepository.save(new Cycle(null, MDN, cycleStart, cycleStart + 30 * DAY - 1, USER_ID));
+
+        Map<Integer, String> failures = dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 100)));
+
+        Assertions.assertTrue(failures.isEmpty());
+        Assertions.assertEquals(List.of(new UsageAmount(USAGE_DAY, 100)),
+                dailyUsageRepository.findUsageAmounts(USER_ID, MDN, USAGE_DAY, cycle.getEndDate()));
+        Assertions.assertEquals(Map.of(String.valueOf(USAGE_DAY), 100),
+                mongoTemplate.findById(cycle.getId(), DailyUsageBucket.class).getDays());
+        // The day on which the previous cycle ends goes to the cycle starting on it
+        Assertions.assertNull(mongoTemplate.findById(previous.getId(), DailyUsageBucket.class));
+    }
+
+    @Test
+    void testIncrementUsage_DayOutsideAnyCycleFails() {
+        cycleRepository.save(new Cycle(null, MDN, USAGE_DAY - 5 * DAY, USAGE_DAY + DAY, USER_ID));
+
+        Map<Integer, String> failures = dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - 10 * DAY), 100),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 50)));
+
+        Assertions.assertEquals(Map.of(0, String.format("No cycle of user %s and mdn %s covers usage date %d",
+                USER_ID, MDN, USAGE_DAY - 10 * DAY)), failures);
+        Assertions.assertEquals(List.of(new UsageAmount(USAGE_DAY, 50)),
+                dailyUsageRepository.findUsageAmounts(USER_ID, MDN, 0L, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testSetUsage_ReplacesTheDay() {
+        cycleRepository.save(new Cycle(null, MDN, USAGE_DAY - 5 * DAY, USAGE_DAY + DAY, USER_ID));
+        dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 100),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - DAY), 50)));
+
+        Map<Integer, String> failures = dailyUsageRepository.setUsage(List.of(
+                new DailyUsageRow(USER_ID, MDN, USAGE_DAY, 40)));
+
+        Assertions.assertTrue(failures.isEmpty());
+        Assertions.assertEquals(List.of(new UsageAmount(USAGE_DAY, 40), new UsageAmount(USAGE_DAY - DAY, 50)),
+                dailyUsageRepository.findUsageAmounts(USER_ID, MDN, USAGE_DAY - DAY, USAGE_DAY));
+    }
+
+    @Test
+    void testFindUsageAmountsWithinCycles_EachLineWithinItsOwnCycle() {
+        Cycle first = cycleRepository.save(new Cycle(null, MDN, 1000L, 1999L, USER_ID));
+        Cycle second = cycleRepository.save(new Cycle(null, "0987654321", 2000L, 2999L, USER_ID));
+        cycleRepository.save(new Cycle(null, "0987654321", 1000L, 1999L, USER_ID));
+        dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(1500L), 100),
+                new UsageRecord(USER_ID, MDN, new Date(1800L), 200),
+                new UsageRecord(USER_ID, "0987654321", new Date(2500L), 300),
+                // Previous cycle of the second line
+                new UsageRecord(USER_ID, "0987654321", new Date(1500L), 400)));
+
+        List<LineUsageAmount> usageAmounts = dailyUsageRepository.findUsageAmountsWithinCycles(List.of(
+                new LineCycleWindow(first.getId(), USER_ID, MDN, 1000L, 1999L),
+                new LineCycleWindow(second.getId(), USER_ID, "0987654321", 2000L, 2999L)));
+
+        Assertions.assertEquals(List.of(new LineUsageAmount(USER_ID, "0987654321", 2500L, 300),
+                new LineUsageAmount(USER_ID, MDN, 1800L, 200),
+                new LineUsageAmount(USER_ID, MDN, 1500L, 100)), usageAmounts);
+    }
+
+    @Test
+    void testFindCurrentCycleUsage_ReadsTheBucketWithItsCycle() {
+        Cycle cycle = cycleRepository.save(new Cycle(null, MDN, USAGE_DAY - 5 * DAY, USAGE_DAY + DAY, USER_ID));
+        dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - DAY), 100),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 150)));
+
+        CycleUsage cycleUsage = dailyUsageRepository.findCurrentCycleUsage(USER_ID, MDN, USAGE_DAY).orElseThrow();
+
+        Assertions.assertEquals(new CycleWindow(cycle.getId(), cycle.getStartDate(), cycle.getEndDate()),
+                cycleUsage.cycle());
+        Assertions.assertEquals(List.of(new UsageAmount(USAGE_DAY, 150), new UsageAmount(USAGE_DAY - DAY, 100)),
+                cycleUsage.usageAmounts());
+        Assertions.assertTrue(dailyUsageRepository.findCurrentCycleUsage(USER_ID, MDN, USAGE_DAY + 2 * DAY).isEmpty());
+    }
+
+    @Test
+    void testFindCurrentCycleReport_ReadsTheBucketOfTheCycle() {
+        cycleRepository.save(new Cycle(null, MDN, USAGE_DAY - 5 * DAY, USAGE_DAY + DAY, USER_ID));
+        dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 150),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 50),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - DAY), 100)));
+
+        List<DailyUsageReport> report = cycleRepository.findCurrentCycleReport(USER_ID, MDN, USAGE_DAY).orElseThrow();
+
+        Assertions.assertEquals(List.of(new DailyUsageReport(new Date(USAGE_DAY), 200),
+                new DailyUsageReport(new Date(USAGE_DAY - DAY), 100)), report);
+    }
+
+    @Test
+    void testRefreshSummaries_ReadsTheBucketOfTheCycle() {
+        Cycle cycle = cycleRepository.save(new Cycle(null, MDN, USAGE_DAY - 5 * DAY, USAGE_DAY + DAY, USER_ID));
+        dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 150),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 50),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - DAY), 100)));
+
+        cycleUsageSummaryRepository.refreshSummaries(List.of(new LineUsageDay(USER_ID, MDN, USAGE_DAY)));
+
+        CycleUsageSummary summary = cycleUsageSummaryRepository
+                .findByIdAndUserIdAndMdn(cycle.getId(), USER_ID, MDN).orElseThrow();
+        Assertions.assertEquals(300, summary.getTotalMb());
+        Assertions.assertEquals(2, summary.getDaysWithUsage());
+        Assertions.assertEquals(USAGE_DAY, summary.getPeakDayDate());
+        Assertions.assertEquals(200, summary.getPeakDayMb());
+    }
+
+}
@@ -1,19 +1,29 @@
 package com.usmobile.userManagement.repository;
 
 import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.model.DailyUsageRow;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.LineUsageAmount;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @DataMongoTest
 @Testcontainers
@@ -25,6 +35,9 @@ public class DailyUsageRepositoryTest {
     @Autowired
     private DailyUsageRepository dailyUsageRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Container
     public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
 
@@ -296,4 +309,99 @@ public class DailyUsageRepositoryTest {
         Assertions.assertEquals(currentDate, dailyUsageList.get(0).getUsageDate());
     }
 
+    @Test
+    void testFindUsageAmounts_ProjectsAndSortsByUsageDateDesc() {
+        Long currentDate = System.currentTimeMillis();
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, currentDate - 86400000, 200));
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, currentDate, 100));
+        // Outside of the requested window
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, currentDate - 3 * 86400000L, 300));
+
+        List<UsageAmount> usageAmounts = dailyUsageRepository.findUsageAmounts(USER_ID, MDN,
+                currentDate - 172800000, currentDate);
+
+        Assertions.assertEquals(List.of(new UsageAmount(currentDate, 100),
+                new UsageAmount(currentDate - 86400000, 200)), usageAmounts);
+    }
+
+    @Test
+    void testFindUsageAmountsWithinCycles_EachLineWithinItsOwnCycle() {
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, 1500L, 100));
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, 1800L, 200));
+        dailyUsageRepository.save(new DailyUsage(null, "0987654321", USER_ID, 2500L, 300));
+        // Before the cycle of the second line
+        dailyUsageRepository.save(new DailyUsage(null, "0987654321", USER_ID, 1500L, 400));
+
+        List<LineUsageAmount> usageAmounts = dailyUsageRepository.findUsageAmountsWithinCycles(List.of(
+                new LineCycleWindow("1", USER_ID, MDN, 1000L, 1999L),
+                new LineCycleWindow("2", USER_ID, "0987654321", 2000L, 2999L)));
+
+        Assertions.assertEquals(List.of(new LineUsageAmount(USER_ID, "0987654321", 2500L, 300),
+                new LineUsageAmount(USER_ID, MDN, 1800L, 200),
+                new LineUsageAmount(USER_ID, MDN, 1500L, 100)), usageAmounts);
+    }
+
+    @Test
+    void testFindUsageAmountsWithinCycles_FromTheDayOfAMidDayCycleStart() {
+        // 2024-06-19T15:35:10Z, the usage of that day is keyed by 2024-06-19T00:00:00Z
+        Long cycleStart = 1718811310000L;
+        Long usageDay = 1718755200000L;
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, usageDay, 100));
+        // The day before the cycle start
+        dailyUsageRepository.save(new DailyUsage(null, MDN, USER_ID, usageDay - 86400000, 50));
+
+        List<LineUsageAmount> usageAmounts = dailyUsageRepository.findUsageAmountsWithinCycles(List.of(
+                new LineCycleWindow("1", USER_ID, MDN, cycleStart, cycleStart + 30L * 86400000 - 1)));
+
+        Assertions.assertEquals(List.of(new LineUsageAmount(USER_ID, MDN, usageDay, 100)), usageAmounts);
+    }
+
+    @Test
+    void testIncrementUsage_InsertsThenIncrements() {
+        Long usageDay = 1718755200000L;
+        Map<Integer, String> failures = dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(usageDay), 100),
+                new UsageRecord(USER_ID, MDN, new Date(usageDay - 86400000), 50)));
+        Assertions.assertTrue(failures.isEmpty());
+
+        failures = dailyUsageRepository.incrementUsage(List.of(new UsageRecord(USER_ID, MDN, new Date(usageDay), 28)));
+        Assertions.assertTrue(failures.isEmpty());
+
+        List<UsageAmount> usageAmounts = dailyUsageRepository.findUsageAmounts(USER_ID, MDN,
+                usageDay - 86400000, usageDay);
+        Assertions.assertEquals(List.of(new UsageAmount(usageDay, 128),
+                new UsageAmount(usageDay - 86400000, 50)), usageAmounts);
+    }
+
+    @Test
+    void testIncrementUsage_FailedRecordDoesNotStopTheOthers() {
+        Long usageDay = 1718755200000L;
+        // A corrupt document whose usedInMb cannot be incremented
+        mongoTemplate.getCollection("Daily_Usage").insertOne(new Document("userId", USER_ID).append("mdn", MDN)
+                .append("usageDate", usageDay - 86400000).append("usedInMb", "corrupt"));
+
+        Map<Integer, String> failures = dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(usageDay - 86400000), 10),
+                new UsageRecord(USER_ID, MDN, new Date(usageDay), 20)));
+
+        Assertions.assertEquals(Set.of(0), failures.keySet());
+        Assertions.assertEquals(List.of(new UsageAmount(usageDay, 20)),
+                dailyUsageRepository.findUsageAmounts(USER_ID, MDN, usageDay, usageDay));
+    }
+
+    @Test
+    void testSetUsage_InsertsThenReplacesUsage() {
+        Long usageDay = 1718755200000L;
+        Map<Integer, String> failures = dailyUsageRepository.setUsage(List.of(
+                new DailyUsageRow(USER_ID, MDN, usageDay, 100)));
+        Assertions.assertTrue(failures.isEmpty());
+
+        failures = dailyUsageRepository.setUsage(List.of(new DailyUsageRow(USER_ID, MDN, usageDay, 40)));
+        Assertions.assertTrue(failures.isEmpty());
+
+        Assertions.assertEquals(List.of(new UsageAmount(usageDay, 40)),
+                dailyUsageRepository.findUsageAmounts(USER_ID, MDN, usageDay, usageDay));
+        Assertions.assertEquals(1, dailyUsageRepository.count());
+    }
+
 }
@@ -0,0 +1,183 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.CycleUsageSummary;
+import com.usmobile.userManagement.entity.DailyUsageMeasurement;
+import com.usmobile.userManagement.index.IndexManager;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.DailyUsageRow;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.LineUsageAmount;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+@DataMongoTest(properties = "usage.storage.mode=TIME_SERIES")
+@Testcontainers
+public class DailyUsageTimeSeriesRepositoryTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final long DAY = 86400000L;
+    private static final long USAGE_DAY = 1718755200000L;
+
+    @Autowired
+    private DailyUsageRepository dailyUsageRepository;
+
+    @Autowired
+    private CycleRepository cycleRepository;
+
+    @Autowired
+    private CycleUsageSummaryRepository cycleUsageSummaryRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @BeforeEach
+    void setUp() {
+        new IndexManager(mongoTemplate, DailyUsageStorageMode.TIME_SERIES).ensureCollections();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.remove(new Query(), DailyUsageMeasurement.class);
+        cycleUsageSummaryRepository.deleteAll();
+        cycleRepository.deleteAll();
+    }
+
+    @Test
+    void testEnsureCollections_CreatesATimeSeriesCollection() {
+        Document collection = mongoTemplate.getDb().listCollections()
+                .filter(new Document("name", "Daily_Usage_TS")).first();
+
+        Assertions.assertNotNull(collection);
+        Assertions.assertEquals("timeseries", collection.getString("type"));
+        Assertions.assertEquals("usageDate", collection.get("options", Document.class)
+                .get("timeseries", Document.class).getString("timeField"));
+    }
+
+    @Test
+    void testEnsureCollections_FailsOnARegularCollection() {
+        mongoTemplate.dropCollection(DailyUsageMeasurement.class);
+        mongoTemplate.createCollection("Daily_Usage_TS");
+        try {
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> new IndexManager(mongoTemplate, DailyUsageStorageMode.TIME_SERIES).ensureCollections());
+        } finally {
+            mongoTemplate.dropCollection(DailyUsageMeasurement.class);
+        }
+    }
+
+    @Test
+    void testIncrementUsage_MeasurementsAreSummedPerDay() {
+        Map<Integer, String> failures = dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 100),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - DAY), 50),
+                new UsageRecord(USER_ID, "0987654321", new Date(USAGE_DAY), 70)));
+        Assertions.assertTrue(failures.isEmpty());
+
+        failures = dailyUsageRepository.incrementUsage(List.of(new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 28)));
+        Assertions.assertTrue(failures.isEmpty());
+
+        Assertions.assertEquals(List.of(new UsageAmount(USAGE_DAY, 128), new UsageAmount(USAGE_DAY - DAY, 50)),
+                dailyUsageRepository.findUsageAmounts(USER_ID, MDN, USAGE_DAY - DAY, USAGE_DAY));
+        Assertions.assertEquals(4, mongoTemplate.count(new Query(), DailyUsageMeasurement.class));
+        // Nothing is written to the Daily_Usage collection
+        Assertions.assertEquals(0, dailyUsageRepository.count());
+    }
+
+    @Test
+    void testSetUsage_ReplacesTheMeasurementsOfTheDay() {
+        dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 100),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 28),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - DAY), 50)));
+
+        Map<Integer, String> failures = dailyUsageRepository.setUsage(List.of(
+                new DailyUsageRow(USER_ID, MDN, USAGE_DAY, 40)));
+
+        Assertions.assertTrue(failures.isEmpty());
+        Assertions.assertEquals(List.of(new UsageAmount(USAGE_DAY, 40), new UsageAmount(USAGE_DAY - DAY, 50)),
+                dailyUsageRepository.findUsageAmounts(USER_ID, MDN, USAGE_DAY - DAY, USAGE_DAY));
+        Assertions.assertEquals(2, mongoTemplate.count(new Query(), DailyUsageMeasurement.class));
+    }
+
+    @Test
+    void testFindUsageAmountsWithinCycles_EachLineWithinItsOwnCycle() {
+        dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(1500L), 100),
+                new UsageRecord(USER_ID, MDN, new Date(1800L), 200),
+                new UsageRecord(USER_ID, "0987654321", new Date(2500L), 300),
+                // Before the cycle of the second line
+                new UsageRecord(USER_ID, "0987654321", new Date(1500L), 400)));
+
+        List<LineUsageAmount> usageAmounts = dailyUsageRepository.findUsageAmountsWithinCycles(List.of(
+                new LineCycleWindow("1", USER_ID, MDN, 1000L, 1999L),
+                new LineCycleWindow("2", USER_ID, "0987654321", 2000L, 2999L)));
+
+        Assertions.assertEquals(List.of(new LineUsageAmount(USER_ID, "0987654321", 2500L, 300),
+                new LineUsageAmount(USER_ID, MDN, 1800L, 200),
+                new LineUsageAmount(USER_ID, MDN, 1500L, 100)), usageAmounts);
+    }
+
+    @Test
+    void testFindCurrentCycleReport_SumsTheMeasurementsWithinTheCycle() {
+        cycleRepository.save(new Cycle(null, MDN, USAGE_DAY - 5 * DAY, USAGE_DAY + DAY, USER_ID));
+        dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 150),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 50),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - DAY), 100),
+                // Before the cycle start
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - 10 * DAY), 300)));
+
+        List<DailyUsageReport> report = cycleRepository.findCurrentCycleReport(USER_ID, MDN, USAGE_DAY).orElseThrow();
+
+        Assertions.assertEquals(List.of(new DailyUsageReport(new Date(USAGE_DAY), 200),
+                new DailyUsageReport(new Date(USAGE_DAY - DAY), 100)), report);
+    }
+
+    @Test
+    void testRefreshSummaries_SumsTheMeasurementsOfTheCycle() {
+        Cycle cycle = cycleRepository.save(new Cycle(null, MDN, USAGE_DAY - 5 * DAY, USAGE_DAY + DAY, USER_ID));
+        dailyUsageRepository.incrementUsage(List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 150),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 50),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY - DAY), 100)));
+
+        cycleUsageSummaryRepository.refreshSummaries(List.of(new LineUsageDay(USER_ID, MDN, USAGE_DAY)));
+
+        CycleUsageSummary summary = cycleUsageSummaryRepository
+                .findByIdAndUserIdAndMdn(cycle.getId(), USER_ID, MDN).orElseThrow();
+        Assertions.assertEquals(300, summary.getTotalMb());
+        Assertions.assertEquals(2, summary.getDaysWithUsage());
+        Assertions.assertEquals(USAGE_DAY, summary.getPeakDayDate());
+        Assertions.assertEquals(200, summary.getPeakDayMb());
+    }
+
+}
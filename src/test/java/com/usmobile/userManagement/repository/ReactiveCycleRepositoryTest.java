@@ -0,0 +1,114 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@DataMongoTest
+@ActiveProfiles("reactive")
+@Testcontainers
+public class ReactiveCycleRepositoryTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+
+    @Autowired
+    ReactiveCycleRepository cycleRepository;
+
+    @Autowired
+    ReactiveDailyUsageRepository dailyUsageRepository;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cycleRepository.deleteAll().then(dailyUsageRepository.deleteAll()).block();
+    }
+
+    @Test
+    void testFindCurrentCycleWindowByUserIdAndMdn() {
+        long now = Instant.now().toEpochMilli();
+        Cycle current = new Cycle("6671d6f6d518422008b3d9fc", MDN, daysAgo(1), daysAgo(-1), USER_ID);
+        Cycle previous = new Cycle("6671d6f6d518422008b3d9fd", MDN, daysAgo(31), daysAgo(2), USER_ID);
+        cycleRepository.saveAll(List.of(current, previous)).blockLast();
+
+        StepVerifier.create(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(USER_ID, MDN, now))
+                .expectNext(new CycleWindow(current.getId(), current.getStartDate(), current.getEndDate()))
+                .verifyComplete();
+        StepVerifier.create(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(USER_ID, "0000000000", now))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindCycleWindowsByUserIdAndMdn_OrderedByStartDateDesc() {
+        Cycle oldest = new Cycle("6671d6f6d518422008b3d9fc", MDN, daysAgo(61), daysAgo(32), USER_ID);
+        Cycle newest = new Cycle("6671d6f6d518422008b3d9fd", MDN, daysAgo(1), daysAgo(-1), USER_ID);
+        Cycle middle = new Cycle("6671d6f6d518422008b3d9fe", MDN, daysAgo(31), daysAgo(2), USER_ID);
+        cycleRepository.saveAll(List.of(oldest, newest, middle)).blockLast();
+
+        StepVerifier.create(cycleRepository.findCycleWindowsByUserIdAndMdn(USER_ID, MDN).map(CycleWindow::id))
+                .expectNext(newest.getId(), middle.getId(), oldest.getId())
+                .verifyComplete();
+        StepVerifier.create(cycleRepository.findCycleWindowPage(USER_ID, MDN, newest.getStartDate(), Limit.of(1))
+                        .map(CycleWindow::id))
+                .expectNext(middle.getId())
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindCurrentCycleWindows() {
+        Cycle cycle = new Cycle("6671d6f6d518422008b3d9fc", MDN, daysAgo(1), daysAgo(-1), USER_ID);
+        cycleRepository.save(cycle).block();
+
+        StepVerifier.create(cycleRepository.findCurrentCycleWindows(List.of(new LineInfo(USER_ID, MDN),
+                        new LineInfo(USER_ID, "0000000000")), Instant.now().toEpochMilli()))
+                .expectNext(new LineCycleWindow(cycle.getId(), USER_ID, MDN, cycle.getStartDate(), cycle.getEndDate()))
+                .verifyComplete();
+        StepVerifier.create(cycleRepository.findCurrentCycleWindows(List.of(), Instant.now().toEpochMilli()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindUsageAmounts_WithinWindowOrderedByUsageDateDesc() {
+        dailyUsageRepository.saveAll(List.of(
+                new DailyUsage(null, MDN, USER_ID, daysAgo(3), 100),
+                new DailyUsage(null, MDN, USER_ID, daysAgo(1), 300),
+                new DailyUsage(null, MDN, USER_ID, daysAgo(2), 200),
+                new DailyUsage(null, MDN, USER_ID, daysAgo(10), 50))).blockLast();
+
+        StepVerifier.create(dailyUsageRepository.findUsageAmounts(USER_ID, MDN, daysAgo(5), daysAgo(0))
+                        .map(UsageAmount::usedInMb))
+                .expectNext(300, 200, 100)
+                .verifyComplete();
+    }
+
+    private static long daysAgo(int days) {
+        return Instant.now().truncatedTo(ChronoUnit.DAYS).minus(days, ChronoUnit.DAYS).toEpochMilli();
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.index.IndexManager;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+@DataMongoTest
+@ActiveProfiles("reactive")
+@Testcontainers
+public class ReactiveUserRepositoryTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String OTHER_USER_ID = "6671d6f6d518422008b3d9fc";
+
+    @Autowired
+    ReactiveUserRepository userRepository;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // The unique email index is what rejects duplicates
+        new IndexManager(mongoTemplate).ensureIndexes();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll().block();
+    }
+
+    @Test
+    void testInsert_DuplicateEmailRejected() {
+        userRepository.insert(new User(USER_ID, "John", "Doe", "john.doe@example.com", "hash")).block();
+
+        StepVerifier.create(userRepository.insert(new User(OTHER_USER_ID, "Jane", "Doe", "john.doe@example.com",
+                        "hash")))
+                .verifyError(DuplicateKeyException.class);
+    }
+
+    @Test
+    void testUpdateFields_SetsOnlyGivenFields() {
+        userRepository.insert(new User(USER_ID, "John", "Doe", "john.doe@example.com", "hash")).block();
+
+        StepVerifier.create(userRepository.updateFields(USER_ID, Map.of("lastName", "Smith")))
+                .assertNext(user -> {
+                    Assertions.assertThat(user.getFirstName()).isEqualTo("John");
+                    Assertions.assertThat(user.getLastName()).isEqualTo("Smith");
+                    Assertions.assertThat(user.getPassword()).isEqualTo("hash");
+                })
+                .verifyComplete();
+        StepVerifier.create(userRepository.updateFields(OTHER_USER_ID, Map.of("lastName", "Smith")))
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdatePasswordIfUnchanged() {
+        userRepository.insert(new User(USER_ID, "John", "Doe", "john.doe@example.com", "hash")).block();
+
+        StepVerifier.create(userRepository.updatePasswordIfUnchanged(USER_ID, "other", "newHash"))
+                .expectNext(0L)
+                .verifyComplete();
+        StepVerifier.create(userRepository.updatePasswordIfUnchanged(USER_ID, "hash", "newHash")
+                        .then(userRepository.findByEmail("john.doe@example.com")))
+                .expectNextMatches(user -> user.getPassword().equals("newHash"))
+                .verifyComplete();
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.usmobile.userManagement.repository;
+
+import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.model.WriteFailure;
+import com.usmobile.userManagement.index.IndexManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@DataMongoTest
+@Testcontainers
+public class UserRepositoryTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String OTHER_USER_ID = "6671d6f6d518422008b3d9fc";
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // The unique email index is what rejects duplicates
+        new IndexManager(mongoTemplate).ensureIndexes();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testInsert_DuplicateEmailRejected() {
+        userRepository.insert(new User(USER_ID, "John", "Doe", "john.doe@example.com", "hash"));
+
+        Assertions.assertThrows(DuplicateKeyException.class, () -> userRepository.insert(
+                new User("Jane", "Doe", "john.doe@example.com", "hash")));
+        Assertions.assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    void testUpdateFields_SetsOnlyGivenFields() {
+        userRepository.insert(new User(USER_ID, "John", "Doe", "john.doe@example.com", "hash"));
+
+        Optional<User> updated = userRepository.updateFields(USER_ID, Map.of("firstName", "Jane",
+                "email", "jane.doe@example.com"));
+
+        Assertions.assertTrue(updated.isPresent());
+        Assertions.assertEquals("Jane", updated.get().getFirstName());
+        Assertions.assertEquals("Doe", updated.get().getLastName());
+        Assertions.assertEquals("jane.doe@example.com", updated.get().getEmail());
+        Assertions.assertEquals("hash", updated.get().getPassword());
+        Assertions.assertEquals("jane.doe@example.com", userRepository.findById(USER_ID).orElseThrow().getEmail());
+    }
+
+    @Test
+    void testUpdateFields_UnknownId() {
+        Assertions.assertTrue(userRepository.updateFields(USER_ID, Map.of("firstName", "Jane")).isEmpty());
+        Assertions.assertEquals(0, userRepository.count());
+    }
+
+    @Test
+    void testUpdateFields_EmailOfAnotherUserRejected() {
+        userRepository.insert(new User(USER_ID, "John", "Doe", "john.doe@example.com", "hash"));
+        userRepository.insert(new User(OTHER_USER_ID, "Jane", "Doe", "jane.doe@example.com", "hash"));
+
+        Assertions.assertThrows(DuplicateKeyException.class, () -> userRepository.updateFields(OTHER_USER_ID,
+                Map.of("email", "john.doe@example.com")));
+        Assertions.assertEquals("jane.doe@example.com",
+                userRepository.findById(OTHER_USER_ID).orElseThrow().getEmail());
+    }
+
+    @Test
+    void testFindExistingEmails() {
+        userRepository.insert(new User(USER_ID, "John", "Doe", "john.doe@example.com", "hash"));
+
+        Assertions.assertEquals(Set.of("john.doe@example.com"), userRepository.findExistingEmails(
+                List.of("john.doe@example.com", "jane.doe@example.com")));
+        Assertions.assertEquals(Set.of(), userRepository.findExistingEmails(List.of()));
+    }
+
+    @Test
+    void testInsertAll_DuplicateDoesNotStopTheOthers() {
+        userRepository.insert(new User(USER_ID, "John", "Doe", "john.doe@example.com", "hash"));
+
+        Map<Integer, WriteFailure> failures = userRepository.insertAll(List.of(
+                new User("Jane", "Doe", "jane.doe@example.com", "hash"),
+                new User("John", "Doe", "john.doe@example.com", "hash"),
+                new User("Jim", "Doe", "jim.doe@example.com", "hash")));
+
+        Assertions.assertEquals(Set.of(1), failures.keySet());
+        Assertions.assertTrue(failures.get(1).duplicateKey());
+        Assertions.assertTrue(failures.get(1).message().contains("E11000"));
+        Assertions.assertEquals(3, userRepository.count());
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.usmobile.userManagement.security;
+
+import com.usmobile.userManagement.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class OffloadingPasswordEncoderTest {
+
+    private MeterRegistry meterRegistry;
+
+    private OffloadingPasswordEncoder passwordEncoder;
+
+    private final CountDownLatch hashing = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordEncoder.close();
+    }
+
+    @Test
+    void encode_HashedOnHashingThread() {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        passwordEncoder = new OffloadingPasswordEncoder(new ThreadCapturingEncoder(bcrypt), 1, 1,
+                Duration.ofSeconds(5), meterRegistry);
+
+        String hash = passwordEncoder.encode("password123");
+
+        Assertions.assertThat(hash).startsWith("password-hashing-1:");
+        Assertions.assertThat(bcrypt.matches("password123", hash.substring("password-hashing-1:".length()))).isTrue();
+        Assertions.assertThat(meterRegistry.get("password.hashing.duration").timer().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("password.hashing.wait").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void matches_VerifiedOnHashingThread() {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        passwordEncoder = new OffloadingPasswordEncoder(bcrypt, 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+        Assertions.assertThat(passwordEncoder.matches("password123", bcrypt.encode("password123"))).isTrue();
+        Assertions.assertThat(passwordEncoder.matches("wrong-password", bcrypt.encode("password123"))).isFalse();
+        Assertions.assertThat(meterRegistry.get("password.hashing.duration").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void encode_WhenQueueIsFull_RequestIsShed() throws Exception {
+        passwordEncoder = new OffloadingPasswordEncoder(new BlockingEncoder(), 1, 1, Duration.ofSeconds(5),
+                meterRegistry);
+        // First hash occupies the only thread, second one waits in the only queue slot
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("first"));
+        Assertions.assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("second"));
+        while (meterRegistry.get("password.hashing.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        Assertions.assertThatThrownBy(() -> passwordEncoder.encode("third"))
+                .isInstanceOf(ServiceOverloadedException.class);
+        Assertions.assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("password.hashing.active").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        Assertions.assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        Assertions.assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+    }
+
+    @Test
+    void encode_WhenHashIsNotDoneWithinTimeout_RequestIsShed() {
+        passwordEncoder = new OffloadingPasswordEncoder(new BlockingEncoder(), 1, 1, Duration.ofMillis(50),
+                meterRegistry);
+
+        Assertions.assertThatThrownBy(() -> passwordEncoder.encode("password123"))
+                .isInstanceOf(ServiceOverloadedException.class);
+        Assertions.assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void encode_DelegateFailureIsPropagated() {
+        passwordEncoder = new OffloadingPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1, Duration.ofSeconds(5),
+                meterRegistry);
+
+        Assertions.assertThatThrownBy(() -> passwordEncoder.encode(null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Prefixes the hash with the name of the thread it was computed on
+     */
+    private record ThreadCapturingEncoder(PasswordEncoder delegate) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return Thread.currentThread().getName() + ":" + delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+    }
+
+    /**
+     * Returns the raw password once released
+     */
+    private class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hashing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.usmobile.userManagement.security;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class PasswordHashCalibratorTest {
+
+    @Test
+    void bcryptStrength_NeverBelowMinimum() {
+        Assertions.assertThat(PasswordHashCalibrator.bcryptStrength(Duration.ofNanos(1)))
+                .isEqualTo(PasswordHashCalibrator.MIN_BCRYPT_STRENGTH);
+    }
+
+    @Test
+    void bcryptStrength_NeverAboveMaximum() {
+        Assertions.assertThat(PasswordHashCalibrator.bcryptStrength(Duration.ofDays(1)))
+                .isEqualTo(PasswordHashCalibrator.MAX_BCRYPT_STRENGTH);
+    }
+
+    @Test
+    void bcryptStrength_GrowsWithTargetLatency() {
+        int fast = PasswordHashCalibrator.bcryptStrength(Duration.ofMillis(50));
+        int slow = PasswordHashCalibrator.bcryptStrength(Duration.ofMillis(800));
+
+        Assertions.assertThat(slow).isGreaterThanOrEqualTo(fast);
+    }
+
+    @Test
+    void argon2Iterations_WithinBounds() {
+        Assertions.assertThat(PasswordHashCalibrator.argon2Iterations(1024, Duration.ofNanos(1)))
+                .isEqualTo(PasswordHashCalibrator.MIN_ARGON2_ITERATIONS);
+        Assertions.assertThat(PasswordHashCalibrator.argon2Iterations(1024, Duration.ofDays(1)))
+                .isEqualTo(PasswordHashCalibrator.MAX_ARGON2_ITERATIONS);
+    }
+
+}
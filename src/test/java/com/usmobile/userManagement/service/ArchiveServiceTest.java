@@ -0,0 +1,160 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.entity.ArchivedCycle;
+import com.usmobile.userManagement.entity.ArchivedDailyUsage;
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.DailyUsageBucket;
+import com.usmobile.userManagement.index.IndexManager;
+import com.usmobile.userManagement.model.ArchiveResult;
+import com.usmobile.userManagement.repository.ArchivedCycleRepository;
+import com.usmobile.userManagement.repository.DailyUsageStorageMode;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@DataMongoTest
+@Testcontainers
+public class ArchiveServiceTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final long DAY = 86400000L;
+    // 2024-06-01T00:00:00Z
+    private static final long JUNE = 1717200000000L;
+    private static final long HORIZON = JUNE + 40 * DAY;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ArchivedCycleRepository archivedCycleRepository;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    private ArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        new IndexManager(mongoTemplate).ensureIndexes();
+        archiveService = new ArchiveService(mongoTemplate, DailyUsageStorageMode.COLLECTION, false,
+                Duration.ofDays(365), Duration.ofDays(1), 2, Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        List.of(Cycle.class, DailyUsage.class, DailyUsageBucket.class, ArchivedCycle.class, ArchivedDailyUsage.class)
+                .forEach(entity -> mongoTemplate.remove(new Query(), entity));
+    }
+
+    @Test
+    void archive_MovesTheCyclesAndUsageOlderThanTheHorizon() {
+        Cycle june = mongoTemplate.insert(new Cycle(null, MDN, JUNE, JUNE + 30 * DAY - 1, USER_ID));
+        // Spans the horizon, neither the cycle nor its usage are archived
+        mongoTemplate.insert(new Cycle(null, MDN, JUNE + 30 * DAY, JUNE + 60 * DAY - 1, USER_ID));
+        saveDailyUsage(JUNE, 100);
+        saveDailyUsage(JUNE + DAY, 200);
+        saveDailyUsage(JUNE + 29 * DAY, 300);
+        saveDailyUsage(JUNE + 31 * DAY, 400);
+        saveDailyUsage(JUNE + 50 * DAY, 500);
+
+        ArchiveResult result = archiveService.archive(HORIZON);
+
+        Assertions.assertThat(result.cycles()).isEqualTo(1);
+        Assertions.assertThat(result.dailyUsage()).isEqualTo(3);
+        Assertions.assertThat(result.keptDailyUsage()).isEqualTo(1);
+        Assertions.assertThat(mongoTemplate.findAll(Cycle.class)).extracting(Cycle::getStartDate)
+                .containsExactly(JUNE + 30 * DAY);
+        Assertions.assertThat(mongoTemplate.findAll(DailyUsage.class)).extracting(DailyUsage::getUsageDate)
+                .containsExactlyInAnyOrder(JUNE + 31 * DAY, JUNE + 50 * DAY);
+        Assertions.assertThat(archivedCycleRepository.findCycleWindowsByUserIdAndMdn(USER_ID, MDN))
+                .containsExactly(new CycleWindow(june.getId(), JUNE, JUNE + 30 * DAY - 1));
+        List<ArchivedDailyUsage> archivedUsage = mongoTemplate.findAll(ArchivedDailyUsage.class);
+        Assertions.assertThat(archivedUsage).hasSize(1);
+        Assertions.assertThat(archivedUsage.get(0).getMonth()).isEqualTo(JUNE);
+        Assertions.assertThat(archivedUsage.get(0).getDays()).isEqualTo(Map.of(
+                String.valueOf(JUNE), 100, String.valueOf(JUNE + DAY), 200, String.valueOf(JUNE + 29 * DAY), 300));
+    }
+
+    @Test
+    void archive_AddsLaterDaysToTheMonthOfTheLine() {
+        saveDailyUsage(JUNE, 100);
+        archiveService.archive(HORIZON);
+        saveDailyUsage(JUNE + DAY, 200);
+        // Usage of another month
+        saveDailyUsage(JUNE - DAY, 50);
+
+        ArchiveResult result = archiveService.archive(HORIZON);
+
+        Assertions.assertThat(result.dailyUsage()).isEqualTo(2);
+        Assertions.assertThat(mongoTemplate.count(new Query(), DailyUsage.class)).isZero();
+        Map<Long, Map<String, Integer>> months = mongoTemplate.findAll(ArchivedDailyUsage.class).stream()
+                .collect(Collectors.toMap(ArchivedDailyUsage::getMonth, ArchivedDailyUsage::getDays));
+        Assertions.assertThat(months.get(JUNE)).containsOnlyKeys(String.valueOf(JUNE), String.valueOf(JUNE + DAY));
+        Assertions.assertThat(months).hasSize(2);
+    }
+
+    @Test
+    void archive_Bucketed_MovesTheBucketsWithTheirCycles() {
+        archiveService = new ArchiveService(mongoTemplate, DailyUsageStorageMode.BUCKETED, false,
+                Duration.ofDays(365), Duration.ofDays(1), 2, Duration.ZERO);
+        Cycle june = mongoTemplate.insert(new Cycle(null, MDN, JUNE, JUNE + 30 * DAY - 1, USER_ID));
+        Cycle july = mongoTemplate.insert(new Cycle(null, MDN, JUNE + 30 * DAY, JUNE + 60 * DAY - 1, USER_ID));
+        mongoTemplate.insert(new DailyUsageBucket(june.getId(), MDN, USER_ID, june.getStartDate(), june.getEndDate(),
+                Map.of(String.valueOf(JUNE), 100, String.valueOf(JUNE + 29 * DAY), 300)));
+        mongoTemplate.insert(new DailyUsageBucket(july.getId(), MDN, USER_ID, july.getStartDate(), july.getEndDate(),
+                Map.of(String.valueOf(JUNE + 31 * DAY), 400)));
+
+        ArchiveResult result = archiveService.archive(HORIZON);
+
+        Assertions.assertThat(result.cycles()).isEqualTo(1);
+        Assertions.assertThat(result.dailyUsage()).isEqualTo(2);
+        Assertions.assertThat(mongoTemplate.findAll(DailyUsageBucket.class)).extracting(DailyUsageBucket::getId)
+                .containsExactly(july.getId());
+        List<ArchivedDailyUsage> archivedUsage = mongoTemplate.findAll(ArchivedDailyUsage.class);
+        Assertions.assertThat(archivedUsage).hasSize(1);
+        Assertions.assertThat(archivedUsage.get(0).getMonth()).isEqualTo(JUNE);
+        Assertions.assertThat(archivedUsage.get(0).getDays()).isEqualTo(Map.of(
+                String.valueOf(JUNE), 100, String.valueOf(JUNE + 29 * DAY), 300));
+    }
+
+    @Test
+    void archive_NothingOlderThanTheHorizon() {
+        mongoTemplate.insert(new Cycle(null, MDN, HORIZON, HORIZON + 30 * DAY - 1, USER_ID));
+        saveDailyUsage(HORIZON, 100);
+
+        ArchiveResult result = archiveService.archive(HORIZON);
+
+        Assertions.assertThat(result.cycles()).isZero();
+        Assertions.assertThat(result.dailyUsage()).isZero();
+        Assertions.assertThat(mongoTemplate.count(new Query(), Cycle.class)).isEqualTo(1);
+        Assertions.assertThat(mongoTemplate.count(new Query(), DailyUsage.class)).isEqualTo(1);
+    }
+
+    private void saveDailyUsage(long usageDate, int usedInMb) {
+        mongoTemplate.insert(new DailyUsage(null, MDN, USER_ID, usageDate, usedInMb));
+    }
+
+}
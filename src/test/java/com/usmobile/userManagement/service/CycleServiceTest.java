@@ -1,28 +1,46 @@
 package com.usmobile.userManagement.service;
 
-import com.usmobile.userManagement.entity.Cycle;
-import com.usmobile.userManagement.entity.DailyUsage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usmobile.userManagement.cache.ActiveCycleCache;
+import com.usmobile.userManagement.cache.InMemoryRemoteCacheTier;
+import com.usmobile.userManagement.cache.UsageReportCache;
 import com.usmobile.userManagement.exception.NoCyclesFoundException;
+import com.usmobile.userManagement.model.CycleHistoryPage;
 import com.usmobile.userManagement.model.CycleInfo;
 import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.model.LineUsageReport;
+import com.usmobile.userManagement.repository.ArchivedCycleRepository;
 import com.usmobile.userManagement.repository.CycleRepository;
 import com.usmobile.userManagement.repository.DailyUsageRepository;
+import com.usmobile.userManagement.repository.DailyUsageStorageMode;
+import com.usmobile.userManagement.repository.projection.CycleUsage;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.LineUsageAmount;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import com.usmobile.userManagement.util.UsageDays;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 public class CycleServiceTest {
@@ -33,10 +51,12 @@ public class CycleServiceTest {
     @Mock
     private CycleRepository cycleRepository;
 
+    @Mock
+    private ArchivedCycleRepository archivedCycleRepository;
+
     @Mock
     private DailyUsageRepository dailyUsageRepository;
 
-    @InjectMocks
     private CycleService cycleService;
 
     @TestConfiguration
@@ -47,9 +67,14 @@ public class CycleServiceTest {
         }
     }
 
+    @BeforeEach
+    void setUp() {
+        cycleService = cycleService(ReportQueryMode.TWO_QUERY);
+    }
+
     @Test
     void getDailyUsageReport_WhenNoCyclesFound() {
-        Mockito.when(cycleRepository.findCurrentCycleByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
                 .thenReturn(Optional.empty());
         Assertions.assertThatThrownBy(() -> cycleService.getDailyUsageReport(USER_ID, MDN))
                 .isInstanceOf(NoCyclesFoundException.class)
@@ -58,16 +83,15 @@ public class CycleServiceTest {
 
     @Test
     void getDailyUsageReport_WhenCyclesFound() {
-        Cycle cycle = new Cycle();
-        cycle.setStartDate(Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli());
-        cycle.setEndDate(Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
-        Mockito.when(cycleRepository.findCurrentCycleByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+        CycleWindow cycle = new CycleWindow("1", Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
                 .thenReturn(Optional.of(cycle));
-        List<DailyUsage> dailyUsages = List.of(new DailyUsage(USER_ID,MDN,USER_ID,Instant.now().minus(1, ChronoUnit.DAYS).toEpochMilli(), 100),
-                new DailyUsage(USER_ID,MDN,USER_ID,Instant.now().toEpochMilli(), 128));
+        List<UsageAmount> usageAmounts = List.of(new UsageAmount(Instant.now().minus(1, ChronoUnit.DAYS).toEpochMilli(), 100),
+                new UsageAmount(Instant.now().toEpochMilli(), 128));
         Mockito.when(dailyUsageRepository
-                        .findByUserIdAndMdnAndUsageDateBetweenOrderByUsageDateDesc(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
-                .thenReturn(dailyUsages);
+                        .findUsageAmounts(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(usageAmounts);
         List<DailyUsageReport> dailyUsageReports = cycleService.getDailyUsageReport(USER_ID, MDN);
         Assertions.assertThat(dailyUsageReports).isNotEmpty();
         Assertions.assertThat(dailyUsageReports).hasSize(2);
@@ -77,21 +101,163 @@ public class CycleServiceTest {
 
     @Test
     void getDailyUsageReport_WhenCyclesFoundAndNoDailyUsages() {
-        Cycle cycle = new Cycle();
-        cycle.setStartDate(Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli());
-        cycle.setEndDate(Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
-        Mockito.when(cycleRepository.findCurrentCycleByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+        CycleWindow cycle = new CycleWindow("1", Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
                 .thenReturn(Optional.of(cycle));
         Mockito.when(dailyUsageRepository
-                        .findByUserIdAndMdnAndUsageDateBetweenOrderByUsageDateDesc(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),Mockito.any() ))
+                        .findUsageAmounts(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
                 .thenReturn(List.of());
         List<DailyUsageReport> dailyUsageReports = cycleService.getDailyUsageReport(USER_ID, MDN);
         Assertions.assertThat(dailyUsageReports).isEmpty();
     }
 
+    @Test
+    void getDailyUsageReport_Bucketed_ReadsTheCurrentCycleBucket() {
+        cycleService = cycleService(ReportQueryMode.TWO_QUERY, DailyUsageStorageMode.BUCKETED);
+        CycleWindow cycle = new CycleWindow("1", Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        long today = Instant.now().toEpochMilli();
+        Mockito.when(dailyUsageRepository.findCurrentCycleUsage(Mockito.eq(USER_ID), Mockito.eq(MDN), Mockito.any()))
+                .thenReturn(Optional.of(new CycleUsage(cycle, List.of(new UsageAmount(today, 128)))));
+
+        Assertions.assertThat(cycleService.getDailyUsageReport(USER_ID, MDN))
+                .containsExactly(new DailyUsageReport(new Date(today), 128));
+        // The cycle window of the bucket is cached, no cycle is looked up
+        Mockito.verifyNoInteractions(cycleRepository);
+        Mockito.when(dailyUsageRepository.findUsageAmounts(USER_ID, MDN, UsageDays.startOfDay(cycle.startDate()),
+                cycle.endDate()))
+                .thenReturn(List.of(new UsageAmount(today, 200)));
+        Assertions.assertThat(cycleService.getDailyUsageReport(USER_ID, MDN))
+                .containsExactly(new DailyUsageReport(new Date(today), 200));
+        Mockito.verify(dailyUsageRepository).findCurrentCycleUsage(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getDailyUsageReport_Bucketed_WithoutBucketLooksUpTheCycle() {
+        cycleService = cycleService(ReportQueryMode.TWO_QUERY, DailyUsageStorageMode.BUCKETED);
+        Mockito.when(dailyUsageRepository.findCurrentCycleUsage(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.empty());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.empty());
+
+        Assertions.assertThatThrownBy(() -> cycleService.getDailyUsageReport(USER_ID, MDN))
+                .isInstanceOf(NoCyclesFoundException.class);
+    }
+
+    @Test
+    void getDailyUsageReport_AggregationMode_WhenNoCyclesFound() {
+        cycleService = cycleService(ReportQueryMode.AGGREGATION);
+        Mockito.when(cycleRepository.findCurrentCycleReport(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.empty());
+        Assertions.assertThatThrownBy(() -> cycleService.getDailyUsageReport(USER_ID, MDN))
+                .isInstanceOf(NoCyclesFoundException.class)
+                .hasMessage("No current cycle found for this user: " + USER_ID + " and mdn: "+ MDN + ".");
+    }
+
+    @Test
+    void getDailyUsageReport_AggregationMode_WhenCyclesFound() {
+        cycleService = cycleService(ReportQueryMode.AGGREGATION);
+        List<DailyUsageReport> reports = List.of(new DailyUsageReport(new Date(), 128),
+                new DailyUsageReport(Date.from(Instant.now().minus(1, ChronoUnit.DAYS)), 100));
+        Mockito.when(cycleRepository.findCurrentCycleReport(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(reports));
+        List<DailyUsageReport> dailyUsageReports = cycleService.getDailyUsageReport(USER_ID, MDN);
+        Assertions.assertThat(dailyUsageReports).isEqualTo(reports);
+        Mockito.verifyNoInteractions(dailyUsageRepository);
+        Mockito.verify(cycleRepository, Mockito.never())
+                .findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getDailyUsageReport_ParallelMode_KeepsUsageWithinCycle() {
+        cycleService = cycleService(ReportQueryMode.PARALLEL);
+        CycleWindow cycle = new CycleWindow("1", Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(cycle));
+        // Usage since the speculative start includes the end of the previous cycle
+        List<UsageAmount> usageAmounts = List.of(new UsageAmount(Instant.now().toEpochMilli(), 128),
+                new UsageAmount(Instant.now().minus(1, ChronoUnit.DAYS).toEpochMilli(), 100),
+                new UsageAmount(Instant.now().minus(15, ChronoUnit.DAYS).toEpochMilli(), 512));
+        Mockito.when(dailyUsageRepository
+                        .findUsageAmounts(Mockito.eq(USER_ID), Mockito.eq(MDN), Mockito.any(), Mockito.eq(Long.MAX_VALUE)))
+                .thenReturn(usageAmounts);
+        List<DailyUsageReport> dailyUsageReports = cycleService.getDailyUsageReport(USER_ID, MDN);
+        Assertions.assertThat(dailyUsageReports).extracting(DailyUsageReport::dailyUsage).containsExactly(128, 100);
+        Mockito.verify(dailyUsageRepository, Mockito.times(1))
+                .findUsageAmounts(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getDailyUsageReport_ParallelMode_KeepsUsageOfTheDayTheCycleStarted() {
+        cycleService = cycleService(ReportQueryMode.PARALLEL);
+        // The cycle started 15 hours into a day, the usage of that day is keyed by the start of the day
+        long firstDay = UsageDays.startOfDay(Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli());
+        CycleWindow cycle = new CycleWindow("1", firstDay + Duration.ofHours(15).toMillis(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(cycle));
+        Mockito.when(dailyUsageRepository
+                        .findUsageAmounts(Mockito.eq(USER_ID), Mockito.eq(MDN), Mockito.any(), Mockito.eq(Long.MAX_VALUE)))
+                .thenReturn(List.of(new UsageAmount(firstDay, 100),
+                        new UsageAmount(firstDay - UsageDays.DAY_MILLIS, 512)));
+        List<DailyUsageReport> dailyUsageReports = cycleService.getDailyUsageReport(USER_ID, MDN);
+        Assertions.assertThat(dailyUsageReports).extracting(DailyUsageReport::dailyUsage).containsExactly(100);
+    }
+
+    @Test
+    void getDailyUsageReport_ParallelMode_CycleOlderThanSpeculativeWindow() {
+        cycleService = cycleService(ReportQueryMode.PARALLEL);
+        CycleWindow cycle = new CycleWindow("1", Instant.now().minus(40, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(cycle));
+        Mockito.when(dailyUsageRepository
+                        .findUsageAmounts(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of());
+        Mockito.when(dailyUsageRepository.findUsageAmounts(USER_ID, MDN, UsageDays.startOfDay(cycle.startDate()),
+                cycle.endDate()))
+                .thenReturn(List.of(new UsageAmount(Instant.now().minus(35, ChronoUnit.DAYS).toEpochMilli(), 100)));
+        List<DailyUsageReport> dailyUsageReports = cycleService.getDailyUsageReport(USER_ID, MDN);
+        Assertions.assertThat(dailyUsageReports).extracting(DailyUsageReport::dailyUsage).containsExactly(100);
+        Mockito.verify(dailyUsageRepository).findUsageAmounts(USER_ID, MDN, UsageDays.startOfDay(cycle.startDate()),
+                cycle.endDate());
+    }
+
+    @Test
+    void getDailyUsageReport_ParallelMode_WhenNoCyclesFound() {
+        cycleService = cycleService(ReportQueryMode.PARALLEL);
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.empty());
+        Assertions.assertThatThrownBy(() -> cycleService.getDailyUsageReport(USER_ID, MDN))
+                .isInstanceOf(NoCyclesFoundException.class)
+                .hasMessage("No current cycle found for this user: " + USER_ID + " and mdn: "+ MDN + ".");
+    }
+
+    @Test
+    void getDailyUsageReport_ParallelMode_CachedCycleIsNotSpeculated() {
+        cycleService = cycleService(ReportQueryMode.PARALLEL);
+        CycleWindow cycle = new CycleWindow("1", Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli(),
+                Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli());
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(cycle));
+        Mockito.when(dailyUsageRepository
+                        .findUsageAmounts(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of());
+        cycleService.getDailyUsageReport(USER_ID, MDN);
+        Mockito.clearInvocations(dailyUsageRepository);
+
+        cycleService.getDailyUsageReport(USER_ID, MDN);
+
+        Mockito.verify(dailyUsageRepository).findUsageAmounts(USER_ID, MDN, UsageDays.startOfDay(cycle.startDate()),
+                cycle.endDate());
+        Mockito.verifyNoMoreInteractions(dailyUsageRepository);
+    }
+
     @Test
     void getCycleHistory_WhenNoCyclesFound() {
-        Mockito.when(cycleRepository.findByUserIdAndMdnOrderByStartDateDesc(Mockito.any(), Mockito.any()))
+        Mockito.when(cycleRepository.findCycleWindowsByUserIdAndMdn(Mockito.any(), Mockito.any()))
                 .thenReturn(List.of());
         Assertions.assertThatThrownBy(() -> cycleService.getCycleHistory(USER_ID, MDN))
                 .isInstanceOf(NoCyclesFoundException.class)
@@ -100,23 +266,13 @@ public class CycleServiceTest {
 
     @Test
     void getCycleHistory_WhenCyclesFound() {
-        Cycle cycle1 = new Cycle();
         Long cycle1StartDate = Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli();
         Long cycle1EndDate = Instant.now().plus(20, ChronoUnit.DAYS).toEpochMilli();
-        cycle1.setStartDate(cycle1StartDate);
-        cycle1.setEndDate(cycle1EndDate);
-        cycle1.setId("1");
-        cycle1.setUserId(USER_ID);
-        cycle1.setMdn(MDN);
-        Cycle cycle2 = new Cycle();
+        CycleWindow cycle1 = new CycleWindow("1", cycle1StartDate, cycle1EndDate);
         Long cycle2StartDate = Instant.now().minus(40, ChronoUnit.DAYS).toEpochMilli();
         Long cycle2EndDate = Instant.now().minus(10, ChronoUnit.DAYS).toEpochMilli();
-        cycle2.setStartDate(cycle2StartDate);
-        cycle2.setEndDate(cycle2EndDate);
-        cycle2.setId("2");
-        cycle2.setUserId(USER_ID);
-        cycle2.setMdn(MDN);
-        Mockito.when(cycleRepository.findByUserIdAndMdnOrderByStartDateDesc(Mockito.any(), Mockito.any()))
+        CycleWindow cycle2 = new CycleWindow("2", cycle2StartDate, cycle2EndDate);
+        Mockito.when(cycleRepository.findCycleWindowsByUserIdAndMdn(Mockito.any(), Mockito.any()))
                 .thenReturn(List.of(cycle1, cycle2));
         List<CycleInfo> cycleInfos = cycleService.getCycleHistory(USER_ID, MDN);
         Assertions.assertThat(cycleInfos).isNotEmpty();
@@ -129,4 +285,193 @@ public class CycleServiceTest {
         Assertions.assertThat(cycleInfos.get(1).endDate()).isEqualTo(new Date(cycle2EndDate));
     }
 
+    @Test
+    void getCycleHistoryPage_ReturnsCursorWhenMoreCyclesExist() {
+        CycleWindow cycle1 = new CycleWindow("1", 3000L, 3999L);
+        CycleWindow cycle2 = new CycleWindow("2", 2000L, 2999L);
+        CycleWindow cycle3 = new CycleWindow("3", 1000L, 1999L);
+        Mockito.when(cycleRepository.findCycleWindowPage(USER_ID, MDN, Long.MAX_VALUE, Limit.of(3)))
+                .thenReturn(List.of(cycle1, cycle2, cycle3));
+
+        CycleHistoryPage page = cycleService.getCycleHistoryPage(USER_ID, MDN, 2, null);
+
+        Assertions.assertThat(page.cycles()).extracting(CycleInfo::cycleId).containsExactly("1", "2");
+        Assertions.assertThat(page.nextCursor()).isEqualTo(2000L);
+    }
+
+    @Test
+    void getCycleHistoryPage_LastPageHasNoCursor() {
+        Mockito.when(cycleRepository.findCycleWindowPage(USER_ID, MDN, 2000L, Limit.of(3)))
+                .thenReturn(List.of(new CycleWindow("3", 1000L, 1999L)));
+
+        CycleHistoryPage page = cycleService.getCycleHistoryPage(USER_ID, MDN, 2, 2000L);
+
+        Assertions.assertThat(page.cycles()).extracting(CycleInfo::cycleId).containsExactly("3");
+        Assertions.assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getCycleHistoryPage_WhenNoCyclesFound() {
+        Mockito.when(cycleRepository.findCycleWindowPage(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of());
+        Assertions.assertThatThrownBy(() -> cycleService.getCycleHistoryPage(USER_ID, MDN, 2, null))
+                .isInstanceOf(NoCyclesFoundException.class)
+                .hasMessage(String.format("No cycles found for this user: %s and mdn: %s.", USER_ID, MDN));
+    }
+
+    @Test
+    void streamCycleHistory_ClosesRepositoryStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Mockito.when(cycleRepository.streamCycleWindowsByUserIdAndMdn(USER_ID, MDN))
+                .thenReturn(Stream.of(new CycleWindow("1", 3000L, 3999L), new CycleWindow("2", 2000L, 2999L))
+                        .onClose(() -> closed.set(true)));
+
+        try (Stream<CycleInfo> cycleInfos = cycleService.streamCycleHistory(USER_ID, MDN)) {
+            Assertions.assertThat(cycleInfos).extracting(CycleInfo::cycleId).containsExactly("1", "2");
+        }
+        Assertions.assertThat(closed).isTrue();
+    }
+
+    @Test
+    void streamCycleHistory_WhenNoCyclesFound() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Mockito.when(cycleRepository.streamCycleWindowsByUserIdAndMdn(USER_ID, MDN))
+                .thenReturn(Stream.<CycleWindow>empty().onClose(() -> closed.set(true)));
+
+        Assertions.assertThatThrownBy(() -> cycleService.streamCycleHistory(USER_ID, MDN))
+                .isInstanceOf(NoCyclesFoundException.class);
+        Assertions.assertThat(closed).isTrue();
+    }
+
+    @Test
+    void getCycleHistory_IncludesArchivedCycles() {
+        Mockito.when(cycleRepository.findCycleWindowsByUserIdAndMdn(USER_ID, MDN))
+                .thenReturn(List.of(new CycleWindow("3", 3000L, 3999L), new CycleWindow("2", 2000L, 2999L)));
+        // The second cycle is being archived and is still in the Cycle collection
+        Mockito.when(archivedCycleRepository.findCycleWindowsByUserIdAndMdn(USER_ID, MDN))
+                .thenReturn(List.of(new CycleWindow("2", 2000L, 2999L), new CycleWindow("1", 1000L, 1999L)));
+
+        List<CycleInfo> cycleInfos = cycleService.getCycleHistory(USER_ID, MDN);
+
+        Assertions.assertThat(cycleInfos).extracting(CycleInfo::cycleId).containsExactly("3", "2", "1");
+    }
+
+    @Test
+    void getCycleHistory_OnlyArchivedCycles() {
+        Mockito.when(cycleRepository.findCycleWindowsByUserIdAndMdn(USER_ID, MDN)).thenReturn(List.of());
+        Mockito.when(archivedCycleRepository.findCycleWindowsByUserIdAndMdn(USER_ID, MDN))
+                .thenReturn(List.of(new CycleWindow("1", 1000L, 1999L)));
+
+        Assertions.assertThat(cycleService.getCycleHistory(USER_ID, MDN)).extracting(CycleInfo::cycleId)
+                .containsExactly("1");
+    }
+
+    @Test
+    void getCycleHistoryPage_ContinuesInTheArchive() {
+        Mockito.when(cycleRepository.findCycleWindowPage(USER_ID, MDN, Long.MAX_VALUE, Limit.of(3)))
+                .thenReturn(List.of(new CycleWindow("3", 3000L, 3999L)));
+        Mockito.when(archivedCycleRepository.findCycleWindowPage(USER_ID, MDN, 3000L, Limit.of(2)))
+                .thenReturn(List.of(new CycleWindow("2", 2000L, 2999L), new CycleWindow("1", 1000L, 1999L)));
+
+        CycleHistoryPage page = cycleService.getCycleHistoryPage(USER_ID, MDN, 2, null);
+
+        Assertions.assertThat(page.cycles()).extracting(CycleInfo::cycleId).containsExactly("3", "2");
+        Assertions.assertThat(page.nextCursor()).isEqualTo(2000L);
+
+        Mockito.when(archivedCycleRepository.findCycleWindowPage(USER_ID, MDN, 2000L, Limit.of(3)))
+                .thenReturn(List.of(new CycleWindow("1", 1000L, 1999L)));
+
+        page = cycleService.getCycleHistoryPage(USER_ID, MDN, 2, 2000L);
+
+        Assertions.assertThat(page.cycles()).extracting(CycleInfo::cycleId).containsExactly("1");
+        Assertions.assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void streamCycleHistory_ArchivedCyclesFollowAndAreClosed() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Mockito.when(cycleRepository.streamCycleWindowsByUserIdAndMdn(USER_ID, MDN))
+                .thenReturn(Stream.of(new CycleWindow("2", 2000L, 2999L)));
+        Mockito.when(archivedCycleRepository.streamCycleWindowsByUserIdAndMdn(USER_ID, MDN))
+                .thenReturn(Stream.of(new CycleWindow("1", 1000L, 1999L)).onClose(() -> closed.set(true)));
+
+        try (Stream<CycleInfo> cycleInfos = cycleService.streamCycleHistory(USER_ID, MDN)) {
+            Assertions.assertThat(cycleInfos).extracting(CycleInfo::cycleId).containsExactly("2", "1");
+        }
+        Assertions.assertThat(closed).isTrue();
+    }
+
+    @Test
+    void streamCycleHistory_CycleBeingArchivedIsStreamedOnce() {
+        Mockito.when(cycleRepository.streamCycleWindowsByUserIdAndMdn(USER_ID, MDN))
+                .thenReturn(Stream.of(new CycleWindow("2", 2000L, 2999L), new CycleWindow("1", 1000L, 1999L)));
+        Mockito.when(archivedCycleRepository.streamCycleWindowsByUserIdAndMdn(USER_ID, MDN))
+                .thenReturn(Stream.of(new CycleWindow("1", 1000L, 1999L), new CycleWindow("0", 0L, 999L)));
+
+        try (Stream<CycleInfo> cycleInfos = cycleService.streamCycleHistory(USER_ID, MDN)) {
+            Assertions.assertThat(cycleInfos).extracting(CycleInfo::cycleId).containsExactly("2", "1", "0");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getDailyUsageReports_TwoQueriesForAllLines() {
+        LineInfo line1 = new LineInfo(USER_ID, MDN);
+        LineInfo line2 = new LineInfo(USER_ID, "0987654321");
+        LineInfo lineWithoutCycle = new LineInfo(USER_ID, "1111111111");
+        Mockito.when(cycleRepository.findCurrentCycleWindows(Mockito.any(), Mockito.any())).thenReturn(List.of(
+                new LineCycleWindow("1", USER_ID, MDN, 1000L, 9999L),
+                new LineCycleWindow("2", USER_ID, "0987654321", 2000L, 9999L)));
+        Mockito.when(dailyUsageRepository.findUsageAmountsWithinCycles(Mockito.any())).thenReturn(List.of(
+                new LineUsageAmount(USER_ID, MDN, 5000L, 30),
+                new LineUsageAmount(USER_ID, "0987654321", 4000L, 20),
+                new LineUsageAmount(USER_ID, MDN, 3000L, 10)));
+
+        List<LineUsageReport> reports = cycleService.getDailyUsageReports(List.of(line1, line2, lineWithoutCycle, line1));
+
+        Assertions.assertThat(reports).extracting(LineUsageReport::mdn).containsExactly(MDN, "0987654321", "1111111111");
+        Assertions.assertThat(reports.get(0).cycle().cycleId()).isEqualTo("1");
+        Assertions.assertThat(reports.get(0).dailyUsage()).containsExactly(
+                new DailyUsageReport(new Date(5000L), 30), new DailyUsageReport(new Date(3000L), 10));
+        Assertions.assertThat(reports.get(1).dailyUsage()).containsExactly(new DailyUsageReport(new Date(4000L), 20));
+        Assertions.assertThat(reports.get(2).cycle()).isNull();
+        Assertions.assertThat(reports.get(2).dailyUsage()).isEmpty();
+        ArgumentCaptor<List<LineCycleWindow>> cycles = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(dailyUsageRepository).findUsageAmountsWithinCycles(cycles.capture());
+        Assertions.assertThat(cycles.getValue()).extracting(LineCycleWindow::id).containsExactlyInAnyOrder("1", "2");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getDailyUsageReports_CachedActiveCyclesAreNotQueried() {
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.eq(USER_ID), Mockito.eq(MDN), Mockito.any()))
+                .thenReturn(Optional.of(new CycleWindow("1", 1000L, Long.MAX_VALUE - 1)));
+        Mockito.when(dailyUsageRepository.findUsageAmounts(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of());
+        // Caches the active cycle of the first line
+        cycleService.getDailyUsageReport(USER_ID, MDN);
+        Mockito.when(cycleRepository.findCurrentCycleWindows(Mockito.any(), Mockito.any())).thenReturn(List.of());
+
+        cycleService.getDailyUsageReports(List.of(new LineInfo(USER_ID, MDN), new LineInfo(USER_ID, "0987654321")));
+
+        ArgumentCaptor<List<LineInfo>> uncachedLines = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(cycleRepository).findCurrentCycleWindows(uncachedLines.capture(), Mockito.any());
+        Assertions.assertThat(uncachedLines.getValue()).containsExactly(new LineInfo(USER_ID, "0987654321"));
+    }
+
+    private CycleService cycleService(ReportQueryMode reportQueryMode) {
+        return cycleService(reportQueryMode, DailyUsageStorageMode.COLLECTION);
+    }
+
+    private CycleService cycleService(ReportQueryMode reportQueryMode, DailyUsageStorageMode storageMode) {
+        return new CycleService(cycleRepository, archivedCycleRepository, dailyUsageRepository,
+                new ActiveCycleCache(cycleRepository, true, 100), disabledUsageReportCache(), reportQueryMode,
+                Duration.ofDays(31), 2, false, storageMode);
+    }
+
+    private static UsageReportCache disabledUsageReportCache() {
+        return new UsageReportCache(new InMemoryRemoteCacheTier(), new ObjectMapper(), false,
+                Duration.ofSeconds(5), 100, Duration.ofMinutes(15));
+    }
+
 }
@@ -0,0 +1,185 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.entity.Cycle;
+import com.usmobile.userManagement.entity.CycleUsageSummary;
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.exception.NoCyclesFoundException;
+import com.usmobile.userManagement.model.CycleUsageSummaryResponse;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.repository.CycleUsageSummaryRepository;
+import org.assertj.core.api.Assertions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeDeleteEvent;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@ExtendWith(SpringExtension.class)
+public class CycleUsageSummaryServiceTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final String CYCLE_ID = "6671d6cde518422008b3d9a7";
+
+    @Mock
+    private CycleUsageSummaryRepository cycleUsageSummaryRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private CycleUsageSummaryService cycleUsageSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(mongoTemplate.getCollectionName(Cycle.class)).thenReturn("Cycle");
+        Mockito.when(mongoTemplate.getCollectionName(DailyUsage.class)).thenReturn("Daily_Usage");
+        cycleUsageSummaryService = new CycleUsageSummaryService(cycleUsageSummaryRepository, mongoTemplate);
+    }
+
+    @Test
+    void getCycleUsageSummary_WhenSummaryExists() {
+        Mockito.when(cycleUsageSummaryRepository.findByIdAndUserIdAndMdn(CYCLE_ID, USER_ID, MDN))
+                .thenReturn(Optional.of(summary()));
+
+        CycleUsageSummaryResponse response = cycleUsageSummaryService.getCycleUsageSummary(USER_ID, MDN, CYCLE_ID);
+
+        Assertions.assertThat(response).isEqualTo(new CycleUsageSummaryResponse(CYCLE_ID, new Date(1000L),
+                new Date(2000L), 400, 2, new Date(1500L), 300, new Date(1600L)));
+        Mockito.verify(cycleUsageSummaryRepository, Mockito.never())
+                .refreshSummary(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getCycleUsageSummary_BackfillsMissingSummary() {
+        Mockito.when(cycleUsageSummaryRepository.findByIdAndUserIdAndMdn(CYCLE_ID, USER_ID, MDN))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(summary()));
+
+        CycleUsageSummaryResponse response = cycleUsageSummaryService.getCycleUsageSummary(USER_ID, MDN, CYCLE_ID);
+
+        Assertions.assertThat(response.totalMb()).isEqualTo(400);
+        Mockito.verify(cycleUsageSummaryRepository).refreshSummary(USER_ID, MDN, CYCLE_ID);
+    }
+
+    @Test
+    void getCycleUsageSummary_WhenCycleNotFound() {
+        Mockito.when(cycleUsageSummaryRepository.findByIdAndUserIdAndMdn(CYCLE_ID, USER_ID, MDN))
+                .thenReturn(Optional.empty());
+
+        Assertions.assertThatThrownBy(() -> cycleUsageSummaryService.getCycleUsageSummary(USER_ID, MDN, CYCLE_ID))
+                .isInstanceOf(NoCyclesFoundException.class)
+                .hasMessage("No cycle " + CYCLE_ID + " found for this user: " + USER_ID + " and mdn: " + MDN + ".");
+    }
+
+    @Test
+    void usageWritten_FailureIsNotThrown() {
+        List<LineUsageDay> days = List.of(new LineUsageDay(USER_ID, MDN, 1718755200000L));
+        Mockito.doThrow(new DataAccessResourceFailureException("connection reset"))
+                .when(cycleUsageSummaryRepository).refreshSummaries(days);
+
+        cycleUsageSummaryService.usageWritten(days);
+
+        Mockito.verify(cycleUsageSummaryRepository).refreshSummaries(days);
+    }
+
+    @Test
+    void usageIncremented_FailureIsNotThrown() {
+        List<UsageRecord> records = List.of(new UsageRecord(USER_ID, MDN, new Date(1718755200000L), 10));
+        Mockito.doThrow(new DataAccessResourceFailureException("connection reset"))
+                .when(cycleUsageSummaryRepository).incrementSummaries(records);
+
+        cycleUsageSummaryService.usageIncremented(records);
+
+        Mockito.verify(cycleUsageSummaryRepository).incrementSummaries(records);
+    }
+
+    @Test
+    void onMongoMappingEvent_SavedDailyUsageRefreshesItsDay() {
+        DailyUsage dailyUsage = new DailyUsage("1", MDN, USER_ID, 1718755200000L, 100);
+
+        cycleUsageSummaryService.onMongoMappingEvent(new AfterSaveEvent<>(dailyUsage, new Document(), "Daily_Usage"));
+
+        Mockito.verify(cycleUsageSummaryRepository)
+                .refreshSummaries(List.of(new LineUsageDay(USER_ID, MDN, 1718755200000L)));
+    }
+
+    @Test
+    void onMongoMappingEvent_SavedCycleRefreshesItsSummary() {
+        Cycle cycle = new Cycle(CYCLE_ID, MDN, 1000L, 2000L, USER_ID);
+
+        cycleUsageSummaryService.onMongoMappingEvent(new AfterSaveEvent<>(cycle, new Document(), "Cycle"));
+
+        Mockito.verify(cycleUsageSummaryRepository).refreshSummary(USER_ID, MDN, CYCLE_ID);
+    }
+
+    @Test
+    void onMongoMappingEvent_DeleteScopedToLineDropsItsSummaries() {
+        Document query = new Document("userId", USER_ID).append("mdn", MDN);
+
+        cycleUsageSummaryService.onMongoMappingEvent(new BeforeDeleteEvent<>(query, Cycle.class, "Cycle"));
+        cycleUsageSummaryService.onMongoMappingEvent(new AfterDeleteEvent<>(query, Cycle.class, "Cycle"));
+
+        Mockito.verify(cycleUsageSummaryRepository).deleteUnarchivedSummaries(USER_ID, MDN);
+        Mockito.verify(mongoTemplate, Mockito.never())
+                .aggregate(Mockito.any(Aggregation.class), Mockito.anyString(), Mockito.eq(LineInfo.class));
+    }
+
+    @Test
+    void onMongoMappingEvent_DeleteByIdDropsTheSummariesOfTheLineOfTheDeletedDocument() {
+        Document query = new Document("_id", new ObjectId(CYCLE_ID));
+        Mockito.when(mongoTemplate.aggregate(Mockito.any(Aggregation.class), Mockito.eq("Daily_Usage"),
+                        Mockito.eq(LineInfo.class)))
+                .thenReturn(new AggregationResults<>(List.of(new LineInfo(USER_ID, MDN)), new Document()));
+
+        cycleUsageSummaryService.onMongoMappingEvent(new BeforeDeleteEvent<>(query, DailyUsage.class,
+                "Daily_Usage"));
+        cycleUsageSummaryService.onMongoMappingEvent(new AfterDeleteEvent<>(query, DailyUsage.class,
+                "Daily_Usage"));
+
+        Mockito.verify(cycleUsageSummaryRepository).deleteUnarchivedSummaries(USER_ID, MDN);
+        Mockito.verify(cycleUsageSummaryRepository, Mockito.never()).deleteAll();
+    }
+
+    @Test
+    void onMongoMappingEvent_DeleteMatchingNothingDropsNoSummary() {
+        Mockito.when(mongoTemplate.aggregate(Mockito.any(Aggregation.class), Mockito.eq("Cycle"),
+                        Mockito.eq(LineInfo.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        cycleUsageSummaryService.onMongoMappingEvent(new BeforeDeleteEvent<>(new Document(), Cycle.class, "Cycle"));
+        cycleUsageSummaryService.onMongoMappingEvent(new AfterDeleteEvent<>(new Document(), Cycle.class, "Cycle"));
+
+        Mockito.verifyNoInteractions(cycleUsageSummaryRepository);
+    }
+
+    @Test
+    void onMongoMappingEvent_OtherCollectionsAreIgnored() {
+        cycleUsageSummaryService.onMongoMappingEvent(new AfterDeleteEvent<>(new Document(), CycleUsageSummary.class,
+                "Cycle_Usage_Summary"));
+
+        Mockito.verifyNoInteractions(cycleUsageSummaryRepository);
+    }
+
+    private static CycleUsageSummary summary() {
+        return new CycleUsageSummary(CYCLE_ID, USER_ID, MDN, 1000L, 2000L, 400, 2, 1500L, 300, 1600L,
+                Map.of("1000", 100, "1500", 300), 1000L);
+    }
+
+}
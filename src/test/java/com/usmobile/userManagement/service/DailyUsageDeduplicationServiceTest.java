@@ -0,0 +1,137 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.index.IndexManager;
+import com.usmobile.userManagement.model.DailyUsageDeduplicationResult;
+import org.assertj.core.api.Assertions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DataMongoTest
+@Testcontainers
+public class DailyUsageDeduplicationServiceTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final long USAGE_DAY = 1718755200000L;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    private IndexManager indexManager;
+
+    private DailyUsageDeduplicationService dailyUsageDeduplicationService;
+
+    private final List<ObjectId> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        indexManager = new IndexManager(mongoTemplate);
+        dailyUsageDeduplicationService = new DailyUsageDeduplicationService(mongoTemplate, indexManager);
+        // Daily_Usage as written without the unique index: two partial sums of a day and another day
+        saveDailyUsage(USAGE_DAY, 100);
+        saveDailyUsage(USAGE_DAY, 28);
+        saveDailyUsage(USAGE_DAY + 86400000L, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.dropCollection(DailyUsage.class);
+    }
+
+    @Test
+    void deduplicate_DryRunOnlyCountsTheDuplicates() {
+        createNonUniqueIndex();
+
+        DailyUsageDeduplicationResult result = dailyUsageDeduplicationService.deduplicate(DailyUsageMergeRule.SUM,
+                true);
+
+        Assertions.assertThat(result.duplicateDays()).isEqualTo(1);
+        Assertions.assertThat(result.removed()).isEqualTo(1);
+        Assertions.assertThat(result.unique()).isFalse();
+        Assertions.assertThat(mongoTemplate.getCollection("Daily_Usage").countDocuments()).isEqualTo(3);
+        Assertions.assertThat(indexManager.dailyUsageIndex()).get().extracting(IndexInfo::isUnique).isEqualTo(false);
+    }
+
+    @Test
+    void deduplicate_SumAddsTheUsageToTheOldestAndConvertsTheIndex() {
+        createNonUniqueIndex();
+
+        DailyUsageDeduplicationResult result = dailyUsageDeduplicationService.deduplicate(DailyUsageMergeRule.SUM,
+                false);
+
+        Assertions.assertThat(result.removed()).isEqualTo(1);
+        Assertions.assertThat(result.unique()).isTrue();
+        Assertions.assertThat(usage()).containsExactly(new Document("_id", ids.get(0)).append("usedInMb", 128),
+                new Document("_id", ids.get(2)).append("usedInMb", 50));
+        Assertions.assertThat(indexManager.missingIndexes()).doesNotContain("Daily_Usage.userId_mdn_usageDate");
+    }
+
+    @Test
+    void deduplicate_LatestKeepsTheNewest() {
+        createNonUniqueIndex();
+
+        dailyUsageDeduplicationService.deduplicate(DailyUsageMergeRule.LATEST, false);
+
+        Assertions.assertThat(usage()).containsExactly(new Document("_id", ids.get(1)).append("usedInMb", 28),
+                new Document("_id", ids.get(2)).append("usedInMb", 50));
+        Assertions.assertThat(indexManager.dailyUsageIndex()).get().extracting(IndexInfo::isUnique).isEqualTo(true);
+    }
+
+    @Test
+    void deduplicate_BuildsAMissingIndex() {
+        DailyUsageDeduplicationResult result = dailyUsageDeduplicationService.deduplicate(DailyUsageMergeRule.SUM,
+                false);
+
+        Assertions.assertThat(result.unique()).isTrue();
+        Assertions.assertThat(indexManager.dailyUsageIndex()).get().extracting(IndexInfo::isUnique).isEqualTo(true);
+        // Already unique, a second run has nothing to do
+        Assertions.assertThat(dailyUsageDeduplicationService.deduplicate(DailyUsageMergeRule.SUM, false).removed())
+                .isZero();
+    }
+
+    private void createNonUniqueIndex() {
+        mongoTemplate.indexOps(DailyUsage.class).ensureIndex(new Index().named("userId_mdn_usageDate")
+                .on("userId", Sort.Direction.ASC).on("mdn", Sort.Direction.ASC).on("usageDate", Sort.Direction.DESC));
+    }
+
+    private void saveDailyUsage(long usageDate, int usedInMb) {
+        ObjectId id = new ObjectId();
+        ids.add(id);
+        mongoTemplate.getCollection("Daily_Usage").insertOne(new Document("_id", id).append("userId", USER_ID)
+                .append("mdn", MDN).append("usageDate", usageDate).append("usedInMb", usedInMb));
+    }
+
+    private List<Document> usage() {
+        return mongoTemplate.getCollection("Daily_Usage").find()
+                .projection(new Document("usedInMb", 1))
+                .sort(new Document("_id", 1))
+                .into(new ArrayList<>());
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.entity.DailyUsage;
+import com.usmobile.userManagement.entity.DailyUsageMeasurement;
+import com.usmobile.userManagement.index.IndexManager;
+import com.usmobile.userManagement.model.DailyUsageMigrationResult;
+import com.usmobile.userManagement.repository.DailyUsageRepositoryCustomImpl;
+import com.usmobile.userManagement.repository.DailyUsageStorageMode;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import org.assertj.core.api.Assertions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@DataMongoTest
+@Testcontainers
+public class DailyUsageMigrationServiceTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final long DAY = 86400000L;
+    private static final long USAGE_DAY = 1718755200000L;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0.11");
+
+    @DynamicPropertySource
+    static void mongoDbProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    private DailyUsageMigrationService dailyUsageMigrationService;
+
+    @BeforeEach
+    void setUp() {
+        new IndexManager(mongoTemplate, DailyUsageStorageMode.TIME_SERIES).ensureCollections();
+        dailyUsageMigrationService = new DailyUsageMigrationService(mongoTemplate, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.remove(new Query(), DailyUsage.class);
+        mongoTemplate.remove(new Query(), DailyUsageMeasurement.class);
+        mongoTemplate.dropCollection(DailyUsageMigrationService.CHECKPOINT_COLLECTION);
+    }
+
+    @Test
+    void migrate_CopiesTheDailyUsageInBatches() {
+        saveDailyUsage(5);
+
+        DailyUsageMigrationResult result = dailyUsageMigrationService.migrate();
+
+        Assertions.assertThat(result.copied()).isEqualTo(5);
+        Assertions.assertThat(result.batches()).isEqualTo(3);
+        Assertions.assertThat(timeSeriesUsage()).containsExactlyElementsOf(collectionUsage());
+        Assertions.assertThat(mongoTemplate.count(new Query(), DailyUsageMeasurement.class)).isEqualTo(5);
+    }
+
+    @Test
+    void migrate_ResumesFromTheCheckpoint() {
+        saveDailyUsage(3);
+        dailyUsageMigrationService.migrate();
+        saveDailyUsage(2);
+
+        DailyUsageMigrationResult result = dailyUsageMigrationService.migrate();
+
+        Assertions.assertThat(result.copied()).isEqualTo(2);
+        Assertions.assertThat(mongoTemplate.count(new Query(), DailyUsageMeasurement.class)).isEqualTo(5);
+    }
+
+    @Test
+    void migrate_RemovesTheMeasurementsOfAnInterruptedBatch() {
+        List<DailyUsage> dailyUsage = saveDailyUsage(3);
+        // Copy of the first document written before the run was interrupted, without a checkpoint
+        mongoTemplate.getCollection("Daily_Usage_TS").insertOne(new Document("_id",
+                        new ObjectId(dailyUsage.get(0).getId()))
+                .append("line", new Document("userId", USER_ID).append("mdn", MDN))
+                .append("usageDate", new Date(dailyUsage.get(0).getUsageDate()))
+                .append("usedInMb", dailyUsage.get(0).getUsedInMb())
+                .append(DailyUsageMigrationService.MIGRATED_FIELD, true));
+
+        dailyUsageMigrationService.migrate();
+
+        Assertions.assertThat(timeSeriesUsage()).containsExactlyElementsOf(collectionUsage());
+    }
+
+    @Test
+    void migrate_KeepsMeasurementsWrittenByTheApplication() {
+        // Client generated id older than the last Daily_Usage document
+        ObjectId measurementId = new ObjectId();
+        saveDailyUsage(2);
+        mongoTemplate.getCollection("Daily_Usage_TS").insertOne(new Document("_id", measurementId)
+                .append("line", new Document("userId", USER_ID).append("mdn", MDN))
+                .append("usageDate", new Date(USAGE_DAY + DAY))
+                .append("usedInMb", 5));
+
+        DailyUsageMigrationResult result = dailyUsageMigrationService.migrate();
+
+        Assertions.assertThat(result.copied()).isEqualTo(2);
+        Assertions.assertThat(mongoTemplate.getCollection("Daily_Usage_TS")
+                .countDocuments(new Document("_id", measurementId))).isEqualTo(1);
+        Assertions.assertThat(mongoTemplate.count(new Query(), DailyUsageMeasurement.class)).isEqualTo(3);
+    }
+
+    @Test
+    void migrate_SkipsDocumentsWithoutUsage() {
+        saveDailyUsage(1);
+        mongoTemplate.getCollection("Daily_Usage").insertOne(new Document("userId", USER_ID).append("mdn", MDN)
+                .append("usageDate", USAGE_DAY + DAY).append("usedInMb", "corrupt"));
+
+        DailyUsageMigrationResult result = dailyUsageMigrationService.migrate();
+
+        Assertions.assertThat(result.copied()).isEqualTo(1);
+        Assertions.assertThat(result.skipped()).isEqualTo(1);
+    }
+
+    @Test
+    void migrate_RequiresTheTimeSeriesCollection() {
+        mongoTemplate.dropCollection(DailyUsageMeasurement.class);
+        saveDailyUsage(1);
+
+        Assertions.assertThatThrownBy(() -> dailyUsageMigrationService.migrate())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<DailyUsage> saveDailyUsage(int days) {
+        long first = mongoTemplate.count(new Query(), DailyUsage.class);
+        List<DailyUsage> dailyUsage = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            dailyUsage.add(mongoTemplate.insert(new DailyUsage(null, MDN, USER_ID, USAGE_DAY - (first + i) * DAY,
+                    (int) (first + i + 1) * 10)));
+        }
+        return dailyUsage;
+    }
+
+    private List<UsageAmount> collectionUsage() {
+        return new DailyUsageRepositoryCustomImpl(mongoTemplate, DailyUsageStorageMode.COLLECTION)
+                .findUsageAmounts(USER_ID, MDN, 0L, Long.MAX_VALUE);
+    }
+
+    private List<UsageAmount> timeSeriesUsage() {
+        return new DailyUsageRepositoryCustomImpl(mongoTemplate, DailyUsageStorageMode.TIME_SERIES)
+                .findUsageAmounts(USER_ID, MDN, 0L, Long.MAX_VALUE);
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.cache.ActiveCycleCache;
+import com.usmobile.userManagement.exception.NoCyclesFoundException;
+import com.usmobile.userManagement.model.CycleHistoryPage;
+import com.usmobile.userManagement.model.CycleInfo;
+import com.usmobile.userManagement.model.DailyUsageReport;
+import com.usmobile.userManagement.model.LineInfo;
+import com.usmobile.userManagement.model.LineUsageReport;
+import com.usmobile.userManagement.repository.CycleRepository;
+import com.usmobile.userManagement.repository.DailyUsageStorageMode;
+import com.usmobile.userManagement.repository.ReactiveCycleRepository;
+import com.usmobile.userManagement.repository.ReactiveDailyUsageRepository;
+import com.usmobile.userManagement.repository.projection.CycleWindow;
+import com.usmobile.userManagement.repository.projection.LineCycleWindow;
+import com.usmobile.userManagement.repository.projection.LineUsageAmount;
+import com.usmobile.userManagement.repository.projection.UsageAmount;
+import com.usmobile.userManagement.util.UsageDays;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+public class ReactiveCycleServiceTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+
+    @Mock
+    private ReactiveCycleRepository cycleRepository;
+
+    @Mock
+    private ReactiveDailyUsageRepository dailyUsageRepository;
+
+    @Mock
+    private CycleRepository blockingCycleRepository;
+
+    private ActiveCycleCache activeCycleCache;
+
+    private ReactiveCycleService cycleService;
+
+    @BeforeEach
+    void setUp() {
+        activeCycleCache = new ActiveCycleCache(blockingCycleRepository, true, 100);
+        cycleService = new ReactiveCycleService(cycleRepository, dailyUsageRepository, activeCycleCache,
+                DailyUsageStorageMode.COLLECTION, false);
+    }
+
+    @Test
+    void constructor_RefusesOtherStorageModesAndTheArchiveTier() {
+        Assertions.assertThatThrownBy(() -> new ReactiveCycleService(cycleRepository, dailyUsageRepository,
+                        activeCycleCache, DailyUsageStorageMode.BUCKETED, false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("usage.storage.mode=BUCKETED");
+        Assertions.assertThatThrownBy(() -> new ReactiveCycleService(cycleRepository, dailyUsageRepository,
+                        activeCycleCache, DailyUsageStorageMode.COLLECTION, true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("archive.enabled=true");
+    }
+
+    @Test
+    void getDailyUsageReport_WhenNoCyclesFound() {
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(cycleService.getDailyUsageReport(USER_ID, MDN))
+                .verifyErrorSatisfies(ex -> Assertions.assertThat(ex)
+                        .isInstanceOf(NoCyclesFoundException.class)
+                        .hasMessage("No current cycle found for this user: " + USER_ID + " and mdn: " + MDN + "."));
+        Mockito.verifyNoInteractions(dailyUsageRepository);
+    }
+
+    @Test
+    void getDailyUsageReport_ChainsUsageQueryAndCachesCycle() {
+        CycleWindow cycle = activeCycle();
+        Mockito.when(cycleRepository.findCurrentCycleWindowByUserIdAndMdn(Mockito.eq(USER_ID), Mockito.eq(MDN),
+                Mockito.any())).thenReturn(Mono.just(cycle));
+        Mockito.when(dailyUsageRepository.findUsageAmounts(USER_ID, MDN, UsageDays.startOfDay(cycle.startDate()),
+                cycle.endDate()))
+                .thenReturn(Flux.just(new UsageAmount(daysAgo(1), 300), new UsageAmount(daysAgo(2), 200)));
+
+        StepVerifier.create(cycleService.getDailyUsageReport(USER_ID, MDN))
+                .expectNext(new DailyUsageReport(new Date(daysAgo(1)), 300))
+                .expectNext(new DailyUsageReport(new Date(daysAgo(2)), 200))
+                .verifyComplete();
+        Assertions.assertThat(activeCycleCache.getIfPresent(USER_ID, MDN)).contains(cycle);
+    }
+
+    @Test
+    void getDailyUsageReport_CachedCycleIsNotQueried() {
+        CycleWindow cycle = activeCycle();
+        activeCycleCache.put(USER_ID, MDN, cycle);
+        Mockito.when(dailyUsageRepository.findUsageAmounts(USER_ID, MDN, UsageDays.startOfDay(cycle.startDate()),
+                cycle.endDate()))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(cycleService.getDailyUsageReport(USER_ID, MDN)).verifyComplete();
+        Mockito.verifyNoInteractions(cycleRepository);
+    }
+
+    @Test
+    void getDailyUsageReports_LinesWithoutActiveCycleHaveNoCycle() {
+        CycleWindow cycle = activeCycle();
+        LineInfo line = new LineInfo(USER_ID, MDN);
+        LineInfo inactiveLine = new LineInfo(USER_ID, "0000000000");
+        Mockito.when(cycleRepository.findCurrentCycleWindows(Mockito.eq(List.of(line, inactiveLine)), Mockito.any()))
+                .thenReturn(Flux.just(new LineCycleWindow(cycle.id(), USER_ID, MDN, cycle.startDate(),
+                        cycle.endDate())));
+        Mockito.when(dailyUsageRepository.findUsageAmountsWithinCycles(Mockito.any()))
+                .thenReturn(Flux.just(new LineUsageAmount(USER_ID, MDN, daysAgo(1), 300)));
+
+        StepVerifier.create(cycleService.getDailyUsageReports(List.of(line, inactiveLine, line)))
+                .expectNext(new LineUsageReport(USER_ID, MDN, new CycleInfo(cycle.id(), new Date(cycle.startDate()),
+                        new Date(cycle.endDate())), List.of(new DailyUsageReport(new Date(daysAgo(1)), 300))))
+                .expectNext(new LineUsageReport(USER_ID, "0000000000", null, List.of()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getCycleHistory_WhenNoCyclesFound() {
+        Mockito.when(cycleRepository.findCycleWindowsByUserIdAndMdn(USER_ID, MDN)).thenReturn(Flux.empty());
+
+        StepVerifier.create(cycleService.getCycleHistory(USER_ID, MDN))
+                .verifyErrorSatisfies(ex -> Assertions.assertThat(ex)
+                        .isInstanceOf(NoCyclesFoundException.class)
+                        .hasMessage("No cycles found for this user: " + USER_ID + " and mdn: " + MDN + "."));
+    }
+
+    @Test
+    void getCycleHistoryPage_ReturnsCursorWhenMoreCyclesExist() {
+        CycleWindow newest = new CycleWindow("2", daysAgo(30), daysAgo(1));
+        CycleWindow oldest = new CycleWindow("1", daysAgo(60), daysAgo(31));
+        Mockito.when(cycleRepository.findCycleWindowPage(USER_ID, MDN, Long.MAX_VALUE, Limit.of(2)))
+                .thenReturn(Flux.just(newest, oldest));
+
+        StepVerifier.create(cycleService.getCycleHistoryPage(USER_ID, MDN, 1, null))
+                .expectNext(new CycleHistoryPage(List.of(new CycleInfo("2", new Date(newest.startDate()),
+                        new Date(newest.endDate()))), newest.startDate()))
+                .verifyComplete();
+    }
+
+    private static CycleWindow activeCycle() {
+        return new CycleWindow("1", daysAgo(10), daysAgo(-20));
+    }
+
+    private static long daysAgo(int days) {
+        return Instant.now().truncatedTo(ChronoUnit.DAYS).minus(days, ChronoUnit.DAYS).toEpochMilli();
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.usmobile.userManagement.service;
+
+import static org.mockito.Mockito.*;
+
+import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.exception.InvalidCredentialsException;
+import com.usmobile.userManagement.exception.UserAlreadyExistsException;
+import com.usmobile.userManagement.exception.UserNotFoundException;
+import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.PatchUserRequest;
+import com.usmobile.userManagement.model.UpdateUserRequest;
+import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.model.VerifyPasswordRequest;
+import com.usmobile.userManagement.repository.ReactiveUserRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+@ExtendWith(SpringExtension.class)
+public class ReactiveUserServiceTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String EMAIL = "john.doe@example.com";
+    private static final String PASSWORD = "password123";
+    private static final String HASH = "{bcrypt}hash";
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private ReactiveUserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new ReactiveUserService(userRepository, passwordEncoder);
+    }
+
+    @Test
+    void testCreateUserSuccessfully() {
+        when(passwordEncoder.encode(PASSWORD)).thenReturn(HASH);
+        when(userRepository.insert(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(USER_ID);
+            return Mono.just(user);
+        });
+
+        StepVerifier.create(userService.createUser(new CreateUserRequest("John", "Doe", EMAIL, PASSWORD)))
+                .expectNext(new UserResponse(USER_ID, "John", "Doe", EMAIL))
+                .verifyComplete();
+        verify(userRepository).insert(argThat((User user) -> HASH.equals(user.getPassword())));
+    }
+
+    @Test
+    void testCreateUserUserAlreadyExistsException() {
+        when(passwordEncoder.encode(PASSWORD)).thenReturn(HASH);
+        when(userRepository.insert(any(User.class))).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+
+        StepVerifier.create(userService.createUser(new CreateUserRequest("John", "Doe", EMAIL, PASSWORD)))
+                .verifyErrorSatisfies(ex -> Assertions.assertThat(ex)
+                        .isInstanceOf(UserAlreadyExistsException.class)
+                        .hasMessage("User with email " + EMAIL + " already exists"));
+    }
+
+    @Test
+    void testUpdateUserUserNotFoundException() {
+        when(userRepository.updateFields(eq(USER_ID), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.updateUser(new UpdateUserRequest(USER_ID, "Jane", "Porter",
+                        "jane.porter@example.com")))
+                .verifyError(UserNotFoundException.class);
+    }
+
+    @Test
+    void testPatchUserSetsOnlyGivenFields() {
+        when(userRepository.updateFields(USER_ID, Map.of("lastName", "Smith")))
+                .thenReturn(Mono.just(new User(USER_ID, "John", "Smith", EMAIL, HASH)));
+
+        StepVerifier.create(userService.patchUser(USER_ID, new PatchUserRequest(null, "Smith", null)))
+                .expectNext(new UserResponse(USER_ID, "John", "Smith", EMAIL))
+                .verifyComplete();
+    }
+
+    @Test
+    void testVerifyPasswordUpgradesOutdatedHash() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Mono.just(new User(USER_ID, "John", "Doe", EMAIL, "old")));
+        when(passwordEncoder.matches(PASSWORD, "old")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("old")).thenReturn(true);
+        when(passwordEncoder.encode(PASSWORD)).thenReturn(HASH);
+        when(userRepository.updatePasswordIfUnchanged(USER_ID, "old", HASH)).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(userService.verifyPassword(new VerifyPasswordRequest(EMAIL, PASSWORD)))
+                .expectNext(new UserResponse(USER_ID, "John", "Doe", EMAIL))
+                .verifyComplete();
+        verify(userRepository).updatePasswordIfUnchanged(USER_ID, "old", HASH);
+    }
+
+    @Test
+    void testVerifyPasswordFailedUpgradeStillVerifies() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Mono.just(new User(USER_ID, "John", "Doe", EMAIL, "old")));
+        when(passwordEncoder.matches(PASSWORD, "old")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("old")).thenReturn(true);
+        when(passwordEncoder.encode(PASSWORD)).thenReturn(HASH);
+        when(userRepository.updatePasswordIfUnchanged(USER_ID, "old", HASH))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("timeout")));
+
+        StepVerifier.create(userService.verifyPassword(new VerifyPasswordRequest(EMAIL, PASSWORD)))
+                .expectNext(new UserResponse(USER_ID, "John", "Doe", EMAIL))
+                .verifyComplete();
+    }
+
+    @Test
+    void testVerifyPasswordWrongPassword() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Mono.just(new User(USER_ID, "John", "Doe", EMAIL, HASH)));
+        when(passwordEncoder.matches("wrong-password", HASH)).thenReturn(false);
+
+        StepVerifier.create(userService.verifyPassword(new VerifyPasswordRequest(EMAIL, "wrong-password")))
+                .verifyError(InvalidCredentialsException.class);
+        verify(userRepository, never()).updatePasswordIfUnchanged(any(), any(), any());
+    }
+
+    @Test
+    void testVerifyPasswordUnknownEmail() {
+        when(userRepository.findByEmail(anyString())).thenReturn(Mono.empty());
+        when(passwordEncoder.encode(anyString())).thenReturn("{bcrypt}dummy");
+
+        StepVerifier.create(userService.verifyPassword(new VerifyPasswordRequest("unknown@example.com", PASSWORD)))
+                .verifyError(InvalidCredentialsException.class);
+
+        // The unknown email costs a hash comparison like a wrong password
+        verify(passwordEncoder).matches(PASSWORD, "{bcrypt}dummy");
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.usmobile.userManagement.service;
+
+import com.mongodb.MongoTimeoutException;
+import com.usmobile.userManagement.cache.LineDataChangedEvent;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.repository.DailyUsageRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@ExtendWith(SpringExtension.class)
+public class UsageAggregatorTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final Date USAGE_DAY = new Date(1718755200000L);
+
+    @Mock
+    private DailyUsageRepository dailyUsageRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CycleUsageSummaryService cycleUsageSummaryService;
+
+    private UsageAggregator usageAggregator;
+
+    @BeforeEach
+    void setUp() {
+        // Long interval and high threshold so that only the tests flush
+        usageAggregator = newAggregator(Duration.ofHours(1), 1_000_000);
+        usageAggregator.start();
+        Mockito.when(dailyUsageRepository.incrementUsage(Mockito.any())).thenReturn(Map.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        usageAggregator.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_CoalescesDeltasOfTheSameLineAndDay() throws InterruptedException {
+        ExecutorService feeders = Executors.newFixedThreadPool(4);
+        IntStream.range(0, 400).forEach(i -> feeders.execute(() ->
+                usageAggregator.offer(new UsageRecord(USER_ID, i % 2 == 0 ? MDN : "0987654321", USAGE_DAY, 1))));
+        feeders.shutdown();
+        Assertions.assertThat(feeders.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        usageAggregator.flush();
+
+        ArgumentCaptor<List<UsageRecord>> chunk = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(dailyUsageRepository).incrementUsage(chunk.capture());
+        Assertions.assertThat(chunk.getValue()).containsExactlyInAnyOrder(
+                new UsageRecord(USER_ID, MDN, USAGE_DAY, 200),
+                new UsageRecord(USER_ID, "0987654321", USAGE_DAY, 200));
+        Mockito.verify(eventPublisher).publishEvent(LineDataChangedEvent.usage(USER_ID, MDN));
+        Mockito.verify(cycleUsageSummaryService).usageIncremented(chunk.getValue());
+        Assertions.assertThat(usageAggregator.pendingWrites()).isZero();
+    }
+
+    @Test
+    void flush_CoalescesDeltasOfTheSameUtcDay() {
+        // Deltas posted every 15 minutes of the day are written as one delta of the start of the day
+        usageAggregator.offer(new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY.getTime() + 900000L), 10));
+        usageAggregator.offer(new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY.getTime() + 85500000L), 20));
+
+        usageAggregator.flush();
+
+        Mockito.verify(dailyUsageRepository).incrementUsage(List.of(new UsageRecord(USER_ID, MDN, USAGE_DAY, 30)));
+    }
+
+    @Test
+    void flush_NothingPending_DoesNotWrite() {
+        usageAggregator.flush();
+
+        Mockito.verifyNoInteractions(dailyUsageRepository);
+    }
+
+    @Test
+    void offer_FlushesWhenThresholdIsReached() {
+        usageAggregator.stop();
+        usageAggregator = newAggregator(Duration.ofHours(1), 2);
+        usageAggregator.start();
+
+        usageAggregator.offer(new UsageRecord(USER_ID, MDN, USAGE_DAY, 10));
+        usageAggregator.offer(new UsageRecord(USER_ID, MDN, USAGE_DAY, 20));
+
+        Mockito.verify(dailyUsageRepository, Mockito.timeout(5000))
+                .incrementUsage(List.of(new UsageRecord(USER_ID, MDN, USAGE_DAY, 30)));
+    }
+
+    @Test
+    void flush_UnwrittenChunkIsKeptForTheNextFlush() {
+        Mockito.when(dailyUsageRepository.incrementUsage(Mockito.any()))
+                .thenThrow(new DataAccessResourceFailureException("Timed out while waiting for a server",
+                        new MongoTimeoutException("Timed out while waiting for a server")))
+                .thenReturn(Map.of());
+        usageAggregator.offer(new UsageRecord(USER_ID, MDN, USAGE_DAY, 10));
+
+        usageAggregator.flush();
+        Assertions.assertThat(usageAggregator.pendingWrites()).isEqualTo(1);
+        usageAggregator.offer(new UsageRecord(USER_ID, MDN, USAGE_DAY, 5));
+        usageAggregator.flush();
+
+        Mockito.verify(dailyUsageRepository).incrementUsage(List.of(new UsageRecord(USER_ID, MDN, USAGE_DAY, 15)));
+        Assertions.assertThat(usageAggregator.pendingWrites()).isZero();
+    }
+
+    @Test
+    void flush_ChunkFailedOnceSentIsDroppedAndItsLinesRefreshed() {
+        // The connection dropped after the bulk write was sent, part of it may have been applied
+        Mockito.when(dailyUsageRepository.incrementUsage(Mockito.any()))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+        usageAggregator.offer(new UsageRecord(USER_ID, MDN, USAGE_DAY, 10));
+
+        usageAggregator.flush();
+        usageAggregator.flush();
+
+        Mockito.verify(dailyUsageRepository, Mockito.times(1)).incrementUsage(Mockito.any());
+        Assertions.assertThat(usageAggregator.pendingWrites()).isZero();
+        Mockito.verify(eventPublisher).publishEvent(LineDataChangedEvent.usage(USER_ID, MDN));
+        Mockito.verify(cycleUsageSummaryService).usageWritten(List.of(
+                new LineUsageDay(USER_ID, MDN, USAGE_DAY.getTime())));
+        Mockito.verify(cycleUsageSummaryService, Mockito.never()).usageIncremented(Mockito.any());
+    }
+
+    @Test
+    void flush_RejectedDeltaIsDropped() {
+        Mockito.when(dailyUsageRepository.incrementUsage(Mockito.any())).thenReturn(Map.of(0, "write failed"));
+        usageAggregator.offer(new UsageRecord(USER_ID, MDN, USAGE_DAY, 10));
+
+        usageAggregator.flush();
+
+        Assertions.assertThat(usageAggregator.pendingWrites()).isZero();
+        Mockito.verifyNoInteractions(eventPublisher);
+        Mockito.verifyNoInteractions(cycleUsageSummaryService);
+    }
+
+    @Test
+    void stop_FlushesPendingDeltasAndRejectsNewOnes() {
+        usageAggregator.offer(new UsageRecord(USER_ID, MDN, USAGE_DAY, 10));
+
+        usageAggregator.stop();
+
+        Mockito.verify(dailyUsageRepository).incrementUsage(List.of(new UsageRecord(USER_ID, MDN, USAGE_DAY, 10)));
+        Assertions.assertThat(usageAggregator.isRunning()).isFalse();
+        Assertions.assertThat(usageAggregator.offer(new UsageRecord(USER_ID, MDN, USAGE_DAY, 10))).isFalse();
+    }
+
+    private UsageAggregator newAggregator(Duration flushInterval, int flushThreshold) {
+        return new UsageAggregator(dailyUsageRepository,
+                new UsageWriteNotifier(cycleUsageSummaryService, eventPublisher), true, 4,
+                flushInterval, flushThreshold, 1000);
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.usmobile.userManagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usmobile.userManagement.cache.LineDataChangedEvent;
+import com.usmobile.userManagement.model.DailyUsageRow;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageImportResult;
+import com.usmobile.userManagement.repository.DailyUsageRepository;
+import jakarta.validation.Validation;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@ExtendWith(SpringExtension.class)
+public class UsageImportServiceTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    // 2024-06-19T03:35:10.950Z and the start of its UTC day
+    private static final long USAGE_DATE = 1718768110950L;
+    private static final long USAGE_DAY = 1718755200000L;
+
+    @Mock
+    private DailyUsageRepository dailyUsageRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CycleUsageSummaryService cycleUsageSummaryService;
+
+    private UsageImportService usageImportService;
+
+    @BeforeEach
+    void setUp() {
+        usageImportService = newService(2, 2);
+        Mockito.when(dailyUsageRepository.setUsage(Mockito.any())).thenReturn(Map.of());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importUsage_Ndjson_WritesBatchesWithUsageDateAtStartOfUtcDay() {
+        UsageImportResult result = usageImportService.importUsage(ndjson(3), UsageImportFormat.NDJSON);
+
+        Assertions.assertThat(result.records()).isEqualTo(3);
+        Assertions.assertThat(result.written()).isEqualTo(3);
+        Assertions.assertThat(result.failed()).isZero();
+        Assertions.assertThat(result.recordsPerSecond()).isPositive();
+        ArgumentCaptor<List<DailyUsageRow>> batches = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(dailyUsageRepository, Mockito.times(2)).setUsage(batches.capture());
+        Assertions.assertThat(batches.getAllValues()).extracting(List::size).containsExactlyInAnyOrder(2, 1);
+        Assertions.assertThat(batches.getAllValues()).flatExtracting(b -> b)
+                .extracting(DailyUsageRow::usageDate).containsOnly(USAGE_DAY);
+        Mockito.verify(eventPublisher, Mockito.times(2)).publishEvent(LineDataChangedEvent.usage(USER_ID, MDN));
+    }
+
+    @Test
+    void importUsage_Csv_ReadsColumnsByHeader() {
+        String csv = """
+                usedInMb,userId,usageDate,mdn
+                128,%s,%d,%s
+                """.formatted(USER_ID, USAGE_DATE, MDN);
+
+        UsageImportResult result = usageImportService.importUsage(stream(csv), UsageImportFormat.CSV);
+
+        Assertions.assertThat(result.written()).isEqualTo(1);
+        Mockito.verify(dailyUsageRepository).setUsage(List.of(new DailyUsageRow(USER_ID, MDN, USAGE_DAY, 128)));
+    }
+
+    @Test
+    void importUsage_Csv_WhenHeaderIsMissingColumns() {
+        Assertions.assertThatThrownBy(() -> usageImportService.importUsage(stream("userId,mdn\n1,2\n"),
+                        UsageImportFormat.CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("header must name the columns");
+        Mockito.verifyNoInteractions(dailyUsageRepository);
+    }
+
+    @Test
+    void importUsage_InvalidRowsFailWithTheirLineNumber() {
+        String dump = """
+                {"userId": "%s", "mdn": "%s", "usageDate": %d, "usedInMb": 10}
+                not json
+
+                {"userId": "%s", "mdn": "%s", "usedInMb": 10}
+                """.formatted(USER_ID, MDN, USAGE_DATE, USER_ID, MDN);
+
+        UsageImportResult result = usageImportService.importUsage(stream(dump), UsageImportFormat.NDJSON);
+
+        Assertions.assertThat(result.records()).isEqualTo(3);
+        Assertions.assertThat(result.written()).isEqualTo(1);
+        Assertions.assertThat(result.failed()).isEqualTo(2);
+        Assertions.assertThat(result.errors()).hasSize(2);
+        Assertions.assertThat(result.errors().get(0)).startsWith("line 2: Unreadable row");
+        Assertions.assertThat(result.errors().get(1)).isEqualTo("line 4: usageDate is required");
+    }
+
+    @Test
+    void importUsage_WriteErrorsAreMappedToTheirLines() {
+        Mockito.when(dailyUsageRepository.setUsage(Mockito.any())).thenReturn(Map.of(1, "write failed"));
+        usageImportService = newService(10, 1);
+
+        UsageImportResult result = usageImportService.importUsage(ndjson(3), UsageImportFormat.NDJSON);
+
+        Assertions.assertThat(result.written()).isEqualTo(2);
+        Assertions.assertThat(result.errors()).containsExactly("line 2: write failed");
+        Mockito.verify(cycleUsageSummaryService).usageWritten(List.of(
+                new LineUsageDay(USER_ID, MDN, USAGE_DAY), new LineUsageDay(USER_ID, MDN, USAGE_DAY)));
+    }
+
+    @Test
+    void importUsage_UnexpectedWriteErrorFailsTheBatch() {
+        Mockito.when(dailyUsageRepository.setUsage(Mockito.any()))
+                .thenThrow(new IllegalStateException("codec failure"))
+                .thenReturn(Map.of());
+        usageImportService = newService(2, 1);
+
+        UsageImportResult result = usageImportService.importUsage(ndjson(3), UsageImportFormat.NDJSON);
+
+        Assertions.assertThat(result.written()).isEqualTo(1);
+        Assertions.assertThat(result.failed()).isEqualTo(2);
+        Assertions.assertThat(result.errors()).containsExactly("line 1: Usage could not be written",
+                "line 2: Usage could not be written");
+        Mockito.verify(cycleUsageSummaryService).usageWritten(List.of(new LineUsageDay(USER_ID, MDN, USAGE_DAY)));
+        Mockito.verify(eventPublisher).publishEvent(LineDataChangedEvent.usage(USER_ID, MDN));
+    }
+
+    @Test
+    void importUsage_InFlightBatchesAreBounded() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Mockito.when(dailyUsageRepository.setUsage(Mockito.any())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return Map.of();
+        });
+
+        UsageImportResult result = usageImportService.importUsage(ndjson(20), UsageImportFormat.NDJSON);
+
+        Assertions.assertThat(result.written()).isEqualTo(20);
+        Assertions.assertThat(maxInFlight.get()).isBetween(1, 2);
+    }
+
+    private UsageImportService newService(int batchSize, int maxInFlightBatches) {
+        return new UsageImportService(dailyUsageRepository,
+                new UsageWriteNotifier(cycleUsageSummaryService, eventPublisher),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), batchSize,
+                maxInFlightBatches, false);
+    }
+
+    private static InputStream ndjson(int rows) {
+        return stream(IntStream.range(0, rows)
+                .mapToObj(i -> "{\"userId\": \"%s\", \"mdn\": \"%s\", \"usageDate\": %d, \"usedInMb\": %d}"
+                        .formatted(USER_ID, MDN, USAGE_DATE, i))
+                .collect(Collectors.joining("\n")));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.cache.LineDataChangedEvent;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageBatchResponse;
+import com.usmobile.userManagement.model.UsageRecord;
+import com.usmobile.userManagement.model.UsageRecordStatus;
+import com.usmobile.userManagement.repository.DailyUsageRepository;
+import jakarta.validation.Validation;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+@ExtendWith(SpringExtension.class)
+public class UsageServiceTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+
+    @Mock
+    private DailyUsageRepository dailyUsageRepository;
+
+    @Mock
+    private UsageAggregator usageAggregator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CycleUsageSummaryService cycleUsageSummaryService;
+
+    private UsageService usageService;
+
+    @BeforeEach
+    void setUp() {
+        usageService = new UsageService(dailyUsageRepository, usageAggregator,
+                new UsageWriteNotifier(cycleUsageSummaryService, eventPublisher),
+                Validation.buildDefaultValidatorFactory().getValidator(), 2, 5);
+        Mockito.when(dailyUsageRepository.incrementUsage(Mockito.any())).thenReturn(Map.of());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_WritesInChunksWithUsageDateAtStartOfUtcDay() {
+        List<UsageRecord> records = IntStream.range(0, 3)
+                .mapToObj(i -> new UsageRecord(USER_ID, MDN, Date.from(Instant.parse("2024-06-19T15:35:10Z")), 10))
+                .toList();
+
+        UsageBatchResponse response = usageService.ingest(records);
+
+        Assertions.assertThat(response.applied()).isEqualTo(3);
+        Assertions.assertThat(response.failed()).isZero();
+        ArgumentCaptor<List<UsageRecord>> chunks = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(dailyUsageRepository, Mockito.times(2)).incrementUsage(chunks.capture());
+        Assertions.assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        Assertions.assertThat(chunks.getValue().get(0).usageDate())
+                .isEqualTo(Date.from(Instant.parse("2024-06-19T00:00:00Z")));
+    }
+
+    @Test
+    void ingest_InvalidRecordsFailWithoutFailingTheBatch() {
+        List<UsageRecord> records = List.of(
+                new UsageRecord(USER_ID, MDN, new Date(), 10),
+                new UsageRecord("", MDN, new Date(), 10),
+                new UsageRecord(USER_ID, MDN, null, -1));
+
+        UsageBatchResponse response = usageService.ingest(records);
+
+        Assertions.assertThat(response.applied()).isEqualTo(1);
+        Assertions.assertThat(response.failed()).isEqualTo(2);
+        Assertions.assertThat(response.outcomes()).extracting(o -> o.status())
+                .containsExactly(UsageRecordStatus.APPLIED, UsageRecordStatus.FAILED, UsageRecordStatus.FAILED);
+        Assertions.assertThat(response.outcomes().get(1).error()).isEqualTo("userId is required");
+        Assertions.assertThat(response.outcomes().get(2).error())
+                .isEqualTo("deltaMb must not be negative, usageDate is required");
+    }
+
+    @Test
+    void ingest_WriteErrorsAreMappedToTheirRecords() {
+        List<UsageRecord> records = List.of(
+                new UsageRecord(USER_ID, MDN, new Date(), 10),
+                new UsageRecord(USER_ID, "0987654321", new Date(), 10),
+                new UsageRecord(USER_ID, MDN, new Date(), 20));
+        Mockito.when(dailyUsageRepository.incrementUsage(Mockito.any()))
+                .thenReturn(Map.of(1, "write failed"))
+                .thenReturn(Map.of());
+
+        UsageBatchResponse response = usageService.ingest(records);
+
+        Assertions.assertThat(response.outcomes()).extracting(o -> o.status())
+                .containsExactly(UsageRecordStatus.APPLIED, UsageRecordStatus.FAILED, UsageRecordStatus.APPLIED);
+        Assertions.assertThat(response.outcomes().get(1).error()).isEqualTo("write failed");
+        Assertions.assertThat(response.outcomes().get(1).index()).isEqualTo(1);
+    }
+
+    @Test
+    void ingest_FailedChunkDoesNotStopTheNextChunk() {
+        List<UsageRecord> records = IntStream.range(0, 3)
+                .mapToObj(i -> new UsageRecord(USER_ID, MDN, new Date(), 10))
+                .toList();
+        Mockito.when(dailyUsageRepository.incrementUsage(Mockito.any()))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"))
+                .thenReturn(Map.of());
+
+        UsageBatchResponse response = usageService.ingest(records);
+
+        Assertions.assertThat(response.outcomes()).extracting(o -> o.status())
+                .containsExactly(UsageRecordStatus.FAILED, UsageRecordStatus.FAILED, UsageRecordStatus.APPLIED);
+    }
+
+    @Test
+    void ingest_PublishesOneEventPerChangedLine() {
+        List<UsageRecord> records = List.of(
+                new UsageRecord(USER_ID, MDN, new Date(), 10),
+                new UsageRecord(USER_ID, MDN, new Date(), 20),
+                new UsageRecord(USER_ID, "0987654321", new Date(), 10));
+
+        usageService.ingest(records);
+
+        Mockito.verify(eventPublisher).publishEvent(LineDataChangedEvent.usage(USER_ID, MDN));
+        Mockito.verify(eventPublisher).publishEvent(LineDataChangedEvent.usage(USER_ID, "0987654321"));
+        Mockito.verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void ingest_AddsTheAppliedDeltasToTheSummaries() {
+        List<UsageRecord> records = List.of(
+                new UsageRecord(USER_ID, MDN, Date.from(Instant.parse("2024-06-19T15:35:10Z")), 10),
+                new UsageRecord(USER_ID, MDN, Date.from(Instant.parse("2024-06-19T18:00:00Z")), 20),
+                new UsageRecord(USER_ID, MDN, Date.from(Instant.parse("2024-06-20T01:00:00Z")), 10));
+        Mockito.when(dailyUsageRepository.incrementUsage(Mockito.any()))
+                .thenReturn(Map.of())
+                .thenReturn(Map.of(0, "write failed"));
+
+        usageService.ingest(records);
+
+        Date day = Date.from(Instant.parse("2024-06-19T00:00:00Z"));
+        Mockito.verify(cycleUsageSummaryService).usageIncremented(List.of(new UsageRecord(USER_ID, MDN, day, 10),
+                new UsageRecord(USER_ID, MDN, day, 20)));
+        Mockito.verify(cycleUsageSummaryService, Mockito.never()).usageWritten(Mockito.any());
+    }
+
+    @Test
+    void ingest_RecomputesTheSummariesOfAChunkThatMayBePartlyWritten() {
+        Mockito.when(dailyUsageRepository.incrementUsage(Mockito.any()))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+
+        usageService.ingest(List.of(new UsageRecord(USER_ID, MDN, Date.from(Instant.parse("2024-06-19T15:35:10Z")),
+                10)));
+
+        long day = Instant.parse("2024-06-19T00:00:00Z").toEpochMilli();
+        Mockito.verify(cycleUsageSummaryService).usageWritten(Set.of(new LineUsageDay(USER_ID, MDN, day)));
+        Mockito.verify(cycleUsageSummaryService, Mockito.never()).usageIncremented(Mockito.any());
+    }
+
+    @Test
+    void ingest_WhenBatchTooLarge() {
+        List<UsageRecord> records = IntStream.range(0, 6)
+                .mapToObj(i -> new UsageRecord(USER_ID, MDN, new Date(), 10))
+                .toList();
+
+        Assertions.assertThatThrownBy(() -> usageService.ingest(records))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("A usage batch accepts at most 5 records, got 6");
+        Mockito.verifyNoInteractions(dailyUsageRepository);
+    }
+
+    @Test
+    void ingest_WhenAggregatorEnabled_QueuesValidRecords() {
+        Mockito.when(usageAggregator.isEnabled()).thenReturn(true);
+        Mockito.when(usageAggregator.offer(Mockito.any())).thenReturn(true, false);
+        List<UsageRecord> records = List.of(
+                new UsageRecord(USER_ID, MDN, Date.from(Instant.parse("2024-06-19T15:35:10Z")), 10),
+                new UsageRecord("", MDN, new Date(), 10),
+                new UsageRecord(USER_ID, MDN, new Date(), 20));
+
+        UsageBatchResponse response = usageService.ingest(records);
+
+        Assertions.assertThat(response.outcomes()).extracting(o -> o.status())
+                .containsExactly(UsageRecordStatus.QUEUED, UsageRecordStatus.FAILED, UsageRecordStatus.APPLIED);
+        Assertions.assertThat(response.queued()).isEqualTo(1);
+        Mockito.verify(usageAggregator).offer(new UsageRecord(USER_ID, MDN,
+                Date.from(Instant.parse("2024-06-19T00:00:00Z")), 10));
+        // The aggregator was stopping when the last record was offered, so it was written directly
+        Mockito.verify(dailyUsageRepository).incrementUsage(Mockito.argThat(chunk -> chunk.size() == 1));
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.usmobile.userManagement.service;
+
+import com.usmobile.userManagement.cache.LineDataChangedEvent;
+import com.usmobile.userManagement.model.LineUsageDay;
+import com.usmobile.userManagement.model.UsageRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Date;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+public class UsageWriteNotifierTest {
+
+    private static final String USER_ID = "6671d6cdd518422008b3d9fb";
+    private static final String MDN = "1234567890";
+    private static final long USAGE_DAY = 1718755200000L;
+
+    @Mock
+    private CycleUsageSummaryService cycleUsageSummaryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private UsageWriteNotifier usageWriteNotifier;
+
+    @BeforeEach
+    void setUp() {
+        usageWriteNotifier = new UsageWriteNotifier(cycleUsageSummaryService, eventPublisher);
+    }
+
+    @Test
+    void usageWritten_UpdatesTheSummariesAndPublishesOneEventPerLine() {
+        List<UsageRecord> addedDeltas = List.of(
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY), 10),
+                new UsageRecord(USER_ID, MDN, new Date(USAGE_DAY + 86400000L), 20));
+        List<LineUsageDay> rewrittenDays = List.of(
+                new LineUsageDay(USER_ID, MDN, USAGE_DAY),
+                new LineUsageDay(USER_ID, "0987654321", USAGE_DAY));
+
+        usageWriteNotifier.usageWritten(addedDeltas, rewrittenDays);
+
+        Mockito.verify(cycleUsageSummaryService).usageIncremented(addedDeltas);
+        Mockito.verify(cycleUsageSummaryService).usageWritten(rewrittenDays);
+        Mockito.verify(eventPublisher).publishEvent(LineDataChangedEvent.usage(USER_ID, MDN));
+        Mockito.verify(eventPublisher).publishEvent(LineDataChangedEvent.usage(USER_ID, "0987654321"));
+        Mockito.verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void usageWritten_NothingWritten() {
+        usageWriteNotifier.usageWritten(List.of(), List.of());
+
+        Mockito.verifyNoInteractions(cycleUsageSummaryService, eventPublisher);
+    }
+
+}
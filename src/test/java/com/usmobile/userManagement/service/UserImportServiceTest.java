@@ -0,0 +1,178 @@
+package com.usmobile.userManagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.model.UserImportResult;
+import com.usmobile.userManagement.model.WriteFailure;
+import com.usmobile.userManagement.repository.UserRepository;
+import jakarta.validation.Validation;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@ExtendWith(SpringExtension.class)
+public class UserImportServiceTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        userImportService = newService(2);
+        Mockito.when(userRepository.findExistingEmails(Mockito.any())).thenReturn(Set.of());
+        Mockito.when(userRepository.insertAll(Mockito.any())).thenReturn(Map.of());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importUsers_Ndjson_InsertsBatchesWithHashedPasswords() {
+        UserImportResult result = userImportService.importUsers(ndjson(3), UserImportFormat.NDJSON);
+
+        Assertions.assertThat(result.records()).isEqualTo(3);
+        Assertions.assertThat(result.imported()).isEqualTo(3);
+        Assertions.assertThat(result.duplicates()).isZero();
+        Assertions.assertThat(result.failed()).isZero();
+        Assertions.assertThat(result.usersPerSecond()).isPositive();
+        ArgumentCaptor<List<User>> batches = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(userRepository, Mockito.times(2)).insertAll(batches.capture());
+        Assertions.assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        Assertions.assertThat(batches.getAllValues()).flatExtracting(b -> b).extracting(User::getEmail)
+                .containsExactly("user0@example.com", "user1@example.com", "user2@example.com");
+        Assertions.assertThat(batches.getAllValues()).flatExtracting(b -> b)
+                .allMatch(user -> passwordEncoder.matches(PASSWORD, user.getPassword()));
+    }
+
+    @Test
+    void importUsers_JsonArray() {
+        String users = IntStream.range(0, 3).mapToObj(UserImportServiceTest::user)
+                .collect(Collectors.joining(",\n", "[\n", "\n]"));
+
+        UserImportResult result = userImportService.importUsers(stream(users), UserImportFormat.JSON);
+
+        Assertions.assertThat(result.records()).isEqualTo(3);
+        Assertions.assertThat(result.imported()).isEqualTo(3);
+    }
+
+    @Test
+    void importUsers_JsonNotAnArray() {
+        Assertions.assertThatThrownBy(() -> userImportService.importUsers(stream(user(0)), UserImportFormat.JSON))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("JSON user import must be an array of users");
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void importUsers_JsonMalformedStopsTheImport() {
+        UserImportResult result = userImportService.importUsers(stream("[" + user(0) + ", {\"firstName\": "),
+                UserImportFormat.JSON);
+
+        Assertions.assertThat(result.imported()).isEqualTo(1);
+        Assertions.assertThat(result.failed()).isEqualTo(1);
+        Assertions.assertThat(result.errors()).hasSize(2);
+        Assertions.assertThat(result.errors().get(0)).startsWith("record 2: Unreadable user");
+    }
+
+    @Test
+    void importUsers_DuplicateEmailsAreSkippedBeforeHashing() {
+        Mockito.when(userRepository.findExistingEmails(Mockito.any())).thenReturn(Set.of("user1@example.com"));
+        String users = user(0) + "\n" + user(1) + "\n" + user(0) + "\n";
+
+        UserImportResult result = userImportService.importUsers(stream(users), UserImportFormat.NDJSON);
+
+        Assertions.assertThat(result.imported()).isEqualTo(1);
+        Assertions.assertThat(result.duplicates()).isEqualTo(2);
+        Assertions.assertThat(result.errors()).containsExactly(
+                "line 2: User with email user1@example.com already exists",
+                "line 3: User with email user0@example.com appears earlier in the import");
+        Mockito.verify(userRepository).findExistingEmails(List.of("user0@example.com", "user1@example.com"));
+    }
+
+    @Test
+    void importUsers_InvalidUsersFailWithTheirLineNumber() {
+        String users = """
+                %s
+                not json
+
+                {"firstName": "John", "lastName": "Doe", "email": "john.doe", "password": "%s"}
+                """.formatted(user(0), PASSWORD);
+
+        UserImportResult result = userImportService.importUsers(stream(users), UserImportFormat.NDJSON);
+
+        Assertions.assertThat(result.records()).isEqualTo(3);
+        Assertions.assertThat(result.imported()).isEqualTo(1);
+        Assertions.assertThat(result.failed()).isEqualTo(2);
+        Assertions.assertThat(result.errors().get(0)).startsWith("line 2: Unreadable user");
+        Assertions.assertThat(result.errors().get(1)).isEqualTo("line 4: email is invalid");
+    }
+
+    @Test
+    void importUsers_WriteErrorsAreMappedToTheirLines() {
+        Mockito.when(userRepository.insertAll(Mockito.any()))
+                .thenReturn(Map.of(1, new WriteFailure(2, "document is too large")));
+        userImportService = newService(10);
+
+        UserImportResult result = userImportService.importUsers(ndjson(3), UserImportFormat.NDJSON);
+
+        Assertions.assertThat(result.imported()).isEqualTo(2);
+        Assertions.assertThat(result.failed()).isEqualTo(1);
+        Assertions.assertThat(result.errors()).containsExactly("line 2: document is too large");
+    }
+
+    @Test
+    void importUsers_EmailTakenSinceItWasCheckedIsADuplicate() {
+        Mockito.when(userRepository.insertAll(Mockito.any()))
+                .thenReturn(Map.of(1, new WriteFailure(11000, "E11000 duplicate key error")));
+        userImportService = newService(10);
+
+        UserImportResult result = userImportService.importUsers(ndjson(3), UserImportFormat.NDJSON);
+
+        Assertions.assertThat(result.imported()).isEqualTo(2);
+        Assertions.assertThat(result.duplicates()).isEqualTo(1);
+        Assertions.assertThat(result.failed()).isZero();
+        Assertions.assertThat(result.errors())
+                .containsExactly("line 2: User with email user1@example.com already exists");
+    }
+
+    private UserImportService newService(int batchSize) {
+        return new UserImportService(userRepository, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), batchSize, 2);
+    }
+
+    private static String user(int i) {
+        return """
+                {"firstName": "John", "lastName": "Doe", "email": "user%d@example.com", "password": "%s"}"""
+                .formatted(i, PASSWORD);
+    }
+
+    private static InputStream ndjson(int users) {
+        return stream(IntStream.range(0, users).mapToObj(UserImportServiceTest::user)
+                .collect(Collectors.joining("\n", "", "\n")));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -4,10 +4,14 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.usmobile.userManagement.entity.User;
+import com.usmobile.userManagement.exception.InvalidCredentialsException;
 import com.usmobile.userManagement.exception.UserAlreadyExistsException;
 import com.usmobile.userManagement.exception.UserNotFoundException;
 import com.usmobile.userManagement.model.CreateUserRequest;
+import com.usmobile.userManagement.model.PatchUserRequest;
 import com.usmobile.userManagement.model.UpdateUserRequest;
+import com.usmobile.userManagement.model.UserResponse;
+import com.usmobile.userManagement.model.VerifyPasswordRequest;
 import com.usmobile.userManagement.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,10 +19,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.Map;
 import java.util.Optional;
 
 @ExtendWith(SpringExtension.class)
@@ -49,22 +55,21 @@ public class UserServiceTest {
         CreateUserRequest request = getDummyCreateUserRequest();
 
         // Set up mocks
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+        when(userRepository.insert(any(User.class))).thenAnswer(invocation -> {
             User user = invocation.getArgument(0);
             user.setId(USER_ID);
             return user;
         });
         when(passwordEncoder.encode(PASSWORD)).thenReturn(actualPasswordEncoder.encode(PASSWORD));
 
-        // ArgumentCaptor to capture the User object saved in the repository
+        // ArgumentCaptor to capture the User object inserted in the repository
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
 
         // Perform the test action
-        userService.createUser(request);
+        UserResponse response = userService.createUser(request);
 
-        // Verify that userRepository.save() was called and capture the passed user
-        verify(userRepository).save(userCaptor.capture());
+        // Verify that userRepository.insert() was called and capture the passed user
+        verify(userRepository).insert(userCaptor.capture());
 
         // Retrieve the captured User object
         User savedUser = userCaptor.getValue();
@@ -73,6 +78,7 @@ public class UserServiceTest {
         verify(passwordEncoder).encode(PASSWORD);
 
         assertNotNull(savedUser);
+        assertEquals(USER_ID, response.id());
         assertEquals("John", savedUser.getFirstName());
         assertEquals("Doe", savedUser.getLastName());
         assertEquals("john.doe@example.com", savedUser.getEmail());
@@ -84,12 +90,13 @@ public class UserServiceTest {
         // Create a CreateUserRequest object with test data
         CreateUserRequest request = getDummyCreateUserRequest();
 
-        // Set up mocks
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        // Set up mocks, the unique email index rejects the insert
+        when(passwordEncoder.encode(PASSWORD)).thenReturn(actualPasswordEncoder.encode(PASSWORD));
+        when(userRepository.insert(any(User.class))).thenThrow(new DuplicateKeyException("email_unique"));
 
         // Perform the test action
-        assertThrows(UserAlreadyExistsException.class, () -> userService.createUser(request))
-                .getMessage().equals(String.format("User with email %s already exists", request.email()));
+        assertEquals(String.format("User with email %s already exists", request.email()),
+                assertThrows(UserAlreadyExistsException.class, () -> userService.createUser(request)).getMessage());
     }
 
     @Test
@@ -98,31 +105,24 @@ public class UserServiceTest {
         UpdateUserRequest request = getDummyUpdateUserRequest();
 
         // Set up mocks
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
-            User user = invocation.getArgument(0);
-            return user;
-        });
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(new User(USER_ID, "John", "Doe",
-                "john.doe@example.com", actualPasswordEncoder.encode(PASSWORD))));
-
-        // ArgumentCaptor to capture the User object saved in the repository
-        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
+        when(userRepository.updateFields(eq(USER_ID), anyMap())).thenReturn(Optional.of(new User(USER_ID, "Jane",
+                "Porter", "jane.porter@example.com", actualPasswordEncoder.encode(PASSWORD))));
 
         // Perform the test action
-        userService.updateUser(request);
-
-        // Verify that userRepository.save() was called and capture the passed user
-        verify(userRepository).save(userCaptor.capture());
-
-        // Retrieve the captured User object
-        User savedUser = userCaptor.getValue();
-
-        assertNotNull(savedUser);
-        assertEquals("Jane", savedUser.getFirstName());
-        assertEquals("Porter", savedUser.getLastName());
-        assertEquals("jane.porter@example.com", savedUser.getEmail());
-        assertTrue(actualPasswordEncoder.matches(PASSWORD, savedUser.getPassword()));
+        UserResponse response = userService.updateUser(request);
+
+        // Verify that only the user fields were set, in a single write
+        verify(userRepository).updateFields(USER_ID, Map.of(
+                "firstName", "Jane",
+                "lastName", "Porter",
+                "email", "jane.porter@example.com"));
+        verify(userRepository, never()).findById(anyString());
+        verify(userRepository, never()).save(any(User.class));
+
+        assertEquals(USER_ID, response.id());
+        assertEquals("Jane", response.firstName());
+        assertEquals("Porter", response.lastName());
+        assertEquals("jane.porter@example.com", response.email());
     }
 
     @Test
@@ -130,14 +130,12 @@ public class UserServiceTest {
         // Create a CreateUserRequest object with test data
         UpdateUserRequest request = getDummyUpdateUserRequest();
 
-        // Set up mocks
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(new User(USER_ID, "John", "Doe",
-                "john@example.com", actualPasswordEncoder.encode(PASSWORD))));
+        // Set up mocks, the unique email index rejects the update
+        when(userRepository.updateFields(eq(USER_ID), anyMap())).thenThrow(new DuplicateKeyException("email_unique"));
 
         // Perform the test action
-        assertThrows(UserAlreadyExistsException.class, () -> userService.updateUser(request))
-                .getMessage().equals(String.format("User with email %s already exists", request.email()));
+        assertEquals(String.format("User with email %s already exists", request.email()),
+                assertThrows(UserAlreadyExistsException.class, () -> userService.updateUser(request)).getMessage());
     }
 
     @Test
@@ -146,14 +144,101 @@ public class UserServiceTest {
         UpdateUserRequest request = getDummyUpdateUserRequest();
 
         // Set up mocks
-        when(userRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(userRepository.updateFields(eq(USER_ID), anyMap())).thenReturn(Optional.empty());
 
         // Perform the test action
-        assertThrows(UserNotFoundException.class, () -> userService.updateUser(request))
-                .getMessage().equals(String.format("User with id %s not found", request.id()));
+        assertEquals(String.format("User with id %s not found", request.id()),
+                assertThrows(UserNotFoundException.class, () -> userService.updateUser(request)).getMessage());
+    }
+
+    @Test
+    void testPatchUserSetsOnlyGivenFields() {
+        when(userRepository.updateFields(eq(USER_ID), anyMap())).thenReturn(Optional.of(new User(USER_ID, "Jane",
+                "Doe", "john.doe@example.com", actualPasswordEncoder.encode(PASSWORD))));
+
+        UserResponse response = userService.patchUser(USER_ID, new PatchUserRequest("Jane", null, null));
+
+        verify(userRepository).updateFields(USER_ID, Map.of("firstName", "Jane"));
+        verify(userRepository, never()).findById(anyString());
+        assertEquals("Jane", response.firstName());
+        assertEquals("Doe", response.lastName());
+        assertEquals("john.doe@example.com", response.email());
+    }
+
+    @Test
+    void testPatchUserUserNotFoundException() {
+        when(userRepository.updateFields(eq(USER_ID), anyMap())).thenReturn(Optional.empty());
+
+        assertEquals(String.format("User with id %s not found", USER_ID), assertThrows(UserNotFoundException.class,
+                () -> userService.patchUser(USER_ID, new PatchUserRequest(null, "Porter", null))).getMessage());
     }
 
+    @Test
+    void testPatchUserEmailAlreadyExistsException() {
+        when(userRepository.updateFields(eq(USER_ID), anyMap())).thenThrow(new DuplicateKeyException("email_unique"));
+
+        assertEquals("User with email jane.porter@example.com already exists",
+                assertThrows(UserAlreadyExistsException.class, () -> userService.patchUser(USER_ID,
+                        new PatchUserRequest(null, null, "jane.porter@example.com"))).getMessage());
+    }
 
+    @Test
+    void testVerifyPasswordSuccessfully() {
+        String hash = actualPasswordEncoder.encode(PASSWORD);
+        when(userRepository.findByEmail("john.doe@example.com")).thenReturn(Optional.of(new User(USER_ID, "John",
+                "Doe", "john.doe@example.com", hash)));
+        when(passwordEncoder.matches(PASSWORD, hash)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(hash)).thenReturn(false);
+
+        UserResponse user = userService.verifyPassword(new VerifyPasswordRequest("john.doe@example.com", PASSWORD));
+
+        assertEquals(USER_ID, user.id());
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).updatePasswordIfUnchanged(any(), any(), any());
+    }
+
+    @Test
+    void testVerifyPasswordUpgradesOutdatedHash() {
+        String hash = actualPasswordEncoder.encode(PASSWORD);
+        when(userRepository.findByEmail("john.doe@example.com")).thenReturn(Optional.of(new User(USER_ID, "John",
+                "Doe", "john.doe@example.com", hash)));
+        when(passwordEncoder.matches(PASSWORD, hash)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(hash)).thenReturn(true);
+        when(passwordEncoder.encode(PASSWORD)).thenReturn("{bcrypt}" + hash);
+        when(userRepository.updatePasswordIfUnchanged(USER_ID, hash, "{bcrypt}" + hash)).thenReturn(1L);
+
+        userService.verifyPassword(new VerifyPasswordRequest("john.doe@example.com", PASSWORD));
+
+        verify(userRepository).updatePasswordIfUnchanged(USER_ID, hash, "{bcrypt}" + hash);
+    }
+
+    @Test
+    void testVerifyPasswordWrongPassword() {
+        String hash = actualPasswordEncoder.encode(PASSWORD);
+        when(userRepository.findByEmail("john.doe@example.com")).thenReturn(Optional.of(new User(USER_ID, "John",
+                "Doe", "john.doe@example.com", hash)));
+        when(passwordEncoder.matches("wrong-password", hash)).thenReturn(false);
+
+        assertThrows(InvalidCredentialsException.class, () -> userService.verifyPassword(
+                new VerifyPasswordRequest("john.doe@example.com", "wrong-password")));
+        verify(userRepository, never()).updatePasswordIfUnchanged(any(), any(), any());
+    }
+
+    @Test
+    void testVerifyPasswordUnknownEmail() {
+        String dummyHash = actualPasswordEncoder.encode("dummy-password");
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(passwordEncoder.encode(anyString())).thenReturn(dummyHash);
+
+        assertThrows(InvalidCredentialsException.class, () -> userService.verifyPassword(
+                new VerifyPasswordRequest("unknown@example.com", PASSWORD)));
+        assertThrows(InvalidCredentialsException.class, () -> userService.verifyPassword(
+                new VerifyPasswordRequest("unknown@example.com", PASSWORD)));
+
+        // The unknown email costs a hash comparison like a wrong password, the dummy hash is computed once
+        verify(passwordEncoder, times(2)).matches(PASSWORD, dummyHash);
+        verify(passwordEncoder, times(1)).encode(anyString());
+    }
 
     private CreateUserRequest getDummyCreateUserRequest() {
         return new CreateUserRequest("John", "Doe",
@@ -0,0 +1,75 @@
+package com.usmobile.userManagement.util;
+
+import com.usmobile.userManagement.security.OffloadingPasswordEncoder;
+import com.usmobile.userManagement.security.PasswordHashAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+public class PasswordUtilTest {
+
+    private static final String PASSWORD = "password123";
+
+    private PasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        ((OffloadingPasswordEncoder) passwordEncoder).close();
+    }
+
+    @Test
+    void passwordEncoder_NewHashesAreTaggedWithAlgorithm() {
+        passwordEncoder = passwordEncoder(PasswordHashAlgorithm.BCRYPT, 10);
+
+        String hash = passwordEncoder.encode(PASSWORD);
+
+        Assertions.assertThat(hash).startsWith("{bcrypt}$2a$10$");
+        Assertions.assertThat(passwordEncoder.matches(PASSWORD, hash)).isTrue();
+        Assertions.assertThat(passwordEncoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void passwordEncoder_UntaggedBCryptHashesAreVerifiedAndUpgraded() {
+        passwordEncoder = passwordEncoder(PasswordHashAlgorithm.BCRYPT, 10);
+        String legacyHash = new BCryptPasswordEncoder(10).encode(PASSWORD);
+
+        Assertions.assertThat(passwordEncoder.matches(PASSWORD, legacyHash)).isTrue();
+        Assertions.assertThat(passwordEncoder.upgradeEncoding(legacyHash)).isTrue();
+    }
+
+    @Test
+    void passwordEncoder_LowerCostHashesAreUpgraded() {
+        String lowCostHash = passwordEncoder(PasswordHashAlgorithm.BCRYPT, 10).encode(PASSWORD);
+        tearDown();
+        passwordEncoder = passwordEncoder(PasswordHashAlgorithm.BCRYPT, 11);
+
+        Assertions.assertThat(passwordEncoder.matches(PASSWORD, lowCostHash)).isTrue();
+        Assertions.assertThat(passwordEncoder.upgradeEncoding(lowCostHash)).isTrue();
+    }
+
+    @Test
+    void passwordEncoder_BCryptHashesAreUpgradedToArgon2() {
+        String bcryptHash = passwordEncoder(PasswordHashAlgorithm.BCRYPT, 10).encode(PASSWORD);
+        tearDown();
+        passwordEncoder = passwordEncoder(PasswordHashAlgorithm.ARGON2, 10);
+
+        String argon2Hash = passwordEncoder.encode(PASSWORD);
+
+        Assertions.assertThat(argon2Hash).startsWith("{argon2}$argon2id$");
+        Assertions.assertThat(passwordEncoder.matches(PASSWORD, bcryptHash)).isTrue();
+        Assertions.assertThat(passwordEncoder.upgradeEncoding(bcryptHash)).isTrue();
+        Assertions.assertThat(passwordEncoder.matches(PASSWORD, argon2Hash)).isTrue();
+        Assertions.assertThat(passwordEncoder.upgradeEncoding(argon2Hash)).isFalse();
+    }
+
+    private static PasswordEncoder passwordEncoder(PasswordHashAlgorithm algorithm, int bcryptStrength) {
+        return new PasswordUtil().passwordEncoder(1, 4, Duration.ofSeconds(30), algorithm, Duration.ofMillis(100),
+                bcryptStrength, 1024, 2, new SimpleMeterRegistry());
+    }
+
+}